@@ -19,6 +19,9 @@
 
 package java.io;
 
+import def.js.Int8Array;
+import javaemul.internal.ArrayHelper;
+
 /**
  * A specialized {@link OutputStream} for class for writing content to an
  * (internal) byte array. As bytes are written to this stream, the byte array
@@ -29,7 +32,9 @@ package java.io;
  */
 public class ByteArrayOutputStream extends OutputStream {
 	/**
-	 * The byte array containing the bytes written.
+	 * The byte array containing the bytes written. It is backed by an
+	 * <code>Int8Array</code>, so that it grows and copies with native bulk
+	 * operations, and it never escapes this stream as is.
 	 */
 	protected byte[] buf;
 
@@ -44,7 +49,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 * array will expand.
 	 */
 	public ByteArrayOutputStream() {
-		buf = new byte[32];
+		buf = allocate(32);
 	}
 
 	/**
@@ -60,7 +65,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 */
 	public ByteArrayOutputStream(int size) {
 		if (size >= 0) {
-			buf = new byte[size];
+			buf = allocate(size);
 		} else {
 			throw new IllegalArgumentException("size < 0");
 		}
@@ -72,6 +77,10 @@ public class ByteArrayOutputStream extends OutputStream {
 	 * @throws IOException
 	 *             if an error occurs while attempting to close this stream.
 	 */
+	private static byte[] allocate(int size) {
+		return (byte[]) (Object) new Int8Array(size);
+	}
+
 	@Override
 	public void close() throws IOException {
 		/**
@@ -88,7 +97,7 @@ public class ByteArrayOutputStream extends OutputStream {
 			return;
 		}
 
-		byte[] newbuf = new byte[(count + i) * 2];
+		byte[] newbuf = allocate((count + i) * 2);
 		System.arraycopy(buf, 0, newbuf, 0, count);
 		buf = newbuf;
 	}
@@ -119,9 +128,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 * @return this stream's current contents as a byte array.
 	 */
 	public byte[] toByteArray() {
-		byte[] newArray = new byte[count];
-		System.arraycopy(buf, 0, newArray, 0, count);
-		return newArray;
+		return (byte[]) (Object) ArrayHelper.unsafeClone(buf, 0, count);
 	}
 
 	/**
@@ -134,7 +141,7 @@ public class ByteArrayOutputStream extends OutputStream {
 
 	@Override
 	public String toString() {
-		return new String(buf, 0, count);
+		return new String(toByteArray(), 0, count);
 	}
 
 	/**
@@ -172,7 +179,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 *             if the provided encoding is not supported.
 	 */
 	public String toString(String charsetName) throws UnsupportedEncodingException {
-		return new String(buf, 0, count, charsetName);
+		return new String(toByteArray(), 0, count, charsetName);
 	}
 
 	/**
@@ -228,6 +235,6 @@ public class ByteArrayOutputStream extends OutputStream {
 	 *             if an error occurs while writing to {@code out}.
 	 */
 	public void writeTo(OutputStream out) throws IOException {
-		out.write(buf, 0, count);
+		out.write(toByteArray(), 0, count);
 	}
 }
@@ -1,25 +1,55 @@
 package java.io;
 
-import static jsweet.util.Globals.any;
-
 import java.nio.charset.Charset;
 
+import javaemul.internal.EmulatedCharset;
+
 /**
  * JSweet implementation.
+ * 
+ * The bytes are read from the underlying stream by chunks and decoded in bulk.
+ * Only the UTF-8 and ISO-8859-1 charsets are supported.
  */
 
 public class InputStreamReader extends Reader {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	InputStream in;
 
+	private final EmulatedCharset charset;
+
+	/**
+	 * The bytes read but not decoded yet, because they do not form a complete
+	 * character.
+	 */
+	private final byte[] bytes = new byte[BUFFER_SIZE];
+
+	private int byteCount;
+
+	/**
+	 * The decoded characters, available from <code>charPos</code>.
+	 */
+	private char[] chars;
+
+	private int charPos;
+
 	public InputStreamReader(InputStream in) {
 		super(in);
 		this.in = in;
+		this.charset = EmulatedCharset.UTF_8;
 	}
 
 	public InputStreamReader(InputStream in, String charsetName) throws UnsupportedEncodingException {
 		super(in);
 		this.in = in;
+		if (charsetName == null)
+			throw new NullPointerException("charsetName");
+		try {
+			this.charset = (EmulatedCharset) Charset.forName(charsetName);
+		} catch (IllegalArgumentException e) {
+			throw new UnsupportedEncodingException(charsetName);
+		}
 	}
 
 	public InputStreamReader(InputStream in, Charset cs) {
@@ -27,15 +57,74 @@ public class InputStreamReader extends Reader {
 		this.in = in;
 		if (cs == null)
 			throw new NullPointerException("charset");
+		this.charset = (EmulatedCharset) cs;
+	}
+
+	public String getEncoding() {
+		return charset.name();
 	}
 
 	public int read(char cbuf[], int offset, int length) throws IOException {
-		byte[] buf = any(cbuf);
-		return in.read(buf, offset, length);
+		IOUtils.checkOffsetAndCount(cbuf, offset, length);
+		if (length == 0) {
+			return 0;
+		}
+		while (chars == null || charPos == chars.length) {
+			if (!fill()) {
+				return -1;
+			}
+		}
+		int count = Math.min(length, chars.length - charPos);
+		System.arraycopy(chars, charPos, cbuf, offset, count);
+		charPos += count;
+		return count;
+	}
+
+	/**
+	 * Reads the next chunk of bytes and decodes all the complete characters.
+	 * 
+	 * @return false at the end of the stream
+	 */
+	private boolean fill() throws IOException {
+		int read = in.read(bytes, byteCount, bytes.length - byteCount);
+		if (read < 0) {
+			if (byteCount == 0) {
+				return false;
+			}
+			// truncated sequence at the end of the stream
+			byteCount = 0;
+			chars = new char[] { '\uFFFD' };
+			charPos = 0;
+			return true;
+		}
+		byteCount += read;
+		int complete = charset == EmulatedCharset.UTF_8 ? completeUtf8Length(bytes, byteCount) : byteCount;
+		chars = charset.decodeString(bytes, 0, complete);
+		charPos = 0;
+		for (int i = complete; i < byteCount; i++) {
+			bytes[i - complete] = bytes[i];
+		}
+		byteCount -= complete;
+		return true;
+	}
+
+	/**
+	 * Returns the length of the given UTF-8 bytes without the last character
+	 * if it is truncated.
+	 */
+	private static int completeUtf8Length(byte[] bytes, int count) {
+		for (int i = count - 1; i >= 0 && i >= count - 4; i--) {
+			int b = bytes[i] & 0xFF;
+			if ((b & 0xC0) != 0x80) {
+				int size = b < 0x80 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+				return i + size <= count ? count : i;
+			}
+		}
+		return count;
 	}
 
 	public boolean ready() throws IOException {
-		return in.available()>0;
+		return (chars != null && charPos < chars.length) || in.available() > 0;
 	}
 
 	public void close() throws IOException {
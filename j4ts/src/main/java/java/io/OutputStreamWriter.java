@@ -1,18 +1,21 @@
 package java.io;
 
-import static jsweet.util.Globals.any;
-
 import java.nio.charset.Charset;
 
+import javaemul.internal.EmulatedCharset;
+
 /**
  * JSweet implementation (partial).
  * 
- * TODO: actual support of charsets.
+ * The characters are encoded in bulk and written with a single call to the
+ * underlying stream. Only the UTF-8 and ISO-8859-1 charsets are supported.
  */
 public class OutputStreamWriter extends Writer {
 
     private final OutputStream out;
 
+    private final EmulatedCharset charset;
+
     public OutputStreamWriter(OutputStream out, String charsetName)
         throws UnsupportedEncodingException
     {
@@ -20,11 +23,17 @@ public class OutputStreamWriter extends Writer {
         if (charsetName == null)
             throw new NullPointerException("charsetName");
         this.out = out;
+        try {
+            this.charset = (EmulatedCharset) Charset.forName(charsetName);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(charsetName);
+        }
     }
 
     public OutputStreamWriter(OutputStream out) {
         super(out);
         this.out = out;
+        this.charset = EmulatedCharset.UTF_8;
     }
 
     public OutputStreamWriter(OutputStream out, Charset cs) {
@@ -32,6 +41,11 @@ public class OutputStreamWriter extends Writer {
         if (cs == null)
             throw new NullPointerException("charset");
         this.out = out;
+        this.charset = (EmulatedCharset) cs;
+    }
+
+    public String getEncoding() {
+        return charset.name();
     }
 
     void flushBuffer() throws IOException {
@@ -39,16 +53,16 @@ public class OutputStreamWriter extends Writer {
     }
 
     public void write(int c) throws IOException {
-        out.write(c);
+        out.write(charset.getBytes(String.valueOf((char) c)));
     }
 
     public void write(char cbuf[], int off, int len) throws IOException {
-    	byte[] buf = any(cbuf);
-        out.write(buf, off, len);
+        IOUtils.checkOffsetAndCount(cbuf, off, len);
+        out.write(charset.getBytes(new String(cbuf, off, len)));
     }
 
     public void write(String str, int off, int len) throws IOException {
-        out.write(str.getBytes(), off, len);
+        out.write(charset.getBytes(str.substring(off, off + len)));
     }
 
     public void flush() throws IOException {
@@ -16,140 +16,296 @@
 package java.lang;
 
 import static javaemul.internal.InternalPreconditions.checkStringBounds;
+import static jsweet.util.Globals.array;
+
+import def.js.Uint16Array;
+import javaemul.internal.ArrayHelper;
 
 /**
  * A base class to share implementation between {@link StringBuffer} and {@link StringBuilder}.
  * <p>
- * Most methods will give expected performance results. Exception is {@link #setCharAt(int, char)},
- * which is O(n), and thus should not be used many times on the same <code>StringBuffer</code>.
+ * As long as chars are only appended, the appended strings are collected in a list of parts that
+ * is joined lazily, when the content is read. The first positional edit (such as
+ * {@link #setCharAt(int, char)}, an insertion, a deletion or {@link #reverse0()}) moves the content
+ * to a growable buffer of UTF-16 code units (an <code>Uint16Array</code>), which is then edited in
+ * place, so that character level manipulation does not copy the whole string on each edit. The
+ * capacity of the builder is the size of this buffer.
  */
 abstract class AbstractStringBuilder {
 
-  String string;
+  /**
+   * The joined content, when there is no buffer, or the cached content of the buffer (null when
+   * the buffer was modified since it was last read).
+   */
+  private String string;
+
+  /**
+   * The parts appended after {@link #string}, when there is no buffer.
+   */
+  private String[] parts = {};
+
+  /**
+   * The code units, once a positional edit occurred (indexed as a plain array).
+   */
+  private int[] buffer;
+
+  private int count;
+
+  private int minimumCapacity;
 
   public AbstractStringBuilder(String string) {
     this.string = string;
+    this.count = string.length();
   }
 
   public int length() {
-    return string.length();
+    return count;
   }
 
   public void setLength(int newLength) {
-    int oldLength = length();
-    if (newLength < oldLength) {
-      string = string.substring(0, newLength);
-    } else if (newLength > oldLength) {
-      string += String.valueOf(new char[newLength - oldLength]);
+    if (newLength < 0) {
+      throw new StringIndexOutOfBoundsException(newLength);
     }
+    if (newLength == 0) {
+      // resetting the builder goes back to appending parts
+      string = "";
+      parts = new String[] {};
+      buffer = null;
+      count = 0;
+      return;
+    }
+    toBuffer(newLength);
+    for (int i = count; i < newLength; i++) {
+      buffer[i] = 0;
+    }
+    count = newLength;
+    string = null;
   }
 
   public int capacity() {
-    // This implementation does not track capacity.
-    return Integer.MAX_VALUE;
+    return buffer != null ? buffer.length : Math.max(count, minimumCapacity);
   }
 
-  @SuppressWarnings("unused")
-  public void ensureCapacity(int ignoredCapacity) {
-    // This implementation does not track capacity
+  public void ensureCapacity(int minimumCapacity) {
+    if (buffer != null) {
+      if (minimumCapacity > buffer.length) {
+        resize(Math.max(2 * buffer.length + 2, minimumCapacity));
+      }
+    } else if (minimumCapacity > this.minimumCapacity) {
+      // the buffer will be allocated with this capacity, if needed
+      this.minimumCapacity = minimumCapacity;
+    }
   }
 
   public void trimToSize() {
-    // This implementation does not track capacity
+    if (buffer != null && buffer.length > count) {
+      resize(count);
+    }
   }
 
   public char charAt(int index) {
-    return string.charAt(index);
+    if (buffer == null) {
+      return flatten().charAt(index);
+    }
+    if (index < 0 || index >= count) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return (char) buffer[index];
   }
 
   public void getChars(int srcStart, int srcEnd, char[] dst, int dstStart) {
     checkStringBounds(srcStart, srcEnd, length());
     checkStringBounds(dstStart, dstStart + (srcEnd - srcStart), dst.length);
-    while (srcStart < srcEnd) {
-      dst[dstStart++] = string.charAt(srcStart++);
+    if (buffer == null) {
+      String string = flatten();
+      while (srcStart < srcEnd) {
+        dst[dstStart++] = string.charAt(srcStart++);
+      }
+    } else {
+      while (srcStart < srcEnd) {
+        dst[dstStart++] = (char) buffer[srcStart++];
+      }
     }
   }
 
-  /**
-   * Warning! This method is <b>much</b> slower than the JRE implementation. If you need to do
-   * character level manipulation, you are strongly advised to use a char[] directly.
-   */
   public void setCharAt(int index, char x) {
-    replace0(index, index + 1, String.valueOf(x));
+    if (index < 0 || index >= count) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    toBuffer(count);
+    buffer[index] = x;
+    string = null;
   }
 
   public CharSequence subSequence(int start, int end) {
-    return string.substring(start, end);
+    return substring(start, end);
   }
 
   public String substring(int begin) {
-    return string.substring(begin);
+    return substring(begin, count);
   }
 
   public String substring(int begin, int end) {
-    return string.substring(begin, end);
+    if (buffer == null) {
+      return flatten().substring(begin, end);
+    }
+    checkStringBounds(begin, end, count);
+    return string != null ? string.substring(begin, end) : decode(begin, end);
   }
 
   public int indexOf(String x) {
-    return string.indexOf(x);
+    return toString().indexOf(x);
   }
 
   public int indexOf(String x, int start) {
-    return string.indexOf(x, start);
+    return toString().indexOf(x, start);
   }
 
   public int lastIndexOf(String s) {
-    return string.lastIndexOf(s);
+    return toString().lastIndexOf(s);
   }
 
   public int lastIndexOf(String s, int start) {
-    return string.lastIndexOf(s, start);
+    return toString().lastIndexOf(s, start);
   }
 
   @Override
   public String toString() {
+    if (buffer == null) {
+      return flatten();
+    }
+    if (string == null) {
+      string = decode(0, count);
+    }
     return string;
   }
 
+  void appendString0(String x) {
+    if (x == null) {
+      x = "null";
+    }
+    int length = x.length();
+    if (buffer == null) {
+      array(parts).push(x);
+    } else {
+      ensureCapacity(count + length);
+      for (int i = 0; i < length; i++) {
+        buffer[count + i] = x.charAt(i);
+      }
+      string = null;
+    }
+    count += length;
+  }
+
   void append0(CharSequence x, int start, int end) {
     if (x == null) {
       x = "null";
     }
-    string += x.subSequence(start, end);
+    appendString0(x.subSequence(start, end).toString());
   }
 
   void appendCodePoint0(int x) {
-    string += String.valueOf(Character.toChars(x));
+    appendString0(String.valueOf(Character.toChars(x)));
   }
 
   void replace0(int start, int end, String toInsert) {
-    string = string.substring(0, start) + toInsert + string.substring(end);
+    if (end > count) {
+      end = count;
+    }
+    checkStringBounds(start, end, count);
+    if (toInsert == null) {
+      toInsert = "null";
+    }
+    int length = toInsert.length();
+    int newCount = count + length - (end - start);
+    toBuffer(newCount);
+    if (start + length != end && end < count) {
+      // moves the tail
+      Uint16Array codeUnits = codeUnits();
+      codeUnits.set((Double[]) (Object) codeUnits.subarray(end, count), start + length);
+    }
+    for (int i = 0; i < length; i++) {
+      buffer[start + i] = toInsert.charAt(i);
+    }
+    count = newCount;
+    string = null;
   }
 
   void reverse0() {
-    int length = string.length();
+    if (count <= 1) {
+      return;
+    }
+    toBuffer(count);
+    for (int i = 0, j = count - 1; i < j; i++, j--) {
+      swap(buffer, i, j);
+    }
+    // the surrogate pairs were reversed too
+    for (int i = 0; i < count - 1; i++) {
+      if ((buffer[i] & 0xfc00) == 0xdc00 && (buffer[i + 1] & 0xfc00) == 0xd800) {
+        swap(buffer, i, i + 1);
+        i++;
+      }
+    }
+    string = null;
+  }
 
-    if (length <= 1) {
+  /**
+   * Joins the pending parts and returns the content, when there is no buffer.
+   */
+  private String flatten() {
+    if (parts.length > 0) {
+      string += array(parts).join("");
+      parts = new String[] {};
+    }
+    return string;
+  }
+
+  /**
+   * Moves the content to the buffer if not done yet, and makes sure that it can hold the given
+   * number of code units.
+   */
+  private void toBuffer(int minimumCapacity) {
+    if (buffer != null) {
+      ensureCapacity(minimumCapacity);
       return;
     }
+    String string = flatten();
+    buffer = newBuffer(Math.max(Math.max(2 * count + 2, this.minimumCapacity), minimumCapacity));
+    for (int i = 0; i < count; i++) {
+      buffer[i] = string.charAt(i);
+    }
+    parts = null;
+  }
 
-    char[] buffer = new char[length];
+  private void resize(int capacity) {
+    int[] newBuffer = newBuffer(capacity);
+    ((Uint16Array) (Object) newBuffer).set((Double[]) (Object) codeUnits().subarray(0, count), 0);
+    buffer = newBuffer;
+  }
 
-    buffer[0] = string.charAt(length - 1);
+  private Uint16Array codeUnits() {
+    return (Uint16Array) (Object) buffer;
+  }
 
-    for (int i = 1; i < length; i++) {
-      buffer[i] = string.charAt(length - 1 - i);
-      if (Character.isSurrogatePair(buffer[i], buffer[i - 1])) {
-        swap(buffer, i - 1, i);
-      }
+  private String decode(int start, int end) {
+    // Work around function.prototype.apply call stack size limits
+    Uint16Array codeUnits = codeUnits();
+    String s = "";
+    for (int batchStart = start; batchStart < end;) {
+      int batchEnd = Math.min(batchStart + ArrayHelper.ARRAY_PROCESS_BATCH_SIZE, end);
+      s += def.js.String.fromCharCode((double[]) (Object) codeUnits.subarray(batchStart, batchEnd));
+      batchStart = batchEnd;
     }
+    return s;
+  }
 
-    string = new String(buffer);
+  private static int[] newBuffer(int capacity) {
+    return (int[]) (Object) new Uint16Array(capacity);
   }
 
-  private static void swap(char[] buffer, int f, int s) {
-    char tmp = buffer[f];
+  private static void swap(int[] buffer, int f, int s) {
+    int tmp = buffer[f];
     buffer[f] = buffer[s];
     buffer[s] = tmp;
   }
-}
\ No newline at end of file
+}
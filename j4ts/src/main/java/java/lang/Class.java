@@ -16,10 +16,10 @@
 package java.lang;
 
 import static jsweet.util.Globals.array;
+import static jsweet.util.Globals.typeof;
 
 import java.lang.reflect.Type;
 
-import def.js.Array;
 import def.js.Function;
 import javaemul.internal.annotations.DoNotInline;
 
@@ -35,25 +35,60 @@ import javaemul.internal.annotations.DoNotInline;
  */
 public final class Class<T> implements Type {
 
-	// these two arrays map JavaScript constructors and Java classes at runtime
-	private static Array<Function> constructors = new Array<Function>();
-	private static Array<Class<?>> classes = new Array<Class<?>>();
+	// JavaScript constructors and Java classes are mapped at runtime in both
+	// directions: a class holds its constructor, and a constructor holds its
+	// class in a hidden property
+	private static final String CLASS_PROPERTY = "$javaClass";
+
+	// the constructors that cannot hold a property, such as the names standing
+	// for interfaces, are mapped to their classes in this object, by name
+	private static def.js.Object namedClasses;
 
 	static Function getConstructorForClass(Class<?> clazz) {
-		int index = (int) classes.indexOf(clazz);
-		return index == -1 ? null : constructors.$get(index);
+		return clazz.jsConstructor;
 	}
 
 	static Class<?> getClassForConstructor(Function constructor) {
-		int index = (int) constructors.indexOf(constructor);
-		return index == -1 ? null : classes.$get(index);
+		if (!isObject(constructor)) {
+			String name = "" + constructor;
+			return namedClasses != null && namedClasses.hasOwnProperty(name) ? (Class<?>) namedClasses.$get(name)
+					: null;
+		}
+		// an own property, since the constructor of a subclass may inherit the
+		// static members of its superclass constructor
+		return constructor.hasOwnProperty(CLASS_PROPERTY) ? (Class<?>) constructor.$get(CLASS_PROPERTY) : null;
 	}
 
 	static void mapConstructorToClass(Function constructor, Class<?> clazz) {
-		constructors.push(constructor);
-		classes.push(clazz);
+		if (clazz.jsConstructor == null) {
+			clazz.jsConstructor = constructor;
+		}
+		if (!isObject(constructor)) {
+			String name = "" + constructor;
+			if (namedClasses == null) {
+				namedClasses = new def.js.Object();
+			}
+			if (!namedClasses.hasOwnProperty(name)) {
+				namedClasses.$set(name, clazz);
+			}
+		} else if (!constructor.hasOwnProperty(CLASS_PROPERTY)) {
+			defineHiddenProperty(constructor, CLASS_PROPERTY, clazz);
+		}
 	}
 
+	private static boolean isObject(Object constructor) {
+		String type = typeof(constructor);
+		return "function".equals(type) || ("object".equals(type) && constructor != null);
+	}
+
+	/**
+	 * Defines a non-enumerable property, which is not copied along with the
+	 * static members when a subclass is defined.
+	 */
+	private static native void defineHiddenProperty(Object target, String name, Object value) /*-{
+		Object.defineProperty(target, name, { value: value, configurable: true });
+	}-*/;
+
 	private static final int PRIMITIVE = 0x00000001;
 	private static final int INTERFACE = 0x00000002;
 	private static final int ARRAY = 0x00000004;
@@ -265,6 +300,8 @@ public final class Class<T> implements Type {
 
 	private Class<?>[] arrayLiterals;
 
+	private Function jsConstructor;
+
 	// Assign a sequential id to each class literal to avoid calling hashCode
 	// which bring Impl as
 	// a dependency.
@@ -286,6 +323,7 @@ public final class Class<T> implements Type {
 		canonicalName = null;
 		typeId = null;
 		arrayLiterals = null;
+		jsConstructor = null;
 	}
 
 	public boolean desiredAssertionStatus() {
@@ -31,13 +31,9 @@ public final class StringBuffer extends AbstractStringBuilder implements CharSeq
     super(String.valueOf(s));
   }
 
-  /**
-   * This implementation does not track capacity; using this constructor is
-   * functionally equivalent to using the zero-argument constructor.
-   */
-  @SuppressWarnings("unused")
-  public StringBuffer(int ignoredCapacity) {
+  public StringBuffer(int capacity) {
     super("");
+    ensureCapacity(capacity);
   }
 
   public StringBuffer(String s) {
@@ -45,29 +41,29 @@ public final class StringBuffer extends AbstractStringBuilder implements CharSeq
   }
 
   public StringBuffer append(boolean x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   @Override
   public StringBuffer append(char x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   public StringBuffer append(char[] x) {
-    string += String.valueOf(x);
+    appendString0(String.valueOf(x));
     return this;
   }
 
   public StringBuffer append(char[] x, int start, int len) {
-    string += String.valueOf(x, start, len);
+    appendString0(String.valueOf(x, start, len));
     return this;
   }
 
   @Override
   public StringBuffer append(CharSequence x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
@@ -78,37 +74,37 @@ public final class StringBuffer extends AbstractStringBuilder implements CharSeq
   }
 
   public StringBuffer append(double x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   public StringBuffer append(float x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   public StringBuffer append(int x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   public StringBuffer append(long x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   public StringBuffer append(Object x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
   public StringBuffer append(String x) {
-    string += x;
+    appendString0(x);
     return this;
   }
 
   public StringBuffer append(StringBuffer x) {
-    string += x;
+    appendString0("" + x);
     return this;
   }
 
@@ -31,13 +31,9 @@ public final class StringBuilder extends AbstractStringBuilder implements CharSe
 		super(String.valueOf(s));
 	}
 
-	/**
-	 * This implementation does not track capacity; using this constructor is
-	 * functionally equivalent to using the zero-argument constructor.
-	 */
-	@SuppressWarnings("unused")
-	public StringBuilder(int ignoredCapacity) {
+	public StringBuilder(int capacity) {
 		super("");
+		ensureCapacity(capacity);
 	}
 
 	public StringBuilder(String s) {
@@ -45,29 +41,29 @@ public final class StringBuilder extends AbstractStringBuilder implements CharSe
 	}
 
 	public StringBuilder append(boolean x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	@Override
 	public StringBuilder append(char x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	public StringBuilder append(char[] x) {
-		string += String.valueOf(x);
+		appendString0(String.valueOf(x));
 		return this;
 	}
 
 	public StringBuilder append(char[] x, int start, int len) {
-		string += String.valueOf(x, start, len);
+		appendString0(String.valueOf(x, start, len));
 		return this;
 	}
 
 	@Override
 	public StringBuilder append(CharSequence x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
@@ -78,37 +74,37 @@ public final class StringBuilder extends AbstractStringBuilder implements CharSe
 	}
 
 	public StringBuilder append(double x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	public StringBuilder append(float x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	public StringBuilder append(int x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	public StringBuilder append(long x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	public StringBuilder append(Object x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
 	public StringBuilder append(String x) {
-		string += x;
+		appendString0(x);
 		return this;
 	}
 
 	public StringBuilder append(StringBuffer x) {
-		string += x;
+		appendString0("" + x);
 		return this;
 	}
 
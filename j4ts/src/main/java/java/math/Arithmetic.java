@@ -0,0 +1,80 @@
+package java.math;
+
+/**
+ * The integer arithmetic behind {@link BigInteger}. The values are opaque to
+ * {@link BigInteger}: native <code>BigInt</code> values when the engine
+ * supports them ({@link NativeArithmetic}), or arrays of limbs otherwise
+ * ({@link LimbArithmetic}).
+ * <p>
+ * The arguments are always valid: divisors are not zero, shift distances are
+ * not negative, and strings hold an optional minus sign followed by lower case
+ * digits of the radix.
+ */
+interface Arithmetic {
+
+  /**
+   * Returns the value of an integral double.
+   */
+  Object fromDouble(double value);
+
+  Object parse(String digits, int radix);
+
+  String format(Object a, int radix);
+
+  int signum(Object a);
+
+  int compare(Object a, Object b);
+
+  Object negate(Object a);
+
+  Object add(Object a, Object b);
+
+  Object subtract(Object a, Object b);
+
+  Object multiply(Object a, Object b);
+
+  /**
+   * Divides, rounding toward zero.
+   */
+  Object divide(Object a, Object b);
+
+  /**
+   * Returns the remainder of {@link #divide}, which has the sign of the
+   * dividend.
+   */
+  Object remainder(Object a, Object b);
+
+  Object shiftLeft(Object a, int n);
+
+  /**
+   * Shifts right, rounding toward negative infinity.
+   */
+  Object shiftRight(Object a, int n);
+
+  Object and(Object a, Object b);
+
+  Object or(Object a, Object b);
+
+  Object xor(Object a, Object b);
+
+  Object not(Object a);
+
+  /**
+   * Returns the number of bits of the minimal two's complement representation,
+   * excluding the sign bit.
+   */
+  int bitLength(Object a);
+
+  double doubleValue(Object a);
+
+  /**
+   * Returns the low-order 32 bits.
+   */
+  int intValue(Object a);
+
+  /**
+   * Returns the low-order 64 bits, which are exact as long as they fit in the
+   * integral range of doubles.
+   */
+  long longValue(Object a);
+}
@@ -0,0 +1,872 @@
+package java.math;
+
+import java.io.Serializable;
+
+/**
+ * JSweet implementation of {@link BigDecimal}: an unscaled {@link BigInteger}
+ * and an int scale, so that the arithmetic runs on native <code>BigInt</code>
+ * values when available.
+ * <p>
+ * The results and their scales follow the JDK. The operations with a
+ * {@link MathContext} round the exact result once. This may differ from the JDK
+ * in the last digit of {@link #pow(int, MathContext)}, which the JDK computes
+ * with a bounded working precision.
+ */
+public class BigDecimal extends Number implements Comparable<BigDecimal>, Serializable {
+
+  public static final int ROUND_UP = 0;
+
+  public static final int ROUND_DOWN = 1;
+
+  public static final int ROUND_CEILING = 2;
+
+  public static final int ROUND_FLOOR = 3;
+
+  public static final int ROUND_HALF_UP = 4;
+
+  public static final int ROUND_HALF_DOWN = 5;
+
+  public static final int ROUND_HALF_EVEN = 6;
+
+  public static final int ROUND_UNNECESSARY = 7;
+
+  public static final BigDecimal ZERO = new BigDecimal(BigInteger.ZERO, 0);
+
+  public static final BigDecimal ONE = new BigDecimal(BigInteger.ONE, 0);
+
+  public static final BigDecimal TEN = new BigDecimal(BigInteger.TEN, 0);
+
+  private static final BigInteger FIVE = BigInteger.valueOf(5);
+
+  /**
+   * The powers of ten that are used the most, computed on demand.
+   */
+  private static final BigInteger[] TEN_POWERS = new BigInteger[32];
+
+  public static BigDecimal valueOf(long val) {
+    return new BigDecimal(BigInteger.valueOf(val), 0);
+  }
+
+  public static BigDecimal valueOf(long unscaledVal, int scale) {
+    return new BigDecimal(BigInteger.valueOf(unscaledVal), scale);
+  }
+
+  /**
+   * Returns the value of the canonical string of the double, with the scale
+   * that <code>Double.toString(double)</code> gives on the JVM.
+   */
+  public static BigDecimal valueOf(double val) {
+    checkFinite(val);
+    if (val == 0) {
+      return new BigDecimal(BigInteger.ZERO, 1);
+    }
+    BigDecimal shortest = new BigDecimal(String.valueOf(val)).stripTrailingZeros();
+    // the decimal exponent of the leading digit
+    int exponent = shortest.precision() - 1 - shortest.scale;
+    int scale;
+    if (exponent >= -3 && exponent < 7) {
+      // plain notation, with at least one fraction digit
+      scale = Math.max(shortest.scale, 1);
+    } else {
+      // computerized scientific notation, with at least one fraction digit
+      scale = Math.max(shortest.precision() - 1, 1) - exponent;
+    }
+    return shortest.setScale(scale);
+  }
+
+  private static void checkFinite(double val) {
+    if (Double.isNaN(val) || Double.isInfinite(val)) {
+      throw new NumberFormatException("Infinite or NaN");
+    }
+  }
+
+  /**
+   * Returns the exact decimal value of a double, which is also the value of
+   * ints and longs.
+   */
+  private static BigDecimal exactValueOf(double val) {
+    checkFinite(val);
+    int scale = 0;
+    // a fraction has at most 53 significant bits, so doubling it is exact
+    while (val != Math.floor(val)) {
+      val *= 2;
+      scale++;
+    }
+    BigInteger intVal = BigInteger.fromDouble(val);
+    // x / 2^n == x * 5^n / 10^n
+    return new BigDecimal(scale == 0 ? intVal : intVal.multiply(FIVE.pow(scale)), scale);
+  }
+
+  private static BigDecimal parse(String val) {
+    int length = val.length();
+    int i = 0;
+    boolean negative = false;
+    if (length > 0 && (val.charAt(0) == '-' || val.charAt(0) == '+')) {
+      negative = val.charAt(0) == '-';
+      i++;
+    }
+    StringBuilder digits = new StringBuilder(length);
+    long scale = 0;
+    boolean point = false;
+    for (; i < length; i++) {
+      char c = val.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digits.append(c);
+        if (point) {
+          scale++;
+        }
+      } else if (c == '.' && !point) {
+        point = true;
+      } else if (c == 'e' || c == 'E') {
+        break;
+      } else {
+        throw new NumberFormatException("Character " + c
+            + " is neither a decimal digit number, decimal point, nor \"e\" notation exponential mark.");
+      }
+    }
+    if (digits.length() == 0) {
+      throw new NumberFormatException("No digits found.");
+    }
+    if (i < length) {
+      scale -= parseExponent(val, i + 1);
+    }
+    BigInteger intVal = new BigInteger(digits.toString());
+    return new BigDecimal(negative ? intVal.negate() : intVal, checkScale(scale));
+  }
+
+  private static long parseExponent(String val, int start) {
+    int length = val.length();
+    boolean negative = false;
+    if (start < length && (val.charAt(start) == '-' || val.charAt(start) == '+')) {
+      negative = val.charAt(start) == '-';
+      start++;
+    }
+    if (start == length) {
+      throw new NumberFormatException("No exponent digits.");
+    }
+    long exponent = 0;
+    for (int i = start; i < length; i++) {
+      char c = val.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new NumberFormatException("Exponent contains a non-digit character.");
+      }
+      exponent = exponent * 10 + (c - '0');
+      if (exponent > Integer.MAX_VALUE) {
+        throw new NumberFormatException("Exponent overflow.");
+      }
+    }
+    return negative ? -exponent : exponent;
+  }
+
+  private static int checkScale(long scale) {
+    if (scale > Integer.MAX_VALUE || scale < Integer.MIN_VALUE) {
+      throw new ArithmeticException(scale > 0 ? "Underflow" : "Overflow");
+    }
+    return (int) scale;
+  }
+
+  private static int saturate(long scale) {
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, scale));
+  }
+
+  private static BigInteger tenPow(long n) {
+    int exponent = checkScale(n);
+    if (exponent < TEN_POWERS.length) {
+      if (TEN_POWERS[exponent] == null) {
+        TEN_POWERS[exponent] = BigInteger.TEN.pow(exponent);
+      }
+      return TEN_POWERS[exponent];
+    }
+    return BigInteger.TEN.pow(exponent);
+  }
+
+  private static int digitLength(BigInteger val) {
+    String digits = val.toString();
+    return val.signum() < 0 ? digits.length() - 1 : digits.length();
+  }
+
+  /**
+   * Divides and rounds to an integer.
+   */
+  private static BigInteger divideAndRound(BigInteger dividend, BigInteger divisor,
+      RoundingMode roundingMode) {
+    BigInteger[] qr = dividend.divideAndRemainder(divisor);
+    BigInteger quotient = qr[0];
+    BigInteger remainder = qr[1];
+    if (remainder.signum() == 0) {
+      return quotient;
+    }
+    int sign = dividend.signum() * divisor.signum();
+    // compares the remainder to half of the divisor
+    int half = remainder.abs().shiftLeft(1).compareTo(divisor.abs());
+    boolean increment;
+    switch (roundingMode) {
+      case UP:
+        increment = true;
+        break;
+      case DOWN:
+        increment = false;
+        break;
+      case CEILING:
+        increment = sign > 0;
+        break;
+      case FLOOR:
+        increment = sign < 0;
+        break;
+      case HALF_UP:
+        increment = half >= 0;
+        break;
+      case HALF_DOWN:
+        increment = half > 0;
+        break;
+      case HALF_EVEN:
+        increment = half > 0 || half == 0 && quotient.testBit(0);
+        break;
+      default:
+        throw new ArithmeticException("Rounding necessary");
+    }
+    return increment ? quotient.add(BigInteger.valueOf(sign)) : quotient;
+  }
+
+  /**
+   * Rounds to the precision of the context.
+   */
+  private static BigDecimal doRound(BigDecimal val, MathContext mc) {
+    int precision = mc.getPrecision();
+    if (precision == 0) {
+      return val;
+    }
+    // loops a second time when rounding up adds a digit
+    for (int drop = val.precision() - precision; drop > 0; drop = val.precision() - precision) {
+      val = new BigDecimal(divideAndRound(val.intVal, tenPow(drop), mc.getRoundingMode()),
+          checkScale((long) val.scale - drop));
+    }
+    return val;
+  }
+
+  /**
+   * Removes the trailing zeros, as long as the scale is greater than the
+   * preferred one.
+   */
+  private static BigDecimal stripZerosToMatchScale(BigInteger intVal, long scale,
+      long preferredScale) {
+    while (scale > preferredScale && intVal.abs().compareTo(BigInteger.TEN) >= 0) {
+      BigInteger[] qr = intVal.divideAndRemainder(BigInteger.TEN);
+      if (qr[1].signum() != 0) {
+        break;
+      }
+      intVal = qr[0];
+      scale--;
+    }
+    return new BigDecimal(intVal, checkScale(scale));
+  }
+
+  private static BigDecimal zeroValueOf(int scale) {
+    return new BigDecimal(BigInteger.ZERO, scale);
+  }
+
+  private final BigInteger intVal;
+
+  private final int scale;
+
+  /**
+   * The number of digits of the unscaled value, or 0 if not computed yet.
+   */
+  private transient int precision;
+
+  public BigDecimal(BigInteger unscaledVal, int scale) {
+    if (unscaledVal == null) {
+      throw new NullPointerException();
+    }
+    this.intVal = unscaledVal;
+    this.scale = scale;
+  }
+
+  public BigDecimal(BigInteger unscaledVal, int scale, MathContext mc) {
+    this(doRound(new BigDecimal(unscaledVal, scale), mc));
+  }
+
+  public BigDecimal(BigInteger val) {
+    this(val, 0);
+  }
+
+  public BigDecimal(BigInteger val, MathContext mc) {
+    this(val, 0, mc);
+  }
+
+  public BigDecimal(char[] in) {
+    this(new String(in));
+  }
+
+  public BigDecimal(char[] in, int offset, int len) {
+    this(new String(in, offset, len));
+  }
+
+  public BigDecimal(String val) {
+    this(parse(val));
+  }
+
+  public BigDecimal(String val, MathContext mc) {
+    this(doRound(parse(val), mc));
+  }
+
+  /**
+   * Translates the exact binary value of the double: for instance
+   * <code>new BigDecimal(0.1)</code> is
+   * 0.1000000000000000055511151231257827021181583404541015625.
+   */
+  public BigDecimal(double val) {
+    this(exactValueOf(val));
+  }
+
+  public BigDecimal(double val, MathContext mc) {
+    this(doRound(exactValueOf(val), mc));
+  }
+
+  // the int and long constructors share the implementation of the double
+  // constructor, because JavaScript cannot tell these arguments apart
+
+  public BigDecimal(int val) {
+    this(exactValueOf(val));
+  }
+
+  public BigDecimal(int val, MathContext mc) {
+    this(doRound(exactValueOf(val), mc));
+  }
+
+  public BigDecimal(long val) {
+    this(exactValueOf(val));
+  }
+
+  public BigDecimal(long val, MathContext mc) {
+    this(doRound(exactValueOf(val), mc));
+  }
+
+  private BigDecimal(BigDecimal val) {
+    this(val.intVal, val.scale);
+  }
+
+  public BigDecimal abs() {
+    return signum() < 0 ? negate() : this;
+  }
+
+  public BigDecimal abs(MathContext mc) {
+    return abs().round(mc);
+  }
+
+  public BigDecimal add(BigDecimal augend) {
+    if (scale == augend.scale) {
+      return new BigDecimal(intVal.add(augend.intVal), scale);
+    }
+    if (scale > augend.scale) {
+      return new BigDecimal(intVal.add(augend.intVal.multiply(tenPow((long) scale - augend.scale))),
+          scale);
+    }
+    return new BigDecimal(intVal.multiply(tenPow((long) augend.scale - scale)).add(augend.intVal),
+        augend.scale);
+  }
+
+  public BigDecimal add(BigDecimal augend, MathContext mc) {
+    if (mc.getPrecision() == 0) {
+      return add(augend);
+    }
+    if (signum() == 0 || augend.signum() == 0) {
+      // the other operand, rounded, with the scale as close as possible to the
+      // preferred one
+      int preferredScale = Math.max(scale, augend.scale);
+      if (signum() == 0 && augend.signum() == 0) {
+        return zeroValueOf(preferredScale);
+      }
+      BigDecimal result = doRound(signum() == 0 ? augend : this, mc);
+      if (result.scale > preferredScale) {
+        return stripZerosToMatchScale(result.intVal, result.scale, preferredScale);
+      }
+      if (result.scale < preferredScale) {
+        int precisionDiff = mc.getPrecision() - result.precision();
+        return result.setScale(result.scale + Math.min(precisionDiff, preferredScale - result.scale));
+      }
+      return result;
+    }
+    return doRound(add(augend), mc);
+  }
+
+  @Override
+  public int compareTo(BigDecimal val) {
+    if (scale == val.scale) {
+      return intVal.compareTo(val.intVal);
+    }
+    int sign = signum();
+    int valSign = val.signum();
+    if (sign != valSign) {
+      return sign > valSign ? 1 : -1;
+    }
+    if (sign == 0) {
+      return 0;
+    }
+    long adjusted = (long) precision() - scale;
+    long valAdjusted = (long) val.precision() - val.scale;
+    if (adjusted != valAdjusted) {
+      return adjusted > valAdjusted ? sign : -sign;
+    }
+    // same order of magnitude, so the scales are close
+    if (scale > val.scale) {
+      return intVal.compareTo(val.intVal.multiply(tenPow((long) scale - val.scale)));
+    }
+    return intVal.multiply(tenPow((long) val.scale - scale)).compareTo(val.intVal);
+  }
+
+  /**
+   * Divides exactly.
+   *
+   * @throws ArithmeticException if the exact quotient has a non-terminating
+   *           decimal expansion
+   */
+  public BigDecimal divide(BigDecimal divisor) {
+    checkDivisor(divisor);
+    int preferredScale = saturate((long) scale - divisor.scale);
+    if (signum() == 0) {
+      return zeroValueOf(preferredScale);
+    }
+    // the quotient terminates if and only if the reduced denominator only has
+    // the prime factors 2 and 5
+    BigInteger denominator = divisor.intVal.abs().divide(intVal.gcd(divisor.intVal));
+    int twos = denominator.getLowestSetBit();
+    denominator = denominator.shiftRight(twos);
+    int fives = 0;
+    for (;;) {
+      BigInteger[] qr = denominator.divideAndRemainder(FIVE);
+      if (qr[1].signum() != 0) {
+        break;
+      }
+      denominator = qr[0];
+      fives++;
+    }
+    if (!denominator.equals(BigInteger.ONE)) {
+      throw new ArithmeticException(
+          "Non-terminating decimal expansion; no exact representable decimal result.");
+    }
+    int digits = Math.max(twos, fives);
+    BigInteger quotient = intVal.multiply(tenPow(digits)).divide(divisor.intVal);
+    return stripZerosToMatchScale(quotient, (long) preferredScale + digits, preferredScale);
+  }
+
+  public BigDecimal divide(BigDecimal divisor, int scale, int roundingMode) {
+    return divide(divisor, scale, RoundingMode.valueOf(roundingMode));
+  }
+
+  public BigDecimal divide(BigDecimal divisor, int scale, RoundingMode roundingMode) {
+    if (divisor.signum() == 0) {
+      throw new ArithmeticException("/ by zero");
+    }
+    // the quotient times 10^scale, as a fraction of integers
+    long exponent = (long) scale - this.scale + divisor.scale;
+    BigInteger dividend = intVal;
+    BigInteger div = divisor.intVal;
+    if (exponent > 0) {
+      dividend = dividend.multiply(tenPow(exponent));
+    } else if (exponent < 0) {
+      div = div.multiply(tenPow(-exponent));
+    }
+    return new BigDecimal(divideAndRound(dividend, div, roundingMode), scale);
+  }
+
+  public BigDecimal divide(BigDecimal divisor, int roundingMode) {
+    return divide(divisor, scale, RoundingMode.valueOf(roundingMode));
+  }
+
+  public BigDecimal divide(BigDecimal divisor, RoundingMode roundingMode) {
+    return divide(divisor, scale, roundingMode);
+  }
+
+  public BigDecimal divide(BigDecimal divisor, MathContext mc) {
+    if (mc.getPrecision() == 0) {
+      return divide(divisor);
+    }
+    checkDivisor(divisor);
+    long preferredScale = (long) scale - divisor.scale;
+    if (signum() == 0) {
+      return zeroValueOf(saturate(preferredScale));
+    }
+    // truncates the quotient to at least precision + 1 digits: with a sticky
+    // bit standing for the discarded rest, it rounds like the exact quotient
+    long adjustedDifference = ((long) precision() - scale) - ((long) divisor.precision() - divisor.scale);
+    long quotientScale = mc.getPrecision() + 1 - adjustedDifference;
+    long exponent = quotientScale - scale + divisor.scale;
+    BigInteger dividend = intVal;
+    BigInteger div = divisor.intVal;
+    if (exponent > 0) {
+      dividend = dividend.multiply(tenPow(exponent));
+    } else if (exponent < 0) {
+      div = div.multiply(tenPow(-exponent));
+    }
+    BigInteger[] qr = dividend.divideAndRemainder(div);
+    BigInteger truncated = qr[0];
+    boolean sticky = qr[1].signum() != 0;
+    int drop = digitLength(truncated) - mc.getPrecision();
+    BigInteger scaledDivisor = tenPow(drop);
+    boolean exact = !sticky && truncated.remainder(scaledDivisor).signum() == 0;
+    BigInteger doubled = truncated.shiftLeft(1);
+    if (sticky) {
+      doubled = doubled.add(BigInteger.valueOf(dividend.signum() * div.signum()));
+    }
+    BigDecimal quotient = doRound(new BigDecimal(
+        divideAndRound(doubled, scaledDivisor.shiftLeft(1), mc.getRoundingMode()),
+        checkScale(quotientScale - drop)), mc);
+    if (exact) {
+      return stripZerosToMatchScale(quotient.intVal, quotient.scale, preferredScale);
+    }
+    return quotient;
+  }
+
+  public BigDecimal[] divideAndRemainder(BigDecimal divisor) {
+    BigDecimal quotient = divideToIntegralValue(divisor);
+    return new BigDecimal[] { quotient, subtract(quotient.multiply(divisor)) };
+  }
+
+  public BigDecimal divideToIntegralValue(BigDecimal divisor) {
+    checkDivisor(divisor);
+    long preferredScale = (long) scale - divisor.scale;
+    BigDecimal quotient = divide(divisor, 0, RoundingMode.DOWN);
+    if (quotient.signum() == 0) {
+      return zeroValueOf(saturate(preferredScale));
+    }
+    if (preferredScale > 0) {
+      return quotient.setScale(checkScale(preferredScale));
+    }
+    return stripZerosToMatchScale(quotient.intVal, 0, preferredScale);
+  }
+
+  @Override
+  public double doubleValue() {
+    return Double.parseDouble(toString());
+  }
+
+  /**
+   * Compares the values and the scales: 2.0 is not equal to 2.00.
+   */
+  @Override
+  public boolean equals(Object x) {
+    if (!(x instanceof BigDecimal)) {
+      return false;
+    }
+    BigDecimal val = (BigDecimal) x;
+    return scale == val.scale && intVal.equals(val.intVal);
+  }
+
+  @Override
+  public float floatValue() {
+    return (float) doubleValue();
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * intVal.hashCode() + scale;
+  }
+
+  @Override
+  public int intValue() {
+    return toBigInteger().intValue();
+  }
+
+  public int intValueExact() {
+    checkIntegralDigits(19);
+    BigInteger integer = toBigIntegerExact();
+    if (integer.bitLength() > 31) {
+      throw new ArithmeticException("Overflow");
+    }
+    return integer.intValue();
+  }
+
+  @Override
+  public long longValue() {
+    return toBigInteger().longValue();
+  }
+
+  public long longValueExact() {
+    checkIntegralDigits(19);
+    BigInteger integer = toBigIntegerExact();
+    if (integer.bitLength() > 63) {
+      throw new ArithmeticException("Overflow");
+    }
+    return integer.longValue();
+  }
+
+  public BigDecimal max(BigDecimal val) {
+    return compareTo(val) >= 0 ? this : val;
+  }
+
+  public BigDecimal min(BigDecimal val) {
+    return compareTo(val) <= 0 ? this : val;
+  }
+
+  public BigDecimal movePointLeft(int n) {
+    if (n == 0) {
+      return this;
+    }
+    BigDecimal result = new BigDecimal(intVal, checkScale((long) scale + n));
+    return result.scale < 0 ? result.setScale(0) : result;
+  }
+
+  public BigDecimal movePointRight(int n) {
+    if (n == 0) {
+      return this;
+    }
+    BigDecimal result = new BigDecimal(intVal, checkScale((long) scale - n));
+    return result.scale < 0 ? result.setScale(0) : result;
+  }
+
+  public BigDecimal multiply(BigDecimal multiplicand) {
+    return new BigDecimal(intVal.multiply(multiplicand.intVal),
+        checkScale((long) scale + multiplicand.scale));
+  }
+
+  public BigDecimal multiply(BigDecimal multiplicand, MathContext mc) {
+    return doRound(multiply(multiplicand), mc);
+  }
+
+  public BigDecimal negate() {
+    return new BigDecimal(intVal.negate(), scale);
+  }
+
+  public BigDecimal negate(MathContext mc) {
+    return negate().round(mc);
+  }
+
+  public BigDecimal plus() {
+    return this;
+  }
+
+  public BigDecimal plus(MathContext mc) {
+    return round(mc);
+  }
+
+  public BigDecimal pow(int n) {
+    if (n < 0 || n > 999999999) {
+      throw new ArithmeticException("Invalid operation");
+    }
+    return new BigDecimal(intVal.pow(n), checkScale((long) scale * n));
+  }
+
+  public BigDecimal pow(int n, MathContext mc) {
+    if (mc.getPrecision() == 0) {
+      return pow(n);
+    }
+    if (n < -999999999 || n > 999999999) {
+      throw new ArithmeticException("Invalid operation");
+    }
+    if (n < 0) {
+      return ONE.divide(pow(-n), mc);
+    }
+    return doRound(pow(n), mc);
+  }
+
+  /**
+   * Returns the number of digits of the unscaled value.
+   */
+  public int precision() {
+    if (precision == 0) {
+      precision = intVal.signum() == 0 ? 1 : digitLength(intVal);
+    }
+    return precision;
+  }
+
+  public BigDecimal remainder(BigDecimal divisor) {
+    return divideAndRemainder(divisor)[1];
+  }
+
+  public BigDecimal round(MathContext mc) {
+    return doRound(this, mc);
+  }
+
+  public int scale() {
+    return scale;
+  }
+
+  public BigDecimal scaleByPowerOfTen(int n) {
+    return new BigDecimal(intVal, checkScale((long) scale - n));
+  }
+
+  /**
+   * Sets the scale, which must not require rounding.
+   */
+  public BigDecimal setScale(int newScale) {
+    return setScale(newScale, RoundingMode.UNNECESSARY);
+  }
+
+  public BigDecimal setScale(int newScale, int roundingMode) {
+    return setScale(newScale, RoundingMode.valueOf(roundingMode));
+  }
+
+  public BigDecimal setScale(int newScale, RoundingMode roundingMode) {
+    if (newScale == scale) {
+      return this;
+    }
+    if (newScale > scale) {
+      return new BigDecimal(intVal.multiply(tenPow((long) newScale - scale)), newScale);
+    }
+    return new BigDecimal(divideAndRound(intVal, tenPow((long) scale - newScale), roundingMode),
+        newScale);
+  }
+
+  public int signum() {
+    return intVal.signum();
+  }
+
+  public BigDecimal stripTrailingZeros() {
+    if (signum() == 0) {
+      return ZERO;
+    }
+    return stripZerosToMatchScale(intVal, scale, Long.MIN_VALUE);
+  }
+
+  public BigDecimal subtract(BigDecimal subtrahend) {
+    return add(subtrahend.negate());
+  }
+
+  public BigDecimal subtract(BigDecimal subtrahend, MathContext mc) {
+    return add(subtrahend.negate(), mc);
+  }
+
+  public BigInteger toBigInteger() {
+    if (scale <= 0) {
+      return scale == 0 ? intVal : intVal.multiply(tenPow(-(long) scale));
+    }
+    return intVal.divide(tenPow(scale));
+  }
+
+  public BigInteger toBigIntegerExact() {
+    return setScale(0).intVal;
+  }
+
+  public String toEngineeringString() {
+    return layout(false);
+  }
+
+  public String toPlainString() {
+    if (scale == 0) {
+      return intVal.toString();
+    }
+    if (scale < 0) {
+      if (signum() == 0) {
+        return "0";
+      }
+      StringBuilder buf = new StringBuilder(intVal.toString());
+      for (int i = scale; i < 0; i++) {
+        buf.append('0');
+      }
+      return buf.toString();
+    }
+    String coeff = intVal.abs().toString();
+    StringBuilder buf = new StringBuilder();
+    if (signum() < 0) {
+      buf.append('-');
+    }
+    int insertionPoint = coeff.length() - scale;
+    if (insertionPoint > 0) {
+      buf.append(coeff.substring(0, insertionPoint)).append('.').append(coeff.substring(insertionPoint));
+    } else {
+      buf.append("0.");
+      for (int i = insertionPoint; i < 0; i++) {
+        buf.append('0');
+      }
+      buf.append(coeff);
+    }
+    return buf.toString();
+  }
+
+  /**
+   * Returns the scientific notation when the scale is negative or the value
+   * is less than 10^-6, and the plain notation otherwise.
+   */
+  @Override
+  public String toString() {
+    return layout(true);
+  }
+
+  public BigDecimal ulp() {
+    return new BigDecimal(BigInteger.ONE, scale);
+  }
+
+  public BigInteger unscaledValue() {
+    return intVal;
+  }
+
+  private void checkDivisor(BigDecimal divisor) {
+    if (divisor.signum() == 0) {
+      throw new ArithmeticException(signum() == 0 ? "Division undefined" : "Division by zero");
+    }
+  }
+
+  /**
+   * Reports an overflow before checking the fraction digits, like the JDK
+   * does for the values that cannot fit in a long.
+   */
+  private void checkIntegralDigits(int maxDigits) {
+    if (signum() != 0 && (long) precision() - scale > maxDigits) {
+      throw new ArithmeticException("Overflow");
+    }
+  }
+
+  private String layout(boolean scientific) {
+    if (scale == 0) {
+      return intVal.toString();
+    }
+    String coeff = intVal.abs().toString();
+    int coeffLength = coeff.length();
+    StringBuilder buf = new StringBuilder();
+    if (signum() < 0) {
+      buf.append('-');
+    }
+    long adjusted = -(long) scale + (coeffLength - 1);
+    if (scale > 0 && adjusted >= -6) {
+      int pad = scale - coeffLength;
+      if (pad >= 0) {
+        buf.append("0.");
+        for (; pad > 0; pad--) {
+          buf.append('0');
+        }
+        buf.append(coeff);
+      } else {
+        buf.append(coeff.substring(0, -pad)).append('.').append(coeff.substring(-pad));
+      }
+      return buf.toString();
+    }
+    if (scientific) {
+      buf.append(coeff.charAt(0));
+      if (coeffLength > 1) {
+        buf.append('.').append(coeff.substring(1));
+      }
+    } else {
+      // engineering notation: the exponent is a multiple of 3
+      int sig = (int) (adjusted % 3);
+      if (sig < 0) {
+        sig += 3;
+      }
+      adjusted -= sig;
+      sig++;
+      if (signum() == 0) {
+        if (sig == 1) {
+          buf.append('0');
+        } else {
+          buf.append(sig == 2 ? "0.00" : "0.0");
+          adjusted += 3;
+        }
+      } else if (sig >= coeffLength) {
+        buf.append(coeff);
+        for (int i = sig - coeffLength; i > 0; i--) {
+          buf.append('0');
+        }
+      } else {
+        buf.append(coeff.substring(0, sig)).append('.').append(coeff.substring(sig));
+      }
+    }
+    if (adjusted != 0) {
+      buf.append('E');
+      if (adjusted > 0) {
+        buf.append('+');
+      }
+      buf.append(adjusted);
+    }
+    return buf.toString();
+  }
+}
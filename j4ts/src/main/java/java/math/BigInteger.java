@@ -0,0 +1,475 @@
+package java.math;
+
+import java.io.Serializable;
+
+import javaemul.internal.CharacterHelper;
+
+/**
+ * JSweet implementation of {@link BigInteger}.
+ * <p>
+ * This is a thin wrapper over a native <code>BigInt</code> value, so that the
+ * arithmetic runs at engine speed. On engines without <code>BigInt</code>, it
+ * falls back to an array of 16-bit limbs (see {@link LimbArithmetic}).
+ */
+public class BigInteger extends Number implements Comparable<BigInteger>, Serializable {
+
+  static final Arithmetic ARITHMETIC = createArithmetic();
+
+  public static final BigInteger ZERO = valueOf(0);
+
+  public static final BigInteger ONE = valueOf(1);
+
+  public static final BigInteger TEN = valueOf(10);
+
+  private static Arithmetic createArithmetic() {
+    Object bigInt = NativeArithmetic.findBigInt();
+    return bigInt != null ? new NativeArithmetic(bigInt) : new LimbArithmetic();
+  }
+
+  public static BigInteger valueOf(long val) {
+    return new BigInteger(ARITHMETIC.fromDouble(val));
+  }
+
+  /**
+   * Returns the value of an integral double, which may exceed the range of
+   * longs.
+   */
+  static BigInteger fromDouble(double val) {
+    return new BigInteger(ARITHMETIC.fromDouble(val));
+  }
+
+  /**
+   * Checks the given string and returns its digits in lower case, with a
+   * leading minus sign if negative.
+   */
+  private static String normalize(String val, int radix) {
+    if (radix < CharacterHelper.MIN_RADIX || radix > CharacterHelper.MAX_RADIX) {
+      throw new NumberFormatException("Radix out of range");
+    }
+    int length = val.length();
+    int start = length > 0 && (val.charAt(0) == '-' || val.charAt(0) == '+') ? 1 : 0;
+    if (start == length) {
+      throw new NumberFormatException("Zero length BigInteger");
+    }
+    StringBuilder digits = new StringBuilder(length);
+    if (val.charAt(0) == '-') {
+      digits.append('-');
+    }
+    for (int i = start; i < length; i++) {
+      char c = val.charAt(i);
+      if (c == '-' || c == '+') {
+        throw new NumberFormatException("Illegal embedded sign character");
+      }
+      int digit = CharacterHelper.digit(c, radix);
+      if (digit < 0) {
+        throw new NumberFormatException("Illegal digit");
+      }
+      digits.append(CharacterHelper.forDigit(digit, radix));
+    }
+    return digits.toString();
+  }
+
+  /**
+   * Returns the hexadecimal digits of the given bytes.
+   */
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2 + 1);
+    for (byte b : bytes) {
+      hex.append(CharacterHelper.forDigit((b >> 4) & 0xF, 16));
+      hex.append(CharacterHelper.forDigit(b & 0xF, 16));
+    }
+    return hex.length() == 0 ? "0" : hex.toString();
+  }
+
+  /**
+   * The native <code>BigInt</code>, or the value of the fallback arithmetic.
+   */
+  final Object value;
+
+  BigInteger(Object value) {
+    this.value = value;
+  }
+
+  public BigInteger(String val) {
+    this(val, 10);
+  }
+
+  public BigInteger(String val, int radix) {
+    this(ARITHMETIC.parse(normalize(val, radix), radix));
+  }
+
+  /**
+   * Translates a big-endian two's complement binary representation.
+   */
+  public BigInteger(byte[] val) {
+    this(twosComplementValue(val));
+  }
+
+  public BigInteger(int signum, byte[] magnitude) {
+    this(signedValue(signum, magnitude));
+  }
+
+  private static Object twosComplementValue(byte[] val) {
+    if (val.length == 0) {
+      throw new NumberFormatException("Zero length BigInteger");
+    }
+    Object value = ARITHMETIC.parse(toHex(val), 16);
+    if (val[0] < 0) {
+      value = ARITHMETIC.subtract(value, ARITHMETIC.shiftLeft(ONE.value, val.length * 8));
+    }
+    return value;
+  }
+
+  private static Object signedValue(int signum, byte[] magnitude) {
+    if (signum < -1 || signum > 1) {
+      throw new NumberFormatException("Invalid signum value");
+    }
+    Object value = ARITHMETIC.parse(toHex(magnitude), 16);
+    if (signum == 0 && ARITHMETIC.signum(value) != 0) {
+      throw new NumberFormatException("signum-magnitude mismatch");
+    }
+    return signum < 0 ? ARITHMETIC.negate(value) : value;
+  }
+
+  public BigInteger abs() {
+    return signum() < 0 ? negate() : this;
+  }
+
+  public BigInteger add(BigInteger val) {
+    return new BigInteger(ARITHMETIC.add(value, val.value));
+  }
+
+  public BigInteger and(BigInteger val) {
+    return new BigInteger(ARITHMETIC.and(value, val.value));
+  }
+
+  public BigInteger andNot(BigInteger val) {
+    return and(val.not());
+  }
+
+  public int bitCount() {
+    String bits = ARITHMETIC.format(signum() < 0 ? ARITHMETIC.not(value) : value, 2);
+    int count = 0;
+    for (int i = 0; i < bits.length(); i++) {
+      if (bits.charAt(i) == '1') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public int bitLength() {
+    return ARITHMETIC.bitLength(value);
+  }
+
+  public BigInteger clearBit(int n) {
+    return andNot(bit(n));
+  }
+
+  @Override
+  public int compareTo(BigInteger val) {
+    return ARITHMETIC.compare(value, val.value);
+  }
+
+  public BigInteger divide(BigInteger val) {
+    checkDivisor(val);
+    return new BigInteger(ARITHMETIC.divide(value, val.value));
+  }
+
+  public BigInteger[] divideAndRemainder(BigInteger val) {
+    checkDivisor(val);
+    return new BigInteger[] { new BigInteger(ARITHMETIC.divide(value, val.value)),
+        new BigInteger(ARITHMETIC.remainder(value, val.value)) };
+  }
+
+  @Override
+  public double doubleValue() {
+    return ARITHMETIC.doubleValue(value);
+  }
+
+  @Override
+  public boolean equals(Object x) {
+    return x instanceof BigInteger && compareTo((BigInteger) x) == 0;
+  }
+
+  public BigInteger flipBit(int n) {
+    return xor(bit(n));
+  }
+
+  @Override
+  public float floatValue() {
+    return (float) doubleValue();
+  }
+
+  public BigInteger gcd(BigInteger val) {
+    BigInteger a = abs();
+    BigInteger b = val.abs();
+    while (b.signum() != 0) {
+      BigInteger r = a.remainder(b);
+      a = b;
+      b = r;
+    }
+    return a;
+  }
+
+  public int getLowestSetBit() {
+    if (signum() == 0) {
+      return -1;
+    }
+    // the bits below the lowest set bit are the same in -x and x
+    return ARITHMETIC.bitLength(ARITHMETIC.and(value, ARITHMETIC.negate(value))) - 1;
+  }
+
+  @Override
+  public int hashCode() {
+    return toString(16).hashCode();
+  }
+
+  @Override
+  public int intValue() {
+    return ARITHMETIC.intValue(value);
+  }
+
+  public int intValueExact() {
+    if (bitLength() > 31) {
+      throw new ArithmeticException("BigInteger out of int range");
+    }
+    return intValue();
+  }
+
+  /**
+   * Runs a Miller-Rabin test with the first prime bases, which is
+   * deterministic below 3.3 * 10^24.
+   */
+  public boolean isProbablePrime(int certainty) {
+    if (certainty <= 0) {
+      return true;
+    }
+    BigInteger n = abs();
+    if (n.compareTo(valueOf(2)) < 0) {
+      return false;
+    }
+    int[] bases = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41 };
+    for (int base : bases) {
+      if (n.equals(valueOf(base))) {
+        return true;
+      }
+      if (n.remainder(valueOf(base)).signum() == 0) {
+        return false;
+      }
+    }
+    BigInteger nMinusOne = n.subtract(ONE);
+    int s = nMinusOne.getLowestSetBit();
+    BigInteger d = nMinusOne.shiftRight(s);
+    for (int base : bases) {
+      BigInteger x = valueOf(base).modPow(d, n);
+      if (x.equals(ONE) || x.equals(nMinusOne)) {
+        continue;
+      }
+      boolean composite = true;
+      for (int r = 1; r < s && composite; r++) {
+        x = x.multiply(x).mod(n);
+        composite = !x.equals(nMinusOne);
+      }
+      if (composite) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public long longValue() {
+    return ARITHMETIC.longValue(value);
+  }
+
+  public long longValueExact() {
+    if (bitLength() > 63) {
+      throw new ArithmeticException("BigInteger out of long range");
+    }
+    return longValue();
+  }
+
+  public BigInteger max(BigInteger val) {
+    return compareTo(val) >= 0 ? this : val;
+  }
+
+  public BigInteger min(BigInteger val) {
+    return compareTo(val) <= 0 ? this : val;
+  }
+
+  public BigInteger mod(BigInteger m) {
+    checkModulus(m);
+    BigInteger r = remainder(m);
+    return r.signum() < 0 ? r.add(m) : r;
+  }
+
+  public BigInteger modInverse(BigInteger m) {
+    checkModulus(m);
+    // extended Euclid on (a, m)
+    BigInteger a = mod(m);
+    BigInteger b = m;
+    BigInteger x = ONE;
+    BigInteger y = ZERO;
+    while (b.signum() != 0) {
+      BigInteger[] qr = a.divideAndRemainder(b);
+      a = b;
+      b = qr[1];
+      BigInteger t = x.subtract(qr[0].multiply(y));
+      x = y;
+      y = t;
+    }
+    if (!a.equals(ONE)) {
+      if (m.equals(ONE)) {
+        return ZERO;
+      }
+      throw new ArithmeticException("BigInteger not invertible.");
+    }
+    return x.mod(m);
+  }
+
+  public BigInteger modPow(BigInteger exponent, BigInteger m) {
+    checkModulus(m);
+    BigInteger base = this;
+    if (exponent.signum() < 0) {
+      base = modInverse(m);
+      exponent = exponent.negate();
+    }
+    base = base.mod(m);
+    BigInteger result = ONE.mod(m);
+    for (int i = exponent.bitLength() - 1; i >= 0; i--) {
+      result = result.multiply(result).mod(m);
+      if (exponent.testBit(i)) {
+        result = result.multiply(base).mod(m);
+      }
+    }
+    return result;
+  }
+
+  public BigInteger multiply(BigInteger val) {
+    return new BigInteger(ARITHMETIC.multiply(value, val.value));
+  }
+
+  public BigInteger negate() {
+    return new BigInteger(ARITHMETIC.negate(value));
+  }
+
+  public BigInteger not() {
+    return new BigInteger(ARITHMETIC.not(value));
+  }
+
+  public BigInteger or(BigInteger val) {
+    return new BigInteger(ARITHMETIC.or(value, val.value));
+  }
+
+  public BigInteger pow(int exponent) {
+    if (exponent < 0) {
+      throw new ArithmeticException("Negative exponent");
+    }
+    BigInteger result = ONE;
+    BigInteger square = this;
+    while (exponent > 0) {
+      if ((exponent & 1) != 0) {
+        result = result.multiply(square);
+      }
+      exponent >>= 1;
+      if (exponent > 0) {
+        square = square.multiply(square);
+      }
+    }
+    return result;
+  }
+
+  public BigInteger remainder(BigInteger val) {
+    checkDivisor(val);
+    return new BigInteger(ARITHMETIC.remainder(value, val.value));
+  }
+
+  public BigInteger setBit(int n) {
+    return or(bit(n));
+  }
+
+  public BigInteger shiftLeft(int n) {
+    if (n < 0) {
+      return shiftRight(-n);
+    }
+    return n == 0 ? this : new BigInteger(ARITHMETIC.shiftLeft(value, n));
+  }
+
+  public BigInteger shiftRight(int n) {
+    if (n < 0) {
+      return shiftLeft(-n);
+    }
+    return n == 0 ? this : new BigInteger(ARITHMETIC.shiftRight(value, n));
+  }
+
+  public int signum() {
+    return ARITHMETIC.signum(value);
+  }
+
+  public BigInteger subtract(BigInteger val) {
+    return new BigInteger(ARITHMETIC.subtract(value, val.value));
+  }
+
+  public boolean testBit(int n) {
+    if (n < 0) {
+      throw new ArithmeticException("Negative bit address");
+    }
+    return ARITHMETIC.signum(ARITHMETIC.and(ARITHMETIC.shiftRight(value, n), ONE.value)) != 0;
+  }
+
+  /**
+   * Returns the minimal big-endian two's complement binary representation.
+   */
+  public byte[] toByteArray() {
+    int length = bitLength() / 8 + 1;
+    // the low-order bits of a negative value are its two's complement
+    Object bits = ARITHMETIC.and(value,
+        ARITHMETIC.subtract(ARITHMETIC.shiftLeft(ONE.value, length * 8), ONE.value));
+    String hex = ARITHMETIC.format(bits, 16);
+    byte[] bytes = new byte[length];
+    for (int i = bytes.length - 1, end = hex.length(); i >= 0 && end > 0; i--, end -= 2) {
+      int digits = CharacterHelper.digit(hex.charAt(end - 1), 16);
+      if (end > 1) {
+        digits |= CharacterHelper.digit(hex.charAt(end - 2), 16) << 4;
+      }
+      bytes[i] = (byte) ((digits << 24) >> 24);
+    }
+    return bytes;
+  }
+
+  @Override
+  public String toString() {
+    return ARITHMETIC.format(value, 10);
+  }
+
+  public String toString(int radix) {
+    if (radix < CharacterHelper.MIN_RADIX || radix > CharacterHelper.MAX_RADIX) {
+      radix = 10;
+    }
+    return ARITHMETIC.format(value, radix);
+  }
+
+  public BigInteger xor(BigInteger val) {
+    return new BigInteger(ARITHMETIC.xor(value, val.value));
+  }
+
+  private static BigInteger bit(int n) {
+    if (n < 0) {
+      throw new ArithmeticException("Negative bit address");
+    }
+    return ONE.shiftLeft(n);
+  }
+
+  private static void checkDivisor(BigInteger val) {
+    if (val.signum() == 0) {
+      throw new ArithmeticException("BigInteger divide by zero");
+    }
+  }
+
+  private static void checkModulus(BigInteger m) {
+    if (m.signum() <= 0) {
+      throw new ArithmeticException("BigInteger: modulus not positive");
+    }
+  }
+}
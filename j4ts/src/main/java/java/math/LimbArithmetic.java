@@ -0,0 +1,553 @@
+package java.math;
+
+import javaemul.internal.CharacterHelper;
+
+/**
+ * The arithmetic of {@link BigInteger} for engines without a native
+ * <code>BigInt</code>. A value is a sign and a magnitude of 16-bit limbs, from
+ * the least significant, so that the products of limbs and the carries are
+ * exact in JavaScript numbers. Carries are computed with divisions rather than
+ * shifts, which would truncate them to 32 bits in JavaScript.
+ */
+final class LimbArithmetic implements Arithmetic {
+
+  private static final int BITS = 16;
+  private static final int BASE = 1 << BITS;
+  private static final int MASK = BASE - 1;
+
+  private static final int[] NO_LIMBS = new int[0];
+  private static final int[] ONE_LIMB = { 1 };
+
+  /**
+   * A value: a signum and a magnitude without leading zero limbs.
+   */
+  static final class Value {
+    final int signum;
+    final int[] mag;
+
+    Value(int signum, int[] mag) {
+      this.signum = mag.length == 0 ? 0 : signum;
+      this.mag = mag;
+    }
+  }
+
+  private static final Value ZERO = new Value(0, NO_LIMBS);
+
+  @Override
+  public Object fromDouble(double value) {
+    int signum = value < 0 ? -1 : 1;
+    value = Math.abs(value);
+    int length = 0;
+    for (double v = value; v >= 1; v = Math.floor(v / BASE)) {
+      length++;
+    }
+    int[] mag = new int[length];
+    for (int i = 0; i < length; i++) {
+      mag[i] = (int) (value % BASE);
+      value = Math.floor(value / BASE);
+    }
+    return new Value(signum, mag);
+  }
+
+  @Override
+  public Object parse(String digits, int radix) {
+    int start = digits.charAt(0) == '-' ? 1 : 0;
+    int chunkLength = chunkLength(radix);
+    int[] mag = NO_LIMBS;
+    // the first chunk takes the extra digits, so that the others are full
+    int end = start + (digits.length() - start) % chunkLength;
+    if (end == start) {
+      end += chunkLength;
+    }
+    long factor = chunkFactor(radix);
+    while (start < digits.length()) {
+      int chunk = 0;
+      for (int i = start; i < end; i++) {
+        chunk = chunk * radix + CharacterHelper.digit(digits.charAt(i), radix);
+      }
+      mag = multiplyAdd(mag, factor, chunk);
+      start = end;
+      end += chunkLength;
+    }
+    return new Value(digits.charAt(0) == '-' ? -1 : 1, mag);
+  }
+
+  @Override
+  public String format(Object a, int radix) {
+    Value value = (Value) a;
+    if (value.signum == 0) {
+      return "0";
+    }
+    int chunkLength = chunkLength(radix);
+    int factor = (int) chunkFactor(radix);
+    StringBuilder result = new StringBuilder();
+    int[] mag = value.mag;
+    int[] remainder = new int[1];
+    while (mag.length > 0) {
+      mag = divideBySmall(mag, factor, remainder);
+      int chunk = remainder[0];
+      for (int i = 0; i < chunkLength && (chunk > 0 || mag.length > 0); i++) {
+        result.append(CharacterHelper.forDigit(chunk % radix, radix));
+        chunk = chunk / radix;
+      }
+    }
+    if (value.signum < 0) {
+      result.append('-');
+    }
+    return result.reverse().toString();
+  }
+
+  @Override
+  public int signum(Object a) {
+    return ((Value) a).signum;
+  }
+
+  @Override
+  public int compare(Object a, Object b) {
+    Value x = (Value) a;
+    Value y = (Value) b;
+    if (x.signum != y.signum) {
+      return x.signum < y.signum ? -1 : 1;
+    }
+    return x.signum * compareMagnitudes(x.mag, y.mag);
+  }
+
+  @Override
+  public Object negate(Object a) {
+    Value value = (Value) a;
+    return new Value(-value.signum, value.mag);
+  }
+
+  @Override
+  public Object add(Object a, Object b) {
+    Value x = (Value) a;
+    Value y = (Value) b;
+    if (x.signum == 0) {
+      return y;
+    }
+    if (y.signum == 0) {
+      return x;
+    }
+    if (x.signum == y.signum) {
+      return new Value(x.signum, addMagnitudes(x.mag, y.mag));
+    }
+    int cmp = compareMagnitudes(x.mag, y.mag);
+    if (cmp == 0) {
+      return ZERO;
+    }
+    return cmp > 0 ? new Value(x.signum, subtractMagnitudes(x.mag, y.mag))
+        : new Value(y.signum, subtractMagnitudes(y.mag, x.mag));
+  }
+
+  @Override
+  public Object subtract(Object a, Object b) {
+    return add(a, negate(b));
+  }
+
+  @Override
+  public Object multiply(Object a, Object b) {
+    Value x = (Value) a;
+    Value y = (Value) b;
+    return new Value(x.signum * y.signum, multiplyMagnitudes(x.mag, y.mag));
+  }
+
+  @Override
+  public Object divide(Object a, Object b) {
+    Value x = (Value) a;
+    Value y = (Value) b;
+    return new Value(x.signum * y.signum, divideMagnitudes(x.mag, y.mag, null));
+  }
+
+  @Override
+  public Object remainder(Object a, Object b) {
+    Value x = (Value) a;
+    int[][] remainder = new int[1][];
+    divideMagnitudes(x.mag, ((Value) b).mag, remainder);
+    return new Value(x.signum, remainder[0]);
+  }
+
+  @Override
+  public Object shiftLeft(Object a, int n) {
+    Value value = (Value) a;
+    return new Value(value.signum, shiftLeftMagnitude(value.mag, n));
+  }
+
+  @Override
+  public Object shiftRight(Object a, int n) {
+    Value value = (Value) a;
+    int[] mag = shiftRightMagnitude(value.mag, n);
+    if (value.signum < 0 && hasLowBits(value.mag, n)) {
+      // rounds toward negative infinity
+      mag = addMagnitudes(mag, ONE_LIMB);
+    }
+    return new Value(value.signum, mag);
+  }
+
+  @Override
+  public Object and(Object a, Object b) {
+    int length = twosComplementLength(a, b);
+    int[] x = toTwosComplement((Value) a, length);
+    int[] y = toTwosComplement((Value) b, length);
+    for (int i = 0; i < length; i++) {
+      x[i] &= y[i];
+    }
+    return fromTwosComplement(x);
+  }
+
+  @Override
+  public Object or(Object a, Object b) {
+    int length = twosComplementLength(a, b);
+    int[] x = toTwosComplement((Value) a, length);
+    int[] y = toTwosComplement((Value) b, length);
+    for (int i = 0; i < length; i++) {
+      x[i] |= y[i];
+    }
+    return fromTwosComplement(x);
+  }
+
+  @Override
+  public Object xor(Object a, Object b) {
+    int length = twosComplementLength(a, b);
+    int[] x = toTwosComplement((Value) a, length);
+    int[] y = toTwosComplement((Value) b, length);
+    for (int i = 0; i < length; i++) {
+      x[i] ^= y[i];
+    }
+    return fromTwosComplement(x);
+  }
+
+  @Override
+  public Object not(Object a) {
+    // ~a == -a - 1
+    return subtract(negate(a), new Value(1, ONE_LIMB));
+  }
+
+  @Override
+  public int bitLength(Object a) {
+    Value value = (Value) a;
+    int[] mag = value.signum < 0 ? subtractMagnitudes(value.mag, ONE_LIMB) : value.mag;
+    if (mag.length == 0) {
+      return 0;
+    }
+    int top = mag[mag.length - 1];
+    int bits = 0;
+    while (top > 0) {
+      top >>= 1;
+      bits++;
+    }
+    return (mag.length - 1) * BITS + bits;
+  }
+
+  @Override
+  public double doubleValue(Object a) {
+    // parsing rounds correctly, unlike summing the limbs
+    return Double.parseDouble(format(a, 10));
+  }
+
+  @Override
+  public int intValue(Object a) {
+    Value value = (Value) a;
+    int[] mag = value.mag;
+    int low = (mag.length > 0 ? mag[0] : 0) | (mag.length > 1 ? mag[1] << BITS : 0);
+    return value.signum < 0 ? -low | 0 : low;
+  }
+
+  @Override
+  public long longValue(Object a) {
+    Value value = (Value) a;
+    int[] mag = value.mag;
+    long low = 0;
+    for (int i = Math.min(mag.length, 4) - 1; i >= 0; i--) {
+      low = low * BASE + mag[i];
+    }
+    return value.signum < 0 ? -low : low;
+  }
+
+  /**
+   * Returns the number of digits of the chunks that are converted at once: the
+   * largest power of the radix that is a chunk factor is less than 2^31.
+   */
+  private static int chunkLength(int radix) {
+    int length = 1;
+    for (long factor = radix; factor * radix < 0x80000000L; factor *= radix) {
+      length++;
+    }
+    return length;
+  }
+
+  private static long chunkFactor(int radix) {
+    long factor = radix;
+    while (factor * radix < 0x80000000L) {
+      factor *= radix;
+    }
+    return factor;
+  }
+
+  private static int[] trim(int[] mag, int length) {
+    while (length > 0 && mag[length - 1] == 0) {
+      length--;
+    }
+    if (length == mag.length) {
+      return mag;
+    }
+    int[] result = new int[length];
+    System.arraycopy(mag, 0, result, 0, length);
+    return result;
+  }
+
+  private static int compareMagnitudes(int[] x, int[] y) {
+    if (x.length != y.length) {
+      return x.length < y.length ? -1 : 1;
+    }
+    for (int i = x.length - 1; i >= 0; i--) {
+      if (x[i] != y[i]) {
+        return x[i] < y[i] ? -1 : 1;
+      }
+    }
+    return 0;
+  }
+
+  private static int[] addMagnitudes(int[] x, int[] y) {
+    if (x.length < y.length) {
+      int[] tmp = x;
+      x = y;
+      y = tmp;
+    }
+    int[] result = new int[x.length + 1];
+    int carry = 0;
+    for (int i = 0; i < x.length; i++) {
+      int sum = x[i] + (i < y.length ? y[i] : 0) + carry;
+      result[i] = sum & MASK;
+      carry = sum >>> BITS;
+    }
+    result[x.length] = carry;
+    return trim(result, result.length);
+  }
+
+  /**
+   * Subtracts a magnitude from a greater or equal one.
+   */
+  private static int[] subtractMagnitudes(int[] x, int[] y) {
+    int[] result = new int[x.length];
+    int borrow = 0;
+    for (int i = 0; i < x.length; i++) {
+      int difference = x[i] - (i < y.length ? y[i] : 0) - borrow;
+      borrow = difference < 0 ? 1 : 0;
+      result[i] = difference & MASK;
+    }
+    return trim(result, result.length);
+  }
+
+  private static int[] multiplyMagnitudes(int[] x, int[] y) {
+    if (x.length == 0 || y.length == 0) {
+      return NO_LIMBS;
+    }
+    int[] result = new int[x.length + y.length];
+    for (int i = 0; i < x.length; i++) {
+      long limb = x[i];
+      if (limb == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; j < y.length; j++) {
+        // at most (2^16 - 1)^2 + 2 * (2^16 - 1) < 2^32
+        long product = limb * y[j] + result[i + j] + carry;
+        result[i + j] = (int) (product & MASK);
+        carry = product / BASE;
+      }
+      result[i + y.length] = (int) carry;
+    }
+    return trim(result, result.length);
+  }
+
+  /**
+   * Computes <code>mag * factor + addend</code>, with a factor and an addend
+   * less than 2^31.
+   */
+  private static int[] multiplyAdd(int[] mag, long factor, int addend) {
+    int[] result = new int[mag.length + 3];
+    long carry = addend;
+    for (int i = 0; i < mag.length; i++) {
+      long product = mag[i] * factor + carry;
+      result[i] = (int) (product & MASK);
+      carry = product / BASE;
+    }
+    for (int i = mag.length; carry > 0; i++) {
+      result[i] = (int) (carry & MASK);
+      carry = carry / BASE;
+    }
+    return trim(result, result.length);
+  }
+
+  /**
+   * Divides by a positive int less than 2^31, and stores the remainder.
+   */
+  private static int[] divideBySmall(int[] mag, int divisor, int[] remainder) {
+    int[] quotient = new int[mag.length];
+    long rest = 0;
+    for (int i = mag.length - 1; i >= 0; i--) {
+      long current = rest * BASE + mag[i];
+      quotient[i] = (int) (current / divisor);
+      rest = current % divisor;
+    }
+    remainder[0] = (int) rest;
+    return trim(quotient, quotient.length);
+  }
+
+  /**
+   * Divides magnitudes with Knuth's algorithm D, and stores the remainder if
+   * requested.
+   */
+  private static int[] divideMagnitudes(int[] x, int[] y, int[][] remainder) {
+    if (compareMagnitudes(x, y) < 0) {
+      if (remainder != null) {
+        remainder[0] = x;
+      }
+      return NO_LIMBS;
+    }
+    if (y.length == 1) {
+      int[] rest = new int[1];
+      int[] quotient = divideBySmall(x, y[0], rest);
+      if (remainder != null) {
+        remainder[0] = rest[0] == 0 ? NO_LIMBS : new int[] { rest[0] };
+      }
+      return quotient;
+    }
+    int n = y.length;
+    int m = x.length - n;
+    // normalizes so that the top limb of the divisor has its high bit set
+    int shift = 0;
+    while ((y[n - 1] << shift) < (BASE >> 1)) {
+      shift++;
+    }
+    int[] v = new int[n];
+    for (int i = n - 1; i > 0; i--) {
+      v[i] = ((y[i] << shift) | (y[i - 1] >>> (BITS - shift))) & MASK;
+    }
+    v[0] = (y[0] << shift) & MASK;
+    int[] u = new int[x.length + 1];
+    u[x.length] = x[x.length - 1] >>> (BITS - shift);
+    for (int i = x.length - 1; i > 0; i--) {
+      u[i] = ((x[i] << shift) | (x[i - 1] >>> (BITS - shift))) & MASK;
+    }
+    u[0] = (x[0] << shift) & MASK;
+
+    int[] quotient = new int[m + 1];
+    long vTop = v[n - 1];
+    long vNext = v[n - 2];
+    for (int j = m; j >= 0; j--) {
+      long numerator = u[j + n] * (long) BASE + u[j + n - 1];
+      long qhat = numerator / vTop;
+      long rhat = numerator - qhat * vTop;
+      while (qhat >= BASE || qhat * vNext > rhat * BASE + u[j + n - 2]) {
+        qhat--;
+        rhat += vTop;
+        if (rhat >= BASE) {
+          break;
+        }
+      }
+      // multiplies and subtracts
+      long carry = 0;
+      long borrow = 0;
+      for (int i = 0; i < n; i++) {
+        long product = qhat * v[i] + carry;
+        carry = product / BASE;
+        long difference = u[i + j] - (product & MASK) - borrow;
+        u[i + j] = (int) (difference & MASK);
+        borrow = difference < 0 ? 1 : 0;
+      }
+      long difference = u[j + n] - carry - borrow;
+      u[j + n] = (int) (difference & MASK);
+      if (difference < 0) {
+        // the estimate was one too large: adds back
+        qhat--;
+        carry = 0;
+        for (int i = 0; i < n; i++) {
+          long sum = u[i + j] + (long) v[i] + carry;
+          u[i + j] = (int) (sum & MASK);
+          carry = sum / BASE;
+        }
+        u[j + n] = (int) ((u[j + n] + carry) & MASK);
+      }
+      quotient[j] = (int) qhat;
+    }
+    if (remainder != null) {
+      int[] rest = new int[n];
+      for (int i = 0; i < n; i++) {
+        rest[i] = ((u[i] >>> shift) | (u[i + 1] << (BITS - shift))) & MASK;
+      }
+      remainder[0] = trim(rest, n);
+    }
+    return trim(quotient, quotient.length);
+  }
+
+  private static int[] shiftLeftMagnitude(int[] mag, int n) {
+    if (mag.length == 0) {
+      return mag;
+    }
+    int limbs = n / BITS;
+    int bits = n % BITS;
+    int[] result = new int[mag.length + limbs + 1];
+    for (int i = 0; i < mag.length; i++) {
+      int shifted = mag[i] << bits;
+      result[i + limbs] |= shifted & MASK;
+      result[i + limbs + 1] = shifted >>> BITS;
+    }
+    return trim(result, result.length);
+  }
+
+  private static int[] shiftRightMagnitude(int[] mag, int n) {
+    int limbs = n / BITS;
+    int bits = n % BITS;
+    if (limbs >= mag.length) {
+      return NO_LIMBS;
+    }
+    int[] result = new int[mag.length - limbs];
+    for (int i = 0; i < result.length; i++) {
+      int high = i + limbs + 1 < mag.length ? mag[i + limbs + 1] << (BITS - bits) : 0;
+      result[i] = ((mag[i + limbs] >>> bits) | high) & MASK;
+    }
+    return trim(result, result.length);
+  }
+
+  /**
+   * Tells if any of the given number of low-order bits is set.
+   */
+  private static boolean hasLowBits(int[] mag, int n) {
+    int limbs = Math.min(n / BITS, mag.length);
+    for (int i = 0; i < limbs; i++) {
+      if (mag[i] != 0) {
+        return true;
+      }
+    }
+    return limbs < mag.length && (mag[limbs] & ((1 << (n % BITS)) - 1)) != 0;
+  }
+
+  private static int twosComplementLength(Object a, Object b) {
+    return Math.max(((Value) a).mag.length, ((Value) b).mag.length) + 1;
+  }
+
+  private static int[] toTwosComplement(Value value, int length) {
+    int[] result = new int[length];
+    if (value.signum >= 0) {
+      System.arraycopy(value.mag, 0, result, 0, value.mag.length);
+    } else {
+      // -m == ~(m - 1)
+      int[] mag = subtractMagnitudes(value.mag, ONE_LIMB);
+      for (int i = 0; i < length; i++) {
+        result[i] = ~(i < mag.length ? mag[i] : 0) & MASK;
+      }
+    }
+    return result;
+  }
+
+  private static Value fromTwosComplement(int[] limbs) {
+    if ((limbs[limbs.length - 1] & (BASE >> 1)) == 0) {
+      return new Value(1, trim(limbs, limbs.length));
+    }
+    for (int i = 0; i < limbs.length; i++) {
+      limbs[i] = ~limbs[i] & MASK;
+    }
+    return new Value(-1, addMagnitudes(trim(limbs, limbs.length), ONE_LIMB));
+  }
+}
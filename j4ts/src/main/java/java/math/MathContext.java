@@ -0,0 +1,86 @@
+package java.math;
+
+import java.io.Serializable;
+
+/**
+ * JSweet implementation of {@link MathContext}.
+ */
+public final class MathContext implements Serializable {
+
+  public static final MathContext UNLIMITED = new MathContext(0, RoundingMode.HALF_UP);
+
+  public static final MathContext DECIMAL32 = new MathContext(7, RoundingMode.HALF_EVEN);
+
+  public static final MathContext DECIMAL64 = new MathContext(16, RoundingMode.HALF_EVEN);
+
+  public static final MathContext DECIMAL128 = new MathContext(34, RoundingMode.HALF_EVEN);
+
+  private final int precision;
+
+  private final RoundingMode roundingMode;
+
+  public MathContext(int setPrecision) {
+    this(setPrecision, RoundingMode.HALF_UP);
+  }
+
+  public MathContext(int setPrecision, RoundingMode setRoundingMode) {
+    if (setPrecision < 0) {
+      throw new IllegalArgumentException("Digits < 0");
+    }
+    if (setRoundingMode == null) {
+      throw new NullPointerException("null RoundingMode");
+    }
+    precision = setPrecision;
+    roundingMode = setRoundingMode;
+  }
+
+  /**
+   * Parses the format of {@link #toString()}.
+   */
+  public MathContext(String val) {
+    if (val == null) {
+      throw new NullPointerException("null String");
+    }
+    int separator = val.indexOf(' ');
+    if (!val.startsWith("precision=") || separator < 0
+        || !val.startsWith("roundingMode=", separator + 1)) {
+      throw new IllegalArgumentException("bad string format");
+    }
+    try {
+      precision = Integer.parseInt(val.substring("precision=".length(), separator));
+      roundingMode = RoundingMode.valueOf(val.substring(separator + 1 + "roundingMode=".length()));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("bad string format");
+    }
+    if (precision < 0) {
+      throw new IllegalArgumentException("Digits < 0");
+    }
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  public RoundingMode getRoundingMode() {
+    return roundingMode;
+  }
+
+  @Override
+  public boolean equals(Object x) {
+    if (!(x instanceof MathContext)) {
+      return false;
+    }
+    MathContext mc = (MathContext) x;
+    return mc.precision == precision && mc.roundingMode == roundingMode;
+  }
+
+  @Override
+  public int hashCode() {
+    return roundingMode.hashCode() * 59 + precision;
+  }
+
+  @Override
+  public String toString() {
+    return "precision=" + precision + " roundingMode=" + roundingMode;
+  }
+}
@@ -0,0 +1,175 @@
+package java.math;
+
+/**
+ * The arithmetic of {@link BigInteger} on native <code>BigInt</code> values,
+ * which run at engine speed.
+ */
+final class NativeArithmetic implements Arithmetic {
+
+  /**
+   * Returns the native <code>BigInt</code> function, or null if the engine does
+   * not support it.
+   */
+  static native Object findBigInt() /*-{
+    var global;
+    try {
+      global = new Function("return this")();
+    } catch (e) {
+      // the content security policy forbids eval
+      global = typeof window !== "undefined" ? window : {};
+    }
+    return typeof global["BigInt"] === "function" ? global["BigInt"] : null;
+  }-*/;
+
+  private final Object bigInt;
+
+  NativeArithmetic(Object bigInt) {
+    this.bigInt = bigInt;
+  }
+
+  @Override
+  public Object fromDouble(double value) {
+    return create(bigInt, value);
+  }
+
+  @Override
+  public Object parse(String digits, int radix) {
+    return parseDigits(bigInt, digits, radix);
+  }
+
+  @Override
+  public native String format(Object a, int radix) /*-{
+    return a.toString(radix);
+  }-*/;
+
+  @Override
+  public native int signum(Object a) /*-{
+    return a > 0 ? 1 : a < 0 ? -1 : 0;
+  }-*/;
+
+  @Override
+  public native int compare(Object a, Object b) /*-{
+    return a < b ? -1 : a > b ? 1 : 0;
+  }-*/;
+
+  @Override
+  public native Object negate(Object a) /*-{
+    return -a;
+  }-*/;
+
+  @Override
+  public native Object add(Object a, Object b) /*-{
+    return a + b;
+  }-*/;
+
+  @Override
+  public native Object subtract(Object a, Object b) /*-{
+    return a - b;
+  }-*/;
+
+  @Override
+  public native Object multiply(Object a, Object b) /*-{
+    return a * b;
+  }-*/;
+
+  @Override
+  public native Object divide(Object a, Object b) /*-{
+    return a / b;
+  }-*/;
+
+  @Override
+  public native Object remainder(Object a, Object b) /*-{
+    return a % b;
+  }-*/;
+
+  @Override
+  public Object shiftLeft(Object a, int n) {
+    return nativeShiftLeft(a, create(bigInt, n));
+  }
+
+  @Override
+  public Object shiftRight(Object a, int n) {
+    return nativeShiftRight(a, create(bigInt, n));
+  }
+
+  @Override
+  public native Object and(Object a, Object b) /*-{
+    return a & b;
+  }-*/;
+
+  @Override
+  public native Object or(Object a, Object b) /*-{
+    return a | b;
+  }-*/;
+
+  @Override
+  public native Object xor(Object a, Object b) /*-{
+    return a ^ b;
+  }-*/;
+
+  @Override
+  public native Object not(Object a) /*-{
+    return ~a;
+  }-*/;
+
+  @Override
+  public native int bitLength(Object a) /*-{
+    var magnitude = a < 0 ? ~a : a;
+    return magnitude == 0 ? 0 : magnitude.toString(2).length;
+  }-*/;
+
+  @Override
+  public native double doubleValue(Object a) /*-{
+    return Number(a);
+  }-*/;
+
+  @Override
+  public int intValue(Object a) {
+    return (int) truncate(bigInt, a, 32);
+  }
+
+  @Override
+  public long longValue(Object a) {
+    return (long) truncate(bigInt, a, 64);
+  }
+
+  private static native Object create(Object bigInt, double value) /*-{
+    return bigInt(value);
+  }-*/;
+
+  private static native Object parseDigits(Object bigInt, String digits, int radix) /*-{
+    var negative = digits.charAt(0) === "-";
+    if (negative) {
+      digits = digits.substring(1);
+    }
+    var result;
+    if (radix === 10) {
+      result = bigInt(digits);
+    } else if (radix === 16) {
+      result = bigInt("0x" + digits);
+    } else if (radix === 8) {
+      result = bigInt("0o" + digits);
+    } else if (radix === 2) {
+      result = bigInt("0b" + digits);
+    } else {
+      result = bigInt(0);
+      var bigRadix = bigInt(radix);
+      for (var i = 0; i < digits.length; i++) {
+        result = result * bigRadix + bigInt(parseInt(digits.charAt(i), radix));
+      }
+    }
+    return negative ? -result : result;
+  }-*/;
+
+  private static native Object nativeShiftLeft(Object a, Object n) /*-{
+    return a << n;
+  }-*/;
+
+  private static native Object nativeShiftRight(Object a, Object n) /*-{
+    return a >> n;
+  }-*/;
+
+  private static native double truncate(Object bigInt, Object a, int bits) /*-{
+    return Number(bigInt.asIntN(bits, a));
+  }-*/;
+}
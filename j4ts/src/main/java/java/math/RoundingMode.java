@@ -0,0 +1,25 @@
+package java.math;
+
+/**
+ * JSweet implementation of {@link RoundingMode}.
+ */
+public enum RoundingMode {
+
+  // the values of the BigDecimal.ROUND_ constants
+  UP(0), DOWN(1), CEILING(2), FLOOR(3), HALF_UP(4), HALF_DOWN(5), HALF_EVEN(6), UNNECESSARY(7);
+
+  public static RoundingMode valueOf(int rm) {
+    for (RoundingMode mode : values()) {
+      if (mode.oldMode == rm) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("argument out of range");
+  }
+
+  final int oldMode;
+
+  private RoundingMode(int oldMode) {
+    this.oldMode = oldMode;
+  }
+}
@@ -0,0 +1,194 @@
+package java.nio;
+
+import static javaemul.internal.InternalPreconditions.checkArgument;
+
+/**
+ * JSweet implementation of {@link Buffer}: a linear sequence of elements with a
+ * capacity, a limit, a position and an optional mark.
+ */
+public abstract class Buffer {
+
+  private final int capacity;
+  private int limit;
+  private int position;
+  private int mark = -1;
+
+  /**
+   * True when the contents can only be read. Set on the copies returned by
+   * <code>asReadOnlyBuffer()</code> and inherited by their slices, duplicates
+   * and views.
+   */
+  boolean readOnly;
+
+  Buffer(int mark, int position, int limit, int capacity) {
+    checkArgument(capacity >= 0);
+    this.capacity = capacity;
+    limit(limit);
+    position(position);
+    if (mark >= 0) {
+      checkArgument(mark <= position);
+      this.mark = mark;
+    }
+  }
+
+  public final int capacity() {
+    return capacity;
+  }
+
+  public final int position() {
+    return position;
+  }
+
+  public final Buffer position(int newPosition) {
+    checkArgument(newPosition >= 0 && newPosition <= limit);
+    position = newPosition;
+    if (mark > position) {
+      mark = -1;
+    }
+    return this;
+  }
+
+  public final int limit() {
+    return limit;
+  }
+
+  public final Buffer limit(int newLimit) {
+    checkArgument(newLimit >= 0 && newLimit <= capacity);
+    limit = newLimit;
+    if (position > limit) {
+      position = limit;
+    }
+    if (mark > limit) {
+      mark = -1;
+    }
+    return this;
+  }
+
+  public final Buffer mark() {
+    mark = position;
+    return this;
+  }
+
+  public final Buffer reset() {
+    if (mark < 0) {
+      throw new InvalidMarkException();
+    }
+    position = mark;
+    return this;
+  }
+
+  public final Buffer clear() {
+    position = 0;
+    limit = capacity;
+    mark = -1;
+    return this;
+  }
+
+  public final Buffer flip() {
+    limit = position;
+    position = 0;
+    mark = -1;
+    return this;
+  }
+
+  public final Buffer rewind() {
+    position = 0;
+    mark = -1;
+    return this;
+  }
+
+  public final int remaining() {
+    return limit - position;
+  }
+
+  public final boolean hasRemaining() {
+    return position < limit;
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  public abstract boolean hasArray();
+
+  public abstract Object array();
+
+  public abstract int arrayOffset();
+
+  public abstract boolean isDirect();
+
+  final int markValue() {
+    return mark;
+  }
+
+  final void discardMark() {
+    mark = -1;
+  }
+
+  /**
+   * Returns the current position and moves it after the given number of
+   * elements to get.
+   */
+  final int nextGetIndex(int count) {
+    if (limit - position < count) {
+      throw new BufferUnderflowException();
+    }
+    int index = position;
+    position += count;
+    return index;
+  }
+
+  /**
+   * Returns the current position and moves it after the given number of
+   * elements to put.
+   */
+  final int nextPutIndex(int count) {
+    checkWritable();
+    if (limit - position < count) {
+      throw new BufferOverflowException();
+    }
+    int index = position;
+    position += count;
+    return index;
+  }
+
+  /**
+   * Checks that the given number of elements can be accessed at the given
+   * index.
+   */
+  final int checkIndex(int index, int count) {
+    if (index < 0 || count > limit - index) {
+      throw new IndexOutOfBoundsException();
+    }
+    return index;
+  }
+
+  /**
+   * Checks that the given number of elements can be put at the given index.
+   */
+  final int checkPutIndex(int index, int count) {
+    checkWritable();
+    return checkIndex(index, count);
+  }
+
+  final void checkWritable() {
+    if (readOnly) {
+      throw new ReadOnlyBufferException();
+    }
+  }
+
+  /**
+   * Makes the given buffer, which shares the contents of this one, read-only
+   * if this one is.
+   */
+  final <B extends Buffer> B shareReadOnly(B buffer) {
+    buffer.readOnly = readOnly;
+    return buffer;
+  }
+
+  static void checkBounds(int offset, int length, int size) {
+    if ((offset | length) < 0 || length > size - offset) {
+      throw new IndexOutOfBoundsException();
+    }
+  }
+}
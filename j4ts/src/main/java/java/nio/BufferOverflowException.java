@@ -0,0 +1,10 @@
+package java.nio;
+
+/**
+ * Thrown when a relative put reaches the limit of the buffer.
+ */
+public class BufferOverflowException extends RuntimeException {
+
+  public BufferOverflowException() {
+  }
+}
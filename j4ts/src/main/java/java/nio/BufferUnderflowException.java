@@ -0,0 +1,10 @@
+package java.nio;
+
+/**
+ * Thrown when a relative get reaches the limit of the buffer.
+ */
+public class BufferUnderflowException extends RuntimeException {
+
+  public BufferUnderflowException() {
+  }
+}
@@ -0,0 +1,470 @@
+package java.nio;
+
+import static javaemul.internal.Coercions.ensureInt;
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+import def.js.ArrayBuffer;
+import def.js.DataView;
+import def.js.Int8Array;
+
+/**
+ * JSweet implementation of {@link ByteBuffer}.
+ * <p>
+ * Heap buffers share the (plain) array they wrap, without copying it. Direct
+ * buffers are backed by an <code>ArrayBuffer</code>, which is read and
+ * written through an <code>Int8Array</code> for single bytes and bulk copies.
+ * Multi-byte values are read and written in either byte order through a
+ * <code>DataView</code>: the view of the <code>ArrayBuffer</code> for direct
+ * buffers, and a scratch view where the bytes are copied for heap buffers.
+ * Slices and duplicates share the storage of the original buffer.
+ */
+public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
+
+  private static final double TWO_POW_32 = 4294967296.0;
+
+  /**
+   * A shared 8-byte view through which the multi-byte values of heap buffers
+   * are read and written, since their plain arrays have no
+   * <code>ArrayBuffer</code>.
+   */
+  private static DataView scratch;
+
+  public static ByteBuffer allocate(int capacity) {
+    checkArgument(capacity >= 0);
+    return new ByteBuffer(new byte[capacity], null, 0, -1, 0, capacity, capacity);
+  }
+
+  public static ByteBuffer allocateDirect(int capacity) {
+    checkArgument(capacity >= 0);
+    ArrayBuffer buffer = new ArrayBuffer(capacity);
+    return new ByteBuffer((byte[]) (Object) new Int8Array(buffer), new DataView(buffer), 0, -1, 0,
+        capacity, capacity);
+  }
+
+  public static ByteBuffer wrap(byte[] array) {
+    return wrap(array, 0, array.length);
+  }
+
+  public static ByteBuffer wrap(byte[] array, int offset, int length) {
+    checkNotNull(array);
+    checkBounds(offset, length, array.length);
+    return new ByteBuffer(array, null, 0, -1, offset, offset + length, array.length);
+  }
+
+  private static DataView scratch() {
+    if (scratch == null) {
+      scratch = new DataView(new ArrayBuffer(8));
+    }
+    return scratch;
+  }
+
+  /**
+   * The bytes of this buffer, from <code>offset</code>: the wrapped array of
+   * a heap buffer, or an <code>Int8Array</code> for a direct buffer.
+   */
+  final byte[] hb;
+
+  /**
+   * The view over the storage of a direct buffer, null for a heap buffer.
+   */
+  final DataView view;
+
+  final int offset;
+
+  private boolean bigEndian = true;
+
+  ByteBuffer(byte[] hb, DataView view, int offset, int mark, int position, int limit,
+      int capacity) {
+    super(mark, position, limit, capacity);
+    this.hb = hb;
+    this.view = view;
+    this.offset = offset;
+  }
+
+  public ByteBuffer slice() {
+    int remaining = remaining();
+    return shareReadOnly(
+        new ByteBuffer(hb, view, offset + position(), -1, 0, remaining, remaining));
+  }
+
+  public ByteBuffer duplicate() {
+    return shareReadOnly(
+        new ByteBuffer(hb, view, offset, markValue(), position(), limit(), capacity()));
+  }
+
+  public ByteBuffer asReadOnlyBuffer() {
+    ByteBuffer buffer = duplicate();
+    buffer.readOnly = true;
+    return buffer;
+  }
+
+  public IntBuffer asIntBuffer() {
+    int capacity = remaining() >> 2;
+    return shareReadOnly(
+        new IntBuffer(null, slice().order(order()), 0, -1, 0, capacity, capacity));
+  }
+
+  public FloatBuffer asFloatBuffer() {
+    int capacity = remaining() >> 2;
+    return shareReadOnly(
+        new FloatBuffer(null, slice().order(order()), 0, -1, 0, capacity, capacity));
+  }
+
+  public final ByteOrder order() {
+    return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+  }
+
+  public final ByteBuffer order(ByteOrder order) {
+    bigEndian = order == ByteOrder.BIG_ENDIAN;
+    return this;
+  }
+
+  public byte get() {
+    return hb[offset + nextGetIndex(1)];
+  }
+
+  public byte get(int index) {
+    return hb[offset + checkIndex(index, 1)];
+  }
+
+  public ByteBuffer get(byte[] dst) {
+    return get(dst, 0, dst.length);
+  }
+
+  public ByteBuffer get(byte[] dst, int offset, int length) {
+    checkBounds(offset, length, dst.length);
+    if (length > remaining()) {
+      throw new BufferUnderflowException();
+    }
+    System.arraycopy(hb, this.offset + nextGetIndex(length), dst, offset, length);
+    return this;
+  }
+
+  public ByteBuffer put(byte b) {
+    hb[offset + nextPutIndex(1)] = b;
+    return this;
+  }
+
+  public ByteBuffer put(int index, byte b) {
+    hb[offset + checkPutIndex(index, 1)] = b;
+    return this;
+  }
+
+  public final ByteBuffer put(byte[] src) {
+    return put(src, 0, src.length);
+  }
+
+  public ByteBuffer put(byte[] src, int offset, int length) {
+    checkWritable();
+    checkBounds(offset, length, src.length);
+    if (length > remaining()) {
+      throw new BufferOverflowException();
+    }
+    System.arraycopy(src, offset, hb, this.offset + nextPutIndex(length), length);
+    return this;
+  }
+
+  public ByteBuffer put(ByteBuffer src) {
+    checkWritable();
+    checkArgument(src != this);
+    int length = src.remaining();
+    if (length > remaining()) {
+      throw new BufferOverflowException();
+    }
+    System.arraycopy(src.hb, src.offset + src.nextGetIndex(length), hb,
+        offset + nextPutIndex(length), length);
+    return this;
+  }
+
+  public ByteBuffer compact() {
+    checkWritable();
+    int remaining = remaining();
+    System.arraycopy(hb, offset + position(), hb, offset, remaining);
+    limit(capacity());
+    position(remaining);
+    discardMark();
+    return this;
+  }
+
+  @Override
+  public final boolean hasArray() {
+    return view == null && !readOnly;
+  }
+
+  @Override
+  public final byte[] array() {
+    checkWritable();
+    if (view != null) {
+      throw new UnsupportedOperationException();
+    }
+    return hb;
+  }
+
+  @Override
+  public final int arrayOffset() {
+    checkWritable();
+    if (view != null) {
+      throw new UnsupportedOperationException();
+    }
+    return offset;
+  }
+
+  @Override
+  public boolean isDirect() {
+    return view != null;
+  }
+
+  public char getChar() {
+    return (char) getShort0(nextGetIndex(2));
+  }
+
+  public char getChar(int index) {
+    return (char) getShort0(checkIndex(index, 2));
+  }
+
+  public ByteBuffer putChar(char value) {
+    putShort0(nextPutIndex(2), (short) value);
+    return this;
+  }
+
+  public ByteBuffer putChar(int index, char value) {
+    putShort0(checkPutIndex(index, 2), (short) value);
+    return this;
+  }
+
+  public short getShort() {
+    return getShort0(nextGetIndex(2));
+  }
+
+  public short getShort(int index) {
+    return getShort0(checkIndex(index, 2));
+  }
+
+  public ByteBuffer putShort(short value) {
+    putShort0(nextPutIndex(2), value);
+    return this;
+  }
+
+  public ByteBuffer putShort(int index, short value) {
+    putShort0(checkPutIndex(index, 2), value);
+    return this;
+  }
+
+  public int getInt() {
+    return getInt0(nextGetIndex(4));
+  }
+
+  public int getInt(int index) {
+    return getInt0(checkIndex(index, 4));
+  }
+
+  public ByteBuffer putInt(int value) {
+    putInt0(nextPutIndex(4), value);
+    return this;
+  }
+
+  public ByteBuffer putInt(int index, int value) {
+    putInt0(checkPutIndex(index, 4), value);
+    return this;
+  }
+
+  public long getLong() {
+    return getLong0(nextGetIndex(8));
+  }
+
+  public long getLong(int index) {
+    return getLong0(checkIndex(index, 8));
+  }
+
+  public ByteBuffer putLong(long value) {
+    putLong0(nextPutIndex(8), value);
+    return this;
+  }
+
+  public ByteBuffer putLong(int index, long value) {
+    putLong0(checkPutIndex(index, 8), value);
+    return this;
+  }
+
+  public float getFloat() {
+    return getFloat0(nextGetIndex(4));
+  }
+
+  public float getFloat(int index) {
+    return getFloat0(checkIndex(index, 4));
+  }
+
+  public ByteBuffer putFloat(float value) {
+    putFloat0(nextPutIndex(4), value);
+    return this;
+  }
+
+  public ByteBuffer putFloat(int index, float value) {
+    putFloat0(checkPutIndex(index, 4), value);
+    return this;
+  }
+
+  public double getDouble() {
+    return getDouble0(nextGetIndex(8));
+  }
+
+  public double getDouble(int index) {
+    return getDouble0(checkIndex(index, 8));
+  }
+
+  public ByteBuffer putDouble(double value) {
+    putDouble0(nextPutIndex(8), value);
+    return this;
+  }
+
+  public ByteBuffer putDouble(int index, double value) {
+    putDouble0(checkPutIndex(index, 8), value);
+    return this;
+  }
+
+  @Override
+  public int compareTo(ByteBuffer other) {
+    int length = Math.min(remaining(), other.remaining());
+    for (int i = 0; i < length; i++) {
+      int diff = get(position() + i) - other.get(other.position() + i);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return remaining() - other.remaining();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    }
+    if (!(other instanceof ByteBuffer)) {
+      return false;
+    }
+    ByteBuffer buffer = (ByteBuffer) other;
+    return remaining() == buffer.remaining() && compareTo(buffer) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    for (int i = limit() - 1; i >= position(); i--) {
+      hashCode = 31 * hashCode + get(i);
+      hashCode = ensureInt(hashCode); // make sure we don't overflow
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return (isDirect() ? "java.nio.DirectByteBuffer" : "java.nio.HeapByteBuffer") + "[pos="
+        + position() + " lim=" + limit() + " cap=" + capacity() + "]";
+  }
+
+  // Unchecked accessors, also used by the views of this buffer. The index is
+  // relative to the beginning of this buffer.
+
+  short getShort0(int index) {
+    if (view != null) {
+      return (short) view.getInt16(offset + index, !bigEndian);
+    }
+    return (short) load(index, 2).getInt16(0, !bigEndian);
+  }
+
+  void putShort0(int index, short value) {
+    if (view != null) {
+      view.setInt16(offset + index, value, !bigEndian);
+    } else {
+      scratch().setInt16(0, value, !bigEndian);
+      store(index, 2);
+    }
+  }
+
+  int getInt0(int index) {
+    if (view != null) {
+      return (int) view.getInt32(offset + index, !bigEndian);
+    }
+    return (int) load(index, 4).getInt32(0, !bigEndian);
+  }
+
+  void putInt0(int index, int value) {
+    if (view != null) {
+      view.setInt32(offset + index, value, !bigEndian);
+    } else {
+      scratch().setInt32(0, value, !bigEndian);
+      store(index, 4);
+    }
+  }
+
+  long getLong0(int index) {
+    int high = getInt0(bigEndian ? index : index + 4);
+    int low = getInt0(bigEndian ? index + 4 : index);
+    return (long) (high * TWO_POW_32 + (low < 0 ? low + TWO_POW_32 : low));
+  }
+
+  void putLong0(int index, long value) {
+    int high = (int) Math.floor(value / TWO_POW_32);
+    int low = (int) (long) (value - high * TWO_POW_32);
+    putInt0(bigEndian ? index : index + 4, high);
+    putInt0(bigEndian ? index + 4 : index, low);
+  }
+
+  float getFloat0(int index) {
+    if (view != null) {
+      return (float) view.getFloat32(offset + index, !bigEndian);
+    }
+    return (float) load(index, 4).getFloat32(0, !bigEndian);
+  }
+
+  void putFloat0(int index, float value) {
+    if (view != null) {
+      view.setFloat32(offset + index, value, !bigEndian);
+    } else {
+      scratch().setFloat32(0, value, !bigEndian);
+      store(index, 4);
+    }
+  }
+
+  double getDouble0(int index) {
+    if (view != null) {
+      return view.getFloat64(offset + index, !bigEndian);
+    }
+    return load(index, 8).getFloat64(0, !bigEndian);
+  }
+
+  void putDouble0(int index, double value) {
+    if (view != null) {
+      view.setFloat64(offset + index, value, !bigEndian);
+    } else {
+      scratch().setFloat64(0, value, !bigEndian);
+      store(index, 8);
+    }
+  }
+
+  /**
+   * Copies the given number of bytes of a heap buffer to the scratch view, so
+   * that they can be read as a multi-byte value.
+   */
+  private DataView load(int index, int count) {
+    DataView scratch = scratch();
+    int first = offset + index;
+    for (int i = 0; i < count; i++) {
+      scratch.setInt8(i, hb[first + i]);
+    }
+    return scratch;
+  }
+
+  /**
+   * Copies the given number of bytes of the scratch view, where a multi-byte
+   * value was written, to a heap buffer.
+   */
+  private void store(int index, int count) {
+    DataView scratch = scratch();
+    int first = offset + index;
+    for (int i = 0; i < count; i++) {
+      hb[first + i] = (byte) scratch.getInt8(i);
+    }
+  }
+}
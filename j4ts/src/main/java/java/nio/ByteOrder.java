@@ -0,0 +1,38 @@
+package java.nio;
+
+/**
+ * JSweet implementation of {@link ByteOrder}.
+ */
+public final class ByteOrder {
+
+  public static final ByteOrder BIG_ENDIAN = new ByteOrder("BIG_ENDIAN");
+
+  public static final ByteOrder LITTLE_ENDIAN = new ByteOrder("LITTLE_ENDIAN");
+
+  private static ByteOrder nativeOrder;
+
+  /**
+   * Returns the byte order of the typed arrays of the platform.
+   */
+  public static ByteOrder nativeOrder() {
+    if (nativeOrder == null) {
+      nativeOrder = isLittleEndianPlatform() ? LITTLE_ENDIAN : BIG_ENDIAN;
+    }
+    return nativeOrder;
+  }
+
+  private static native boolean isLittleEndianPlatform() /*-{
+    return new Uint8Array(new Uint16Array([1]).buffer)[0] === 1;
+  }-*/;
+
+  private final String name;
+
+  private ByteOrder(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
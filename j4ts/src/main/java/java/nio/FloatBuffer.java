@@ -0,0 +1,251 @@
+package java.nio;
+
+import static javaemul.internal.Coercions.ensureInt;
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+/**
+ * JSweet implementation of {@link FloatBuffer}.
+ * <p>
+ * A FloatBuffer either wraps a float array, without copying it, or is a view
+ * over the bytes of a {@link ByteBuffer}, in the byte order of that buffer when
+ * the view was created.
+ */
+public class FloatBuffer extends Buffer implements Comparable<FloatBuffer> {
+
+  public static FloatBuffer allocate(int capacity) {
+    checkArgument(capacity >= 0);
+    return new FloatBuffer(new float[capacity], null, 0, -1, 0, capacity, capacity);
+  }
+
+  public static FloatBuffer wrap(float[] array) {
+    return wrap(array, 0, array.length);
+  }
+
+  public static FloatBuffer wrap(float[] array, int offset, int length) {
+    checkNotNull(array);
+    checkBounds(offset, length, array.length);
+    return new FloatBuffer(array, null, 0, -1, offset, offset + length, array.length);
+  }
+
+  /**
+   * The wrapped array, null for a view.
+   */
+  final float[] hb;
+
+  /**
+   * The viewed bytes, null for a wrapped array.
+   */
+  final ByteBuffer bb;
+
+  /**
+   * The index of the first element of this buffer in the wrapped array, or in
+   * the viewed bytes (in elements of 4 bytes).
+   */
+  final int offset;
+
+  FloatBuffer(float[] hb, ByteBuffer bb, int offset, int mark, int position, int limit, int capacity) {
+    super(mark, position, limit, capacity);
+    this.hb = hb;
+    this.bb = bb;
+    this.offset = offset;
+  }
+
+  public FloatBuffer slice() {
+    int remaining = remaining();
+    return shareReadOnly(
+        new FloatBuffer(hb, bb, offset + position(), -1, 0, remaining, remaining));
+  }
+
+  public FloatBuffer duplicate() {
+    return shareReadOnly(
+        new FloatBuffer(hb, bb, offset, markValue(), position(), limit(), capacity()));
+  }
+
+  public FloatBuffer asReadOnlyBuffer() {
+    FloatBuffer buffer = duplicate();
+    buffer.readOnly = true;
+    return buffer;
+  }
+
+  public ByteOrder order() {
+    return bb != null ? bb.order() : ByteOrder.nativeOrder();
+  }
+
+  public float get() {
+    return load(nextGetIndex(1));
+  }
+
+  public float get(int index) {
+    return load(checkIndex(index, 1));
+  }
+
+  public FloatBuffer get(float[] dst) {
+    return get(dst, 0, dst.length);
+  }
+
+  public FloatBuffer get(float[] dst, int offset, int length) {
+    checkBounds(offset, length, dst.length);
+    if (length > remaining()) {
+      throw new BufferUnderflowException();
+    }
+    int index = nextGetIndex(length);
+    if (hb != null) {
+      System.arraycopy(hb, this.offset + index, dst, offset, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        dst[offset + i] = load(index + i);
+      }
+    }
+    return this;
+  }
+
+  public FloatBuffer put(float value) {
+    store(nextPutIndex(1), value);
+    return this;
+  }
+
+  public FloatBuffer put(int index, float value) {
+    store(checkPutIndex(index, 1), value);
+    return this;
+  }
+
+  public final FloatBuffer put(float[] src) {
+    return put(src, 0, src.length);
+  }
+
+  public FloatBuffer put(float[] src, int offset, int length) {
+    checkWritable();
+    checkBounds(offset, length, src.length);
+    if (length > remaining()) {
+      throw new BufferOverflowException();
+    }
+    int index = nextPutIndex(length);
+    if (hb != null) {
+      System.arraycopy(src, offset, hb, this.offset + index, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        store(index + i, src[offset + i]);
+      }
+    }
+    return this;
+  }
+
+  public FloatBuffer put(FloatBuffer src) {
+    checkWritable();
+    checkArgument(src != this);
+    int length = src.remaining();
+    if (length > remaining()) {
+      throw new BufferOverflowException();
+    }
+    int srcIndex = src.nextGetIndex(length);
+    int index = nextPutIndex(length);
+    if (hb != null && src.hb != null) {
+      System.arraycopy(src.hb, src.offset + srcIndex, hb, offset + index, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        store(index + i, src.load(srcIndex + i));
+      }
+    }
+    return this;
+  }
+
+  public FloatBuffer compact() {
+    checkWritable();
+    int remaining = remaining();
+    int position = position();
+    if (hb != null) {
+      System.arraycopy(hb, offset + position, hb, offset, remaining);
+    } else {
+      for (int i = 0; i < remaining; i++) {
+        store(i, load(position + i));
+      }
+    }
+    limit(capacity());
+    position(remaining);
+    discardMark();
+    return this;
+  }
+
+  @Override
+  public final boolean hasArray() {
+    return hb != null && !readOnly;
+  }
+
+  @Override
+  public final float[] array() {
+    checkWritable();
+    if (hb == null) {
+      throw new UnsupportedOperationException();
+    }
+    return hb;
+  }
+
+  @Override
+  public final int arrayOffset() {
+    checkWritable();
+    if (hb == null) {
+      throw new UnsupportedOperationException();
+    }
+    return offset;
+  }
+
+  @Override
+  public boolean isDirect() {
+    return bb != null && bb.isDirect();
+  }
+
+  @Override
+  public int compareTo(FloatBuffer other) {
+    int length = Math.min(remaining(), other.remaining());
+    for (int i = 0; i < length; i++) {
+      int diff = Float.compare(get(position() + i), other.get(other.position() + i));
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return remaining() - other.remaining();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    }
+    if (!(other instanceof FloatBuffer)) {
+      return false;
+    }
+    FloatBuffer buffer = (FloatBuffer) other;
+    return remaining() == buffer.remaining() && compareTo(buffer) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    for (int i = limit() - 1; i >= position(); i--) {
+      hashCode = 31 * hashCode + Float.hashCode(get(i));
+      hashCode = ensureInt(hashCode); // make sure we don't overflow
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "java.nio.FloatBuffer[pos=" + position() + " lim=" + limit() + " cap=" + capacity() + "]";
+  }
+
+  private float load(int index) {
+    if (hb != null) {
+      return hb[offset + index];
+    }
+    return bb.getFloat0((offset + index) * 4);
+  }
+
+  private void store(int index, float value) {
+    if (hb != null) {
+      hb[offset + index] = value;
+    } else {
+      bb.putFloat0((offset + index) * 4, value);
+    }
+  }
+}
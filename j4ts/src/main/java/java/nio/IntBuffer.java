@@ -0,0 +1,251 @@
+package java.nio;
+
+import static javaemul.internal.Coercions.ensureInt;
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+/**
+ * JSweet implementation of {@link IntBuffer}.
+ * <p>
+ * An IntBuffer either wraps an int array, without copying it, or is a view over
+ * the bytes of a {@link ByteBuffer}, in the byte order of that buffer when
+ * the view was created.
+ */
+public class IntBuffer extends Buffer implements Comparable<IntBuffer> {
+
+  public static IntBuffer allocate(int capacity) {
+    checkArgument(capacity >= 0);
+    return new IntBuffer(new int[capacity], null, 0, -1, 0, capacity, capacity);
+  }
+
+  public static IntBuffer wrap(int[] array) {
+    return wrap(array, 0, array.length);
+  }
+
+  public static IntBuffer wrap(int[] array, int offset, int length) {
+    checkNotNull(array);
+    checkBounds(offset, length, array.length);
+    return new IntBuffer(array, null, 0, -1, offset, offset + length, array.length);
+  }
+
+  /**
+   * The wrapped array, null for a view.
+   */
+  final int[] hb;
+
+  /**
+   * The viewed bytes, null for a wrapped array.
+   */
+  final ByteBuffer bb;
+
+  /**
+   * The index of the first element of this buffer in the wrapped array, or in
+   * the viewed bytes (in elements of 4 bytes).
+   */
+  final int offset;
+
+  IntBuffer(int[] hb, ByteBuffer bb, int offset, int mark, int position, int limit, int capacity) {
+    super(mark, position, limit, capacity);
+    this.hb = hb;
+    this.bb = bb;
+    this.offset = offset;
+  }
+
+  public IntBuffer slice() {
+    int remaining = remaining();
+    return shareReadOnly(
+        new IntBuffer(hb, bb, offset + position(), -1, 0, remaining, remaining));
+  }
+
+  public IntBuffer duplicate() {
+    return shareReadOnly(
+        new IntBuffer(hb, bb, offset, markValue(), position(), limit(), capacity()));
+  }
+
+  public IntBuffer asReadOnlyBuffer() {
+    IntBuffer buffer = duplicate();
+    buffer.readOnly = true;
+    return buffer;
+  }
+
+  public ByteOrder order() {
+    return bb != null ? bb.order() : ByteOrder.nativeOrder();
+  }
+
+  public int get() {
+    return load(nextGetIndex(1));
+  }
+
+  public int get(int index) {
+    return load(checkIndex(index, 1));
+  }
+
+  public IntBuffer get(int[] dst) {
+    return get(dst, 0, dst.length);
+  }
+
+  public IntBuffer get(int[] dst, int offset, int length) {
+    checkBounds(offset, length, dst.length);
+    if (length > remaining()) {
+      throw new BufferUnderflowException();
+    }
+    int index = nextGetIndex(length);
+    if (hb != null) {
+      System.arraycopy(hb, this.offset + index, dst, offset, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        dst[offset + i] = load(index + i);
+      }
+    }
+    return this;
+  }
+
+  public IntBuffer put(int value) {
+    store(nextPutIndex(1), value);
+    return this;
+  }
+
+  public IntBuffer put(int index, int value) {
+    store(checkPutIndex(index, 1), value);
+    return this;
+  }
+
+  public final IntBuffer put(int[] src) {
+    return put(src, 0, src.length);
+  }
+
+  public IntBuffer put(int[] src, int offset, int length) {
+    checkWritable();
+    checkBounds(offset, length, src.length);
+    if (length > remaining()) {
+      throw new BufferOverflowException();
+    }
+    int index = nextPutIndex(length);
+    if (hb != null) {
+      System.arraycopy(src, offset, hb, this.offset + index, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        store(index + i, src[offset + i]);
+      }
+    }
+    return this;
+  }
+
+  public IntBuffer put(IntBuffer src) {
+    checkWritable();
+    checkArgument(src != this);
+    int length = src.remaining();
+    if (length > remaining()) {
+      throw new BufferOverflowException();
+    }
+    int srcIndex = src.nextGetIndex(length);
+    int index = nextPutIndex(length);
+    if (hb != null && src.hb != null) {
+      System.arraycopy(src.hb, src.offset + srcIndex, hb, offset + index, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        store(index + i, src.load(srcIndex + i));
+      }
+    }
+    return this;
+  }
+
+  public IntBuffer compact() {
+    checkWritable();
+    int remaining = remaining();
+    int position = position();
+    if (hb != null) {
+      System.arraycopy(hb, offset + position, hb, offset, remaining);
+    } else {
+      for (int i = 0; i < remaining; i++) {
+        store(i, load(position + i));
+      }
+    }
+    limit(capacity());
+    position(remaining);
+    discardMark();
+    return this;
+  }
+
+  @Override
+  public final boolean hasArray() {
+    return hb != null && !readOnly;
+  }
+
+  @Override
+  public final int[] array() {
+    checkWritable();
+    if (hb == null) {
+      throw new UnsupportedOperationException();
+    }
+    return hb;
+  }
+
+  @Override
+  public final int arrayOffset() {
+    checkWritable();
+    if (hb == null) {
+      throw new UnsupportedOperationException();
+    }
+    return offset;
+  }
+
+  @Override
+  public boolean isDirect() {
+    return bb != null && bb.isDirect();
+  }
+
+  @Override
+  public int compareTo(IntBuffer other) {
+    int length = Math.min(remaining(), other.remaining());
+    for (int i = 0; i < length; i++) {
+      int diff = Integer.compare(get(position() + i), other.get(other.position() + i));
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return remaining() - other.remaining();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    }
+    if (!(other instanceof IntBuffer)) {
+      return false;
+    }
+    IntBuffer buffer = (IntBuffer) other;
+    return remaining() == buffer.remaining() && compareTo(buffer) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    for (int i = limit() - 1; i >= position(); i--) {
+      hashCode = 31 * hashCode + get(i);
+      hashCode = ensureInt(hashCode); // make sure we don't overflow
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "java.nio.IntBuffer[pos=" + position() + " lim=" + limit() + " cap=" + capacity() + "]";
+  }
+
+  private int load(int index) {
+    if (hb != null) {
+      return hb[offset + index];
+    }
+    return bb.getInt0((offset + index) * 4);
+  }
+
+  private void store(int index, int value) {
+    if (hb != null) {
+      hb[offset + index] = value;
+    } else {
+      bb.putInt0((offset + index) * 4, value);
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package java.nio;
+
+/**
+ * Thrown when a buffer is reset while its mark is not defined.
+ */
+public class InvalidMarkException extends IllegalStateException {
+
+  public InvalidMarkException() {
+  }
+}
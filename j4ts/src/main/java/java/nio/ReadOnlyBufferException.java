@@ -0,0 +1,10 @@
+package java.nio;
+
+/**
+ * Thrown when modifying the contents of a read-only buffer.
+ */
+public class ReadOnlyBufferException extends UnsupportedOperationException {
+
+  public ReadOnlyBufferException() {
+  }
+}
@@ -180,7 +180,7 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 
   @Override
   public boolean containsValue(Object value) {
-    return _containsValue(value, stringMap) || _containsValue(value, hashCodeMap);
+    return _containsValue(value, stringMap) || hashCodeMap.containsValue(value);
   }
 
   private boolean _containsValue(Object value, Iterable<Entry<K, V>> entries) {
@@ -242,7 +242,7 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
    * hashCode.
    */
   private V getHashValue(Object key) {
-    return getEntryValueOrNull(hashCodeMap.getEntry(key));
+    return hashCodeMap.get(key);
   }
 
   /**
@@ -259,7 +259,7 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
    * <code>hashCode</code>.
    */
   private boolean hasHashValue(Object key) {
-    return hashCodeMap.getEntry(key) != null;
+    return hashCodeMap.containsKey(key);
   }
 
   /**
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util;
+
+import static javaemul.internal.InternalPreconditions.checkElement;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static javaemul.internal.InternalPreconditions.checkState;
+
+import java.io.Serializable;
+
+import javaemul.internal.ArrayHelper;
+
+/**
+ * A {@link Deque} based on circular buffer that is implemented with an array
+ * and head/tail indices.
+ * <a href="http://docs.oracle.com/javase/8/docs/api/java/util/ArrayDeque.html">
+ * [Sun docs]</a>
+ *
+ * @param <E> element type.
+ */
+public class ArrayDeque<E> extends AbstractCollection<E>
+    implements Deque<E>, Cloneable, Serializable {
+
+  private final class IteratorImpl implements Iterator<E> {
+    private int currentIndex = head;
+    private int lastIndex = -1;
+    private int fence = tail;
+
+    @Override
+    public boolean hasNext() {
+      return currentIndex != fence;
+    }
+
+    @Override
+    public E next() {
+      checkElement(hasNext());
+      E e = array[currentIndex];
+      if (tail != fence || e == null) {
+        throw new ConcurrentModificationException();
+      }
+      lastIndex = currentIndex;
+      currentIndex = (currentIndex + 1) & (array.length - 1);
+      return e;
+    }
+
+    @Override
+    public void remove() {
+      checkState(lastIndex >= 0);
+      if (removeAtIndex(lastIndex) < 0) {
+        // the following elements were moved backward
+        currentIndex = (currentIndex - 1) & (array.length - 1);
+        fence = tail;
+      }
+      lastIndex = -1;
+    }
+  }
+
+  private final class DescendingIteratorImpl implements Iterator<E> {
+    private int currentIndex = tail;
+    private int lastIndex = -1;
+    private int fence = head;
+
+    @Override
+    public boolean hasNext() {
+      return currentIndex != fence;
+    }
+
+    @Override
+    public E next() {
+      checkElement(hasNext());
+      currentIndex = (currentIndex - 1) & (array.length - 1);
+      E e = array[currentIndex];
+      if (head != fence || e == null) {
+        throw new ConcurrentModificationException();
+      }
+      lastIndex = currentIndex;
+      return e;
+    }
+
+    @Override
+    public void remove() {
+      checkState(lastIndex >= 0);
+      if (removeAtIndex(lastIndex) > 0) {
+        // the previous elements were moved forward
+        currentIndex = (currentIndex + 1) & (array.length - 1);
+        fence = head;
+      }
+      lastIndex = -1;
+    }
+  }
+
+  /**
+   * The minimum capacity that we'll use for a newly created deque. Must be a
+   * power of 2.
+   */
+  private static final int MIN_INITIAL_CAPACITY = 8;
+
+  /**
+   * Returns the smallest power of two that can hold the given number of
+   * elements, leaving one free slot.
+   */
+  private static int getCapacity(int numElements) {
+    int capacity = MIN_INITIAL_CAPACITY;
+    while (capacity <= numElements) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * The circular buffer. Its length is always a power of 2, so that the
+   * indices wrap with a mask, and it is never full: the slots that do not hold
+   * an element are null.
+   */
+  private E[] array;
+
+  /**
+   * The index of the first element, if any.
+   */
+  private int head;
+
+  /**
+   * The index at which the next element would be added at the tail.
+   */
+  private int tail;
+
+  @SuppressWarnings("unchecked")
+  public ArrayDeque() {
+    array = (E[]) new Object[MIN_INITIAL_CAPACITY * 2];
+  }
+
+  @SuppressWarnings("unchecked")
+  public ArrayDeque(int numElements) {
+    array = (E[]) new Object[getCapacity(numElements)];
+  }
+
+  @SuppressWarnings("unchecked")
+  public ArrayDeque(Collection<? extends E> c) {
+    array = (E[]) new Object[getCapacity(c.size())];
+    addAll(c);
+  }
+
+  @Override
+  public boolean add(E e) {
+    addLast(e);
+    return true;
+  }
+
+  @Override
+  public void addFirst(E e) {
+    checkNotNull(e);
+    head = (head - 1) & (array.length - 1);
+    array[head] = e;
+    if (head == tail) {
+      doubleCapacity();
+    }
+  }
+
+  @Override
+  public void addLast(E e) {
+    checkNotNull(e);
+    array[tail] = e;
+    tail = (tail + 1) & (array.length - 1);
+    if (tail == head) {
+      doubleCapacity();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void clear() {
+    if (head != tail) {
+      array = (E[]) new Object[MIN_INITIAL_CAPACITY * 2];
+      head = 0;
+      tail = 0;
+    }
+  }
+
+  public ArrayDeque<E> clone() {
+    return new ArrayDeque<E>(this);
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  @Override
+  public Iterator<E> descendingIterator() {
+    return new DescendingIteratorImpl();
+  }
+
+  @Override
+  public E element() {
+    return getFirst();
+  }
+
+  @Override
+  public E getFirst() {
+    E e = peekFirst();
+    checkElement(e != null);
+    return e;
+  }
+
+  @Override
+  public E getLast() {
+    E e = peekLast();
+    checkElement(e != null);
+    return e;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return head == tail;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new IteratorImpl();
+  }
+
+  @Override
+  public boolean offer(E e) {
+    return offerLast(e);
+  }
+
+  @Override
+  public boolean offerFirst(E e) {
+    addFirst(e);
+    return true;
+  }
+
+  @Override
+  public boolean offerLast(E e) {
+    addLast(e);
+    return true;
+  }
+
+  @Override
+  public E peek() {
+    return peekFirst();
+  }
+
+  @Override
+  public E peekFirst() {
+    return array[head];
+  }
+
+  @Override
+  public E peekLast() {
+    return array[(tail - 1) & (array.length - 1)];
+  }
+
+  @Override
+  public E poll() {
+    return pollFirst();
+  }
+
+  @Override
+  public E pollFirst() {
+    E e = array[head];
+    if (e == null) {
+      return null;
+    }
+    array[head] = null;
+    head = (head + 1) & (array.length - 1);
+    return e;
+  }
+
+  @Override
+  public E pollLast() {
+    if (head == tail) {
+      return null;
+    }
+    tail = (tail - 1) & (array.length - 1);
+    E e = array[tail];
+    array[tail] = null;
+    return e;
+  }
+
+  @Override
+  public E pop() {
+    return removeFirst();
+  }
+
+  @Override
+  public void push(E e) {
+    addFirst(e);
+  }
+
+  @Override
+  public E remove() {
+    return removeFirst();
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return removeFirstOccurrence(o);
+  }
+
+  @Override
+  public E removeFirst() {
+    E e = pollFirst();
+    checkElement(e != null);
+    return e;
+  }
+
+  @Override
+  public boolean removeFirstOccurrence(Object o) {
+    int i = indexOf(o);
+    if (i < 0) {
+      return false;
+    }
+    removeAtIndex(i);
+    return true;
+  }
+
+  @Override
+  public E removeLast() {
+    E e = pollLast();
+    checkElement(e != null);
+    return e;
+  }
+
+  @Override
+  public boolean removeLastOccurrence(Object o) {
+    if (o != null) {
+      int mask = array.length - 1;
+      for (int i = (tail - 1) & mask; i != ((head - 1) & mask); i = (i - 1) & mask) {
+        if (o.equals(array[i])) {
+          removeAtIndex(i);
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return (tail - head) & (array.length - 1);
+  }
+
+  @Override
+  public Object[] toArray() {
+    return toArray(new Object[size()]);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T[] toArray(T[] out) {
+    int size = size();
+    if (out.length < size) {
+      out = ArrayHelper.createFrom(out, size);
+    }
+    copyElements(out, size);
+    if (out.length > size) {
+      out[size] = null;
+    }
+    return out;
+  }
+
+  /**
+   * Copies the elements in order to the beginning of the given array.
+   */
+  private void copyElements(Object[] dest, int count) {
+    int mask = array.length - 1;
+    for (int i = head, j = 0; j < count; i = (i + 1) & mask, j++) {
+      dest[j] = array[i];
+    }
+  }
+
+  /**
+   * Doubles the capacity when the buffer got full, and unwraps the elements
+   * to the beginning of the new buffer.
+   */
+  @SuppressWarnings("unchecked")
+  private void doubleCapacity() {
+    int capacity = array.length;
+    E[] newArray = (E[]) new Object[capacity << 1];
+    // the buffer is full, so head == tail
+    for (int i = head, j = 0; j < capacity; i = (i + 1) & (capacity - 1), j++) {
+      newArray[j] = array[i];
+    }
+    array = newArray;
+    head = 0;
+    tail = capacity;
+  }
+
+  private int indexOf(Object o) {
+    if (o != null) {
+      int mask = array.length - 1;
+      for (int i = head; i != tail; i = (i + 1) & mask) {
+        if (o.equals(array[i])) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Removes the element at the given index of the buffer, by moving the
+   * shortest side of the deque over it.
+   *
+   * @return a negative number if the following elements were moved backward,
+   *         a positive number if the previous elements were moved forward
+   */
+  private int removeAtIndex(int i) {
+    int mask = array.length - 1;
+    int before = (i - head) & mask;
+    int after = (tail - i) & mask;
+    if (before < after) {
+      for (int j = i; j != head; j = (j - 1) & mask) {
+        array[j] = array[(j - 1) & mask];
+      }
+      array[head] = null;
+      head = (head + 1) & mask;
+      return 1;
+    } else {
+      int last = (tail - 1) & mask;
+      for (int j = i; j != last; j = (j + 1) & mask) {
+        array[j] = array[(j + 1) & mask];
+      }
+      array[last] = null;
+      tail = last;
+      return -1;
+    }
+  }
+}
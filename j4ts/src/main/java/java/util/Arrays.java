@@ -26,9 +26,13 @@ import static javaemul.internal.InternalPreconditions.checkPositionIndexes;
 import static jsweet.util.Globals.any;
 
 import java.io.Serializable;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javaemul.internal.ArrayHelper;
-import javaemul.internal.LongCompareHolder;
 
 /**
  * Utility methods related to native arrays. <a
@@ -962,85 +966,196 @@ public class Arrays {
     return hashCode;
   }
 
+  public static void parallelSort(byte[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(byte[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static void parallelSort(char[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(char[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static void parallelSort(double[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(double[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static void parallelSort(float[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(float[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static void parallelSort(int[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(int[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static void parallelSort(long[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(long[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static void parallelSort(short[] array) {
+    sort(array);
+  }
+
+  public static void parallelSort(short[] array, int fromIndex, int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static <T extends Comparable<? super T>> void parallelSort(T[] array) {
+    sort(array);
+  }
+
+  public static <T extends Comparable<? super T>> void parallelSort(T[] array, int fromIndex,
+      int toIndex) {
+    sort(array, fromIndex, toIndex);
+  }
+
+  public static <T> void parallelSort(T[] array, Comparator<? super T> c) {
+    sort(array, c);
+  }
+
+  public static <T> void parallelSort(T[] array, int fromIndex, int toIndex,
+      Comparator<? super T> c) {
+    sort(array, fromIndex, toIndex, c);
+  }
+
   public static void sort(byte[] array) {
-    nativeNumberSort(array);
+    nativeIntSort(array, 0, array.length);
   }
 
   public static void sort(byte[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeNumberSort(array, fromIndex, toIndex);
+    nativeIntSort(array, fromIndex, toIndex);
   }
 
   public static void sort(char[] array) {
-    nativeNumberSort(array);
+    nativeCharSort(array, 0, array.length);
   }
 
   public static void sort(char[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeNumberSort(array, fromIndex, toIndex);
+    nativeCharSort(array, fromIndex, toIndex);
   }
 
   public static void sort(double[] array) {
-    nativeNumberSort(array);
+    nativeDoubleSort(array, 0, array.length);
   }
 
   public static void sort(double[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeNumberSort(array, fromIndex, toIndex);
+    nativeDoubleSort(array, fromIndex, toIndex);
   }
 
   public static void sort(float[] array) {
-    nativeNumberSort(array);
+    nativeDoubleSort(array, 0, array.length);
   }
 
   public static void sort(float[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeNumberSort(array, fromIndex, toIndex);
+    nativeDoubleSort(array, fromIndex, toIndex);
   }
 
   public static void sort(int[] array) {
-    nativeNumberSort(array);
+    nativeIntSort(array, 0, array.length);
   }
 
   public static void sort(int[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeNumberSort(array, fromIndex, toIndex);
+    nativeIntSort(array, fromIndex, toIndex);
   }
 
   public static void sort(long[] array) {
-    nativeLongSort(array, LongCompareHolder.getLongComparator());
+    nativeDoubleSort(array, 0, array.length);
   }
 
   public static void sort(long[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeLongSort(array, fromIndex, toIndex);
+    nativeDoubleSort(array, fromIndex, toIndex);
   }
 
   public static void sort(Object[] array) {
-    mergeSort(array, 0, array.length, Comparators.natural());
+    timSort(array, 0, array.length, null);
   }
 
   public static void sort(Object[] x, int fromIndex, int toIndex) {
-    mergeSort(x, fromIndex, toIndex, Comparators.natural());
+    checkPositionIndexes(fromIndex, toIndex, x.length);
+    timSort(x, fromIndex, toIndex, null);
   }
 
   public static void sort(short[] array) {
-    nativeNumberSort(array);
+    nativeIntSort(array, 0, array.length);
   }
 
   public static void sort(short[] array, int fromIndex, int toIndex) {
     checkPositionIndexes(fromIndex, toIndex, array.length);
-    nativeNumberSort(array, fromIndex, toIndex);
+    nativeIntSort(array, fromIndex, toIndex);
   }
 
   public static <T> void sort(T[] x, Comparator<? super T> c) {
-    mergeSort(x, 0, x.length, c);
+    timSort(x, 0, x.length, c);
   }
 
   public static <T> void sort(T[] x, int fromIndex, int toIndex,
       Comparator<? super T> c) {
     checkPositionIndexes(fromIndex, toIndex, x.length);
-    mergeSort(x, fromIndex, toIndex, c);
+    timSort(x, fromIndex, toIndex, c);
+  }
+
+  public static DoubleStream stream(double[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static DoubleStream stream(double[] array, int startInclusive, int endExclusive) {
+    checkCriticalPositionIndexes(startInclusive, endExclusive, array.length);
+    return StreamSupport.doubleStream(array, startInclusive, endExclusive);
+  }
+
+  public static IntStream stream(int[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static IntStream stream(int[] array, int startInclusive, int endExclusive) {
+    checkCriticalPositionIndexes(startInclusive, endExclusive, array.length);
+    return StreamSupport.intStream(array, startInclusive, endExclusive);
+  }
+
+  public static LongStream stream(long[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static LongStream stream(long[] array, int startInclusive, int endExclusive) {
+    checkCriticalPositionIndexes(startInclusive, endExclusive, array.length);
+    return StreamSupport.longStream(array, startInclusive, endExclusive);
+  }
+
+  public static <T> Stream<T> stream(T[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static <T> Stream<T> stream(T[] array, int startInclusive, int endExclusive) {
+    checkCriticalPositionIndexes(startInclusive, endExclusive, array.length);
+    return StreamSupport.stream(array, startInclusive, endExclusive);
   }
 
   public static String toString(boolean[] a) {
@@ -1197,129 +1312,95 @@ public class Arrays {
   }
 
   /**
-   * Sort a small subsection of an array by insertion sort.
-   *
-   * @param array array to sort
-   * @param low lower bound of range to sort
-   * @param high upper bound of range to sort
-   * @param comp comparator to use
+   * Sort a subset of an array of chars, which are stored as one-character
+   * strings, so that the default ordering of Array.prototype.sort is the
+   * ordering of their UTF-16 code units.
    */
-  private static void insertionSort(Object[] array, int low, int high,
-      Comparator<Object> comp) {
-    for (int i = low + 1; i < high; ++i) {
-      for (int j = i; j > low && comp.compare(array[j - 1], array[j]) > 0; --j) {
-        Object t = array[j];
-        array[j] = array[j - 1];
-        array[j - 1] = t;
-      }
+  private static native void nativeCharSort(Object array, int fromIndex, int toIndex) /*-{
+    var temp = array.slice(fromIndex, toIndex);
+    temp.sort();
+    for (var i = 0; i < temp.length; i++) {
+      array[fromIndex + i] = temp[i];
     }
-  }
+  }-*/;
 
   /**
-   * Merge the two sorted subarrays (srcLow,srcMid] and (srcMid,srcHigh] into
-   * dest.
-   *
-   * @param src source array for merge
-   * @param srcLow lower bound of bottom sorted half
-   * @param srcMid upper bound of bottom sorted half & lower bound of top sorted
-   *          half
-   * @param srcHigh upper bound of top sorted half
-   * @param dest destination array for merge
-   * @param destLow lower bound of destination
-   * @param destHigh upper bound of destination
-   * @param comp comparator to use
+   * Sort a subset of an array of floating point or long primitives, in a
+   * Float64Array when possible.
    */
-  private static void merge(Object[] src, int srcLow, int srcMid, int srcHigh,
-      Object[] dest, int destLow, int destHigh, Comparator<Object> comp) {
-    // can't destroy srcMid because we need it as a bound on the lower half
-    int topIdx = srcMid;
-    while (destLow < destHigh) {
-      if (topIdx >= srcHigh
-          || (srcLow < srcMid && comp.compare(src[srcLow], src[topIdx]) <= 0)) {
-        dest[destLow++] = src[srcLow++];
-      } else {
-        dest[destLow++] = src[topIdx++];
-      }
+  private static void nativeDoubleSort(Object array, int fromIndex, int toIndex) {
+    if (!nativeFloat64Sort(array, fromIndex, toIndex)) {
+      nativeNumberSort(array, fromIndex, toIndex);
     }
   }
 
   /**
-   * Performs a merge sort on the specified portion of an object array.
+   * Sort a subset of an array of numbers in a Float64Array, which sort() orders
+   * numerically without calling back a comparison function (and like Java,
+   * with -0 before 0 and NaN last). The range is sorted in place if the array
+   * is already a Float64Array, and copied otherwise.
    *
-   * Uses O(n) temporary space to perform the merge, but is stable.
+   * @return false if the typed arrays cannot be sorted natively
    */
-  @SuppressWarnings("unchecked")
-  private static void mergeSort(Object[] x, int fromIndex, int toIndex, Comparator<?> comp) {
-    if (comp == null) {
-      comp = Comparators.natural();
+  private static native boolean nativeFloat64Sort(Object array, int fromIndex, int toIndex) /*-{
+    if (typeof Float64Array === "undefined" || !Float64Array.prototype.sort) {
+      return false;
     }
-    Object[] temp = copyOfRange(x, fromIndex, toIndex);
-    mergeSort(temp, x, fromIndex, toIndex, -fromIndex,
-        (Comparator<Object>) comp);
-  }
+    if (array instanceof Float64Array) {
+      array.subarray(fromIndex, toIndex).sort();
+      return true;
+    }
+    var temp = new Float64Array(toIndex - fromIndex);
+    for (var i = 0; i < temp.length; i++) {
+      temp[i] = array[fromIndex + i];
+    }
+    temp.sort();
+    for (var j = 0; j < temp.length; j++) {
+      array[fromIndex + j] = temp[j];
+    }
+    return true;
+  }-*/;
 
   /**
-   * Recursive helper function for
-   * {@link Arrays#mergeSort(Object[], int, int, Comparator)}.
-   *
-   * @param temp temporary space, as large as the range of elements being
-   *          sorted. On entry, temp should contain a copy of the sort range
-   *          from array.
-   * @param array array to sort
-   * @param low lower bound of range to sort
-   * @param high upper bound of range to sort
-   * @param ofs offset to convert an array index into a temp index
-   * @param comp comparison function
+   * Sort a subset of an array of integral primitives, in an Int32Array when
+   * possible.
    */
-  private static void mergeSort(Object[] temp, Object[] array, int low,
-      int high, int ofs, Comparator<Object> comp) {
-    int length = high - low;
-
-    // insertion sort for small arrays
-    if (length < 7) {
-      insertionSort(array, low, high, comp);
-      return;
-    }
-
-    // recursively sort both halves, using the array as temp space
-    int tempLow = low + ofs;
-    int tempHigh = high + ofs;
-    int tempMid = tempLow + ((tempHigh - tempLow) >> 1);
-    mergeSort(array, temp, tempLow, tempMid, -ofs, comp);
-    mergeSort(array, temp, tempMid, tempHigh, -ofs, comp);
-
-    // Skip merge if already in order - just copy from temp
-    if (comp.compare(temp[tempMid - 1], temp[tempMid]) <= 0) {
-      // TODO(jat): use System.arraycopy when that is implemented and more
-      // efficient than this
-      while (low < high) {
-        array[low++] = temp[tempLow++];
-      }
-      return;
+  private static void nativeIntSort(Object array, int fromIndex, int toIndex) {
+    if (!nativeInt32Sort(array, fromIndex, toIndex)) {
+      nativeNumberSort(array, fromIndex, toIndex);
     }
-
-    // merge sorted halves
-    merge(temp, tempLow, tempMid, tempHigh, array, low, high, comp);
   }
 
   /**
-   * Sort an entire array of number primitives.
+   * Sort a subset of an array of 32-bit integers in an Int32Array, which
+   * sort() orders numerically without calling back a comparison function. The
+   * range is sorted in place if the array is already an Int32Array, and copied
+   * otherwise.
+   *
+   * @return false if the typed arrays cannot be sorted natively
    */
-  private static native void nativeLongSort(Object array, Object compareFunction) /*-{
-    array.sort(compareFunction);
+  private static native boolean nativeInt32Sort(Object array, int fromIndex, int toIndex) /*-{
+    if (typeof Int32Array === "undefined" || !Int32Array.prototype.sort) {
+      return false;
+    }
+    if (array instanceof Int32Array) {
+      array.subarray(fromIndex, toIndex).sort();
+      return true;
+    }
+    var temp = new Int32Array(toIndex - fromIndex);
+    for (var i = 0; i < temp.length; i++) {
+      temp[i] = array[fromIndex + i];
+    }
+    temp.sort();
+    for (var j = 0; j < temp.length; j++) {
+      array[fromIndex + j] = temp[j];
+    }
+    return true;
   }-*/;
 
   /**
-   * Sort a subset of an array of number primitives.
-   */
-  private static void nativeLongSort(Object array, int fromIndex, int toIndex) {
-    Object temp = ArrayHelper.unsafeClone(array, fromIndex, toIndex);
-    nativeLongSort(temp, LongCompareHolder.getLongComparator());
-    ArrayHelper.copy(temp, 0, array, fromIndex, toIndex - fromIndex);
-  }
-
-  /**
-   * Sort an entire array of number primitives.
+   * Sort an entire array of number primitives, with a comparison function
+   * (when typed arrays are not available).
    */
   private static native void nativeNumberSort(Object array) /*-{
     array.sort(function(a, b) {
@@ -1335,4 +1416,16 @@ public class Arrays {
     nativeNumberSort(temp);
     ArrayHelper.copy(temp, 0, array, fromIndex, toIndex - fromIndex);
   }
+
+  /**
+   * Sort a subset of an object array with {@link TimSort}, which is stable
+   * whatever the engine sort is.
+   */
+  @SuppressWarnings("unchecked")
+  private static void timSort(Object[] x, int fromIndex, int toIndex, Comparator<?> comp) {
+    if (comp == null) {
+      comp = Comparators.natural();
+    }
+    TimSort.sort(x, fromIndex, toIndex, (Comparator<Object>) comp);
+  }
 }
@@ -1,58 +1,241 @@
 /*
  * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
- * 
+ *
  * Apache 2 license.
  */
 
 package java.util;
 
-import static jsweet.util.Globals.array;
-import static jsweet.util.Globals.equalsLoose;
+import static javaemul.internal.Coercions.ensureInt;
 
-import def.js.Array;
+import def.js.Int32Array;
 
 /**
- * Incomplete and naive implementation of the BitSet utility (mainly for
- * compatibility/compilation purpose).
- * 
+ * An implementation of the BitSet utility, where the bits are packed into the
+ * 32-bit words of an <code>Int32Array</code>.
+ * <p>
+ * The logical operations work a word at a time, and the searches skip the
+ * empty words and locate the bits within a word with population and leading
+ * zero counts (computed with bit twiddling, since <code>Math.clz32</code> is
+ * not part of the targeted ES3/ES5 runtimes).
+ * <p>
+ * Since longs are JavaScript numbers, {@link #valueOf(long[])} and
+ * {@link #toLongArray()} are only exact for the longs that fit in 53 bits.
+ *
  * @author Renaud Pawlak
  */
 @SuppressWarnings("serial")
 public class BitSet implements Cloneable, java.io.Serializable {
 
-	private Boolean[] bits = {};
+	private static final int ADDRESS_BITS_PER_WORD = 5;
+
+	private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+	/**
+	 * The words, from the lowest bits to the highest ones.
+	 */
+	private int[] words;
+
+	/**
+	 * The number of words that may hold set bits (the following words are 0).
+	 */
+	private int wordsInUse = 0;
 
 	public BitSet() {
+		this(BITS_PER_WORD);
 	}
 
 	public BitSet(int nbits) {
-		while (nbits > 0) {
-			array(bits).push(false);
-			nbits--;
+		if (nbits < 0) {
+			throw new NegativeArraySizeException("nbits < 0: " + nbits);
+		}
+		words = newWords(wordIndex(nbits - 1) + 1);
+	}
+
+	private BitSet(int[] words) {
+		this.words = words;
+		recalculateWordsInUse();
+	}
+
+	/**
+	 * Allocates zeroed words, backed by an <code>Int32Array</code> that is
+	 * indexed as a plain array.
+	 */
+	private static int[] newWords(int length) {
+		return (int[]) (Object) new Int32Array(length);
+	}
+
+	private static int wordIndex(int bitIndex) {
+		return bitIndex >> ADDRESS_BITS_PER_WORD;
+	}
+
+	private static int bitCount(int word) {
+		word = word - ((word >>> 1) & 0x55555555);
+		word = (word & 0x33333333) + ((word >>> 2) & 0x33333333);
+		word = (word + (word >>> 4)) & 0x0f0f0f0f;
+		word = word + (word >>> 8);
+		word = word + (word >>> 16);
+		return word & 0x3f;
+	}
+
+	private static int numberOfLeadingZeros(int word) {
+		if (word == 0) {
+			return BITS_PER_WORD;
+		}
+		int n = 0;
+		if ((word & 0xffff0000) == 0) {
+			n += 16;
+			word <<= 16;
+		}
+		if ((word & 0xff000000) == 0) {
+			n += 8;
+			word <<= 8;
+		}
+		if ((word & 0xf0000000) == 0) {
+			n += 4;
+			word <<= 4;
+		}
+		if ((word & 0xc0000000) == 0) {
+			n += 2;
+			word <<= 2;
+		}
+		if ((word & 0x80000000) == 0) {
+			n++;
+		}
+		return n;
+	}
+
+	private static int numberOfTrailingZeros(int word) {
+		if (word == 0) {
+			return BITS_PER_WORD;
+		}
+		// isolates the lowest set bit
+		return BITS_PER_WORD - 1 - numberOfLeadingZeros(word & -word);
+	}
+
+	private static void checkIndex(int bitIndex) {
+		if (bitIndex < 0) {
+			throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+		}
+	}
+
+	private static void checkRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+		}
+		if (toIndex < 0) {
+			throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+		}
+		if (fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + " > toIndex: " + toIndex);
+		}
+	}
+
+	private void recalculateWordsInUse() {
+		int i = wordsInUse - 1;
+		while (i >= 0 && words[i] == 0) {
+			i--;
+		}
+		wordsInUse = i + 1;
+	}
+
+	private void ensureCapacity(int wordsRequired) {
+		if (words.length < wordsRequired) {
+			int[] newWords = newWords(Math.max(2 * words.length, wordsRequired));
+			for (int i = 0; i < wordsInUse; i++) {
+				newWords[i] = words[i];
+			}
+			words = newWords;
+		}
+	}
+
+	private void expandTo(int wordIndex) {
+		int wordsRequired = wordIndex + 1;
+		if (wordsInUse < wordsRequired) {
+			ensureCapacity(wordsRequired);
+			wordsInUse = wordsRequired;
 		}
 	}
 
 	public static BitSet valueOf(long[] longs) {
-		BitSet bs = new BitSet();
-		bs.bits = array(new Array<Boolean>(longs.length * 64));
-		for (int n = 0; n < longs.length * 64; n++) {
-			bs.bits[n] = ((longs[n / 64] & (1L << (n % 64))) != 0);
+		int n = longs.length;
+		while (n > 0 && longs[n - 1] == 0) {
+			n--;
+		}
+		int[] words = newWords(2 * n);
+		for (int i = 0; i < n; i++) {
+			words[2 * i] = (int) longs[i];
+			words[2 * i + 1] = (int) Math.floor(longs[i] / 4294967296.0);
+		}
+		return new BitSet(words);
+	}
+
+	public static BitSet valueOf(byte[] bytes) {
+		int n = bytes.length;
+		while (n > 0 && bytes[n - 1] == 0) {
+			n--;
+		}
+		int[] words = newWords((n + 3) >> 2);
+		for (int i = 0; i < n; i++) {
+			words[i >> 2] |= (bytes[i] & 0xff) << ((i & 3) << 3);
+		}
+		return new BitSet(words);
+	}
+
+	public long[] toLongArray() {
+		long[] longs = new long[(wordsInUse + 1) >> 1];
+		for (int i = 0; i < longs.length; i++) {
+			int low = words[2 * i];
+			long high = 2 * i + 1 < wordsInUse ? words[2 * i + 1] : 0;
+			longs[i] = high * 4294967296L + (low < 0 ? low + 4294967296L : low);
+		}
+		return longs;
+	}
+
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[(length() + 7) >> 3];
+		for (int i = 0; i < bytes.length; i++) {
+			// shifts the byte to the top of the word and back, to get its sign
+			bytes[i] = (byte) (words[i >> 2] << (24 - ((i & 3) << 3)) >> 24);
 		}
-		return bs;
+		return bytes;
 	}
 
 	public void flip(int bitIndex) {
-		bits[bitIndex] = !bits[bitIndex];
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		expandTo(wordIndex);
+		words[wordIndex] ^= 1 << bitIndex;
+		recalculateWordsInUse();
 	}
 
 	public void flip(int fromIndex, int toIndex) {
-		for (int i = fromIndex; i <= toIndex; i++) {
-			flip(i);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex) {
+			return;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		int endWordIndex = wordIndex(toIndex - 1);
+		expandTo(endWordIndex);
+		int firstWordMask = -1 << fromIndex;
+		int lastWordMask = -1 >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] ^= firstWordMask & lastWordMask;
+		} else {
+			words[startWordIndex] ^= firstWordMask;
+			for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+				words[i] ^= -1;
+			}
+			words[endWordIndex] ^= lastWordMask;
 		}
+		recalculateWordsInUse();
 	}
 
 	public void set(int bitIndex) {
-		bits[bitIndex] = true;
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		expandTo(wordIndex);
+		words[wordIndex] |= 1 << bitIndex;
 	}
 
 	public void set(int bitIndex, boolean value) {
@@ -64,8 +247,23 @@ public class BitSet implements Cloneable, java.io.Serializable {
 	}
 
 	public void set(int fromIndex, int toIndex) {
-		for (int i = fromIndex; i <= toIndex; i++) {
-			set(i);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex) {
+			return;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		int endWordIndex = wordIndex(toIndex - 1);
+		expandTo(endWordIndex);
+		int firstWordMask = -1 << fromIndex;
+		int lastWordMask = -1 >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] |= firstWordMask & lastWordMask;
+		} else {
+			words[startWordIndex] |= firstWordMask;
+			for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+				words[i] = -1;
+			}
+			words[endWordIndex] |= lastWordMask;
 		}
 	}
 
@@ -78,73 +276,251 @@ public class BitSet implements Cloneable, java.io.Serializable {
 	}
 
 	public void clear(int bitIndex) {
-		bits[bitIndex] = false;
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		if (wordIndex >= wordsInUse) {
+			return;
+		}
+		words[wordIndex] &= ~(1 << bitIndex);
+		recalculateWordsInUse();
 	}
 
 	public void clear(int fromIndex, int toIndex) {
-		for (int i = fromIndex; i <= toIndex; i++) {
-			clear(i);
+		checkRange(fromIndex, toIndex);
+		int length = length();
+		if (fromIndex >= length || fromIndex == toIndex) {
+			return;
+		}
+		if (toIndex > length) {
+			toIndex = length;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		int endWordIndex = wordIndex(toIndex - 1);
+		int firstWordMask = -1 << fromIndex;
+		int lastWordMask = -1 >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] &= ~(firstWordMask & lastWordMask);
+		} else {
+			words[startWordIndex] &= ~firstWordMask;
+			for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+				words[i] = 0;
+			}
+			words[endWordIndex] &= ~lastWordMask;
 		}
+		recalculateWordsInUse();
 	}
 
 	public void clear() {
-		bits = new Boolean[0];
+		while (wordsInUse > 0) {
+			words[--wordsInUse] = 0;
+		}
 	}
 
 	public boolean get(int bitIndex) {
-		return bits[bitIndex];
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		return wordIndex < wordsInUse && (words[wordIndex] & (1 << bitIndex)) != 0;
 	}
 
 	public BitSet get(int fromIndex, int toIndex) {
-		BitSet bs = new BitSet();
-		for (int i = fromIndex; i <= toIndex; i++) {
-			array(bs.bits).push(bits[i]);
+		checkRange(fromIndex, toIndex);
+		int length = length();
+		if (fromIndex >= length || fromIndex == toIndex) {
+			return new BitSet(0);
+		}
+		if (toIndex > length) {
+			toIndex = length;
+		}
+		BitSet result = new BitSet(toIndex - fromIndex);
+		int targetWords = wordIndex(toIndex - fromIndex - 1) + 1;
+		int sourceIndex = wordIndex(fromIndex);
+		int shift = fromIndex & (BITS_PER_WORD - 1);
+		for (int i = 0; i < targetWords; i++, sourceIndex++) {
+			int word = words[sourceIndex] >>> shift;
+			if (shift != 0 && sourceIndex + 1 < wordsInUse) {
+				word |= words[sourceIndex + 1] << -shift;
+			}
+			result.words[i] = word;
+		}
+		result.words[targetWords - 1] &= -1 >>> (fromIndex - toIndex);
+		result.wordsInUse = targetWords;
+		result.recalculateWordsInUse();
+		return result;
+	}
+
+	public int nextSetBit(int fromIndex) {
+		checkIndex(fromIndex);
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return -1;
+		}
+		int word = words[u] & (-1 << fromIndex);
+		while (true) {
+			if (word != 0) {
+				return u * BITS_PER_WORD + numberOfTrailingZeros(word);
+			}
+			if (++u == wordsInUse) {
+				return -1;
+			}
+			word = words[u];
+		}
+	}
+
+	public int nextClearBit(int fromIndex) {
+		checkIndex(fromIndex);
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return fromIndex;
+		}
+		int word = ~words[u] & (-1 << fromIndex);
+		while (true) {
+			if (word != 0) {
+				return u * BITS_PER_WORD + numberOfTrailingZeros(word);
+			}
+			if (++u == wordsInUse) {
+				return wordsInUse * BITS_PER_WORD;
+			}
+			word = ~words[u];
+		}
+	}
+
+	public int previousSetBit(int fromIndex) {
+		if (fromIndex < 0) {
+			if (fromIndex == -1) {
+				return -1;
+			}
+			throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+		}
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return length() - 1;
+		}
+		int word = words[u] & (-1 >>> -(fromIndex + 1));
+		while (true) {
+			if (word != 0) {
+				return (u + 1) * BITS_PER_WORD - 1 - numberOfLeadingZeros(word);
+			}
+			if (u-- == 0) {
+				return -1;
+			}
+			word = words[u];
+		}
+	}
+
+	public int previousClearBit(int fromIndex) {
+		if (fromIndex < 0) {
+			if (fromIndex == -1) {
+				return -1;
+			}
+			throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+		}
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return fromIndex;
+		}
+		int word = ~words[u] & (-1 >>> -(fromIndex + 1));
+		while (true) {
+			if (word != 0) {
+				return (u + 1) * BITS_PER_WORD - 1 - numberOfLeadingZeros(word);
+			}
+			if (u-- == 0) {
+				return -1;
+			}
+			word = ~words[u];
 		}
-		return bs;
 	}
 
 	public int length() {
-		return bits.length;
+		if (wordsInUse == 0) {
+			return 0;
+		}
+		return BITS_PER_WORD * wordsInUse - numberOfLeadingZeros(words[wordsInUse - 1]);
 	}
 
 	public boolean isEmpty() {
-		return bits.length == 0;
+		return wordsInUse == 0;
+	}
+
+	public boolean intersects(BitSet set) {
+		for (int i = Math.min(wordsInUse, set.wordsInUse) - 1; i >= 0; i--) {
+			if ((words[i] & set.words[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public int cardinality() {
 		int sum = 0;
-		for (int i = 0; i < bits.length; i++) {
-			sum += bits[i] ? 1 : 0;
+		for (int i = 0; i < wordsInUse; i++) {
+			sum += bitCount(words[i]);
 		}
 		return sum;
 	}
 
 	public void and(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = bits[i] && set.get(i);
+		if (this == set) {
+			return;
+		}
+		while (wordsInUse > set.wordsInUse) {
+			words[--wordsInUse] = 0;
 		}
+		for (int i = 0; i < wordsInUse; i++) {
+			words[i] &= set.words[i];
+		}
+		recalculateWordsInUse();
 	}
 
 	public void or(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = bits[i] || set.get(i);
+		if (this == set) {
+			return;
+		}
+		int wordsInCommon = Math.min(wordsInUse, set.wordsInUse);
+		if (wordsInUse < set.wordsInUse) {
+			ensureCapacity(set.wordsInUse);
+			wordsInUse = set.wordsInUse;
+		}
+		for (int i = 0; i < wordsInCommon; i++) {
+			words[i] |= set.words[i];
+		}
+		for (int i = wordsInCommon; i < set.wordsInUse; i++) {
+			words[i] = set.words[i];
 		}
 	}
 
 	public void xor(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = (bits[i] && !set.get(i)) || (!bits[i] && set.get(i));
+		int wordsInCommon = Math.min(wordsInUse, set.wordsInUse);
+		if (wordsInUse < set.wordsInUse) {
+			ensureCapacity(set.wordsInUse);
+			wordsInUse = set.wordsInUse;
 		}
+		for (int i = 0; i < wordsInCommon; i++) {
+			words[i] ^= set.words[i];
+		}
+		for (int i = wordsInCommon; i < set.wordsInUse; i++) {
+			words[i] = set.words[i];
+		}
+		recalculateWordsInUse();
 	}
 
 	public void andNot(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = bits[i] && !set.get(i);
+		for (int i = Math.min(wordsInUse, set.wordsInUse) - 1; i >= 0; i--) {
+			words[i] &= ~set.words[i];
 		}
+		recalculateWordsInUse();
 	}
 
 	public int size() {
-		return bits.length;
+		return words.length * BITS_PER_WORD;
+	}
+
+	public int hashCode() {
+		int hashCode = 1234;
+		for (int i = 0; i < wordsInUse; i++) {
+			hashCode = 31 * hashCode + words[i];
+			hashCode = ensureInt(hashCode); // make sure we don't overflow
+		}
+		return hashCode;
 	}
 
 	public boolean equals(Object obj) {
@@ -155,12 +531,12 @@ public class BitSet implements Cloneable, java.io.Serializable {
 
 		BitSet set = (BitSet) obj;
 
-		if (set.bits.length != bits.length) {
+		if (set.wordsInUse != wordsInUse) {
 			return false;
 		}
 
-		for (int i = 0; i < set.bits.length; i++) {
-			if (!equalsLoose(set.bits[i], bits[i])) {
+		for (int i = 0; i < wordsInUse; i++) {
+			if (set.words[i] != words[i]) {
 				return false;
 			}
 		}
@@ -169,9 +545,22 @@ public class BitSet implements Cloneable, java.io.Serializable {
 	}
 
 	public Object clone() {
-		BitSet bs = new BitSet();
-		bs.bits = array(bits).slice(0, bits.length);
-		return bs;
+		int[] words = newWords(wordsInUse);
+		for (int i = 0; i < wordsInUse; i++) {
+			words[i] = this.words[i];
+		}
+		return new BitSet(words);
+	}
+
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(i);
+		}
+		return sb.append("}").toString();
 	}
 
 }
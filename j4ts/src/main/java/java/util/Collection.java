@@ -15,6 +15,9 @@
  */
 package java.util;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * General-purpose interface for storing collections of objects. <a
  * href="http://java.sun.com/j2se/1.5.0/docs/api/java/util/Collection.html">[Sun
@@ -56,4 +59,13 @@ public interface Collection<E> extends Iterable<E> {
   Object[] toArray();
 
   <T> T[] toArray(T[] a);
+
+  default Stream<E> stream() {
+    return StreamSupport.stream(iterator());
+  }
+
+  default Stream<E> parallelStream() {
+    // parallelism is not supported
+    return stream();
+  }
 }
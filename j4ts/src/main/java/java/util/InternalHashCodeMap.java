@@ -16,85 +16,128 @@
 package java.util;
 
 import static java.util.ConcurrentModificationDetector.structureChanged;
+import static jsweet.util.Globals.equalsStrict;
+import static jsweet.util.Globals.typeof;
 
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Map.Entry;
 
-import javaemul.internal.ArrayHelper;
+import def.js.Int32Array;
 
 /**
- * A simple wrapper around JavaScriptObject to provide {@link java.util.Map}-like semantics for any
- * key type.
+ * A hash table providing {@link java.util.Map}-like semantics for any key type.
  * <p>
  * Implementation notes:
  * <p>
- * A key's hashCode is the index in backingMap which should contain that key. Since several keys may
- * have the same hash, each value in hashCodeMap is actually an array containing all entries whose
- * keys share the same hash.
+ * The entries are stored in slots of three parallel arrays holding the keys,
+ * the values and the (spread) hash codes, the int arrays being typed arrays.
+ * The slots of the keys with the same bucket index are chained through an
+ * array of slot indices, so keys with colliding hash codes only cost the length of their own chain. Looking up a
+ * key, present or not, does not allocate anything, and the entries are only
+ * created when iterating. The slots of the removed keys are cleared and
+ * reused by the next puts, and slots never move, so that removing through an
+ * iterator does not disturb the iteration.
+ * <p>
+ * Number keys do not go through {@code hashCode()}: their hash code is their
+ * integer value (as for {@link Double#hashCode()}) and two different numbers
+ * are known to be different keys without calling {@code equals()}.
  */
 class InternalHashCodeMap<K, V> implements Iterable<Entry<K, V>> {
 
-  private final InternalJsMap<Object> backingMap = InternalJsMapFactory.newJsMap();
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Ends a chain of slots.
+   */
+  private static final int NONE = -1;
+
+  /**
+   * Stands for the null key, since null marks the free slots.
+   */
+  private static final Object NULL_KEY = new Object();
+
   private AbstractHashMap<K, V> host;
+  private Object[] keys;
+  private Object[] values;
+  private int[] hashes;
+  /**
+   * The next slot in the chain of each slot, or in the chain of free slots.
+   */
+  private int[] next;
+  /**
+   * The first slot of each bucket.
+   */
+  private int[] buckets;
   private int size;
+  /**
+   * The number of slots that have ever been used.
+   */
+  private int used;
+  /**
+   * The first free slot below {@link #used}.
+   */
+  private int free = NONE;
 
   public InternalHashCodeMap(AbstractHashMap<K, V> host) {
     this.host = host;
   }
 
   public V put(K key, V value) {
-    int hashCode = hash(key);
-    Entry<K, V>[] chain = getChainOrEmpty(hashCode);
-
-    if (chain.length == 0) {
-      // This is a new chain, put it to the map.
-      backingMap.set(hashCode, chain);
+    Object maskedKey = maskNull(key);
+    int hash = hash(maskedKey);
+    int index = find(maskedKey, hash);
+    if (index != NONE) {
+      V oldValue = valueAt(index);
+      values[index] = value;
+      return oldValue;
+    }
+    if (keys == null) {
+      allocate(INITIAL_CAPACITY);
+    } else if (free == NONE && used == keys.length) {
+      grow();
+    }
+    if (free != NONE) {
+      index = free;
+      free = next[index];
     } else {
-      // Chain already exists, perhaps key also exists.
-      Entry<K, V> entry = findEntryInChain(key, chain);
-      if (entry != null) {
-        return entry.setValue(value);
-      }
+      index = used++;
     }
-    chain[chain.length] = new SimpleEntry<K, V>(key, value);
+    int bucket = hash & (buckets.length - 1);
+    keys[index] = maskedKey;
+    values[index] = value;
+    hashes[index] = hash;
+    next[index] = buckets[bucket];
+    buckets[bucket] = index;
     size++;
     structureChanged(host);
     return null;
   }
 
   public V remove(Object key) {
-    int hashCode = hash(key);
-    Entry<K, V>[] chain = getChainOrEmpty(hashCode);
-    for (int i = 0; i < chain.length; i++) {
-      Entry<K, V> entry = chain[i];
-      if (host._equals(key, entry.getKey())) {
-        if (chain.length == 1) {
-          ArrayHelper.setLength(chain, 0);
-          // remove the whole array
-          backingMap.delete(hashCode);
-        } else {
-          // splice out the entry we're removing
-          ArrayHelper.removeFrom(chain, i, 1);
-        }
-        size--;
-        structureChanged(host);
-        return entry.getValue();
-      }
+    int index = indexOf(key);
+    if (index == NONE) {
+      return null;
     }
-    return null;
+    V value = valueAt(index);
+    removeAt(index);
+    return value;
+  }
+
+  public V get(Object key) {
+    int index = indexOf(key);
+    return index == NONE ? null : valueAt(index);
   }
 
-  public Map.Entry<K, V> getEntry(Object key) {
-    return findEntryInChain(key, getChainOrEmpty(hash(key)));
+  public boolean containsKey(Object key) {
+    return indexOf(key) != NONE;
   }
 
-  private Map.Entry<K, V> findEntryInChain(Object key, Entry<K, V>[] chain) {
-    for (Entry<K, V> entry : chain) {
-      if (host._equals(key, entry.getKey())) {
-        return entry;
+  public boolean containsValue(Object value) {
+    for (int i = 0; i < used; i++) {
+      if (keys[i] != null && host._equals(value, values[i])) {
+        return true;
       }
     }
-    return null;
+    return false;
   }
 
   public int size() {
@@ -104,61 +147,203 @@ class InternalHashCodeMap<K, V> implements Iterable<Entry<K, V>> {
   @Override
   public Iterator<Entry<K, V>> iterator() {
     return new Iterator<Map.Entry<K,V>>() {
-      final InternalJsMap.Iterator<Object> chains = backingMap.entries();
-      int itemIndex = 0;
-      Entry<K, V>[] chain = newEntryChain();
-      Entry<K, V> lastEntry = null;
+      int index = nextOccupied(0);
+      int lastIndex = NONE;
 
       @Override
       public boolean hasNext() {
-        if (itemIndex < chain.length) {
-          return true;
-        }
-        InternalJsMap.IteratorEntry<Object> current = chains.next();
-        if (!current.done) {
-          // Move to the beginning of next chain
-          chain = unsafeCastToArray(current.value[1]);
-          itemIndex = 0;
-          return true;
-        }
-        return false;
+        return index < used;
       }
 
       @Override
       public Entry<K, V> next() {
-        lastEntry = chain[itemIndex++];
-        return lastEntry;
+        lastIndex = index;
+        index = nextOccupied(index + 1);
+        return new HashEntry(lastIndex);
       }
 
       @Override
       public void remove() {
-        InternalHashCodeMap.this.remove(lastEntry.getKey());
-        // Unless we are in a new chain, all items have shifted so our itemIndex should as well...
-        if (itemIndex != 0) {
-          itemIndex--;
-        }
+        // the other slots are not moved, so the iteration is not disturbed
+        removeAt(lastIndex);
       }
     };
   }
 
-  private Entry<K, V>[] getChainOrEmpty(int hashCode) {
-    Entry<K, V>[] chain = unsafeCastToArray(backingMap.get(hashCode));
-    return chain == null ? newEntryChain() : chain;
+  /**
+   * An entry of the table, which reads and writes through the table as long
+   * as its key is in the table.
+   */
+  private final class HashEntry extends AbstractMapEntry<K, V> {
+    private final Object maskedKey;
+    private int index;
+    private V value;
+
+    HashEntry(int index) {
+      this.index = index;
+      this.maskedKey = keys[index];
+      this.value = valueAt(index);
+    }
+
+    private boolean locate() {
+      if (keys == null || index >= used || !equalsStrict(keys[index], maskedKey)) {
+        index = indexOf(unmaskNull(maskedKey));
+      }
+      return index != NONE;
+    }
+
+    @Override
+    public K getKey() {
+      return unmaskNull(maskedKey);
+    }
+
+    @Override
+    public V getValue() {
+      if (locate()) {
+        value = valueAt(index);
+      }
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V oldValue = getValue();
+      if (locate()) {
+        values[index] = value;
+      }
+      this.value = value;
+      return oldValue;
+    }
   }
 
-  private native Entry<K, V>[] newEntryChain() /*-{
-    return [];
-  }-*/;
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    hashes = newInts(capacity);
+    next = newInts(capacity);
+    buckets = (int[]) (Object) new Int32Array(capacity).fill(NONE);
+  }
 
-  private native Entry<K, V>[] unsafeCastToArray(Object arr) /*-{
-    return arr;
-  }-*/;
+  /**
+   * Allocates zeroed ints, backed by an <code>Int32Array</code> that is
+   * indexed as a plain array.
+   */
+  private static int[] newInts(int length) {
+    return (int[]) (Object) new Int32Array(length);
+  }
+
+  /**
+   * Doubles the capacity when all the slots are used, and rebuilds the
+   * chains. The slots keep their indices.
+   */
+  private void grow() {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldHashes = hashes;
+    allocate(oldKeys.length << 1);
+    int mask = buckets.length - 1;
+    for (int i = 0; i < used; i++) {
+      keys[i] = oldKeys[i];
+      values[i] = oldValues[i];
+      hashes[i] = oldHashes[i];
+      int bucket = hashes[i] & mask;
+      next[i] = buckets[bucket];
+      buckets[bucket] = i;
+    }
+  }
+
+  private int indexOf(Object key) {
+    if (size == 0) {
+      return NONE;
+    }
+    Object maskedKey = maskNull(key);
+    return find(maskedKey, hash(maskedKey));
+  }
+
+  private int find(Object maskedKey, int hash) {
+    if (size == 0) {
+      return NONE;
+    }
+    for (int i = buckets[hash & (buckets.length - 1)]; i != NONE; i = next[i]) {
+      if (hashes[i] == hash && matches(maskedKey, keys[i])) {
+        return i;
+      }
+    }
+    return NONE;
+  }
+
+  private void removeAt(int index) {
+    int bucket = hashes[index] & (buckets.length - 1);
+    if (buckets[bucket] == index) {
+      buckets[bucket] = next[index];
+    } else {
+      int previous = buckets[bucket];
+      while (next[previous] != index) {
+        previous = next[previous];
+      }
+      next[previous] = next[index];
+    }
+    keys[index] = null;
+    values[index] = null;
+    next[index] = free;
+    free = index;
+    size--;
+    structureChanged(host);
+  }
+
+  private int nextOccupied(int index) {
+    while (index < used && keys[index] == null) {
+      index++;
+    }
+    return index;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  private boolean matches(Object maskedKey, Object storedKey) {
+    if (equalsStrict(maskedKey, storedKey)) {
+      return true;
+    }
+    if (maskedKey == NULL_KEY || storedKey == NULL_KEY) {
+      return false;
+    }
+    if (isNumber(maskedKey) && isNumber(storedKey) && !Double.isNaN((Double) maskedKey)) {
+      // different numbers with the same hash code
+      return false;
+    }
+    return host._equals(maskedKey, storedKey);
+  }
 
   /**
-   * Returns hash code of the key as calculated by {@link AbstractHashMap#getHashCode(Object)} but
-   * also handles null keys as well.
+   * Returns hash code of the key as calculated by {@link AbstractHashMap#getHashCode(Object)}, or
+   * directly for numbers, and spreads it over the lower bits used to index the table.
    */
-  private int hash(Object key) {
-    return key == null ? 0 : host.getHashCode(key);
+  private int hash(Object maskedKey) {
+    int h;
+    if (maskedKey == NULL_KEY) {
+      h = 0;
+    } else if (isNumber(maskedKey)) {
+      h = (int) (double) (Double) maskedKey;
+    } else {
+      h = host.getHashCode(maskedKey);
+    }
+    h ^= (h >>> 20) ^ (h >>> 12);
+    return h ^ (h >>> 7) ^ (h >>> 4);
+  }
+
+  private static boolean isNumber(Object key) {
+    return "number".equals(typeof(key));
+  }
+
+  private static Object maskNull(Object key) {
+    return key == null ? NULL_KEY : key;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T unmaskNull(Object maskedKey) {
+    return maskedKey == NULL_KEY ? null : (T) maskedKey;
   }
 }
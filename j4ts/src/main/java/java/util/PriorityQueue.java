@@ -15,6 +15,12 @@
  */
 package java.util;
 
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkElement;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+import javaemul.internal.ArrayHelper;
+
 /**
  * An unbounded priority queue based on a priority heap. <a
  * href="http://java.sun.com/j2se/1.5.0/docs/api/java/util/PriorityQueue.html">[Sun
@@ -24,30 +30,19 @@ package java.util;
  */
 public class PriorityQueue<E> extends AbstractQueue<E> {
 
-  private static int getLeftChild(int node) {
-    return 2 * node + 1;
-  }
-
   private static int getParent(int node) {
-    return (node - 1) / 2;
-  }
-
-  private static int getRightChild(int node) {
-    return 2 * node + 2;
-  }
-
-  private static boolean isLeaf(int node, int size) {
-    return node * 2 + 1 >= size;
+    return (node - 1) >> 1;
   }
 
   private Comparator<? super E> cmp;
 
   /**
-   * A heap held in an array. heap[0] is the root of the heap (the smallest
-   * element), the subtrees of node i are 2*i+1 (left) and 2*i+2 (right). Node i
-   * is a leaf node if 2*i>=n. Node i's parent, if i>0, is floor((i-1)/2).
+   * A heap held in a native array, which length is the size of the queue.
+   * heap[0] is the root of the heap (the smallest element), the subtrees of
+   * node i are 2*i+1 (left) and 2*i+2 (right). Node i is a leaf node if
+   * 2*i+1>=n. Node i's parent, if i>0, is floor((i-1)/2).
    */
-  private ArrayList<E> heap;
+  private E[] heap;
 
   public PriorityQueue() {
     this(11);
@@ -62,8 +57,9 @@ public class PriorityQueue<E> extends AbstractQueue<E> {
     this(initialCapacity, null);
   }
 
+  @SuppressWarnings("unchecked")
   public PriorityQueue(int initialCapacity, Comparator<? super E> cmp) {
-    heap = new ArrayList<E>(initialCapacity);
+    heap = (E[]) new Object[0];
     if (cmp == null) {
       cmp = Comparators.natural();
     }
@@ -72,30 +68,48 @@ public class PriorityQueue<E> extends AbstractQueue<E> {
 
   @SuppressWarnings("unchecked")
   public PriorityQueue(PriorityQueue<? extends E> c) {
-    // TODO(jat): better solution
     this(c.size(), (Comparator<? super E>) c.comparator());
-    addAll(c);
+    // the other queue is already a valid heap
+    heap = (E[]) c.toArray();
   }
 
   @SuppressWarnings("unchecked")
   public PriorityQueue(SortedSet<? extends E> c) {
-    // TODO(jat): better solution
     this(c.size(), (Comparator<? super E>) c.comparator());
-    addAll(c);
+    // a sorted array is a valid heap
+    heap = (E[]) c.toArray();
   }
 
+  /**
+   * When adding at least as many elements as the queue holds, appends them all
+   * before restoring the heap, which is O(n) instead of O(n log n).
+   */
+  @SuppressWarnings("unchecked")
   @Override
   public boolean addAll(Collection<? extends E> c) {
-    if (heap.addAll(c)) {
-      makeHeap(0);
+    checkArgument(c != this, "Can't add a queue to itself");
+    Object[] elements = c.toArray();
+    if (elements.length == 0) {
+      return false;
+    }
+    if (elements.length < heap.length) {
+      for (Object e : elements) {
+        offer((E) e);
+      }
       return true;
     }
-    return false;
+    for (Object e : elements) {
+      checkNotNull(e);
+    }
+    ArrayHelper.insertTo(heap, heap.length, elements);
+    heapify();
+    return true;
   }
 
+  @SuppressWarnings("unchecked")
   @Override
   public void clear() {
-    heap.clear();
+    heap = (E[]) new Object[0];
   }
 
   public Comparator<? super E> comparator() {
@@ -104,65 +118,69 @@ public class PriorityQueue<E> extends AbstractQueue<E> {
 
   @Override
   public boolean contains(Object o) {
-    return heap.contains(o);
-  }
-
-  @Override
-  public boolean containsAll(Collection<?> c) {
-    return heap.containsAll(c);
+    return indexOf(o) != -1;
   }
 
   @Override
   public boolean isEmpty() {
-    return heap.isEmpty();
+    return heap.length == 0;
   }
 
   @Override
   public Iterator<E> iterator() {
     // TODO(jat): PriorityQueue is supposed to have a modifiable iterator.
-    return Collections.unmodifiableList(heap).iterator();
+    return new Iterator<E>() {
+      int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < heap.length;
+      }
+
+      @Override
+      public E next() {
+        checkElement(hasNext());
+        return heap[i++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
   }
 
   @Override
   public boolean offer(E e) {
-    int node = heap.size();
-    heap.add(e);
-    while (node > 0) {
-      int childNode = node;
-      node = getParent(node);
-      if (cmp.compare(heap.get(node), e) <= 0) {
-        // parent is smaller, so we have a valid heap
-        heap.set(childNode, e);
-        return true;
-      }
-      // exchange with parent and try again
-      heap.set(childNode, heap.get(node));
-    }
-    heap.set(node, e);
+    checkNotNull(e);
+    int node = heap.length;
+    // grows the native array
+    heap[node] = e;
+    siftUp(node, e);
     return true;
   }
 
   @Override
   public E peek() {
-    if (heap.size() == 0) {
+    if (heap.length == 0) {
       return null;
     }
-    return heap.get(0);
+    return heap[0];
   }
 
   @Override
   public E poll() {
-    if (heap.size() == 0) {
+    if (heap.length == 0) {
       return null;
     }
-    E value = heap.get(0);
+    E value = heap[0];
     removeAtIndex(0);
     return value;
   }
 
   @Override
   public boolean remove(Object o) {
-    int index = heap.indexOf(o);
+    int index = indexOf(o);
     if (index < 0) {
       return false;
     }
@@ -172,109 +190,139 @@ public class PriorityQueue<E> extends AbstractQueue<E> {
 
   @Override
   public boolean removeAll(Collection<?> c) {
-    if (heap.removeAll(c)) {
-      makeHeap(0);
-      return true;
-    }
-    return false;
+    return removeIf(c, true);
   }
 
   @Override
   public boolean retainAll(Collection<?> c) {
-    if (heap.retainAll(c)) {
-      makeHeap(0);
-      return true;
-    }
-    return false;
+    return removeIf(c, false);
   }
 
   @Override
   public int size() {
-    return heap.size();
+    return heap.length;
   }
 
   @Override
   public Object[] toArray() {
-    return heap.toArray();
+    return ArrayHelper.clone(heap, 0, heap.length);
   }
 
+  @SuppressWarnings("unchecked")
   @Override
   public <T> T[] toArray(T[] a) {
-    return heap.toArray(a);
-  }
-
-  @Override
-  public String toString() {
-    return heap.toString();
-  }
-
-  /**
-   * Make the subtree rooted at <code>node</code> a valid heap. O(n) time
-   * 
-   * @param node
-   */
-  protected void makeHeap(int node) {
-    if (isLeaf(node)) {
-      // leaf node are automatically valid heaps
-      return;
+    int size = heap.length;
+    if (a.length < size) {
+      a = ArrayHelper.createFrom(a, size);
+    }
+    for (int i = 0; i < size; ++i) {
+      a[i] = (T) heap[i];
     }
-    makeHeap(getLeftChild(node)); // make left subtree a heap
-    // an interior node might not have a right child
-    int rightChild = getRightChild(node);
-    if (rightChild < heap.size()) {
-      makeHeap(rightChild); // make right subtree a heap
+    if (a.length > size) {
+      a[size] = null;
     }
-    mergeHeaps(node);
+    return a;
   }
 
   /**
-   * Merge two subheaps into a single heap. O(log n) time
-   * 
-   * PRECONDITION: both children of <code>node</code> are heaps
-   * 
-   * @param node the parent of the two subtrees to merge
+   * Makes the whole array a valid heap, by sifting down all the interior
+   * nodes, from the last one to the root. O(n) time
    */
-  protected void mergeHeaps(int node) {
-    int heapSize = heap.size();
-    E value = heap.get(node);
-    while (!isLeaf(node, heapSize)) {
-      int smallestChild = getSmallestChild(node, heapSize);
-      if (cmp.compare(value, heap.get(smallestChild)) < 0) {
-        // Current node is smaller than the smallest child, so we are done.
-        break;
-      }
-      // Move the smallest child up and iterate using its old slot.
-      heap.set(node, heap.get(smallestChild));
-      node = smallestChild;
+  private void heapify() {
+    for (int node = (heap.length >> 1) - 1; node >= 0; node--) {
+      siftDown(node, heap[node]);
     }
-    heap.set(node, value);
   }
 
-  private int getSmallestChild(int node, int heapSize) {
-    int smallestChild;
-    int leftChild = getLeftChild(node); // start with left child
-    int rightChild = leftChild + 1;
-    smallestChild = leftChild;
-    if ((rightChild < heapSize)
-        && (cmp.compare(heap.get(rightChild), heap.get(leftChild)) < 0)) {
-      // right child is smaller, go down that path
-      smallestChild = rightChild;
+  private int indexOf(Object o) {
+    if (o != null) {
+      for (int i = 0; i < heap.length; i++) {
+        if (o.equals(heap[i])) {
+          return i;
+        }
+      }
     }
-    return smallestChild;
+    return -1;
   }
 
-  private boolean isLeaf(int node) {
-    return isLeaf(node, heap.size());
+  private boolean removeIf(Collection<?> c, boolean contained) {
+    int size = heap.length;
+    int newSize = 0;
+    for (int i = 0; i < size; i++) {
+      E e = heap[i];
+      if (c.contains(e) != contained) {
+        heap[newSize++] = e;
+      }
+    }
+    if (newSize == size) {
+      return false;
+    }
+    ArrayHelper.setLength(heap, newSize);
+    heapify();
+    return true;
   }
 
   private void removeAtIndex(int index) {
     // Remove the last element; put it in place of the really removed element.
-    E lastValue = heap.remove(heap.size() - 1);
+    int last = heap.length - 1;
+    E lastValue = heap[last];
+    ArrayHelper.setLength(heap, last);
     // Unless the last element was actually the one we wanted.
-    if (index < heap.size()) {
+    if (index < last) {
       // Move last element to the now-empty slot and reheap.
-      heap.set(index, lastValue);
-      mergeHeaps(index);
+      siftDown(index, lastValue);
+      if (heap[index] == lastValue) {
+        siftUp(index, lastValue);
+      }
+    }
+  }
+
+  /**
+   * Moves the given value up from the given node to its place, moving the
+   * greater parents down. O(log n) time
+   */
+  private void siftUp(int node, E value) {
+    while (node > 0) {
+      int parent = getParent(node);
+      E parentValue = heap[parent];
+      if (cmp.compare(parentValue, value) <= 0) {
+        // parent is smaller, so we have a valid heap
+        break;
+      }
+      // move the parent down and try again
+      heap[node] = parentValue;
+      node = parent;
+    }
+    heap[node] = value;
+  }
+
+  /**
+   * Moves the given value down from the given node to its place, moving the
+   * smallest children up. O(log n) time
+   *
+   * PRECONDITION: both children of <code>node</code> are heaps
+   */
+  private void siftDown(int node, E value) {
+    int heapSize = heap.length;
+    int half = heapSize >> 1;
+    // nodes from half are leaves
+    while (node < half) {
+      int smallestChild = 2 * node + 1;
+      E smallestValue = heap[smallestChild];
+      int rightChild = smallestChild + 1;
+      if (rightChild < heapSize && cmp.compare(heap[rightChild], smallestValue) < 0) {
+        // right child is smaller, go down that path
+        smallestChild = rightChild;
+        smallestValue = heap[rightChild];
+      }
+      if (cmp.compare(value, smallestValue) <= 0) {
+        // value is not greater than the smallest child, so we are done.
+        break;
+      }
+      // Move the smallest child up and iterate using its old slot.
+      heap[node] = smallestValue;
+      node = smallestChild;
     }
+    heap[node] = value;
   }
 }
@@ -0,0 +1,628 @@
+/*
+ * Copyright (C) 2008 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.util;
+
+/**
+ * A stable, adaptive, iterative merge sort, as used by the JDK to sort object
+ * arrays (see Tim Peters's description of the algorithm for Python's
+ * list.sort). It finds the ascending and strictly descending runs of the
+ * input, extends the short runs with a binary insertion sort, and merges the
+ * runs while keeping the stack of pending runs balanced. The merges gallop
+ * when one run wins consistently, so partially ordered inputs need far fewer
+ * than n log n comparisons.
+ * <p>
+ * Unlike Array.prototype.sort, it does not depend on the stability of the
+ * engine sort, and it reports comparators that violate their contract.
+ * <p>
+ * This is a port of the TimSort implementation of the Android Open Source
+ * Project by Josh Bloch (also used by the JDK), itself based on Tim Peters's
+ * listsort for Python.
+ */
+final class TimSort {
+
+  /**
+   * Arrays shorter than this are sorted with a binary insertion sort only.
+   */
+  private static final int MIN_MERGE = 32;
+
+  /**
+   * The number of consecutive wins of a run that switches a merge to the
+   * galloping mode.
+   */
+  private static final int MIN_GALLOP = 7;
+
+  /**
+   * The maximum initial size of the temporary array used for merging.
+   */
+  private static final int INITIAL_TMP_STORAGE_LENGTH = 256;
+
+  /**
+   * Sorts the given range of the array in place.
+   */
+  static void sort(Object[] a, int lo, int hi, Comparator<Object> c) {
+    int nRemaining = hi - lo;
+    if (nRemaining < 2) {
+      return;
+    }
+
+    // small arrays: a single binary insertion sort, without merging
+    if (nRemaining < MIN_MERGE) {
+      int initRunLen = countRunAndMakeAscending(a, lo, hi, c);
+      binarySort(a, lo, hi, lo + initRunLen, c);
+      return;
+    }
+
+    TimSort ts = new TimSort(a, c);
+    int minRun = minRunLength(nRemaining);
+    do {
+      int runLen = countRunAndMakeAscending(a, lo, hi, c);
+
+      // extend the short runs to min(minRun, nRemaining)
+      if (runLen < minRun) {
+        int force = nRemaining <= minRun ? nRemaining : minRun;
+        binarySort(a, lo, lo + force, lo + runLen, c);
+        runLen = force;
+      }
+
+      ts.pushRun(lo, runLen);
+      ts.mergeCollapse();
+
+      lo += runLen;
+      nRemaining -= runLen;
+    } while (nRemaining != 0);
+
+    ts.mergeForceCollapse();
+  }
+
+  /**
+   * Sorts the given range with a binary insertion sort, knowing that the
+   * elements from lo (inclusive) to start (exclusive) are already sorted.
+   */
+  private static void binarySort(Object[] a, int lo, int hi, int start, Comparator<Object> c) {
+    if (start == lo) {
+      start++;
+    }
+    for (; start < hi; start++) {
+      Object pivot = a[start];
+      int left = lo;
+      int right = start;
+      // finds the insertion point after the equal elements, to be stable
+      while (left < right) {
+        int mid = (left + right) >>> 1;
+        if (c.compare(pivot, a[mid]) < 0) {
+          right = mid;
+        } else {
+          left = mid + 1;
+        }
+      }
+      for (int i = start; i > left; i--) {
+        a[i] = a[i - 1];
+      }
+      a[left] = pivot;
+    }
+  }
+
+  /**
+   * Returns the length of the run beginning at lo, after reversing it if it
+   * is strictly descending (strictly, so that reversing keeps the sort
+   * stable).
+   */
+  private static int countRunAndMakeAscending(Object[] a, int lo, int hi,
+      Comparator<Object> c) {
+    int runHi = lo + 1;
+    if (runHi == hi) {
+      return 1;
+    }
+    if (c.compare(a[runHi++], a[lo]) < 0) {
+      while (runHi < hi && c.compare(a[runHi], a[runHi - 1]) < 0) {
+        runHi++;
+      }
+      reverseRange(a, lo, runHi);
+    } else {
+      while (runHi < hi && c.compare(a[runHi], a[runHi - 1]) >= 0) {
+        runHi++;
+      }
+    }
+    return runHi - lo;
+  }
+
+  private static void reverseRange(Object[] a, int lo, int hi) {
+    hi--;
+    while (lo < hi) {
+      Object t = a[lo];
+      a[lo++] = a[hi];
+      a[hi--] = t;
+    }
+  }
+
+  /**
+   * Returns the minimum run length, so that n / minRun is equal to or
+   * slightly less than a power of two, which balances the final merges.
+   */
+  private static int minRunLength(int n) {
+    int r = 0;
+    while (n >= MIN_MERGE) {
+      r |= (n & 1);
+      n >>= 1;
+    }
+    return n + r;
+  }
+
+  /**
+   * Returns the position at which the key should be inserted in the given
+   * sorted range, before the elements equal to it.
+   *
+   * @param hint the index at which to begin the search, relative to base
+   */
+  private static int gallopLeft(Object key, Object[] a, int base, int len, int hint,
+      Comparator<Object> c) {
+    int lastOfs = 0;
+    int ofs = 1;
+    if (c.compare(key, a[base + hint]) > 0) {
+      // gallops right until a[base+hint+lastOfs] < key <= a[base+hint+ofs]
+      int maxOfs = len - hint;
+      while (ofs < maxOfs && c.compare(key, a[base + hint + ofs]) > 0) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0) {
+          ofs = maxOfs;
+        }
+      }
+      if (ofs > maxOfs) {
+        ofs = maxOfs;
+      }
+      lastOfs += hint;
+      ofs += hint;
+    } else {
+      // gallops left until a[base+hint-ofs] < key <= a[base+hint-lastOfs]
+      int maxOfs = hint + 1;
+      while (ofs < maxOfs && c.compare(key, a[base + hint - ofs]) <= 0) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0) {
+          ofs = maxOfs;
+        }
+      }
+      if (ofs > maxOfs) {
+        ofs = maxOfs;
+      }
+      int t = lastOfs;
+      lastOfs = hint - ofs;
+      ofs = hint - t;
+    }
+
+    // binary search between a[base+lastOfs] < key <= a[base+ofs]
+    lastOfs++;
+    while (lastOfs < ofs) {
+      int m = lastOfs + ((ofs - lastOfs) >>> 1);
+      if (c.compare(key, a[base + m]) > 0) {
+        lastOfs = m + 1;
+      } else {
+        ofs = m;
+      }
+    }
+    return ofs;
+  }
+
+  /**
+   * Like {@link #gallopLeft}, but returns the position after the elements
+   * equal to the key.
+   */
+  private static int gallopRight(Object key, Object[] a, int base, int len, int hint,
+      Comparator<Object> c) {
+    int lastOfs = 0;
+    int ofs = 1;
+    if (c.compare(key, a[base + hint]) < 0) {
+      // gallops left until a[base+hint-ofs] <= key < a[base+hint-lastOfs]
+      int maxOfs = hint + 1;
+      while (ofs < maxOfs && c.compare(key, a[base + hint - ofs]) < 0) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0) {
+          ofs = maxOfs;
+        }
+      }
+      if (ofs > maxOfs) {
+        ofs = maxOfs;
+      }
+      int t = lastOfs;
+      lastOfs = hint - ofs;
+      ofs = hint - t;
+    } else {
+      // gallops right until a[base+hint+lastOfs] <= key < a[base+hint+ofs]
+      int maxOfs = len - hint;
+      while (ofs < maxOfs && c.compare(key, a[base + hint + ofs]) >= 0) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0) {
+          ofs = maxOfs;
+        }
+      }
+      if (ofs > maxOfs) {
+        ofs = maxOfs;
+      }
+      lastOfs += hint;
+      ofs += hint;
+    }
+
+    // binary search between a[base+lastOfs] <= key < a[base+ofs]
+    lastOfs++;
+    while (lastOfs < ofs) {
+      int m = lastOfs + ((ofs - lastOfs) >>> 1);
+      if (c.compare(key, a[base + m]) < 0) {
+        ofs = m;
+      } else {
+        lastOfs = m + 1;
+      }
+    }
+    return ofs;
+  }
+
+  /**
+   * Copies a range of elements, from the last one when moving them to the
+   * right within the same array.
+   */
+  private static void copy(Object[] src, int srcPos, Object[] dest, int destPos, int length) {
+    if (src == dest && srcPos < destPos) {
+      for (int i = length - 1; i >= 0; i--) {
+        dest[destPos + i] = src[srcPos + i];
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        dest[destPos + i] = src[srcPos + i];
+      }
+    }
+  }
+
+  private final Object[] a;
+
+  private final Comparator<Object> c;
+
+  /**
+   * The galloping threshold of the current sort, which is raised for random
+   * data and lowered for data where galloping pays off.
+   */
+  private int minGallop = MIN_GALLOP;
+
+  private Object[] tmp;
+
+  /**
+   * The stack of the runs waiting to be merged. Run i starts at runBase[i]
+   * and has runLen[i] elements.
+   */
+  private int stackSize = 0;
+  private final int[] runBase;
+  private final int[] runLen;
+
+  private TimSort(Object[] a, Comparator<Object> c) {
+    this.a = a;
+    this.c = c;
+    int len = a.length;
+    tmp = new Object[len < 2 * INITIAL_TMP_STORAGE_LENGTH ? len >>> 1
+        : INITIAL_TMP_STORAGE_LENGTH];
+    // the invariants of mergeCollapse bound the run lengths by a Fibonacci
+    // sequence, which bounds the stack size
+    int stackLen = len < 120 ? 5 : len < 1542 ? 10 : len < 119151 ? 24 : 49;
+    runBase = new int[stackLen];
+    runLen = new int[stackLen];
+  }
+
+  private void pushRun(int base, int len) {
+    runBase[stackSize] = base;
+    runLen[stackSize] = len;
+    stackSize++;
+  }
+
+  /**
+   * Merges the runs until the invariants are re-established for the whole
+   * stack: runLen[i - 2] > runLen[i - 1] + runLen[i] and runLen[i - 1] >
+   * runLen[i].
+   */
+  private void mergeCollapse() {
+    while (stackSize > 1) {
+      int n = stackSize - 2;
+      if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+          || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+        if (runLen[n - 1] < runLen[n + 1]) {
+          n--;
+        }
+      } else if (runLen[n] > runLen[n + 1]) {
+        break;
+      }
+      mergeAt(n);
+    }
+  }
+
+  /**
+   * Merges all the runs, once the whole array was scanned.
+   */
+  private void mergeForceCollapse() {
+    while (stackSize > 1) {
+      int n = stackSize - 2;
+      if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+        n--;
+      }
+      mergeAt(n);
+    }
+  }
+
+  /**
+   * Merges the runs i and i + 1 of the stack.
+   */
+  private void mergeAt(int i) {
+    int base1 = runBase[i];
+    int len1 = runLen[i];
+    int base2 = runBase[i + 1];
+    int len2 = runLen[i + 1];
+
+    runLen[i] = len1 + len2;
+    if (i == stackSize - 3) {
+      runBase[i + 1] = runBase[i + 2];
+      runLen[i + 1] = runLen[i + 2];
+    }
+    stackSize--;
+
+    // the elements of run1 before the first element of run2 are in place
+    int k = gallopRight(a[base2], a, base1, len1, 0, c);
+    base1 += k;
+    len1 -= k;
+    if (len1 == 0) {
+      return;
+    }
+
+    // the elements of run2 after the last element of run1 are in place
+    len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1, c);
+    if (len2 == 0) {
+      return;
+    }
+
+    // merges the remaining ranges, using a temporary array of min(len1, len2)
+    if (len1 <= len2) {
+      mergeLo(base1, len1, base2, len2);
+    } else {
+      mergeHi(base1, len1, base2, len2);
+    }
+  }
+
+  /**
+   * Merges two adjacent runs from left to right, the first run being the
+   * shortest. Its first element is greater than the first element of the
+   * second run, and its last element is greater than all the elements of the
+   * second run.
+   */
+  private void mergeLo(int base1, int len1, int base2, int len2) {
+    Object[] a = this.a;
+    Object[] tmp = ensureCapacity(len1);
+    copy(a, base1, tmp, 0, len1);
+
+    int cursor1 = 0;
+    int cursor2 = base2;
+    int dest = base1;
+
+    a[dest++] = a[cursor2++];
+    if (--len2 == 0) {
+      copy(tmp, cursor1, a, dest, len1);
+      return;
+    }
+    if (len1 == 1) {
+      copy(a, cursor2, a, dest, len2);
+      a[dest + len2] = tmp[cursor1];
+      return;
+    }
+
+    Comparator<Object> c = this.c;
+    int minGallop = this.minGallop;
+    outer: while (true) {
+      // number of times in a row that the first or second run won
+      int count1 = 0;
+      int count2 = 0;
+
+      // one element at a time, until a run starts winning consistently
+      do {
+        if (c.compare(a[cursor2], tmp[cursor1]) < 0) {
+          a[dest++] = a[cursor2++];
+          count2++;
+          count1 = 0;
+          if (--len2 == 0) {
+            break outer;
+          }
+        } else {
+          a[dest++] = tmp[cursor1++];
+          count1++;
+          count2 = 0;
+          if (--len1 == 1) {
+            break outer;
+          }
+        }
+      } while ((count1 | count2) < minGallop);
+
+      // galloping, until neither run is winning consistently anymore
+      do {
+        count1 = gallopRight(a[cursor2], tmp, cursor1, len1, 0, c);
+        if (count1 != 0) {
+          copy(tmp, cursor1, a, dest, count1);
+          dest += count1;
+          cursor1 += count1;
+          len1 -= count1;
+          if (len1 <= 1) {
+            break outer;
+          }
+        }
+        a[dest++] = a[cursor2++];
+        if (--len2 == 0) {
+          break outer;
+        }
+
+        count2 = gallopLeft(tmp[cursor1], a, cursor2, len2, 0, c);
+        if (count2 != 0) {
+          copy(a, cursor2, a, dest, count2);
+          dest += count2;
+          cursor2 += count2;
+          len2 -= count2;
+          if (len2 == 0) {
+            break outer;
+          }
+        }
+        a[dest++] = tmp[cursor1++];
+        if (--len1 == 1) {
+          break outer;
+        }
+        minGallop--;
+      } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+      if (minGallop < 0) {
+        minGallop = 0;
+      }
+      // penalizes leaving the galloping mode
+      minGallop += 2;
+    }
+    this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+    if (len1 == 1) {
+      copy(a, cursor2, a, dest, len2);
+      // the last element of run1 is the greatest
+      a[dest + len2] = tmp[cursor1];
+    } else if (len1 == 0) {
+      throw new IllegalArgumentException("Comparison method violates its general contract!");
+    } else {
+      copy(tmp, cursor1, a, dest, len1);
+    }
+  }
+
+  /**
+   * Like {@link #mergeLo}, but merges from right to left, the second run
+   * being the shortest.
+   */
+  private void mergeHi(int base1, int len1, int base2, int len2) {
+    Object[] a = this.a;
+    Object[] tmp = ensureCapacity(len2);
+    copy(a, base2, tmp, 0, len2);
+
+    int cursor1 = base1 + len1 - 1;
+    int cursor2 = len2 - 1;
+    int dest = base2 + len2 - 1;
+
+    a[dest--] = a[cursor1--];
+    if (--len1 == 0) {
+      copy(tmp, 0, a, dest - (len2 - 1), len2);
+      return;
+    }
+    if (len2 == 1) {
+      dest -= len1;
+      cursor1 -= len1;
+      copy(a, cursor1 + 1, a, dest + 1, len1);
+      a[dest] = tmp[cursor2];
+      return;
+    }
+
+    Comparator<Object> c = this.c;
+    int minGallop = this.minGallop;
+    outer: while (true) {
+      int count1 = 0;
+      int count2 = 0;
+
+      do {
+        if (c.compare(tmp[cursor2], a[cursor1]) < 0) {
+          a[dest--] = a[cursor1--];
+          count1++;
+          count2 = 0;
+          if (--len1 == 0) {
+            break outer;
+          }
+        } else {
+          a[dest--] = tmp[cursor2--];
+          count2++;
+          count1 = 0;
+          if (--len2 == 1) {
+            break outer;
+          }
+        }
+      } while ((count1 | count2) < minGallop);
+
+      do {
+        count1 = len1 - gallopRight(tmp[cursor2], a, base1, len1, len1 - 1, c);
+        if (count1 != 0) {
+          dest -= count1;
+          cursor1 -= count1;
+          len1 -= count1;
+          copy(a, cursor1 + 1, a, dest + 1, count1);
+          if (len1 == 0) {
+            break outer;
+          }
+        }
+        a[dest--] = tmp[cursor2--];
+        if (--len2 == 1) {
+          break outer;
+        }
+
+        count2 = len2 - gallopLeft(a[cursor1], tmp, 0, len2, len2 - 1, c);
+        if (count2 != 0) {
+          dest -= count2;
+          cursor2 -= count2;
+          len2 -= count2;
+          copy(tmp, cursor2 + 1, a, dest + 1, count2);
+          if (len2 <= 1) {
+            break outer;
+          }
+        }
+        a[dest--] = a[cursor1--];
+        if (--len1 == 0) {
+          break outer;
+        }
+        minGallop--;
+      } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+      if (minGallop < 0) {
+        minGallop = 0;
+      }
+      minGallop += 2;
+    }
+    this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+    if (len2 == 1) {
+      dest -= len1;
+      cursor1 -= len1;
+      copy(a, cursor1 + 1, a, dest + 1, len1);
+      // the first element of run2 is the smallest
+      a[dest] = tmp[cursor2];
+    } else if (len2 == 0) {
+      throw new IllegalArgumentException("Comparison method violates its general contract!");
+    } else {
+      copy(tmp, 0, a, dest - (len2 - 1), len2);
+    }
+  }
+
+  /**
+   * Grows the temporary array to at least the given capacity, to the next
+   * power of two (but no more than half the array).
+   */
+  private Object[] ensureCapacity(int minCapacity) {
+    if (tmp.length < minCapacity) {
+      int newSize = minCapacity;
+      newSize |= newSize >> 1;
+      newSize |= newSize >> 2;
+      newSize |= newSize >> 4;
+      newSize |= newSize >> 8;
+      newSize |= newSize >> 16;
+      newSize++;
+      if (newSize < 0) {
+        newSize = minCapacity;
+      } else {
+        newSize = Math.min(newSize, a.length >>> 1);
+      }
+      tmp = new Object[newSize];
+    }
+    return tmp;
+  }
+}
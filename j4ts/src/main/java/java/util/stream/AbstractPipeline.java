@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static jsweet.util.Globals.array;
+
+/**
+ * The base class of the stream implementations.
+ * <p>
+ * A stream is a stage of a pipeline that pulls its elements one at a time
+ * from the previous stage, with {@link #advance()}. So the intermediate
+ * operations are fused: no collection is built between the stages (except for
+ * sorting), nothing is computed before the terminal operation, and the
+ * short-circuiting operations stop pulling as soon as their result is known.
+ * Each subclass holds the current element in a field of the element type, so
+ * that primitive streams do not box their elements.
+ */
+abstract class AbstractPipeline {
+
+  /**
+   * The first stage of the pipeline, which holds the close handlers.
+   */
+  private final AbstractPipeline source;
+
+  private boolean linked;
+
+  private Runnable[] closeHandlers;
+
+  /**
+   * Creates the first stage of a pipeline.
+   */
+  AbstractPipeline() {
+    this.source = this;
+  }
+
+  /**
+   * Creates a stage pulling the elements from the given stage.
+   */
+  AbstractPipeline(AbstractPipeline previous) {
+    previous.link();
+    this.source = previous.source;
+  }
+
+  /**
+   * Moves to the next element, and returns false if there are no more
+   * elements.
+   */
+  abstract boolean advance();
+
+  /**
+   * Marks this stage as consumed, by a following stage or by a terminal
+   * operation.
+   */
+  final void link() {
+    if (linked) {
+      throw new IllegalStateException("stream has already been operated upon or closed");
+    }
+    linked = true;
+  }
+
+  final void addCloseHandler(Runnable closeHandler) {
+    if (source.closeHandlers == null) {
+      source.closeHandlers = new Runnable[] { closeHandler };
+    } else {
+      array(source.closeHandlers).push(closeHandler);
+    }
+  }
+
+  public boolean isParallel() {
+    return false;
+  }
+
+  public void close() {
+    linked = true;
+    Runnable[] closeHandlers = source.closeHandlers;
+    source.closeHandlers = null;
+    if (closeHandlers != null) {
+      for (Runnable closeHandler : closeHandlers) {
+        closeHandler.run();
+      }
+    }
+  }
+}
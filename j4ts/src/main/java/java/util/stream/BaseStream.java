@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import java.util.Iterator;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/BaseStream.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * The streams are always sequential, and spliterators are not supported.
+ *
+ * @param <T> the type of the stream elements
+ * @param <S> the type of the stream
+ */
+public interface BaseStream<T, S extends BaseStream<T, S>> extends AutoCloseable {
+
+  Iterator<T> iterator();
+
+  boolean isParallel();
+
+  S sequential();
+
+  S parallel();
+
+  S unordered();
+
+  S onClose(Runnable closeHandler);
+
+  @Override
+  void close();
+}
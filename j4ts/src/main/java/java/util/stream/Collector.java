@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/Collector.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * Since streams are sequential, the combiner is never called.
+ */
+public interface Collector<T, A, R> {
+
+  static <T, R> Collector<T, R, R> of(Supplier<R> supplier, BiConsumer<R, T> accumulator,
+      BinaryOperator<R> combiner, Characteristics... characteristics) {
+    checkNotNull(supplier);
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    Set<Characteristics> set = CollectorImpl.characteristicsOf(characteristics);
+    set.add(Characteristics.IDENTITY_FINISH);
+    return new CollectorImpl<T, R, R>(supplier, accumulator, combiner, null, set);
+  }
+
+  static <T, A, R> Collector<T, A, R> of(Supplier<A> supplier, BiConsumer<A, T> accumulator,
+      BinaryOperator<A> combiner, Function<A, R> finisher, Characteristics... characteristics) {
+    checkNotNull(supplier);
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    checkNotNull(finisher);
+    return new CollectorImpl<T, A, R>(supplier, accumulator, combiner, finisher,
+        CollectorImpl.characteristicsOf(characteristics));
+  }
+
+  Supplier<A> supplier();
+
+  BiConsumer<A, T> accumulator();
+
+  BinaryOperator<A> combiner();
+
+  Function<A, R> finisher();
+
+  Set<Characteristics> characteristics();
+
+  enum Characteristics {
+    CONCURRENT, UNORDERED, IDENTITY_FINISH
+  }
+}
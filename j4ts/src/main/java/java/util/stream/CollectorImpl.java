@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The implementation of the collectors created by {@link Collector#of} and
+ * {@link Collectors}.
+ */
+final class CollectorImpl<T, A, R> implements Collector<T, A, R> {
+
+  static Set<Characteristics> characteristicsOf(Characteristics[] characteristics) {
+    Set<Characteristics> set = new HashSet<Characteristics>();
+    for (Characteristics characteristic : characteristics) {
+      set.add(characteristic);
+    }
+    return set;
+  }
+
+  private final Supplier<A> supplier;
+  private final BiConsumer<A, T> accumulator;
+  private final BinaryOperator<A> combiner;
+  private final Function<A, R> finisher;
+  private final Set<Characteristics> characteristics;
+
+  CollectorImpl(Supplier<A> supplier, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner,
+      Function<A, R> finisher, Set<Characteristics> characteristics) {
+    this.supplier = supplier;
+    this.accumulator = accumulator;
+    this.combiner = combiner;
+    this.finisher = finisher;
+    this.characteristics = characteristics;
+  }
+
+  @Override
+  public Supplier<A> supplier() {
+    return supplier;
+  }
+
+  @Override
+  public BiConsumer<A, T> accumulator() {
+    return accumulator;
+  }
+
+  @Override
+  public BinaryOperator<A> combiner() {
+    return combiner;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Function<A, R> finisher() {
+    if (finisher == null) {
+      return a -> (R) a;
+    }
+    return finisher;
+  }
+
+  @Override
+  public Set<Characteristics> characteristics() {
+    return characteristics;
+  }
+}
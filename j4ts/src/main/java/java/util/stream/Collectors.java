@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.Coercions.ensureInt;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector.Characteristics;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/Collectors.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * Summary statistics and the concurrent collectors are not supported.
+ */
+public final class Collectors {
+
+  /**
+   * Holds the intermediate result of the reducing collectors.
+   */
+  private static final class Box<T> {
+    T value;
+    boolean present;
+
+    Box(T value) {
+      this.value = value;
+    }
+  }
+
+  public static <T> Collector<T, ?, List<T>> toList() {
+    return identityFinish(() -> new ArrayList<T>(), (list, t) -> list.add(t), (a, b) -> {
+      a.addAll(b);
+      return a;
+    });
+  }
+
+  public static <T> Collector<T, ?, Set<T>> toSet() {
+    return identityFinish(() -> new HashSet<T>(), (set, t) -> set.add(t), (a, b) -> {
+      a.addAll(b);
+      return a;
+    });
+  }
+
+  public static <T, C extends Collection<T>> Collector<T, ?, C> toCollection(
+      Supplier<C> collectionFactory) {
+    checkNotNull(collectionFactory);
+    return identityFinish(collectionFactory, (c, t) -> c.add(t), (a, b) -> {
+      a.addAll(b);
+      return a;
+    });
+  }
+
+  public static <T, K, U> Collector<T, ?, Map<K, U>> toMap(
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends U> valueMapper) {
+    checkNotNull(keyMapper);
+    checkNotNull(valueMapper);
+    return identityFinish(() -> new HashMap<K, U>(), (map, t) -> {
+      K key = keyMapper.apply(t);
+      U value = checkNotNull(valueMapper.apply(t));
+      if (map.containsKey(key)) {
+        throw new IllegalStateException("Duplicate key " + key);
+      }
+      map.put(key, value);
+    }, (a, b) -> {
+      for (Map.Entry<K, U> entry : b.entrySet()) {
+        if (a.containsKey(entry.getKey())) {
+          throw new IllegalStateException("Duplicate key " + entry.getKey());
+        }
+        a.put(entry.getKey(), entry.getValue());
+      }
+      return a;
+    });
+  }
+
+  public static <T, K, U> Collector<T, ?, Map<K, U>> toMap(
+      Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper,
+      BinaryOperator<U> mergeFunction) {
+    return toMap(keyMapper, valueMapper, mergeFunction, () -> new HashMap<K, U>());
+  }
+
+  public static <T, K, U, M extends Map<K, U>> Collector<T, ?, M> toMap(
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends U> valueMapper, final BinaryOperator<U> mergeFunction,
+      Supplier<M> mapSupplier) {
+    checkNotNull(keyMapper);
+    checkNotNull(valueMapper);
+    checkNotNull(mergeFunction);
+    checkNotNull(mapSupplier);
+    return identityFinish(mapSupplier, (map, t) -> {
+      merge(map, keyMapper.apply(t), checkNotNull(valueMapper.apply(t)), mergeFunction);
+    }, (a, b) -> {
+      for (Map.Entry<K, U> entry : b.entrySet()) {
+        merge(a, entry.getKey(), entry.getValue(), mergeFunction);
+      }
+      return a;
+    });
+  }
+
+  private static <K, U> void merge(Map<K, U> map, K key, U value, BinaryOperator<U> mergeFunction) {
+    U oldValue = map.get(key);
+    map.put(key, oldValue == null ? value : mergeFunction.apply(oldValue, value));
+  }
+
+  public static Collector<CharSequence, ?, String> joining() {
+    return new CollectorImpl<CharSequence, StringBuilder, String>(() -> new StringBuilder(),
+        (builder, s) -> builder.append(s), (a, b) -> a.append(b),
+        builder -> builder.toString(), noCharacteristics());
+  }
+
+  public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+    return joining(delimiter, "", "");
+  }
+
+  public static Collector<CharSequence, ?, String> joining(final CharSequence delimiter,
+      final CharSequence prefix, final CharSequence suffix) {
+    checkNotNull(delimiter);
+    checkNotNull(prefix);
+    checkNotNull(suffix);
+    return new CollectorImpl<CharSequence, StringJoiner, String>(
+        () -> new StringJoiner(delimiter, prefix, suffix), (joiner, s) -> joiner.add(s),
+        (a, b) -> a.merge(b), joiner -> joiner.toString(), noCharacteristics());
+  }
+
+  public static <T, U, A, R> Collector<T, ?, R> mapping(
+      final Function<? super T, ? extends U> mapper, Collector<? super U, A, R> downstream) {
+    checkNotNull(mapper);
+    final BiConsumer<A, ? super U> downstreamAccumulator = downstream.accumulator();
+    return new CollectorImpl<T, A, R>(downstream.supplier(),
+        (container, t) -> downstreamAccumulator.accept(container, mapper.apply(t)),
+        downstream.combiner(), downstream.finisher(), downstream.characteristics());
+  }
+
+  public static <T, A, R, RR> Collector<T, A, RR> collectingAndThen(
+      final Collector<T, A, R> downstream, final Function<R, RR> finisher) {
+    checkNotNull(finisher);
+    Set<Characteristics> characteristics = new HashSet<Characteristics>(
+        downstream.characteristics());
+    characteristics.remove(Characteristics.IDENTITY_FINISH);
+    return new CollectorImpl<T, A, RR>(downstream.supplier(), downstream.accumulator(),
+        downstream.combiner(), container -> finisher.apply(finish(downstream, container)),
+        characteristics);
+  }
+
+  public static <T> Collector<T, ?, Long> counting() {
+    return new CollectorImpl<T, long[], Long>(() -> new long[1], (count, t) -> count[0]++,
+        (a, b) -> {
+          a[0] += b[0];
+          return a;
+        }, count -> count[0], noCharacteristics());
+  }
+
+  public static <T> Collector<T, ?, Optional<T>> minBy(final Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    return reducing((a, b) -> comparator.compare(a, b) <= 0 ? a : b);
+  }
+
+  public static <T> Collector<T, ?, Optional<T>> maxBy(final Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    return reducing((a, b) -> comparator.compare(a, b) >= 0 ? a : b);
+  }
+
+  public static <T> Collector<T, ?, Integer> summingInt(final ToIntFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, int[], Integer>(() -> new int[1],
+        (sum, t) -> sum[0] = ensureInt(sum[0] + mapper.applyAsInt(t)), (a, b) -> {
+          a[0] = ensureInt(a[0] + b[0]);
+          return a;
+        }, sum -> sum[0], noCharacteristics());
+  }
+
+  public static <T> Collector<T, ?, Long> summingLong(final ToLongFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, long[], Long>(() -> new long[1],
+        (sum, t) -> sum[0] += mapper.applyAsLong(t), (a, b) -> {
+          a[0] += b[0];
+          return a;
+        }, sum -> sum[0], noCharacteristics());
+  }
+
+  public static <T> Collector<T, ?, Double> summingDouble(
+      final ToDoubleFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, double[], Double>(() -> new double[1],
+        (sum, t) -> sum[0] += mapper.applyAsDouble(t), (a, b) -> {
+          a[0] += b[0];
+          return a;
+        }, sum -> sum[0], noCharacteristics());
+  }
+
+  public static <T> Collector<T, ?, Double> averagingInt(final ToIntFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return averagingDouble(t -> mapper.applyAsInt(t));
+  }
+
+  public static <T> Collector<T, ?, Double> averagingLong(final ToLongFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return averagingDouble(t -> mapper.applyAsLong(t));
+  }
+
+  /**
+   * The container holds the sum and the count.
+   */
+  public static <T> Collector<T, ?, Double> averagingDouble(
+      final ToDoubleFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, double[], Double>(() -> new double[2], (average, t) -> {
+      average[0] += mapper.applyAsDouble(t);
+      average[1]++;
+    }, (a, b) -> {
+      a[0] += b[0];
+      a[1] += b[1];
+      return a;
+    }, average -> average[1] == 0 ? 0 : average[0] / average[1], noCharacteristics());
+  }
+
+  public static <T> Collector<T, ?, T> reducing(T identity, final BinaryOperator<T> op) {
+    return reducing(identity, t -> t, op);
+  }
+
+  public static <T> Collector<T, ?, Optional<T>> reducing(final BinaryOperator<T> op) {
+    checkNotNull(op);
+    return new CollectorImpl<T, Box<T>, Optional<T>>(() -> new Box<T>(null), (box, t) -> {
+      box.value = box.present ? op.apply(box.value, t) : t;
+      box.present = true;
+    }, (a, b) -> {
+      if (b.present) {
+        a.value = a.present ? op.apply(a.value, b.value) : b.value;
+        a.present = true;
+      }
+      return a;
+    }, box -> box.present ? Optional.of(box.value) : Optional.<T> empty(), noCharacteristics());
+  }
+
+  public static <T, U> Collector<T, ?, U> reducing(final U identity,
+      final Function<? super T, ? extends U> mapper, final BinaryOperator<U> op) {
+    checkNotNull(mapper);
+    checkNotNull(op);
+    return new CollectorImpl<T, Box<U>, U>(() -> new Box<U>(identity),
+        (box, t) -> box.value = op.apply(box.value, mapper.apply(t)), (a, b) -> {
+          a.value = op.apply(a.value, b.value);
+          return a;
+        }, box -> box.value, noCharacteristics());
+  }
+
+  public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingBy(
+      Function<? super T, ? extends K> classifier) {
+    return groupingBy(classifier, Collectors.<T> toList());
+  }
+
+  public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingBy(
+      Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+    return groupingBy(classifier, () -> new HashMap<K, D>(), downstream);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T, K, D, A, M extends Map<K, D>> Collector<T, ?, M> groupingBy(
+      final Function<? super T, ? extends K> classifier, Supplier<M> mapFactory,
+      final Collector<? super T, A, D> downstream) {
+    checkNotNull(classifier);
+    checkNotNull(mapFactory);
+    final Supplier<A> downstreamSupplier = downstream.supplier();
+    final BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+    // the containers are stored in the final map, and replaced by their result
+    // when finishing
+    return new CollectorImpl<T, Map<K, A>, M>((Supplier<Map<K, A>>) mapFactory, (map, t) -> {
+      K key = classifier.apply(t);
+      checkNotNull(key, "element cannot be mapped to a null key");
+      A container = map.get(key);
+      if (container == null) {
+        container = downstreamSupplier.get();
+        map.put(key, container);
+      }
+      downstreamAccumulator.accept(container, t);
+    }, combiner(downstream.combiner()), map -> finishAll(downstream, map), noCharacteristics());
+  }
+
+  public static <T> Collector<T, ?, Map<Boolean, List<T>>> partitioningBy(
+      Predicate<? super T> predicate) {
+    return partitioningBy(predicate, Collectors.<T> toList());
+  }
+
+  public static <T, D, A> Collector<T, ?, Map<Boolean, D>> partitioningBy(
+      final Predicate<? super T> predicate, final Collector<? super T, A, D> downstream) {
+    checkNotNull(predicate);
+    final BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+    return new CollectorImpl<T, Map<Boolean, A>, Map<Boolean, D>>(() -> {
+      Map<Boolean, A> map = new LinkedHashMap<Boolean, A>();
+      map.put(false, downstream.supplier().get());
+      map.put(true, downstream.supplier().get());
+      return map;
+    }, (map, t) -> downstreamAccumulator.accept(map.get(predicate.test(t)), t),
+        combiner(downstream.combiner()), map -> finishAll(downstream, map), noCharacteristics());
+  }
+
+  private static <K, A> BinaryOperator<Map<K, A>> combiner(
+      final BinaryOperator<A> downstreamCombiner) {
+    return (a, b) -> {
+      for (Map.Entry<K, A> entry : b.entrySet()) {
+        A container = a.get(entry.getKey());
+        a.put(entry.getKey(), container == null ? entry.getValue()
+            : downstreamCombiner.apply(container, entry.getValue()));
+      }
+      return a;
+    };
+  }
+
+  /**
+   * Replaces the containers of the given map by their results.
+   */
+  @SuppressWarnings("unchecked")
+  private static <K, A, D, M extends Map<K, D>> M finishAll(Collector<?, A, D> downstream,
+      Map<K, A> map) {
+    if (!downstream.characteristics().contains(Characteristics.IDENTITY_FINISH)) {
+      for (Map.Entry<K, A> entry : map.entrySet()) {
+        entry.setValue((A) finish(downstream, entry.getValue()));
+      }
+    }
+    return (M) map;
+  }
+
+  /**
+   * Applies the finisher of the given collector, unless it is the identity.
+   */
+  @SuppressWarnings("unchecked")
+  static <A, R> R finish(Collector<?, A, R> collector, A container) {
+    if (collector.characteristics().contains(Characteristics.IDENTITY_FINISH)) {
+      return (R) container;
+    }
+    return collector.finisher().apply(container);
+  }
+
+  private static <T, A> Collector<T, A, A> identityFinish(Supplier<A> supplier,
+      BiConsumer<A, T> accumulator, BinaryOperator<A> combiner) {
+    Set<Characteristics> characteristics = noCharacteristics();
+    characteristics.add(Characteristics.IDENTITY_FINISH);
+    return new CollectorImpl<T, A, A>(supplier, accumulator, combiner, null, characteristics);
+  }
+
+  private static Set<Characteristics> noCharacteristics() {
+    return new HashSet<Characteristics>();
+  }
+
+  private Collectors() {
+  }
+}
@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.InternalPreconditions.checkCriticalArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static jsweet.util.Globals.array;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The implementation of {@link DoubleStream}, as a pipeline stage (see
+ * {@link AbstractPipeline}).
+ */
+abstract class DoublePipeline extends AbstractPipeline implements DoubleStream {
+
+  /**
+   * The current element, once {@link #advance()} returned true.
+   */
+  double current;
+
+  DoublePipeline() {
+  }
+
+  DoublePipeline(AbstractPipeline previous) {
+    super(previous);
+  }
+
+  static DoublePipeline ofArray(final double[] array, final int fromIndex, final int toIndex) {
+    return new DoublePipeline() {
+      int index = fromIndex;
+
+      @Override
+      boolean advance() {
+        if (index < toIndex) {
+          current = array[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static DoublePipeline ofIterator(final PrimitiveIterator.OfDouble iterator) {
+    return new DoublePipeline() {
+      @Override
+      boolean advance() {
+        if (iterator.hasNext()) {
+          current = iterator.nextDouble();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static DoublePipeline iterate(final double seed, final DoubleUnaryOperator f) {
+    checkNotNull(f);
+    return new DoublePipeline() {
+      boolean started;
+
+      @Override
+      boolean advance() {
+        current = started ? f.applyAsDouble(current) : seed;
+        started = true;
+        return true;
+      }
+    };
+  }
+
+  static DoublePipeline generate(final DoubleSupplier s) {
+    checkNotNull(s);
+    return new DoublePipeline() {
+      @Override
+      boolean advance() {
+        current = s.getAsDouble();
+        return true;
+      }
+    };
+  }
+
+  static DoublePipeline concat(final DoubleStream a, final DoubleStream b) {
+    final DoublePipeline first = pull(a);
+    final DoublePipeline second = pull(b);
+    DoublePipeline concatenation = new DoublePipeline() {
+      boolean firstDone;
+
+      @Override
+      boolean advance() {
+        if (!firstDone) {
+          if (first.advance()) {
+            current = first.current;
+            return true;
+          }
+          firstDone = true;
+        }
+        if (second.advance()) {
+          current = second.current;
+          return true;
+        }
+        return false;
+      }
+    };
+    concatenation.addCloseHandler(() -> {
+      a.close();
+      b.close();
+    });
+    return concatenation;
+  }
+
+  /**
+   * Gets the stage to pull the elements of the given stream from, and marks
+   * the stream as consumed.
+   */
+  static DoublePipeline pull(DoubleStream stream) {
+    if (stream instanceof DoublePipeline) {
+      DoublePipeline pipeline = (DoublePipeline) stream;
+      pipeline.link();
+      return pipeline;
+    }
+    return ofIterator(stream.iterator());
+  }
+
+  @Override
+  public DoubleStream filter(final DoublePredicate predicate) {
+    checkNotNull(predicate);
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (predicate.test(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream map(final DoubleUnaryOperator mapper) {
+    checkNotNull(mapper);
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsDouble(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public <U> Stream<U> mapToObj(final DoubleFunction<? extends U> mapper) {
+    checkNotNull(mapper);
+    final DoublePipeline previous = this;
+    return new ReferencePipeline<U>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.apply(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream mapToLong(final DoubleToLongFunction mapper) {
+    checkNotNull(mapper);
+    final DoublePipeline previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsLong(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream mapToInt(final DoubleToIntFunction mapper) {
+    checkNotNull(mapper);
+    final DoublePipeline previous = this;
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsInt(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream flatMap(final DoubleFunction<? extends DoubleStream> mapper) {
+    checkNotNull(mapper);
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      DoublePipeline inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          DoubleStream stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream distinct() {
+    final DoublePipeline previous = this;
+    final Set<Double> seen = new HashSet<Double>();
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (seen.add(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream sorted() {
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      double[] elements;
+      int index;
+
+      @Override
+      boolean advance() {
+        if (elements == null) {
+          // sorting is the only operation that needs all the elements
+          elements = previous.toArray0();
+          Arrays.sort(elements);
+        }
+        if (index < elements.length) {
+          current = elements[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream peek(final DoubleConsumer action) {
+    checkNotNull(action);
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          action.accept(current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream limit(final long maxSize) {
+    checkCriticalArgument(maxSize >= 0, "maxSize < 0");
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      long count;
+
+      @Override
+      boolean advance() {
+        // does not pull the elements after the limit
+        if (count < maxSize && previous.advance()) {
+          count++;
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream skip(final long n) {
+    checkCriticalArgument(n >= 0, "n < 0");
+    final DoublePipeline previous = this;
+    return new DoublePipeline(this) {
+      long skipped;
+
+      @Override
+      boolean advance() {
+        while (skipped < n) {
+          if (!previous.advance()) {
+            return false;
+          }
+          skipped++;
+        }
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public void forEach(DoubleConsumer action) {
+    forEachOrdered(action);
+  }
+
+  @Override
+  public void forEachOrdered(DoubleConsumer action) {
+    checkNotNull(action);
+    link();
+    while (advance()) {
+      action.accept(current);
+    }
+  }
+
+  @Override
+  public double[] toArray() {
+    link();
+    return toArray0();
+  }
+
+  /**
+   * Pulls all the remaining elements.
+   */
+  private double[] toArray0() {
+    double[] elements = {};
+    while (advance()) {
+      array(elements).push(current);
+    }
+    return elements;
+  }
+
+  @Override
+  public double reduce(double identity, DoubleBinaryOperator op) {
+    checkNotNull(op);
+    link();
+    double result = identity;
+    while (advance()) {
+      result = op.applyAsDouble(result, current);
+    }
+    return result;
+  }
+
+  @Override
+  public OptionalDouble reduce(DoubleBinaryOperator op) {
+    checkNotNull(op);
+    link();
+    if (!advance()) {
+      return OptionalDouble.empty();
+    }
+    double result = current;
+    while (advance()) {
+      result = op.applyAsDouble(result, current);
+    }
+    return OptionalDouble.of(result);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    link();
+    R container = supplier.get();
+    while (advance()) {
+      accumulator.accept(container, current);
+    }
+    return container;
+  }
+
+  @Override
+  public double sum() {
+    link();
+    double sum = 0;
+    while (advance()) {
+      sum += current;
+    }
+    return sum;
+  }
+
+  @Override
+  public OptionalDouble min() {
+    link();
+    if (!advance()) {
+      return OptionalDouble.empty();
+    }
+    double min = current;
+    while (advance()) {
+      min = Math.min(min, current);
+    }
+    return OptionalDouble.of(min);
+  }
+
+  @Override
+  public OptionalDouble max() {
+    link();
+    if (!advance()) {
+      return OptionalDouble.empty();
+    }
+    double max = current;
+    while (advance()) {
+      max = Math.max(max, current);
+    }
+    return OptionalDouble.of(max);
+  }
+
+  @Override
+  public long count() {
+    link();
+    long count = 0;
+    while (advance()) {
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public OptionalDouble average() {
+    link();
+    long count = 0;
+    double sum = 0;
+    while (advance()) {
+      count++;
+      sum += current;
+    }
+    return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum / count);
+  }
+
+  @Override
+  public boolean anyMatch(DoublePredicate predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (predicate.test(current)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean allMatch(DoublePredicate predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (!predicate.test(current)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean noneMatch(DoublePredicate predicate) {
+    return !anyMatch(predicate);
+  }
+
+  @Override
+  public OptionalDouble findFirst() {
+    link();
+    return advance() ? OptionalDouble.of(current) : OptionalDouble.empty();
+  }
+
+  @Override
+  public OptionalDouble findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public Stream<Double> boxed() {
+    final DoublePipeline previous = this;
+    return new ReferencePipeline<Double>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public PrimitiveIterator.OfDouble iterator() {
+    link();
+    return new PrimitiveIterator.OfDouble() {
+      boolean ready;
+      boolean done;
+
+      @Override
+      public boolean hasNext() {
+        if (!ready && !done) {
+          ready = advance();
+          done = !ready;
+        }
+        return ready;
+      }
+
+      @Override
+      public double nextDouble() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ready = false;
+        return current;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream sequential() {
+    return this;
+  }
+
+  @Override
+  public DoubleStream parallel() {
+    return this;
+  }
+
+  @Override
+  public DoubleStream unordered() {
+    return this;
+  }
+
+  @Override
+  public DoubleStream onClose(Runnable closeHandler) {
+    checkNotNull(closeHandler);
+    addCloseHandler(closeHandler);
+    return this;
+  }
+}
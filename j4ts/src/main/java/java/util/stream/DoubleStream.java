@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/DoubleStream.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * Summary statistics are not supported.
+ */
+public interface DoubleStream extends BaseStream<Double, DoubleStream> {
+
+  static DoubleStream empty() {
+    return DoublePipeline.ofArray(null, 0, 0);
+  }
+
+  static DoubleStream of(double... values) {
+    return DoublePipeline.ofArray(values, 0, values.length);
+  }
+
+  static DoubleStream iterate(double seed, DoubleUnaryOperator f) {
+    return DoublePipeline.iterate(seed, f);
+  }
+
+  static DoubleStream generate(DoubleSupplier s) {
+    return DoublePipeline.generate(s);
+  }
+
+  static DoubleStream concat(DoubleStream a, DoubleStream b) {
+    return DoublePipeline.concat(a, b);
+  }
+
+  DoubleStream filter(DoublePredicate predicate);
+
+  DoubleStream map(DoubleUnaryOperator mapper);
+
+  <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper);
+
+  IntStream mapToInt(DoubleToIntFunction mapper);
+
+  LongStream mapToLong(DoubleToLongFunction mapper);
+
+  DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper);
+
+  DoubleStream distinct();
+
+  DoubleStream sorted();
+
+  DoubleStream peek(DoubleConsumer action);
+
+  DoubleStream limit(long maxSize);
+
+  DoubleStream skip(long n);
+
+  void forEach(DoubleConsumer action);
+
+  void forEachOrdered(DoubleConsumer action);
+
+  double[] toArray();
+
+  double reduce(double identity, DoubleBinaryOperator op);
+
+  OptionalDouble reduce(DoubleBinaryOperator op);
+
+  <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+  double sum();
+
+  OptionalDouble min();
+
+  OptionalDouble max();
+
+  long count();
+
+  OptionalDouble average();
+
+  boolean anyMatch(DoublePredicate predicate);
+
+  boolean allMatch(DoublePredicate predicate);
+
+  boolean noneMatch(DoublePredicate predicate);
+
+  OptionalDouble findFirst();
+
+  OptionalDouble findAny();
+
+  Stream<Double> boxed();
+
+  @Override
+  PrimitiveIterator.OfDouble iterator();
+}
@@ -0,0 +1,656 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.Coercions.ensureInt;
+import static javaemul.internal.InternalPreconditions.checkCriticalArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static jsweet.util.Globals.array;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The implementation of {@link IntStream}, as a pipeline stage (see
+ * {@link AbstractPipeline}).
+ */
+abstract class IntPipeline extends AbstractPipeline implements IntStream {
+
+  /**
+   * The current element, once {@link #advance()} returned true.
+   */
+  int current;
+
+  IntPipeline() {
+  }
+
+  IntPipeline(AbstractPipeline previous) {
+    super(previous);
+  }
+
+  static IntPipeline ofArray(final int[] array, final int fromIndex, final int toIndex) {
+    return new IntPipeline() {
+      int index = fromIndex;
+
+      @Override
+      boolean advance() {
+        if (index < toIndex) {
+          current = array[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static IntPipeline ofIterator(final PrimitiveIterator.OfInt iterator) {
+    return new IntPipeline() {
+      @Override
+      boolean advance() {
+        if (iterator.hasNext()) {
+          current = iterator.nextInt();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static IntPipeline iterate(final int seed, final IntUnaryOperator f) {
+    checkNotNull(f);
+    return new IntPipeline() {
+      boolean started;
+
+      @Override
+      boolean advance() {
+        current = started ? f.applyAsInt(current) : seed;
+        started = true;
+        return true;
+      }
+    };
+  }
+
+  static IntPipeline generate(final IntSupplier s) {
+    checkNotNull(s);
+    return new IntPipeline() {
+      @Override
+      boolean advance() {
+        current = s.getAsInt();
+        return true;
+      }
+    };
+  }
+
+  static IntPipeline range(final int startInclusive, final int endExclusive) {
+    return new IntPipeline() {
+      int next = startInclusive;
+
+      @Override
+      boolean advance() {
+        if (next < endExclusive) {
+          current = next++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static IntPipeline rangeClosed(final int startInclusive, final int endInclusive) {
+    return new IntPipeline() {
+      int next = startInclusive;
+      boolean done = startInclusive > endInclusive;
+
+      @Override
+      boolean advance() {
+        if (done) {
+          return false;
+        }
+        current = next;
+        // does not overflow when the end is the greatest int
+        if (next == endInclusive) {
+          done = true;
+        } else {
+          next++;
+        }
+        return true;
+      }
+    };
+  }
+
+  static IntPipeline concat(final IntStream a, final IntStream b) {
+    final IntPipeline first = pull(a);
+    final IntPipeline second = pull(b);
+    IntPipeline concatenation = new IntPipeline() {
+      boolean firstDone;
+
+      @Override
+      boolean advance() {
+        if (!firstDone) {
+          if (first.advance()) {
+            current = first.current;
+            return true;
+          }
+          firstDone = true;
+        }
+        if (second.advance()) {
+          current = second.current;
+          return true;
+        }
+        return false;
+      }
+    };
+    concatenation.addCloseHandler(() -> {
+      a.close();
+      b.close();
+    });
+    return concatenation;
+  }
+
+  /**
+   * Gets the stage to pull the elements of the given stream from, and marks
+   * the stream as consumed.
+   */
+  static IntPipeline pull(IntStream stream) {
+    if (stream instanceof IntPipeline) {
+      IntPipeline pipeline = (IntPipeline) stream;
+      pipeline.link();
+      return pipeline;
+    }
+    return ofIterator(stream.iterator());
+  }
+
+  @Override
+  public IntStream filter(final IntPredicate predicate) {
+    checkNotNull(predicate);
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (predicate.test(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream map(final IntUnaryOperator mapper) {
+    checkNotNull(mapper);
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsInt(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public <U> Stream<U> mapToObj(final IntFunction<? extends U> mapper) {
+    checkNotNull(mapper);
+    final IntPipeline previous = this;
+    return new ReferencePipeline<U>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.apply(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream mapToLong(final IntToLongFunction mapper) {
+    checkNotNull(mapper);
+    final IntPipeline previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsLong(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream mapToDouble(final IntToDoubleFunction mapper) {
+    checkNotNull(mapper);
+    final IntPipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsDouble(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream flatMap(final IntFunction<? extends IntStream> mapper) {
+    checkNotNull(mapper);
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      IntPipeline inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          IntStream stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public IntStream distinct() {
+    final IntPipeline previous = this;
+    final Set<Integer> seen = new HashSet<Integer>();
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (seen.add(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream sorted() {
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      int[] elements;
+      int index;
+
+      @Override
+      boolean advance() {
+        if (elements == null) {
+          // sorting is the only operation that needs all the elements
+          elements = previous.toArray0();
+          Arrays.sort(elements);
+        }
+        if (index < elements.length) {
+          current = elements[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream peek(final IntConsumer action) {
+    checkNotNull(action);
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          action.accept(current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream limit(final long maxSize) {
+    checkCriticalArgument(maxSize >= 0, "maxSize < 0");
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      long count;
+
+      @Override
+      boolean advance() {
+        // does not pull the elements after the limit
+        if (count < maxSize && previous.advance()) {
+          count++;
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream skip(final long n) {
+    checkCriticalArgument(n >= 0, "n < 0");
+    final IntPipeline previous = this;
+    return new IntPipeline(this) {
+      long skipped;
+
+      @Override
+      boolean advance() {
+        while (skipped < n) {
+          if (!previous.advance()) {
+            return false;
+          }
+          skipped++;
+        }
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public void forEach(IntConsumer action) {
+    forEachOrdered(action);
+  }
+
+  @Override
+  public void forEachOrdered(IntConsumer action) {
+    checkNotNull(action);
+    link();
+    while (advance()) {
+      action.accept(current);
+    }
+  }
+
+  @Override
+  public int[] toArray() {
+    link();
+    return toArray0();
+  }
+
+  /**
+   * Pulls all the remaining elements.
+   */
+  private int[] toArray0() {
+    int[] elements = {};
+    while (advance()) {
+      array(elements).push(current);
+    }
+    return elements;
+  }
+
+  @Override
+  public int reduce(int identity, IntBinaryOperator op) {
+    checkNotNull(op);
+    link();
+    int result = identity;
+    while (advance()) {
+      result = op.applyAsInt(result, current);
+    }
+    return result;
+  }
+
+  @Override
+  public OptionalInt reduce(IntBinaryOperator op) {
+    checkNotNull(op);
+    link();
+    if (!advance()) {
+      return OptionalInt.empty();
+    }
+    int result = current;
+    while (advance()) {
+      result = op.applyAsInt(result, current);
+    }
+    return OptionalInt.of(result);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    link();
+    R container = supplier.get();
+    while (advance()) {
+      accumulator.accept(container, current);
+    }
+    return container;
+  }
+
+  @Override
+  public int sum() {
+    link();
+    int sum = 0;
+    while (advance()) {
+      sum = ensureInt(sum + current);
+    }
+    return sum;
+  }
+
+  @Override
+  public OptionalInt min() {
+    link();
+    if (!advance()) {
+      return OptionalInt.empty();
+    }
+    int min = current;
+    while (advance()) {
+      min = Math.min(min, current);
+    }
+    return OptionalInt.of(min);
+  }
+
+  @Override
+  public OptionalInt max() {
+    link();
+    if (!advance()) {
+      return OptionalInt.empty();
+    }
+    int max = current;
+    while (advance()) {
+      max = Math.max(max, current);
+    }
+    return OptionalInt.of(max);
+  }
+
+  @Override
+  public long count() {
+    link();
+    long count = 0;
+    while (advance()) {
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public OptionalDouble average() {
+    link();
+    long count = 0;
+    double sum = 0;
+    while (advance()) {
+      count++;
+      sum += current;
+    }
+    return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum / count);
+  }
+
+  @Override
+  public boolean anyMatch(IntPredicate predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (predicate.test(current)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean allMatch(IntPredicate predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (!predicate.test(current)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean noneMatch(IntPredicate predicate) {
+    return !anyMatch(predicate);
+  }
+
+  @Override
+  public OptionalInt findFirst() {
+    link();
+    return advance() ? OptionalInt.of(current) : OptionalInt.empty();
+  }
+
+  @Override
+  public OptionalInt findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public LongStream asLongStream() {
+    final IntPipeline previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream asDoubleStream() {
+    final IntPipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Stream<Integer> boxed() {
+    final IntPipeline previous = this;
+    return new ReferencePipeline<Integer>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt iterator() {
+    link();
+    return new PrimitiveIterator.OfInt() {
+      boolean ready;
+      boolean done;
+
+      @Override
+      public boolean hasNext() {
+        if (!ready && !done) {
+          ready = advance();
+          done = !ready;
+        }
+        return ready;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ready = false;
+        return current;
+      }
+    };
+  }
+
+  @Override
+  public IntStream sequential() {
+    return this;
+  }
+
+  @Override
+  public IntStream parallel() {
+    return this;
+  }
+
+  @Override
+  public IntStream unordered() {
+    return this;
+  }
+
+  @Override
+  public IntStream onClose(Runnable closeHandler) {
+    checkNotNull(closeHandler);
+    addCloseHandler(closeHandler);
+    return this;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/IntStream.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * Summary statistics are not supported.
+ */
+public interface IntStream extends BaseStream<Integer, IntStream> {
+
+  static IntStream empty() {
+    return IntPipeline.ofArray(null, 0, 0);
+  }
+
+  static IntStream of(int... values) {
+    return IntPipeline.ofArray(values, 0, values.length);
+  }
+
+  static IntStream iterate(int seed, IntUnaryOperator f) {
+    return IntPipeline.iterate(seed, f);
+  }
+
+  static IntStream generate(IntSupplier s) {
+    return IntPipeline.generate(s);
+  }
+
+  static IntStream range(int startInclusive, int endExclusive) {
+    return IntPipeline.range(startInclusive, endExclusive);
+  }
+
+  static IntStream rangeClosed(int startInclusive, int endInclusive) {
+    return IntPipeline.rangeClosed(startInclusive, endInclusive);
+  }
+
+  static IntStream concat(IntStream a, IntStream b) {
+    return IntPipeline.concat(a, b);
+  }
+
+  IntStream filter(IntPredicate predicate);
+
+  IntStream map(IntUnaryOperator mapper);
+
+  <U> Stream<U> mapToObj(IntFunction<? extends U> mapper);
+
+  LongStream mapToLong(IntToLongFunction mapper);
+
+  DoubleStream mapToDouble(IntToDoubleFunction mapper);
+
+  IntStream flatMap(IntFunction<? extends IntStream> mapper);
+
+  IntStream distinct();
+
+  IntStream sorted();
+
+  IntStream peek(IntConsumer action);
+
+  IntStream limit(long maxSize);
+
+  IntStream skip(long n);
+
+  void forEach(IntConsumer action);
+
+  void forEachOrdered(IntConsumer action);
+
+  int[] toArray();
+
+  int reduce(int identity, IntBinaryOperator op);
+
+  OptionalInt reduce(IntBinaryOperator op);
+
+  <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+  int sum();
+
+  OptionalInt min();
+
+  OptionalInt max();
+
+  long count();
+
+  OptionalDouble average();
+
+  boolean anyMatch(IntPredicate predicate);
+
+  boolean allMatch(IntPredicate predicate);
+
+  boolean noneMatch(IntPredicate predicate);
+
+  OptionalInt findFirst();
+
+  OptionalInt findAny();
+
+  LongStream asLongStream();
+
+  DoubleStream asDoubleStream();
+
+  Stream<Integer> boxed();
+
+  @Override
+  PrimitiveIterator.OfInt iterator();
+}
@@ -0,0 +1,641 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.InternalPreconditions.checkCriticalArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static jsweet.util.Globals.array;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The implementation of {@link LongStream}, as a pipeline stage (see
+ * {@link AbstractPipeline}).
+ */
+abstract class LongPipeline extends AbstractPipeline implements LongStream {
+
+  /**
+   * The current element, once {@link #advance()} returned true.
+   */
+  long current;
+
+  LongPipeline() {
+  }
+
+  LongPipeline(AbstractPipeline previous) {
+    super(previous);
+  }
+
+  static LongPipeline ofArray(final long[] array, final int fromIndex, final int toIndex) {
+    return new LongPipeline() {
+      int index = fromIndex;
+
+      @Override
+      boolean advance() {
+        if (index < toIndex) {
+          current = array[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static LongPipeline ofIterator(final PrimitiveIterator.OfLong iterator) {
+    return new LongPipeline() {
+      @Override
+      boolean advance() {
+        if (iterator.hasNext()) {
+          current = iterator.nextLong();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static LongPipeline iterate(final long seed, final LongUnaryOperator f) {
+    checkNotNull(f);
+    return new LongPipeline() {
+      boolean started;
+
+      @Override
+      boolean advance() {
+        current = started ? f.applyAsLong(current) : seed;
+        started = true;
+        return true;
+      }
+    };
+  }
+
+  static LongPipeline generate(final LongSupplier s) {
+    checkNotNull(s);
+    return new LongPipeline() {
+      @Override
+      boolean advance() {
+        current = s.getAsLong();
+        return true;
+      }
+    };
+  }
+
+  static LongPipeline range(final long startInclusive, final long endExclusive) {
+    return new LongPipeline() {
+      long next = startInclusive;
+
+      @Override
+      boolean advance() {
+        if (next < endExclusive) {
+          current = next++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static LongPipeline rangeClosed(final long startInclusive, final long endInclusive) {
+    return new LongPipeline() {
+      long next = startInclusive;
+      boolean done = startInclusive > endInclusive;
+
+      @Override
+      boolean advance() {
+        if (done) {
+          return false;
+        }
+        current = next;
+        // does not overflow when the end is the greatest long
+        if (next == endInclusive) {
+          done = true;
+        } else {
+          next++;
+        }
+        return true;
+      }
+    };
+  }
+
+  static LongPipeline concat(final LongStream a, final LongStream b) {
+    final LongPipeline first = pull(a);
+    final LongPipeline second = pull(b);
+    LongPipeline concatenation = new LongPipeline() {
+      boolean firstDone;
+
+      @Override
+      boolean advance() {
+        if (!firstDone) {
+          if (first.advance()) {
+            current = first.current;
+            return true;
+          }
+          firstDone = true;
+        }
+        if (second.advance()) {
+          current = second.current;
+          return true;
+        }
+        return false;
+      }
+    };
+    concatenation.addCloseHandler(() -> {
+      a.close();
+      b.close();
+    });
+    return concatenation;
+  }
+
+  /**
+   * Gets the stage to pull the elements of the given stream from, and marks
+   * the stream as consumed.
+   */
+  static LongPipeline pull(LongStream stream) {
+    if (stream instanceof LongPipeline) {
+      LongPipeline pipeline = (LongPipeline) stream;
+      pipeline.link();
+      return pipeline;
+    }
+    return ofIterator(stream.iterator());
+  }
+
+  @Override
+  public LongStream filter(final LongPredicate predicate) {
+    checkNotNull(predicate);
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (predicate.test(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream map(final LongUnaryOperator mapper) {
+    checkNotNull(mapper);
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsLong(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public <U> Stream<U> mapToObj(final LongFunction<? extends U> mapper) {
+    checkNotNull(mapper);
+    final LongPipeline previous = this;
+    return new ReferencePipeline<U>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.apply(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream mapToInt(final LongToIntFunction mapper) {
+    checkNotNull(mapper);
+    final LongPipeline previous = this;
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsInt(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+
+  @Override
+  public DoubleStream mapToDouble(final LongToDoubleFunction mapper) {
+    checkNotNull(mapper);
+    final LongPipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsDouble(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream flatMap(final LongFunction<? extends LongStream> mapper) {
+    checkNotNull(mapper);
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      LongPipeline inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          LongStream stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public LongStream distinct() {
+    final LongPipeline previous = this;
+    final Set<Long> seen = new HashSet<Long>();
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (seen.add(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream sorted() {
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      long[] elements;
+      int index;
+
+      @Override
+      boolean advance() {
+        if (elements == null) {
+          // sorting is the only operation that needs all the elements
+          elements = previous.toArray0();
+          Arrays.sort(elements);
+        }
+        if (index < elements.length) {
+          current = elements[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream peek(final LongConsumer action) {
+    checkNotNull(action);
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          action.accept(current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream limit(final long maxSize) {
+    checkCriticalArgument(maxSize >= 0, "maxSize < 0");
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      long count;
+
+      @Override
+      boolean advance() {
+        // does not pull the elements after the limit
+        if (count < maxSize && previous.advance()) {
+          count++;
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream skip(final long n) {
+    checkCriticalArgument(n >= 0, "n < 0");
+    final LongPipeline previous = this;
+    return new LongPipeline(this) {
+      long skipped;
+
+      @Override
+      boolean advance() {
+        while (skipped < n) {
+          if (!previous.advance()) {
+            return false;
+          }
+          skipped++;
+        }
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public void forEach(LongConsumer action) {
+    forEachOrdered(action);
+  }
+
+  @Override
+  public void forEachOrdered(LongConsumer action) {
+    checkNotNull(action);
+    link();
+    while (advance()) {
+      action.accept(current);
+    }
+  }
+
+  @Override
+  public long[] toArray() {
+    link();
+    return toArray0();
+  }
+
+  /**
+   * Pulls all the remaining elements.
+   */
+  private long[] toArray0() {
+    long[] elements = {};
+    while (advance()) {
+      array(elements).push(current);
+    }
+    return elements;
+  }
+
+  @Override
+  public long reduce(long identity, LongBinaryOperator op) {
+    checkNotNull(op);
+    link();
+    long result = identity;
+    while (advance()) {
+      result = op.applyAsLong(result, current);
+    }
+    return result;
+  }
+
+  @Override
+  public OptionalLong reduce(LongBinaryOperator op) {
+    checkNotNull(op);
+    link();
+    if (!advance()) {
+      return OptionalLong.empty();
+    }
+    long result = current;
+    while (advance()) {
+      result = op.applyAsLong(result, current);
+    }
+    return OptionalLong.of(result);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    link();
+    R container = supplier.get();
+    while (advance()) {
+      accumulator.accept(container, current);
+    }
+    return container;
+  }
+
+  @Override
+  public long sum() {
+    link();
+    long sum = 0;
+    while (advance()) {
+      sum += current;
+    }
+    return sum;
+  }
+
+  @Override
+  public OptionalLong min() {
+    link();
+    if (!advance()) {
+      return OptionalLong.empty();
+    }
+    long min = current;
+    while (advance()) {
+      min = Math.min(min, current);
+    }
+    return OptionalLong.of(min);
+  }
+
+  @Override
+  public OptionalLong max() {
+    link();
+    if (!advance()) {
+      return OptionalLong.empty();
+    }
+    long max = current;
+    while (advance()) {
+      max = Math.max(max, current);
+    }
+    return OptionalLong.of(max);
+  }
+
+  @Override
+  public long count() {
+    link();
+    long count = 0;
+    while (advance()) {
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public OptionalDouble average() {
+    link();
+    long count = 0;
+    double sum = 0;
+    while (advance()) {
+      count++;
+      sum += current;
+    }
+    return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum / count);
+  }
+
+  @Override
+  public boolean anyMatch(LongPredicate predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (predicate.test(current)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean allMatch(LongPredicate predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (!predicate.test(current)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean noneMatch(LongPredicate predicate) {
+    return !anyMatch(predicate);
+  }
+
+  @Override
+  public OptionalLong findFirst() {
+    link();
+    return advance() ? OptionalLong.of(current) : OptionalLong.empty();
+  }
+
+  @Override
+  public OptionalLong findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public DoubleStream asDoubleStream() {
+    final LongPipeline previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Stream<Long> boxed() {
+    final LongPipeline previous = this;
+    return new ReferencePipeline<Long>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public PrimitiveIterator.OfLong iterator() {
+    link();
+    return new PrimitiveIterator.OfLong() {
+      boolean ready;
+      boolean done;
+
+      @Override
+      public boolean hasNext() {
+        if (!ready && !done) {
+          ready = advance();
+          done = !ready;
+        }
+        return ready;
+      }
+
+      @Override
+      public long nextLong() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ready = false;
+        return current;
+      }
+    };
+  }
+
+  @Override
+  public LongStream sequential() {
+    return this;
+  }
+
+  @Override
+  public LongStream parallel() {
+    return this;
+  }
+
+  @Override
+  public LongStream unordered() {
+    return this;
+  }
+
+  @Override
+  public LongStream onClose(Runnable closeHandler) {
+    checkNotNull(closeHandler);
+    addCloseHandler(closeHandler);
+    return this;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/LongStream.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * Summary statistics are not supported.
+ */
+public interface LongStream extends BaseStream<Long, LongStream> {
+
+  static LongStream empty() {
+    return LongPipeline.ofArray(null, 0, 0);
+  }
+
+  static LongStream of(long... values) {
+    return LongPipeline.ofArray(values, 0, values.length);
+  }
+
+  static LongStream iterate(long seed, LongUnaryOperator f) {
+    return LongPipeline.iterate(seed, f);
+  }
+
+  static LongStream generate(LongSupplier s) {
+    return LongPipeline.generate(s);
+  }
+
+  static LongStream range(long startInclusive, long endExclusive) {
+    return LongPipeline.range(startInclusive, endExclusive);
+  }
+
+  static LongStream rangeClosed(long startInclusive, long endInclusive) {
+    return LongPipeline.rangeClosed(startInclusive, endInclusive);
+  }
+
+  static LongStream concat(LongStream a, LongStream b) {
+    return LongPipeline.concat(a, b);
+  }
+
+  LongStream filter(LongPredicate predicate);
+
+  LongStream map(LongUnaryOperator mapper);
+
+  <U> Stream<U> mapToObj(LongFunction<? extends U> mapper);
+
+  IntStream mapToInt(LongToIntFunction mapper);
+
+  DoubleStream mapToDouble(LongToDoubleFunction mapper);
+
+  LongStream flatMap(LongFunction<? extends LongStream> mapper);
+
+  LongStream distinct();
+
+  LongStream sorted();
+
+  LongStream peek(LongConsumer action);
+
+  LongStream limit(long maxSize);
+
+  LongStream skip(long n);
+
+  void forEach(LongConsumer action);
+
+  void forEachOrdered(LongConsumer action);
+
+  long[] toArray();
+
+  long reduce(long identity, LongBinaryOperator op);
+
+  OptionalLong reduce(LongBinaryOperator op);
+
+  <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+  long sum();
+
+  OptionalLong min();
+
+  OptionalLong max();
+
+  long count();
+
+  OptionalDouble average();
+
+  boolean anyMatch(LongPredicate predicate);
+
+  boolean allMatch(LongPredicate predicate);
+
+  boolean noneMatch(LongPredicate predicate);
+
+  OptionalLong findFirst();
+
+  OptionalLong findAny();
+
+  DoubleStream asDoubleStream();
+
+  Stream<Long> boxed();
+
+  @Override
+  PrimitiveIterator.OfLong iterator();
+}
@@ -0,0 +1,702 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.InternalPreconditions.checkCriticalArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static jsweet.util.Globals.array;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * The implementation of {@link Stream}, as a pipeline stage (see
+ * {@link AbstractPipeline}).
+ *
+ * @param <T> the type of the stream elements
+ */
+abstract class ReferencePipeline<T> extends AbstractPipeline implements Stream<T> {
+
+  /**
+   * The current element, once {@link #advance()} returned true.
+   */
+  T current;
+
+  ReferencePipeline() {
+  }
+
+  ReferencePipeline(AbstractPipeline previous) {
+    super(previous);
+  }
+
+  static <T> ReferencePipeline<T> ofArray(final T[] array, final int fromIndex, final int toIndex) {
+    return new ReferencePipeline<T>() {
+      int index = fromIndex;
+
+      @Override
+      boolean advance() {
+        if (index < toIndex) {
+          current = array[index++];
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static <T> ReferencePipeline<T> ofIterator(final Iterator<? extends T> iterator) {
+    return new ReferencePipeline<T>() {
+      @Override
+      boolean advance() {
+        if (iterator.hasNext()) {
+          current = iterator.next();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static <T> ReferencePipeline<T> iterate(final T seed, final UnaryOperator<T> f) {
+    checkNotNull(f);
+    return new ReferencePipeline<T>() {
+      boolean started;
+
+      @Override
+      boolean advance() {
+        current = started ? f.apply(current) : seed;
+        started = true;
+        return true;
+      }
+    };
+  }
+
+  static <T> ReferencePipeline<T> generate(final Supplier<T> s) {
+    checkNotNull(s);
+    return new ReferencePipeline<T>() {
+      @Override
+      boolean advance() {
+        current = s.get();
+        return true;
+      }
+    };
+  }
+
+  static <T> ReferencePipeline<T> concat(final Stream<? extends T> a, final Stream<? extends T> b) {
+    final ReferencePipeline<T> first = pull(a);
+    final ReferencePipeline<T> second = pull(b);
+    ReferencePipeline<T> concatenation = new ReferencePipeline<T>() {
+      boolean firstDone;
+
+      @Override
+      boolean advance() {
+        if (!firstDone) {
+          if (first.advance()) {
+            current = first.current;
+            return true;
+          }
+          firstDone = true;
+        }
+        if (second.advance()) {
+          current = second.current;
+          return true;
+        }
+        return false;
+      }
+    };
+    concatenation.addCloseHandler(() -> {
+      a.close();
+      b.close();
+    });
+    return concatenation;
+  }
+
+  /**
+   * Gets the stage to pull the elements of the given stream from, and marks
+   * the stream as consumed.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> ReferencePipeline<T> pull(Stream<? extends T> stream) {
+    if (stream instanceof ReferencePipeline) {
+      ReferencePipeline<T> pipeline = (ReferencePipeline<T>) stream;
+      pipeline.link();
+      return pipeline;
+    }
+    return ofIterator(stream.iterator());
+  }
+
+  @Override
+  public Stream<T> filter(final Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<T>(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (predicate.test(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public <R> Stream<R> map(final Function<? super T, ? extends R> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<R>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.apply(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public IntStream mapToInt(final ToIntFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new IntPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsInt(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public LongStream mapToLong(final ToLongFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new LongPipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsLong(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream mapToDouble(final ToDoubleFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new DoublePipeline(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = mapper.applyAsDouble(previous.current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public <R> Stream<R> flatMap(final Function<? super T, ? extends Stream<? extends R>> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<R>(this) {
+      ReferencePipeline<R> inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          Stream<? extends R> stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public IntStream flatMapToInt(final Function<? super T, ? extends IntStream> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new IntPipeline(this) {
+      IntPipeline inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          IntStream stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = IntPipeline.pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public LongStream flatMapToLong(final Function<? super T, ? extends LongStream> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new LongPipeline(this) {
+      LongPipeline inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          LongStream stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = LongPipeline.pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream flatMapToDouble(final Function<? super T, ? extends DoubleStream> mapper) {
+    checkNotNull(mapper);
+    final ReferencePipeline<T> previous = this;
+    return new DoublePipeline(this) {
+      DoublePipeline inner;
+
+      @Override
+      boolean advance() {
+        while (true) {
+          if (inner != null) {
+            if (inner.advance()) {
+              current = inner.current;
+              return true;
+            }
+            inner.close();
+            inner = null;
+          }
+          if (!previous.advance()) {
+            return false;
+          }
+          DoubleStream stream = mapper.apply(previous.current);
+          if (stream != null) {
+            inner = DoublePipeline.pull(stream);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> distinct() {
+    final ReferencePipeline<T> previous = this;
+    final Set<T> seen = new HashSet<T>();
+    return new ReferencePipeline<T>(this) {
+      @Override
+      boolean advance() {
+        while (previous.advance()) {
+          if (seen.add(previous.current)) {
+            current = previous.current;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> sorted() {
+    // a null comparator sorts in the natural order
+    return sorted0(null);
+  }
+
+  @Override
+  public Stream<T> sorted(Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    return sorted0(comparator);
+  }
+
+  private Stream<T> sorted0(final Comparator<? super T> comparator) {
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<T>(this) {
+      T[] elements;
+      int index;
+
+      @Override
+      boolean advance() {
+        if (elements == null) {
+          // sorting is the only operation that needs all the elements
+          elements = previous.toArray0();
+          Arrays.sort(elements, comparator);
+        }
+        if (index < elements.length) {
+          current = elements[index];
+          elements[index++] = null;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> peek(final Consumer<? super T> action) {
+    checkNotNull(action);
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<T>(this) {
+      @Override
+      boolean advance() {
+        if (previous.advance()) {
+          current = previous.current;
+          action.accept(current);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> limit(final long maxSize) {
+    checkCriticalArgument(maxSize >= 0, "maxSize < 0");
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<T>(this) {
+      long count;
+
+      @Override
+      boolean advance() {
+        // does not pull the elements after the limit
+        if (count < maxSize && previous.advance()) {
+          count++;
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> skip(final long n) {
+    checkCriticalArgument(n >= 0, "n < 0");
+    final ReferencePipeline<T> previous = this;
+    return new ReferencePipeline<T>(this) {
+      long skipped;
+
+      @Override
+      boolean advance() {
+        while (skipped < n) {
+          if (!previous.advance()) {
+            return false;
+          }
+          skipped++;
+        }
+        if (previous.advance()) {
+          current = previous.current;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public void forEach(Consumer<? super T> action) {
+    forEachOrdered(action);
+  }
+
+  @Override
+  public void forEachOrdered(Consumer<? super T> action) {
+    checkNotNull(action);
+    link();
+    while (advance()) {
+      action.accept(current);
+    }
+  }
+
+  @Override
+  public Object[] toArray() {
+    link();
+    return toArray0();
+  }
+
+  @Override
+  public <A> A[] toArray(IntFunction<A[]> generator) {
+    checkNotNull(generator);
+    link();
+    T[] elements = toArray0();
+    A[] result = generator.apply(elements.length);
+    for (int i = 0; i < elements.length; i++) {
+      @SuppressWarnings("unchecked")
+      A element = (A) elements[i];
+      result[i] = element;
+    }
+    return result;
+  }
+
+  /**
+   * Pulls all the remaining elements.
+   */
+  @SuppressWarnings("unchecked")
+  private T[] toArray0() {
+    T[] elements = (T[]) new Object[] {};
+    while (advance()) {
+      array(elements).push(current);
+    }
+    return elements;
+  }
+
+  @Override
+  public T reduce(T identity, BinaryOperator<T> accumulator) {
+    checkNotNull(accumulator);
+    link();
+    T result = identity;
+    while (advance()) {
+      result = accumulator.apply(result, current);
+    }
+    return result;
+  }
+
+  @Override
+  public Optional<T> reduce(BinaryOperator<T> accumulator) {
+    checkNotNull(accumulator);
+    link();
+    if (!advance()) {
+      return Optional.empty();
+    }
+    T result = current;
+    while (advance()) {
+      result = accumulator.apply(result, current);
+    }
+    return Optional.of(result);
+  }
+
+  @Override
+  public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator,
+      BinaryOperator<U> combiner) {
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    link();
+    U result = identity;
+    while (advance()) {
+      result = accumulator.apply(result, current);
+    }
+    return result;
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super T> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    checkNotNull(combiner);
+    link();
+    R container = supplier.get();
+    while (advance()) {
+      accumulator.accept(container, current);
+    }
+    return container;
+  }
+
+  @Override
+  public <R, A> R collect(Collector<? super T, A, R> collector) {
+    link();
+    A container = collector.supplier().get();
+    BiConsumer<A, ? super T> accumulator = collector.accumulator();
+    while (advance()) {
+      accumulator.accept(container, current);
+    }
+    return Collectors.finish(collector, container);
+  }
+
+  @Override
+  public Optional<T> min(Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    link();
+    if (!advance()) {
+      return Optional.empty();
+    }
+    T min = current;
+    while (advance()) {
+      if (comparator.compare(min, current) > 0) {
+        min = current;
+      }
+    }
+    return Optional.of(min);
+  }
+
+  @Override
+  public Optional<T> max(Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    link();
+    if (!advance()) {
+      return Optional.empty();
+    }
+    T max = current;
+    while (advance()) {
+      if (comparator.compare(max, current) < 0) {
+        max = current;
+      }
+    }
+    return Optional.of(max);
+  }
+
+  @Override
+  public long count() {
+    link();
+    long count = 0;
+    while (advance()) {
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public boolean anyMatch(Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (predicate.test(current)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean allMatch(Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    link();
+    while (advance()) {
+      if (!predicate.test(current)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean noneMatch(Predicate<? super T> predicate) {
+    return !anyMatch(predicate);
+  }
+
+  @Override
+  public Optional<T> findFirst() {
+    link();
+    return advance() ? Optional.of(current) : Optional.<T> empty();
+  }
+
+  @Override
+  public Optional<T> findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    link();
+    return new Iterator<T>() {
+      boolean ready;
+      boolean done;
+
+      @Override
+      public boolean hasNext() {
+        if (!ready && !done) {
+          ready = advance();
+          done = !ready;
+        }
+        return ready;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ready = false;
+        return current;
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> sequential() {
+    return this;
+  }
+
+  @Override
+  public Stream<T> parallel() {
+    return this;
+  }
+
+  @Override
+  public Stream<T> unordered() {
+    return this;
+  }
+
+  @Override
+  public Stream<T> onClose(Runnable closeHandler) {
+    checkNotNull(closeHandler);
+    addCloseHandler(closeHandler);
+    return this;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+package java.util.stream;
+
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+import java.util.Iterator;
+
+/**
+ * Low-level factories for the stream sources, used by the collections and
+ * arrays.
+ * <p>
+ * Spliterators are not supported, so unlike in Java, the streams are created
+ * from iterators and array ranges.
+ */
+public final class StreamSupport {
+
+  public static <T> Stream<T> stream(Iterator<T> iterator) {
+    checkNotNull(iterator);
+    return ReferencePipeline.ofIterator(iterator);
+  }
+
+  public static <T> Stream<T> stream(T[] array, int fromIndex, int toIndex) {
+    return ReferencePipeline.ofArray(array, fromIndex, toIndex);
+  }
+
+  public static IntStream intStream(int[] array, int fromIndex, int toIndex) {
+    return IntPipeline.ofArray(array, fromIndex, toIndex);
+  }
+
+  public static LongStream longStream(long[] array, int fromIndex, int toIndex) {
+    return LongPipeline.ofArray(array, fromIndex, toIndex);
+  }
+
+  public static DoubleStream doubleStream(double[] array, int fromIndex, int toIndex) {
+    return DoublePipeline.ofArray(array, fromIndex, toIndex);
+  }
+
+  private StreamSupport() {
+  }
+}
@@ -32,11 +32,21 @@ public class ArrayHelper {
 	/**
 	 * Unlike clone, this method returns a copy of the array that is not type
 	 * marked. This is only safe for temp arrays as returned array will not do
-	 * any type checks.
+	 * any type checks. The source may also be a typed array (such as the
+	 * <code>Int8Array</code> buffers of the byte streams), in which case the
+	 * returned copy is still a plain array.
 	 */
-	public static Object[] unsafeClone(Object array, int fromIndex, int toIndex) {
-		return ((Array<?>) array).slice(fromIndex, toIndex);
-	};
+	public static native Object[] unsafeClone(Object array, int fromIndex, int toIndex) /*-{
+		if (typeof ArrayBuffer === "undefined" || !ArrayBuffer.isView(array)) {
+			return array.slice(fromIndex, toIndex);
+		}
+		// much faster than a generic Array.prototype.slice call on a typed array
+		var result = new Array(toIndex - fromIndex);
+		for (var i = fromIndex; i < toIndex; i++) {
+			result[i - fromIndex] = array[i];
+		}
+		return result;
+	}-*/;
 
 	public static <T> T[] createFrom(T[] array, int length) {
 		Object result = createNativeArray(length);
@@ -79,6 +89,9 @@ public class ArrayHelper {
 		 * imposed to the number of function parameters by browsers.
 		 */
 
+		if (overwrite && copyToTypedArray(src, srcOfs, dest, destOfs, len)) {
+			return;
+		}
 		if (src == dest) {
 			// copying to the same array, make a copy first
 			src = unsafeClone(src, srcOfs, srcOfs + len);
@@ -94,6 +107,24 @@ public class ArrayHelper {
 		}
 	}
 
+	/**
+	 * Copies to a typed array destination with a single native
+	 * <code>set()</code>, which also handles overlapping ranges.
+	 * 
+	 * @return false if the destination is not a typed array
+	 */
+	private static native boolean copyToTypedArray(Object src, int srcOfs, Object dest, int destOfs, int len) /*-{
+		if (typeof ArrayBuffer === "undefined" || !ArrayBuffer.isView(dest)) {
+			return false;
+		}
+		if (ArrayBuffer.isView(src)) {
+			dest.set(src.subarray(srcOfs, srcOfs + len), destOfs);
+		} else {
+			dest.set(srcOfs === 0 && len === src.length ? src : src.slice(srcOfs, srcOfs + len), destOfs);
+		}
+		return true;
+	}-*/;
+
 	private static native void applySplice(Object arrayObject, int index, int deleteCount, Object arrayToAdd) /*-{
 		Array.prototype.splice.apply(arrayObject, [index, deleteCount].concat(arrayToAdd));
 	}-*/;
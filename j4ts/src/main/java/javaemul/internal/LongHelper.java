@@ -15,10 +15,21 @@
  */
 package javaemul.internal;
 
+import static jsweet.util.Globals.typeof;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
 import jsweet.lang.Erased;
 
 /**
  * Wraps a primitive <code>long</code> as an object.
+ * <p>
+ * It also implements the exact longs, which the transpiler uses when the
+ * <code>exactLongs</code> option is on. An exact long is a number as long as it
+ * is a safe integer, and otherwise a native <code>BigInt</code>, or a
+ * {@link BigInteger} on the engines without <code>BigInt</code>. The operations
+ * stay on numbers as long as the operands and the result are safe integers.
  */
 public final class LongHelper extends NumberHelper implements Comparable<LongHelper> {
 
@@ -33,17 +44,48 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 		static Long[] boxedValues = new Long[256];
 	}
 
+	/**
+	 * Use nested class to avoid clinit on outer.
+	 */
+	static class WideValues {
+		static final Object bigInt = findBigInt();
+		static final BigInteger twoPow64 = BigInteger.ONE.shiftLeft(64);
+		static final long maxValue = parseExact("9223372036854775807", 10);
+		static final long minValue = parseExact("-9223372036854775808", 10);
+	}
+
+	/**
+	 * The greatest safe integer, 2^53 - 1.
+	 */
+	private static final double MAX_SAFE_INTEGER = 9007199254740991.0;
+
+	private static final double TWO_POW_32 = 4294967296.0;
+
+	private static final int ADD = 0;
+	private static final int SUBTRACT = 1;
+	private static final int MULTIPLY = 2;
+	private static final int DIVIDE = 3;
+	private static final int REMAINDER = 4;
+	private static final int AND = 5;
+	private static final int OR = 6;
+	private static final int XOR = 7;
+	private static final int SHIFT_LEFT = 8;
+	private static final int SHIFT_RIGHT = 9;
+	private static final int SHIFT_RIGHT_UNSIGNED = 10;
+
 	public static final long MAX_VALUE = 0x7fffffffffffffffL;
 	public static final long MIN_VALUE = 0x8000000000000000L;
 	public static final int SIZE = 64;
 
 	public static int bitCount(long i) {
-		int high = (int) (i >> 32);
-		int low = (int) i;
-		return IntegerHelper.bitCount(high) + IntegerHelper.bitCount(low);
+		return IntegerHelper.bitCount(high(i)) + IntegerHelper.bitCount(toInt(i));
 	}
 
 	public static int compare(long x, long y) {
+		if (isObject(x) || isObject(y)) {
+			return toBigInteger(x).compareTo(toBigInteger(y));
+		}
+		// numbers and BigInts compare natively
 		if (x < y) {
 			return -1;
 		} else if (x > y) {
@@ -62,7 +104,7 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 	 * @skip Here for shared implementation with Arrays.hashCode
 	 */
 	public static int hashCode(long l) {
-		return (int) l;
+		return toInt(l);
 	}
 
 	public static long highestOneBit(long i) {
@@ -79,20 +121,20 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 	}
 
 	public static int numberOfLeadingZeros(long i) {
-		int high = (int) (i >> 32);
+		int high = high(i);
 		if (high != 0) {
 			return IntegerHelper.numberOfLeadingZeros(high);
 		} else {
-			return IntegerHelper.numberOfLeadingZeros((int) i) + 32;
+			return IntegerHelper.numberOfLeadingZeros(toInt(i)) + 32;
 		}
 	}
 
 	public static int numberOfTrailingZeros(long i) {
-		int low = (int) i;
+		int low = toInt(i);
 		if (low != 0) {
 			return IntegerHelper.numberOfTrailingZeros(low);
 		} else {
-			return IntegerHelper.numberOfTrailingZeros((int) (i >> 32)) + 32;
+			return IntegerHelper.numberOfTrailingZeros(high(i)) + 32;
 		}
 	}
 
@@ -139,6 +181,9 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 	}
 
 	public static int signum(long i) {
+		if (isObject(i)) {
+			return toBigInteger(i).signum();
+		}
 		if (i == 0) {
 			return 0;
 		} else if (i < 0) {
@@ -168,6 +213,9 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 		if (intRadix == 10 || intRadix < CharacterHelper.MIN_RADIX || intRadix > CharacterHelper.MAX_RADIX) {
 			return String.valueOf(value);
 		}
+		if (isWide(value)) {
+			return toBigInteger(value).toString(intRadix);
+		}
 
 		int intValue = (int) value;
 		if (intValue == value) {
@@ -228,6 +276,9 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 
 	private static String toPowerOfTwoUnsignedString(long value, int shift) {
 		final int radix = 1 << shift;
+		if (isWide(value) || value < 0) {
+			return toUnsignedBigInteger(value).toString(radix);
+		}
 		if (IntegerHelper.MIN_VALUE <= value && value <= IntegerHelper.MAX_VALUE) {
 			return IntegerHelper.toString((int) value, radix);
 		}
@@ -244,6 +295,374 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 		return String.valueOf(buf, pos, bufSize - pos);
 	}
 
+	// exact longs
+
+	public static long add(long a, long b) {
+		if (isNumber(a) && isNumber(b)) {
+			long result = a + b;
+			if (isSafe(result)) {
+				return result;
+			}
+		}
+		return wide(ADD, a, b);
+	}
+
+	public static long subtract(long a, long b) {
+		if (isNumber(a) && isNumber(b)) {
+			long result = a - b;
+			if (isSafe(result)) {
+				return result;
+			}
+		}
+		return wide(SUBTRACT, a, b);
+	}
+
+	public static long multiply(long a, long b) {
+		if (isNumber(a) && isNumber(b)) {
+			// the product is exact if it is a safe integer
+			long result = a * b;
+			if (isSafe(result)) {
+				return result;
+			}
+		}
+		return wide(MULTIPLY, a, b);
+	}
+
+	/**
+	 * Divides longs, truncating the quotient.
+	 *
+	 * @throws ArithmeticException if the divisor is zero
+	 */
+	public static long divide(long a, long b) {
+		if (isNumber(b) && b == 0) {
+			throw new ArithmeticException("/ by zero");
+		}
+		if (isNumber(a) && isNumber(b)) {
+			// an exact division, which rounds the same way on all targets
+			return (a - a % b) / b;
+		}
+		return wide(DIVIDE, a, b);
+	}
+
+	/**
+	 * Computes the remainder of the truncated division.
+	 *
+	 * @throws ArithmeticException if the divisor is zero
+	 */
+	public static long remainder(long a, long b) {
+		if (isNumber(b) && b == 0) {
+			throw new ArithmeticException("/ by zero");
+		}
+		if (isNumber(a) && isNumber(b)) {
+			return a % b;
+		}
+		return wide(REMAINDER, a, b);
+	}
+
+	public static long and(long a, long b) {
+		if (isNumber(a) && isNumber(b)) {
+			// on hi/lo int pairs, where the high ints of safe integers have 22 bits
+			return combine(high(a) & high(b), toInt(a) & toInt(b));
+		}
+		return wide(AND, a, b);
+	}
+
+	public static long or(long a, long b) {
+		if (isNumber(a) && isNumber(b)) {
+			return combine(high(a) | high(b), toInt(a) | toInt(b));
+		}
+		return wide(OR, a, b);
+	}
+
+	public static long xor(long a, long b) {
+		if (isNumber(a) && isNumber(b)) {
+			return combine(high(a) ^ high(b), toInt(a) ^ toInt(b));
+		}
+		return wide(XOR, a, b);
+	}
+
+	public static long shiftLeft(long a, int n) {
+		n &= 63;
+		if (isNumber(a)) {
+			long result = a * (long) Math.pow(2, n);
+			if (isSafe(result)) {
+				return result;
+			}
+		}
+		return wide(SHIFT_LEFT, a, n);
+	}
+
+	public static long shiftRight(long a, int n) {
+		n &= 63;
+		if (isNumber(a)) {
+			return (long) Math.floor(a / Math.pow(2, n));
+		}
+		return wide(SHIFT_RIGHT, a, n);
+	}
+
+	public static long shiftRightUnsigned(long a, int n) {
+		n &= 63;
+		if (isNumber(a) && (a >= 0 || n == 0)) {
+			return shiftRight(a, n);
+		}
+		return wide(SHIFT_RIGHT_UNSIGNED, a, n);
+	}
+
+	public static long negate(long a) {
+		return subtract(0, a);
+	}
+
+	public static long not(long a) {
+		return subtract(-1, a);
+	}
+
+	public static long abs(long a) {
+		return compare(a, 0) < 0 ? negate(a) : a;
+	}
+
+	public static long max(long a, long b) {
+		return compare(a, b) >= 0 ? a : b;
+	}
+
+	public static long min(long a, long b) {
+		return compare(a, b) <= 0 ? a : b;
+	}
+
+	/**
+	 * Converts to an int, keeping the low 32 bits.
+	 */
+	public static int toInt(long a) {
+		if (isNumber(a)) {
+			return (int) a;
+		}
+		Object bigInt = WideValues.bigInt;
+		return bigInt != null ? bigIntToInt(bigInt, a) : toBigInteger(a).intValue();
+	}
+
+	/**
+	 * Converts to the nearest double.
+	 */
+	public static double toDouble(long a) {
+		if (isNumber(a)) {
+			return a;
+		}
+		return WideValues.bigInt != null ? bigIntToDouble(a) : toBigInteger(a).doubleValue();
+	}
+
+	/**
+	 * Converts a double to a long like Java does: NaN is zero and the other
+	 * values are truncated and saturated.
+	 */
+	public static long fromDouble(double d) {
+		if (Double.isNaN(d)) {
+			return 0;
+		}
+		double truncated = d < 0 ? Math.ceil(d) : Math.floor(d);
+		if (isSafe(truncated)) {
+			return (long) truncated;
+		}
+		if (truncated >= 9.223372036854775807E18) {
+			return WideValues.maxValue;
+		}
+		if (truncated <= -9.223372036854775808E18) {
+			return WideValues.minValue;
+		}
+		Object bigInt = WideValues.bigInt;
+		return bigInt != null ? bigIntFromDouble(bigInt, truncated)
+				: fromBigInteger(new BigDecimal(truncated).toBigInteger());
+	}
+
+	/**
+	 * Parses an exact long. The transpiler also uses it for the literals that
+	 * are not safe integers.
+	 */
+	public static long parseExact(String s, int radix) throws NumberFormatException {
+		if (s == null) {
+			throw NumberFormatException.forNullInputString();
+		}
+		if (radix < CharacterHelper.MIN_RADIX || radix > CharacterHelper.MAX_RADIX) {
+			throw NumberFormatException.forRadix(radix);
+		}
+		int start = s.length() > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+') ? 1 : 0;
+		if (start == s.length()) {
+			throw NumberFormatException.forInputString(s);
+		}
+		for (int i = start; i < s.length(); i++) {
+			if (CharacterHelper.digit(s.charAt(i), radix) == -1) {
+				throw NumberFormatException.forInputString(s);
+			}
+		}
+		BigInteger value = new BigInteger(s.charAt(0) == '+' ? s.substring(1) : s, radix);
+		if (value.bitLength() > 63) {
+			throw NumberFormatException.forInputString(s);
+		}
+		return fromBigInteger(value);
+	}
+
+	public static long parseExact(String s) throws NumberFormatException {
+		return parseExact(s, 10);
+	}
+
+	private static boolean isNumber(long value) {
+		return "number".equals(typeof(value));
+	}
+
+	private static boolean isObject(long value) {
+		return "object".equals(typeof(value));
+	}
+
+	private static boolean isWide(long value) {
+		return !isNumber(value);
+	}
+
+	private static boolean isSafe(double value) {
+		return value >= -MAX_SAFE_INTEGER && value <= MAX_SAFE_INTEGER;
+	}
+
+	/**
+	 * Returns the high 32 bits.
+	 */
+	private static int high(long a) {
+		return toInt(shiftRight(a, 32));
+	}
+
+	private static long combine(int high, int low) {
+		return (long) (high * TWO_POW_32 + (low < 0 ? low + TWO_POW_32 : low));
+	}
+
+	/**
+	 * Computes an operation that does not fit in safe integers.
+	 */
+	private static long wide(int operation, long a, long b) {
+		Object bigInt = WideValues.bigInt;
+		if (bigInt != null) {
+			return bigIntOperation(bigInt, operation, a, b);
+		}
+		BigInteger x = toBigInteger(a);
+		BigInteger y = toBigInteger(b);
+		BigInteger result;
+		switch (operation) {
+		case ADD:
+			result = x.add(y);
+			break;
+		case SUBTRACT:
+			result = x.subtract(y);
+			break;
+		case MULTIPLY:
+			result = x.multiply(y);
+			break;
+		case DIVIDE:
+			result = x.divide(y);
+			break;
+		case REMAINDER:
+			result = x.remainder(y);
+			break;
+		case AND:
+			result = x.and(y);
+			break;
+		case OR:
+			result = x.or(y);
+			break;
+		case XOR:
+			result = x.xor(y);
+			break;
+		case SHIFT_LEFT:
+			result = x.shiftLeft(y.intValue());
+			break;
+		case SHIFT_RIGHT:
+			result = x.shiftRight(y.intValue());
+			break;
+		default:
+			result = toUnsignedBigInteger(a).shiftRight(y.intValue());
+		}
+		// wraps to 64 bits like the two's complement overflow
+		if (result.bitLength() > 63) {
+			result = result.and(WideValues.twoPow64.subtract(BigInteger.ONE));
+			if (result.testBit(63)) {
+				result = result.subtract(WideValues.twoPow64);
+			}
+		}
+		return fromBigInteger(result);
+	}
+
+	private static BigInteger toBigInteger(long a) {
+		if (isNumber(a)) {
+			return BigInteger.valueOf(a);
+		}
+		if (isObject(a)) {
+			return (BigInteger) asObject(a);
+		}
+		return new BigInteger(asObject(a).toString());
+	}
+
+	private static BigInteger toUnsignedBigInteger(long a) {
+		BigInteger value = toBigInteger(a);
+		return value.signum() < 0 ? value.add(WideValues.twoPow64) : value;
+	}
+
+	private static long fromBigInteger(BigInteger value) {
+		if (value.abs().bitLength() <= 53) {
+			return value.longValue();
+		}
+		Object bigInt = WideValues.bigInt;
+		return bigInt != null ? bigIntFromString(bigInt, value.toString()) : asLong(value);
+	}
+
+	private static native Object findBigInt() /*-{
+		var global;
+		try {
+			global = new Function("return this")();
+		} catch (e) {
+			global = typeof window !== "undefined" ? window : {};
+		}
+		return typeof global["BigInt"] === "function" ? global["BigInt"] : null;
+	}-*/;
+
+	private static native long bigIntOperation(Object bigInt, int operation, long a, long b) /*-{
+		var x = bigInt(a);
+		var y = bigInt(b);
+		var result;
+		switch (operation) {
+		case 0: result = x + y; break;
+		case 1: result = x - y; break;
+		case 2: result = x * y; break;
+		case 3: result = x / y; break;
+		case 4: result = x % y; break;
+		case 5: result = x & y; break;
+		case 6: result = x | y; break;
+		case 7: result = x ^ y; break;
+		case 8: result = x << y; break;
+		case 9: result = x >> y; break;
+		default: result = bigInt.asUintN(64, x) >> y;
+		}
+		result = bigInt.asIntN(64, result);
+		return result >= -9007199254740991 && result <= 9007199254740991 ? Number(result) : result;
+	}-*/;
+
+	private static native int bigIntToInt(Object bigInt, long a) /*-{
+		return Number(bigInt.asIntN(32, a));
+	}-*/;
+
+	private static native double bigIntToDouble(long a) /*-{
+		return Number(a);
+	}-*/;
+
+	private static native long bigIntFromDouble(Object bigInt, double d) /*-{
+		return bigInt(d);
+	}-*/;
+
+	private static native long bigIntFromString(Object bigInt, String s) /*-{
+		return bigInt(s);
+	}-*/;
+
+	private static native Object asObject(long value) /*-{
+		return value;
+	}-*/;
+
+	private static native long asLong(Object value) /*-{
+		return value;
+	}-*/;
+
 	private final transient long value;
 
 	public LongHelper(long value) {
@@ -256,7 +675,7 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 
 	@Override
 	public byte byteValue() {
-		return (byte) value;
+		return (byte) toInt(value);
 	}
 
 	@Override
@@ -266,17 +685,17 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 
 	@Override
 	public double doubleValue() {
-		return value;
+		return toDouble(value);
 	}
 
 	@Override
 	public boolean equals(Object o) {
-		return (o instanceof LongHelper) && (((LongHelper) o).value == value);
+		return (o instanceof LongHelper) && compare(((LongHelper) o).value, value) == 0;
 	}
 
 	@Override
 	public float floatValue() {
-		return value;
+		return (float) toDouble(value);
 	}
 
 	@Override
@@ -286,7 +705,7 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 
 	@Override
 	public int intValue() {
-		return (int) value;
+		return toInt(value);
 	}
 
 	@Override
@@ -296,7 +715,7 @@ public final class LongHelper extends NumberHelper implements Comparable<LongHel
 
 	@Override
 	public short shortValue() {
-		return (short) value;
+		return (short) toInt(value);
 	}
 
 	@Override
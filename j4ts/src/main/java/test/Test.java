@@ -4,18 +4,37 @@ import static def.dom.Globals.console;
 import static def.dom.Globals.document;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import def.dom.HTMLElement;
+import def.js.Function;
 import jsweet.util.Globals;
 
 public class Test {
@@ -46,8 +65,9 @@ public class Test {
 			testSet();
 			testString();
 			testIO();
-			// not available
-			// testMath();
+			testStream();
+			testMath();
+			testClass();
 			HTMLElement result = document.getElementById("result");
 			if (result != null) {
 				result.innerHTML = "Success!";
@@ -73,6 +93,30 @@ public class Test {
 		assertEquals(3, myArray[0]);
 		Arrays.sort(myArray);
 		assertEquals(1, myArray[0]);
+		int[] ints = { 5, -3, 100, 7, 0, -3 };
+		Arrays.sort(ints, 1, 5);
+		assertEquals("[5, -3, 0, 7, 100, -3]", Arrays.toString(ints));
+		long[] longs = { 30, 10, 20 };
+		Arrays.sort(longs);
+		assertEquals("[10, 20, 30]", Arrays.toString(longs));
+		double[] doubles = { 2.5, Double.NaN, -1, 10 };
+		Arrays.parallelSort(doubles);
+		assertEquals(-1.0, doubles[0]);
+		assertEquals(10.0, doubles[2]);
+		assertTrue(Double.isNaN(doubles[3]));
+		char[] chars = { 'c', 'a', 'b' };
+		Arrays.sort(chars);
+		assertEquals("abc", new String(chars));
+		// object sorts are stable
+		String[] words = new String[100];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = (char) ('a' + (i * 7) % 26) + "" + i;
+		}
+		Arrays.sort(words, (w1, w2) -> w1.charAt(0) - w2.charAt(0));
+		for (int i = 1; i < words.length; i++) {
+			assertTrue(words[i - 1].charAt(0) < words[i].charAt(0) || words[i - 1].charAt(0) == words[i].charAt(0)
+					&& Integer.parseInt(words[i - 1].substring(1)) < Integer.parseInt(words[i].substring(1)));
+		}
 		console.info("end testing arrays");
 	}
 
@@ -104,6 +148,30 @@ public class Test {
 		assertTrue(it.hasNext());
 		assertEquals("c", it.next());
 		assertFalse(it.hasNext());
+		// queues
+		console.info("testing queues");
+		Deque<Integer> d = new ArrayDeque<Integer>(2);
+		for (int i = 0; i < 20; i++) {
+			d.addLast(i);
+			d.addFirst(-i);
+		}
+		assertEquals(40, d.size());
+		assertEquals(-19, d.pollFirst());
+		assertEquals(19, d.pollLast());
+		assertTrue(d.removeFirstOccurrence(5));
+		assertFalse(d.contains(5));
+		assertEquals(-18, d.peek());
+		d.clear();
+		assertTrue(d.isEmpty());
+		assertEquals(null, d.poll());
+		PriorityQueue<Integer> pq = new PriorityQueue<Integer>(Arrays.asList(5, 3, 8, 1, 9, 2));
+		pq.offer(4);
+		assertTrue(pq.remove(8));
+		res = "";
+		while (!pq.isEmpty()) {
+			res += pq.poll();
+		}
+		assertEquals("123459", res);
 		console.info("end testing lists");
 	}
 
@@ -134,6 +202,25 @@ public class Test {
 		bs.and(bs2);
 		assertTrue(bs.get(0));
 		assertFalse(bs.get(1));
+		BitSet bs3 = new BitSet();
+		bs3.set(30, 70);
+		assertEquals(bs3.cardinality(), 40);
+		assertEquals(bs3.length(), 70);
+		assertEquals(bs3.nextSetBit(0), 30);
+		assertEquals(bs3.previousSetBit(100), 69);
+		bs3.clear(32, 64);
+		assertEquals(bs3.cardinality(), 8);
+		assertEquals(bs3.nextSetBit(32), 64);
+		assertEquals(bs3.nextClearBit(30), 32);
+		assertEquals(bs3.previousSetBit(63), 31);
+		assertEquals(bs3.get(60, 70).toString(), "{4, 5, 6, 7, 8, 9}");
+		BitSet bs4 = BitSet.valueOf(new byte[] { (byte) 0x81, 1 });
+		assertEquals(bs4.toString(), "{0, 7, 8}");
+		assertEquals(bs4.toByteArray().length, 2);
+		assertEquals(bs4.toByteArray()[0], (byte) -127);
+		assertFalse(bs4.intersects(bs3));
+		bs4.or(bs3);
+		assertEquals(bs4.cardinality(), 11);
 		console.info("end testing sets");
 	}
 
@@ -149,6 +236,36 @@ public class Test {
 		assertEquals(m.size(), 3);
 		m.remove("a");
 		assertEquals(m.size(), 2);
+		Map<Integer, String> numbers = new HashMap<Integer, String>();
+		for (int i = 0; i < 100; i++) {
+			numbers.put(i * 16, "v" + i);
+		}
+		assertEquals(100, numbers.size());
+		assertEquals("v10", numbers.get(160));
+		assertEquals(null, numbers.get(161));
+		assertTrue(numbers.containsKey(0));
+		assertTrue(numbers.containsValue("v99"));
+		for (int i = 0; i < 100; i += 2) {
+			numbers.remove(i * 16);
+		}
+		assertEquals(50, numbers.size());
+		assertFalse(numbers.containsKey(32));
+		assertEquals("v3", numbers.get(48));
+		numbers.put(null, "null");
+		assertEquals("null", numbers.get(null));
+		int sum = 0;
+		for (Iterator<Map.Entry<Integer, String>> it = numbers.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Integer, String> entry = it.next();
+			if (entry.getKey() == null) {
+				it.remove();
+			} else {
+				entry.setValue("w");
+				sum += entry.getKey();
+			}
+		}
+		assertEquals(49 * 50 * 16, sum);
+		assertEquals(50, numbers.size());
+		assertEquals("w", numbers.get(16));
 		console.info("end testing maps");
 	}
 
@@ -168,6 +285,28 @@ public class Test {
 		sb2.append("test");
 		sb2.deleteCharAt(sb2.length() - 1);
 		assertEquals("truectes", sb2.toString());
+		StringBuilder sb3 = new StringBuilder(32);
+		assertEquals(32, sb3.capacity());
+		sb3.append("abcdef").append(12);
+		sb3.setCharAt(0, 'A');
+		assertEquals("Abcdef12", sb3.toString());
+		sb3.insert(3, "-").deleteCharAt(1).append('!');
+		assertEquals("Ac-def12!", sb3.toString());
+		assertEquals('-', sb3.charAt(2));
+		assertEquals(4, sb3.indexOf("ef"));
+		sb3.replace(2, 6, "x").reverse();
+		assertEquals("!21xcA", sb3.toString());
+		sb3.setLength(3);
+		assertEquals("!21", sb3.toString());
+		sb3.setLength(0);
+		assertEquals(0, sb3.length());
+		for (int i = 0; i < 100; i++) {
+			sb3.append('a');
+		}
+		for (int i = 0; i < 100; i += 2) {
+			sb3.setCharAt(i, 'b');
+		}
+		assertEquals("baba", sb3.substring(96));
 		assertEquals('a', Character.toLowerCase('A'));
 		assertEquals("abc", "ABC".toLowerCase());
 		console.info("end testing strings");
@@ -177,42 +316,179 @@ public class Test {
 		console.info("testing io");
 		ByteArrayInputStream s = new ByteArrayInputStream("abc".getBytes());
 		assertEquals(Character.getNumericValue('a'), s.read());
+		ByteArrayOutputStream out = new ByteArrayOutputStream(2);
+		out.write(new byte[] { 1, 2, 3 }, 1, 2);
+		out.write(-1);
+		assertEquals("[2, 3, -1]", Arrays.toString(out.toByteArray()));
+		Writer writer = new OutputStreamWriter(out, "UTF-8");
+		writer.write("\u00e9t\u00e9");
+		out.reset();
+		writer.write("\u00e9t\u00e9", 0, 2);
+		assertEquals(3, out.size());
+		Reader reader = new InputStreamReader(new ByteArrayInputStream(out.toByteArray()), "UTF-8");
+		char[] chars = new char[4];
+		assertEquals(2, reader.read(chars, 0, 4));
+		assertEquals("\u00e9t", new String(chars, 0, 2));
+		assertEquals(-1, reader.read(chars, 0, 4));
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		buffer.putInt(0x01020304).putShort((short) -2).putLong(-1234567890123L);
+		assertEquals(14, buffer.position());
+		assertEquals(1, buffer.get(0));
+		assertEquals(4, buffer.get(3));
+		buffer.flip();
+		assertEquals(0x01020304, buffer.getInt());
+		assertEquals((short) -2, buffer.getShort());
+		assertEquals(-1234567890123L, buffer.getLong());
+		assertFalse(buffer.hasRemaining());
+		ByteBuffer direct = ByteBuffer.allocateDirect(8).order(ByteOrder.LITTLE_ENDIAN);
+		direct.putDouble(0, 1.5);
+		direct.putFloat(0, 2.5f);
+		assertEquals(2.5f, direct.getFloat(0));
+		assertEquals(0, direct.order(ByteOrder.BIG_ENDIAN).get(0));
+		ByteBuffer wrapped = ByteBuffer.wrap(new byte[] { 0, 0, 0, 7, 0, 0, 0, 9 }, 4, 4);
+		assertEquals(9, wrapped.slice().asIntBuffer().get(0));
+		wrapped.array()[7] = 10;
+		assertEquals(10, wrapped.getInt());
+		assertEquals(7, ByteBuffer.wrap(wrapped.array()).asIntBuffer().get());
+		ByteBuffer readOnly = wrapped.asReadOnlyBuffer();
+		assertTrue(readOnly.isReadOnly());
+		assertFalse(readOnly.hasArray());
+		assertEquals(10, readOnly.getInt(4));
+		assertTrue(readOnly.slice().asIntBuffer().isReadOnly());
+		try {
+			readOnly.asIntBuffer().put(0, 1);
+			throw new Error("writing a read-only buffer should fail");
+		} catch (ReadOnlyBufferException e) {
+			// expected
+		}
+		assertFalse(wrapped.isReadOnly());
 		console.info("end testing io");
 	}
 
-	// java.math is not available yet and should be implemented as a wrapper to
-	// bignumber.js
-
-	// static BigInteger fatFactorial(int b) {
-	// if (BigInteger.ONE.equals(BigInteger.valueOf(b))) {
-	// return BigInteger.ONE;
-	// } else {
-	// return BigInteger.valueOf(b).multiply(fatFactorial(b - 1));
-	// }
-	// }
-	//
-	// public static void testMath() {
-	// console.info("testing math");
-	// BigInteger b3 = new BigInteger("10");
-	// b3.toString();
-	// BigInteger b1 = new BigInteger("987654321987654321000000000");
-	// BigInteger b2 = new BigInteger("987654321987654321000000000");
-	// // BigInteger product = b1.multiply(b2);
-	// BigInteger division = b1.divide(b2);
-	// assertEquals("1", division.toString());
-	// assertEquals("30414093201713378043612608166064768844377641568960512000000000000",
-	// fatFactorial(50).toString());
-	// assertTrue(new BigDecimal("0").compareTo(BigDecimal.ZERO) == 0);
-	// assertTrue(new BigDecimal("0.00").compareTo(BigDecimal.ZERO) == 0);
-	// assertTrue(new BigDecimal("0").equals(BigDecimal.ZERO));
-	// assertFalse(new BigDecimal("0.00").equals(BigDecimal.ZERO));
-	// BigDecimal a = new BigDecimal("2.5");
-	// assertTrue(a.toString().equals("2.5"));
-	// BigDecimal b = new BigDecimal("1.5");
-	// assertEquals("2", a.setScale(0, BigDecimal.ROUND_HALF_EVEN).toString());
-	// assertEquals("2", b.setScale(0, BigDecimal.ROUND_HALF_EVEN).toString());
-	// assertEquals("4", a.add(b).toString());
-	// console.info("end testing math");
-	// }
+	public static void testStream() {
+		console.info("testing streams");
+		List<String> l = Arrays.asList("a", "bb", "cc", "ddd", "e");
+		assertEquals("BB,CC,DDD", l.stream().filter(s -> s.length() > 1).map(s -> s.toUpperCase())
+				.collect(Collectors.joining(",")));
+		// the pipeline is lazy and stops pulling at the limit
+		int[] pulled = { 0 };
+		assertEquals(2L, l.stream().peek(s -> pulled[0]++).limit(2).count());
+		assertEquals(2, pulled[0]);
+		pulled[0] = 0;
+		assertTrue(Stream.iterate(1, i -> i * 2).peek(i -> pulled[0]++).anyMatch(i -> i > 100));
+		assertEquals(8, pulled[0]);
+		assertEquals("[a, bb, cc, ddd, e]", l.stream().sorted().collect(Collectors.toList()).toString());
+		assertEquals("[e, ddd, cc, bb, a]",
+				l.stream().sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList()).toString());
+		Map<Integer, List<String>> byLength = l.stream().collect(Collectors.groupingBy(s -> s.length()));
+		assertEquals("[bb, cc]", byLength.get(2).toString());
+		assertEquals(3L, (long) l.stream().collect(Collectors.partitioningBy(s -> s.length() == 1, Collectors.counting()))
+				.get(false));
+		assertEquals(5050, IntStream.rangeClosed(1, 100).sum());
+		assertEquals("[1, 4, 9]", Arrays.toString(IntStream.range(1, 4).map(i -> i * i).toArray()));
+		assertEquals("[1, 2, 3]", Arrays.toString(Arrays.stream(new int[] { 3, 1, 2, 3 }).distinct().sorted().toArray()));
+		assertEquals(6L, Arrays.stream(new long[] { 1, 2, 3 }).sum());
+		assertEquals(2.0, Arrays.stream(new double[] { 1, 2, 3 }).average().getAsDouble());
+		assertEquals("c", Stream.of("a", "b", "c").skip(2).findFirst().get());
+		Stream<String> consumed = l.stream();
+		consumed.count();
+		try {
+			consumed.count();
+			throw new Error("stream reuse should fail");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		console.info("end testing streams");
+	}
+
+	static BigInteger fatFactorial(int b) {
+		if (BigInteger.ONE.equals(BigInteger.valueOf(b))) {
+			return BigInteger.ONE;
+		} else {
+			return BigInteger.valueOf(b).multiply(fatFactorial(b - 1));
+		}
+	}
+
+	public static void testMath() {
+		console.info("testing math");
+		BigInteger b3 = new BigInteger("10");
+		b3.toString();
+		BigInteger b1 = new BigInteger("987654321987654321000000000");
+		BigInteger b2 = new BigInteger("987654321987654321000000000");
+		assertEquals("975461059740893157555403139789971041000000000000000000",
+				b1.multiply(b2).toString());
+		BigInteger division = b1.divide(b2);
+		assertEquals("1", division.toString());
+		assertEquals("30414093201713378043612608166064768844377641568960512000000000000",
+				fatFactorial(50).toString());
+		assertEquals("-3", new BigInteger("-7").divide(BigInteger.valueOf(2)).toString());
+		assertEquals("-1", new BigInteger("-7").remainder(BigInteger.valueOf(2)).toString());
+		assertEquals("1", new BigInteger("-7").mod(BigInteger.valueOf(2)).toString());
+		assertEquals("ff", BigInteger.valueOf(255).toString(16));
+		assertEquals("-4", BigInteger.valueOf(-7).shiftRight(1).toString());
+		assertEquals("1024", BigInteger.ONE.shiftLeft(10).toString());
+		assertEquals(8, BigInteger.valueOf(-7).and(BigInteger.valueOf(14)).intValue());
+		assertTrue(BigInteger.valueOf(104729).isProbablePrime(20));
+		assertTrue(new BigDecimal("0").compareTo(BigDecimal.ZERO) == 0);
+		assertTrue(new BigDecimal("0.00").compareTo(BigDecimal.ZERO) == 0);
+		assertTrue(new BigDecimal("0").equals(BigDecimal.ZERO));
+		assertFalse(new BigDecimal("0.00").equals(BigDecimal.ZERO));
+		BigDecimal a = new BigDecimal("2.5");
+		assertTrue(a.toString().equals("2.5"));
+		BigDecimal b = new BigDecimal("1.5");
+		assertEquals("2", a.setScale(0, BigDecimal.ROUND_HALF_EVEN).toString());
+		assertEquals("2", b.setScale(0, BigDecimal.ROUND_HALF_EVEN).toString());
+		assertEquals("4.0", a.add(b).toString());
+		assertEquals("3.75", a.multiply(b).toString());
+		assertEquals("0.6666666667", b.divide(new BigDecimal("2.25"), MathContext.DECIMAL32.getPrecision() + 3,
+				RoundingMode.HALF_UP).toString());
+		assertEquals("0.6666667", b.divide(new BigDecimal("2.25"), MathContext.DECIMAL32).toString());
+		assertEquals("0.125", BigDecimal.ONE.divide(new BigDecimal("8")).toString());
+		try {
+			BigDecimal.ONE.divide(new BigDecimal("3"));
+			throw new Error("non-terminating division should fail");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		assertEquals("1E+3", new BigDecimal("1000").stripTrailingZeros().toString());
+		assertEquals("1000", new BigDecimal("1E+3").toPlainString());
+		assertEquals("0.1000000000000000055511151231257827021181583404541015625",
+				new BigDecimal(0.1).toString());
+		assertEquals("0.1", BigDecimal.valueOf(0.1).toString());
+		console.info("end testing math");
+	}
+
+	static class Base {
+	}
+
+	static class Sub extends Base {
+	}
+
+	public static void testClass() {
+		console.info("testing class");
+		// the mapping of constructors to classes is internal to java.lang
+		Function create = Globals.$get(Class.class, "createForClass");
+		Function map = Globals.$get(Class.class, "mapConstructorToClass");
+		Function getClass = Globals.$get(Class.class, "getClassForConstructor");
+		Function getConstructor = Globals.$get(Class.class, "getConstructorForClass");
+		Object baseClass = create.call(null, "test", "Test.Base", "test.Test.Base", null);
+		Object subClass = create.call(null, "test", "Test.Sub", "test.Test.Sub", baseClass);
+		Object listClass = create.call(null, "java.util", "List", "java.util.List", null);
+		map.call(null, Base.class, baseClass);
+		assertEquals(Base.class, getConstructor.call(null, baseClass));
+		assertEquals(baseClass, getClass.call(null, Base.class));
+		// the constructor of a subclass inherits the static members of its
+		// superclass, but not its class
+		assertEquals(null, getClass.call(null, Sub.class));
+		map.call(null, Sub.class, subClass);
+		assertEquals(subClass, getClass.call(null, Sub.class));
+		assertEquals(baseClass, getClass.call(null, Base.class));
+		// interface class literals are names
+		map.call(null, List.class, listClass);
+		assertEquals(List.class, getConstructor.call(null, listClass));
+		assertEquals(listClass, getClass.call(null, List.class));
+		assertEquals(null, getClass.call(null, Set.class));
+		console.info("end testing class");
+	}
 
 }
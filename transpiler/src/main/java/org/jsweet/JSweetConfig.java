@@ -239,6 +239,7 @@ public abstract class JSweetConfig {
 	public static final String ANNOTATION_NAME = JSweetConfig.LANG_PACKAGE + ".Name";
 	public static final String ANNOTATION_DECORATOR = JSweetConfig.LANG_PACKAGE + ".Decorator";
 	public static final String ANNOTATION_REPLACE = JSweetConfig.LANG_PACKAGE + ".Replace";
+	public static final String ANNOTATION_CHUNK = JSweetConfig.LANG_PACKAGE + ".Chunk";
 	public static final String ANNOTATION_FUNCTIONAL_INTERFACE = FunctionalInterface.class.getName();
 
 	/**
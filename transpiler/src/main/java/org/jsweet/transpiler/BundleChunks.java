@@ -0,0 +1,333 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.ElementKind;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.util.Util;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+/**
+ * This class splits the compilation units of a bundle into chunks, following
+ * the {@link JSweetConfig#ANNOTATION_CHUNK} annotations found on the types or
+ * on their packages.
+ *
+ * <p>
+ * The compilation units that do not belong to any chunk go to the main bundle.
+ * The main bundle holds a small loader and, for each type of a chunk, a stub
+ * that loads and evaluates the chunk on the first access to the type.
+ */
+public class BundleChunks {
+
+	private static final Logger logger = Logger.getLogger(BundleChunks.class);
+
+	/**
+	 * The name of the loader object generated in the main bundle.
+	 */
+	public static final String LOADER_NAME = "__jsweet_chunks";
+
+	/**
+	 * The prefix of the chunk file names.
+	 */
+	public static final String CHUNK_FILE_PREFIX = "bundle-";
+
+	private JSweetContext context;
+
+	private Map<JCCompilationUnit, String> chunkNames = new HashMap<>();
+
+	private Map<String, List<JCCompilationUnit>> chunks = new LinkedHashMap<>();
+
+	private Set<String> rootNamespaces = new LinkedHashSet<>();
+
+	/**
+	 * Creates a chunk splitter.
+	 */
+	public BundleChunks(JSweetContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Splits the given (ordered) compilation units into chunks. The order of
+	 * the compilation units is kept within each chunk, so that each chunk gets
+	 * its own static initialization order.
+	 */
+	public void process(List<JCCompilationUnit> orderedCompilationUnits) {
+		for (JCCompilationUnit compilationUnit : orderedCompilationUnits) {
+			if (!compilationUnit.packge.isUnnamed()
+					&& !compilationUnit.packge.getQualifiedName().toString().startsWith("def.")) {
+				String namespace = context.getRootRelativeName(null, compilationUnit.packge);
+				if (!StringUtils.isBlank(namespace)) {
+					rootNamespaces.add(StringUtils.substringBefore(namespace, "."));
+				}
+			}
+			String chunkName = findChunkName(compilationUnit);
+			if (chunkName == null) {
+				continue;
+			}
+			chunkNames.put(compilationUnit, chunkName);
+			List<JCCompilationUnit> compilationUnits = chunks.get(chunkName);
+			if (compilationUnits == null) {
+				compilationUnits = new ArrayList<>();
+				chunks.put(chunkName, compilationUnits);
+			}
+			compilationUnits.add(compilationUnit);
+		}
+		for (Map.Entry<String, List<JCCompilationUnit>> chunk : chunks.entrySet()) {
+			logger.info("chunk '" + chunk.getKey() + "': " + chunk.getValue().size() + " compilation unit(s)");
+		}
+	}
+
+	private String findChunkName(JCCompilationUnit compilationUnit) {
+		String packageName = compilationUnit.packge.getQualifiedName().toString();
+		if (packageName.startsWith("def.") || compilationUnit.packge.isUnnamed()
+				|| StringUtils.isBlank(context.getRootRelativeName(null, compilationUnit.packge))) {
+			// types must belong to a namespace to be stubbed
+			return null;
+		}
+		String chunkName = null;
+		for (JCTree def : compilationUnit.defs) {
+			if (def instanceof JCClassDecl) {
+				ClassSymbol type = ((JCClassDecl) def).sym;
+				if (Util.isGlobalsClassName(type.getQualifiedName().toString())) {
+					// globals are printed as namespace members and cannot be
+					// stubbed
+					return null;
+				}
+				if (chunkName == null) {
+					chunkName = context.getAnnotationValue(type, JSweetConfig.ANNOTATION_CHUNK, null);
+				}
+			}
+		}
+		Symbol pkg = compilationUnit.packge;
+		while (chunkName == null && pkg instanceof PackageSymbol && !((PackageSymbol) pkg).isUnnamed()) {
+			chunkName = context.getAnnotationValue(pkg, JSweetConfig.ANNOTATION_CHUNK, null);
+			pkg = pkg.owner;
+		}
+		return StringUtils.isBlank(chunkName) ? null : chunkName.replaceAll("[^a-zA-Z0-9_\\-]", "_");
+	}
+
+	/**
+	 * Tells if any chunk was found.
+	 */
+	public boolean isEmpty() {
+		return chunks.isEmpty();
+	}
+
+	/**
+	 * Gets the name of the chunk the given compilation unit belongs to (null
+	 * for the main bundle).
+	 */
+	public String getChunkName(JCCompilationUnit compilationUnit) {
+		return chunkNames.get(compilationUnit);
+	}
+
+	/**
+	 * Gets the chunk names, in the order they were found.
+	 */
+	public Set<String> getChunkNames() {
+		return chunks.keySet();
+	}
+
+	/**
+	 * Gets the compilation units of the given chunk, in static initialization
+	 * order.
+	 */
+	public List<JCCompilationUnit> getCompilationUnits(String chunkName) {
+		return chunks.get(chunkName);
+	}
+
+	/**
+	 * Gets the file name (without extension) of the given chunk.
+	 */
+	public String getChunkFileName(String chunkName) {
+		return CHUNK_FILE_PREFIX + chunkName;
+	}
+
+	/**
+	 * Gets the qualified names of the types that are stubbed for the given
+	 * chunk.
+	 */
+	public List<String> getTypeNames(String chunkName) {
+		List<String> typeNames = new ArrayList<>();
+		for (JCCompilationUnit compilationUnit : chunks.get(chunkName)) {
+			for (JCClassDecl classdecl : getStubbedTypes(compilationUnit)) {
+				typeNames.add(classdecl.sym.getQualifiedName().toString());
+			}
+		}
+		return typeNames;
+	}
+
+	private List<JCClassDecl> getStubbedTypes(JCCompilationUnit compilationUnit) {
+		List<JCClassDecl> types = new ArrayList<>();
+		for (JCTree def : compilationUnit.defs) {
+			if (def instanceof JCClassDecl && !context.isIgnored((JCClassDecl) def)) {
+				types.add((JCClassDecl) def);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Generates the TypeScript code to be inserted at the beginning of the main
+	 * bundle: the chunk loader, followed by the stubs of the chunk types.
+	 *
+	 * <p>
+	 * A chunk is fetched synchronously on the first access to one of its
+	 * types: with <code>require("fs")</code> in Node.js, or with a synchronous
+	 * <code>XMLHttpRequest</code> in a browser. The chunk file is resolved
+	 * relatively to the main bundle location (its directory in Node.js) or to
+	 * the <code>jsweetChunkBase</code> global variable when defined. Since
+	 * synchronous requests are deprecated on the main thread of browsers, the
+	 * loader also provides a <code>loadAsync(chunk, callback)</code> function
+	 * to fetch a chunk before its types are accessed. A chunk is evaluated with
+	 * the root namespaces of the main bundle as parameters, so that both share
+	 * the same namespace objects.
+	 */
+	public String getLoaderCode() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("var " + LOADER_NAME + " : any = {\n");
+		sb.append("    base: (typeof document !== \"undefined\" && (<any>document).currentScript) ? "
+				+ "(<any>document).currentScript.src.replace(/[^\\/]*$/, \"\") : \"\",\n");
+		sb.append("    roots: [" + StringUtils.join(rootNamespaces.stream().map(root -> "\"" + root + "\"").toArray(), ", ")
+				+ "],\n");
+		sb.append("    values: () => [" + StringUtils.join(rootNamespaces.stream()
+				.map(root -> "typeof " + root + " !== \"undefined\" ? " + root + " : undefined").toArray(), ", ")
+				+ "],\n");
+		sb.append("    chunks: {\n");
+		int i = 0;
+		for (String chunkName : chunks.keySet()) {
+			sb.append("        \"" + chunkName + "\": { file: \"" + getChunkFileName(chunkName)
+					+ ".js\", loaded: false, stubs: [] }");
+			sb.append(++i < chunks.size() ? ",\n" : "\n");
+		}
+		sb.append("    },\n");
+		sb.append("    stub: function(ns : any, chunk : string, names : string[]) {\n");
+		sb.append("        let loader = this;\n");
+		sb.append("        names.forEach(name => {\n");
+		sb.append("            loader.chunks[chunk].stubs.push([ns, name]);\n");
+		sb.append("            Object.defineProperty(ns, name, { configurable: true, enumerable: true, "
+				+ "get: () => { loader.load(chunk); return ns[name]; } });\n");
+		sb.append("        });\n");
+		sb.append("    },\n");
+		sb.append("    node: (function(g : any) {\n");
+		sb.append("        if(g.process == null || g.process.versions == null || g.process.versions.node == null) return null;\n");
+		sb.append("        // direct eval to reach the CommonJS scope of the bundle\n");
+		sb.append("        return eval(\"typeof require === 'function' && typeof __dirname === 'string' ? "
+				+ "{ require: require, dirname: __dirname } : null\");\n");
+		sb.append("    })((function() { return this; })()),\n");
+		sb.append("    path: function(chunk : string) : string {\n");
+		sb.append("        let g : any = (function() { return this; })();\n");
+		sb.append("        let file = this.chunks[chunk].file;\n");
+		sb.append("        if(g.jsweetChunkBase != null) return g.jsweetChunkBase + file;\n");
+		sb.append("        return this.node != null ? this.node.require(\"path\").join(this.node.dirname, file) : this.base + file;\n");
+		sb.append("    },\n");
+		sb.append("    evaluate: function(chunk : string, code : string) {\n");
+		sb.append("        let c = this.chunks[chunk];\n");
+		sb.append("        if(c.loaded) return;\n");
+		sb.append("        c.loaded = true;\n");
+		sb.append("        c.stubs.forEach(stub => delete stub[0][stub[1]]);\n");
+		sb.append("        let g : any = (function() { return this; })();\n");
+		sb.append("        (<any>Function).apply(null, this.roots.concat([code])).apply(g, this.values());\n");
+		sb.append("    },\n");
+		sb.append("    load: function(chunk : string) {\n");
+		sb.append("        if(this.chunks[chunk].loaded) return;\n");
+		sb.append("        let path = this.path(chunk);\n");
+		sb.append("        let code : string;\n");
+		sb.append("        if(this.node != null) {\n");
+		sb.append("            code = this.node.require(\"fs\").readFileSync(path, \"utf8\");\n");
+		sb.append("        } else {\n");
+		sb.append("            // synchronous requests are deprecated on the main thread: use loadAsync to prefetch\n");
+		sb.append("            let request = new XMLHttpRequest();\n");
+		sb.append("            request.open(\"GET\", path, false);\n");
+		sb.append("            request.send(null);\n");
+		sb.append("            if(request.status >= 300) throw new Error(\"cannot load chunk '\" + chunk + \"' from \" + path);\n");
+		sb.append("            code = request.responseText;\n");
+		sb.append("        }\n");
+		sb.append("        this.evaluate(chunk, code);\n");
+		sb.append("    },\n");
+		sb.append("    loadAsync: function(chunk : string, callback : (error : any) => void) {\n");
+		sb.append("        let loader = this;\n");
+		sb.append("        if(loader.chunks[chunk].loaded) { callback(null); return; }\n");
+		sb.append("        let path = loader.path(chunk);\n");
+		sb.append("        let done = (error : any, code : string) => {\n");
+		sb.append("            if(error == null) {\n");
+		sb.append("                try { loader.evaluate(chunk, code); } catch(e) { error = e; }\n");
+		sb.append("            }\n");
+		sb.append("            callback(error);\n");
+		sb.append("        };\n");
+		sb.append("        if(loader.node != null) {\n");
+		sb.append("            loader.node.require(\"fs\").readFile(path, \"utf8\", done);\n");
+		sb.append("        } else {\n");
+		sb.append("            let request = new XMLHttpRequest();\n");
+		sb.append("            request.open(\"GET\", path, true);\n");
+		sb.append("            request.onload = () => request.status >= 300 ? "
+				+ "done(new Error(\"cannot load chunk '\" + chunk + \"' from \" + path), null) : done(null, request.responseText);\n");
+		sb.append("            request.onerror = () => done(new Error(\"cannot load chunk '\" + chunk + \"' from \" + path), null);\n");
+		sb.append("            request.send(null);\n");
+		sb.append("        }\n");
+		sb.append("    }\n");
+		sb.append("};\n");
+		for (String chunkName : chunks.keySet()) {
+			Map<String, List<String>> stubs = new LinkedHashMap<>();
+			for (JCCompilationUnit compilationUnit : chunks.get(chunkName)) {
+				String namespace = context.getRootRelativeName(null, compilationUnit.packge);
+				List<String> names = stubs.get(namespace);
+				if (names == null) {
+					names = new ArrayList<>();
+					stubs.put(namespace, names);
+				}
+				for (JCClassDecl classdecl : getStubbedTypes(compilationUnit)) {
+					String name = context.getActualName(classdecl.sym);
+					names.add("\"" + name + "\"");
+					if (classdecl.sym.getKind() == ElementKind.ENUM) {
+						names.add("\"" + name + Java2TypeScriptTranslator.ENUM_WRAPPER_CLASS_SUFFIX + "\"");
+					}
+				}
+			}
+			for (Map.Entry<String, List<String>> stub : stubs.entrySet()) {
+				if (stub.getValue().isEmpty()) {
+					continue;
+				}
+				sb.append("namespace " + stub.getKey() + " {\n");
+				sb.append("    " + LOADER_NAME + ".stub(" + stub.getKey() + ", \"" + chunkName + "\", ["
+						+ StringUtils.join(stub.getValue(), ", ") + "]);\n");
+				sb.append("}\n");
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.util.DirectedGraph;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.TypeSymbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCBlock;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
+import com.sun.tools.javac.tree.JCTree.JCMemberReference;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCNewClass;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * This analyzer computes the classes which lazy initialized static fields can
+ * be eagerly initialized when loading a bundle (see
+ * {@link JSweetOptions#isEagerStaticInitialization()}).
+ *
+ * <p>
+ * Within the static initializers, the static fields are always accessed
+ * through their lazy initialization accessors. However, the methods and the
+ * constructors invoked (directly or not) by the static initializers of a class
+ * access the eagerly initialized fields directly, so that the classes owning
+ * these fields must be initialized first. The analyzer builds the
+ * corresponding dependency graph between the classes. The classes that take
+ * part in a cycle of this graph keep their lazy initialization accessors,
+ * since no initialization order can satisfy all their dependencies. The other
+ * classes are eagerly initialized, in the topological order of the graph.
+ *
+ * <p>
+ * Since JavaScript dispatches methods by name, an invoked method is resolved
+ * to its declaration and to all the declarations that override it.
+ */
+public class EagerStaticInitializationAnalyzer extends TreeScanner {
+
+	private static final Logger logger = Logger.getLogger(EagerStaticInitializationAnalyzer.class);
+
+	private JSweetContext context;
+
+	private Map<ClassSymbol, JCClassDecl> classDeclarations = new LinkedHashMap<>();
+
+	private Map<MethodSymbol, JCMethodDecl> methodDeclarations = new HashMap<>();
+
+	private Map<String, List<JCMethodDecl>> methodsByName = new HashMap<>();
+
+	private DirectedGraph<ClassSymbol> dependencies = new DirectedGraph<>();
+
+	private LinkedList<JCTree> toBeScanned = new LinkedList<>();
+
+	private Set<JCTree> scheduled = new HashSet<>();
+
+	private Set<JCTree> staticInitializers = new HashSet<>();
+
+	private ClassSymbol currentClass;
+
+	private boolean inStaticInitializer;
+
+	/**
+	 * The classes that take part in a static initialization cycle and that
+	 * keep lazy initialization accessors.
+	 */
+	public Set<ClassSymbol> classesInCycle = new LinkedHashSet<>();
+
+	/**
+	 * The classes that can be eagerly initialized, in initialization order.
+	 */
+	public List<ClassSymbol> eagerlyInitializedClasses = new ArrayList<>();
+
+	/**
+	 * Creates the analyzer.
+	 */
+	public EagerStaticInitializationAnalyzer(JSweetContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Analyzes the given compilation units.
+	 */
+	public void process(Collection<JCCompilationUnit> compilationUnits) {
+		for (JCCompilationUnit compilationUnit : compilationUnits) {
+			if (compilationUnit.packge.getQualifiedName().toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".")) {
+				continue;
+			}
+			new TreeScanner() {
+				@Override
+				public void visitClassDef(JCClassDecl classdecl) {
+					classDeclarations.put(classdecl.sym, classdecl);
+					dependencies.add(classdecl.sym);
+					super.visitClassDef(classdecl);
+				}
+
+				@Override
+				public void visitMethodDef(JCMethodDecl methodDecl) {
+					methodDeclarations.put(methodDecl.sym, methodDecl);
+					List<JCMethodDecl> methods = methodsByName.get(methodDecl.name.toString());
+					if (methods == null) {
+						methods = new ArrayList<>();
+						methodsByName.put(methodDecl.name.toString(), methods);
+					}
+					methods.add(methodDecl);
+					super.visitMethodDef(methodDecl);
+				}
+			}.scan(compilationUnit);
+		}
+
+		for (JCClassDecl classdecl : classDeclarations.values()) {
+			currentClass = classdecl.sym;
+			scheduled.clear();
+			staticInitializers.clear();
+			for (JCTree member : classdecl.defs) {
+				if (member instanceof JCVariableDecl && ((JCVariableDecl) member).sym.isStatic()) {
+					schedule(((JCVariableDecl) member).init);
+					staticInitializers.add(((JCVariableDecl) member).init);
+				} else if (member instanceof JCBlock && ((JCBlock) member).isStatic()) {
+					schedule(member);
+					staticInitializers.add(member);
+				}
+			}
+			while (!toBeScanned.isEmpty()) {
+				JCTree tree = toBeScanned.removeFirst();
+				inStaticInitializer = staticInitializers.contains(tree);
+				scan(tree);
+			}
+		}
+
+		for (ClassSymbol clazz : dependencies) {
+			if (isInCycle(clazz)) {
+				classesInCycle.add(clazz);
+			}
+		}
+		DirectedGraph<ClassSymbol> acyclicDependencies = new DirectedGraph<>();
+		for (ClassSymbol clazz : dependencies) {
+			if (!classesInCycle.contains(clazz)) {
+				acyclicDependencies.add(clazz);
+			}
+		}
+		for (ClassSymbol clazz : acyclicDependencies) {
+			for (ClassSymbol dependent : dependencies.getDestinationElements(clazz)) {
+				if (acyclicDependencies.contains(dependent)) {
+					acyclicDependencies.addEdge(clazz, dependent);
+				}
+			}
+		}
+		eagerlyInitializedClasses.addAll(acyclicDependencies.topologicalSort(null));
+		logger.info("eager static initialization: " + eagerlyInitializedClasses.size() + " eager classes, "
+				+ classesInCycle.size() + " classes in cycle");
+	}
+
+	private boolean isInCycle(ClassSymbol clazz) {
+		Set<ClassSymbol> visited = new HashSet<>();
+		LinkedList<ClassSymbol> toVisit = new LinkedList<>(dependencies.getDestinationElements(clazz));
+		while (!toVisit.isEmpty()) {
+			ClassSymbol dependent = toVisit.removeFirst();
+			if (dependent == clazz) {
+				return true;
+			}
+			if (visited.add(dependent)) {
+				toVisit.addAll(dependencies.getDestinationElements(dependent));
+			}
+		}
+		return false;
+	}
+
+	private void schedule(JCTree tree) {
+		if (tree != null && scheduled.add(tree)) {
+			toBeScanned.add(tree);
+		}
+	}
+
+	private void scheduleMethod(MethodSymbol method) {
+		JCMethodDecl methodDecl = methodDeclarations.get(method);
+		if (methodDecl != null) {
+			schedule(methodDecl.body);
+		}
+		if (method.isConstructor()) {
+			JCClassDecl classdecl = classDeclarations.get(method.owner);
+			if (classdecl != null) {
+				for (JCTree member : classdecl.defs) {
+					if (member instanceof JCVariableDecl && !((JCVariableDecl) member).sym.isStatic()) {
+						schedule(((JCVariableDecl) member).init);
+					} else if (member instanceof JCBlock && !((JCBlock) member).isStatic()) {
+						schedule(member);
+					}
+				}
+			}
+		} else if (!method.isStatic() && methodsByName.containsKey(method.name.toString())) {
+			for (JCMethodDecl overrider : methodsByName.get(method.name.toString())) {
+				if (overrider.sym != method
+						&& overrider.sym.overrides(method, (TypeSymbol) overrider.sym.owner, context.types, false)) {
+					schedule(overrider.body);
+				}
+			}
+		}
+	}
+
+	private void registerAccess(Symbol symbol) {
+		if (symbol instanceof MethodSymbol) {
+			scheduleMethod((MethodSymbol) symbol);
+		} else if (!inStaticInitializer && context.lazyInitializedStatics.contains(symbol)
+				&& symbol.owner != currentClass && dependencies.contains(symbol.owner)) {
+			// the field is accessed directly and must be initialized before
+			// the current class
+			dependencies.addEdge((ClassSymbol) symbol.owner, currentClass);
+		}
+	}
+
+	@Override
+	public void visitIdent(JCIdent ident) {
+		registerAccess(ident.sym);
+		super.visitIdent(ident);
+	}
+
+	@Override
+	public void visitSelect(JCFieldAccess fieldAccess) {
+		registerAccess(fieldAccess.sym);
+		super.visitSelect(fieldAccess);
+	}
+
+	@Override
+	public void visitReference(JCMemberReference memberReference) {
+		registerAccess(memberReference.sym);
+		super.visitReference(memberReference);
+	}
+
+	@Override
+	public void visitNewClass(JCNewClass newClass) {
+		if (newClass.constructor instanceof MethodSymbol) {
+			scheduleMethod((MethodSymbol) newClass.constructor);
+		}
+		super.visitNewClass(newClass);
+	}
+
+}
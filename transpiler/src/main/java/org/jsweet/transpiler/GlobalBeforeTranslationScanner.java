@@ -86,7 +86,7 @@ public class GlobalBeforeTranslationScanner extends AbstractTreeScanner {
 				if (getContext().options.isSupportSaticLazyInitialization()
 						&& var.getModifiers().getFlags().contains(Modifier.STATIC)) {
 					if (!(var.getModifiers().getFlags().contains(Modifier.FINAL) && var.init != null
-							&& var.init instanceof JCLiteral)) {
+							&& (var.init instanceof JCLiteral || var.sym.getConstValue() != null))) {
 						lazyInitializedStaticCandidates.add(var);
 					}
 				}
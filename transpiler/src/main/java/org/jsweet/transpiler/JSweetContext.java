@@ -28,6 +28,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +54,7 @@ import org.jsweet.transpiler.extension.AnnotationManager;
 import org.jsweet.transpiler.extension.AnnotationManager.Action;
 import org.jsweet.transpiler.model.ExtendedElement;
 import org.jsweet.transpiler.util.DirectedGraph;
+import org.jsweet.transpiler.util.Util;
 
 import com.sun.tools.javac.code.Attribute.Compound;
 import com.sun.tools.javac.code.Symbol;
@@ -62,6 +65,7 @@ import com.sun.tools.javac.code.Symbol.TypeSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Symtab;
 import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeTag;
 import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCAssign;
@@ -567,6 +571,33 @@ public class JSweetContext extends Context {
 	 */
 	public Set<VarSymbol> lazyInitializedStatics = new HashSet<>();
 
+	/**
+	 * Tells if the static fields are eagerly initialized when loading the
+	 * generated code (see
+	 * {@link JSweetOptions#isEagerStaticInitialization()}).
+	 */
+	public boolean isEagerStaticInitialization() {
+		return options.isEagerStaticInitialization() && bundleMode && !useModules;
+	}
+
+	/**
+	 * Holds the classes which lazy initialized static fields are eagerly
+	 * initialized, in initialization order (see
+	 * {@link EagerStaticInitializationAnalyzer}). The classes that take part in
+	 * a static initialization cycle are not part of this set.
+	 */
+	public Set<ClassSymbol> eagerlyInitializedClasses = new LinkedHashSet<>();
+
+	/**
+	 * Tells if the given lazy initialized static field can be directly
+	 * accessed because it is eagerly initialized when loading the generated
+	 * code.
+	 */
+	public boolean isEagerlyInitializedStatic(Symbol field) {
+		return isEagerStaticInitialization() && lazyInitializedStatics.contains(field)
+				&& eagerlyInitializedClasses.contains(field.owner);
+	}
+
 	private Map<ClassSymbol, Integer> staticInitializerCounts = new HashMap<>();
 
 	/**
@@ -724,6 +755,22 @@ public class JSweetContext extends Context {
 	 */
 	public List<File> entryFiles = new ArrayList<>();
 
+	/**
+	 * The types and methods that were found unreachable by the tree shaking
+	 * analysis (bundle mode only), and that shall not be generated.
+	 * 
+	 * @see JSweetOptions#isTreeShaking()
+	 */
+	public Set<Symbol> eliminatedElements = new HashSet<>();
+
+	/**
+	 * Tells if the given element (type or method) was removed by the tree
+	 * shaking analysis.
+	 */
+	public boolean isEliminated(Symbol element) {
+		return eliminatedElements.contains(element);
+	}
+
 	/**
 	 * A graph containing the module dependencies when using modules (empty
 	 * otherwise).
@@ -769,11 +816,26 @@ public class JSweetContext extends Context {
 
 	private List<String> footerStatements = new LinkedList<String>();
 
+	private Map<ClassSymbol, List<String>> staticInitializationFooterStatements = new LinkedHashMap<>();
+
 	/**
 	 * Gets and clears the footer statements.
 	 */
 	public String poolFooterStatements() {
 		StringBuilder sb = new StringBuilder();
+		List<ClassSymbol> classes = new ArrayList<>(staticInitializationFooterStatements.keySet());
+		List<ClassSymbol> orderedClasses = new ArrayList<>(eagerlyInitializedClasses);
+		orderedClasses.retainAll(classes);
+		classes.removeAll(orderedClasses);
+		orderedClasses.addAll(classes);
+		for (ClassSymbol clazz : orderedClasses) {
+			for (String footerStatement : staticInitializationFooterStatements.get(clazz)) {
+				sb.append("\n");
+				sb.append(footerStatement);
+				sb.append("\n");
+			}
+		}
+		staticInitializationFooterStatements.clear();
 		for (String footerStatement : footerStatements) {
 			sb.append("\n");
 			sb.append(footerStatement);
@@ -797,6 +859,22 @@ public class JSweetContext extends Context {
 		footerStatements.add(0, footerStatement);
 	}
 
+	/**
+	 * Adds a static initialization statement of the given class, to be executed
+	 * before all the other footer statements. The statements of the eagerly
+	 * initialized classes come first, in initialization order (see
+	 * {@link #eagerlyInitializedClasses}), then the statements of the other
+	 * classes, in the order of addition.
+	 */
+	public void addStaticInitializationFooterStatement(ClassSymbol clazz, String footerStatement) {
+		List<String> statements = staticInitializationFooterStatements.get(clazz);
+		if (statements == null) {
+			statements = new ArrayList<>();
+			staticInitializationFooterStatements.put(clazz, statements);
+		}
+		statements.add(footerStatement);
+	}
+
 	private Map<String, String> globalsMapping = new HashMap<>();
 
 	/**
@@ -944,6 +1022,31 @@ public class JSweetContext extends Context {
 		return (typeSymbol.type.isInterface() || hasAnnotationType(typeSymbol, JSweetConfig.ANNOTATION_INTERFACE));
 	}
 
+	/**
+	 * Tells if the given type is an enum that is translated from the sources
+	 * to a TypeScript enum, so that its values at runtime are the ordinals of
+	 * its constants.
+	 */
+	public boolean isOrdinalEnum(TypeSymbol typeSymbol) {
+		return typeSymbol != null && typeSymbol.getKind() == ElementKind.ENUM && Util.isSourceElement(typeSymbol)
+				&& !typeSymbol.getQualifiedName().toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".")
+				&& !hasAnnotationType(typeSymbol, JSweetConfig.ANNOTATION_AMBIENT, JSweetConfig.ANNOTATION_ERASED,
+						JSweetConfig.ANNOTATION_STRING_TYPE);
+	}
+
+	/**
+	 * Gets the constants of the given enum, in ordinal order.
+	 */
+	public List<VarSymbol> getEnumConstants(TypeSymbol enumSymbol) {
+		List<VarSymbol> constants = new ArrayList<>();
+		for (Symbol member : enumSymbol.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.ENUM_CONSTANT) {
+				constants.add((VarSymbol) member);
+			}
+		}
+		return constants;
+	}
+
 	/**
 	 * Tells if the given symbol is annotated with one of the given annotation
 	 * types.
@@ -1164,7 +1267,7 @@ public class JSweetContext extends Context {
 		}
 		if (hasAnnotationFilters()) {
 			String signature = symbol.toString();
-			if (symbol.getEnclosingElement() != null) {
+			if (!(symbol instanceof TypeSymbol) && symbol.getEnclosingElement() != null) {
 				signature = symbol.getEnclosingElement().getQualifiedName().toString() + "." + signature;
 			}
 			Collection<AnnotationFilterDescriptor> filterDescriptors = annotationFilters.get(annotationType);
@@ -1505,6 +1608,10 @@ public class JSweetContext extends Context {
 			// annotation types are ignored
 			return true;
 		}
+		if (isEliminated(classdecl.sym)) {
+			// unreachable types are removed from bundles
+			return true;
+		}
 		return false;
 	}
 
@@ -1539,6 +1646,14 @@ public class JSweetContext extends Context {
 		this.usingJavaRuntime = usingJavaRuntime;
 	}
 
+	/**
+	 * Tells if the given type is a long that is exact 64-bit integer at runtime
+	 * (see {@link JSweetOptions#isExactLongs()}).
+	 */
+	public boolean isExactLong(Type type) {
+		return type != null && type.getTag() == TypeTag.LONG && options.isExactLongs() && usingJavaRuntime;
+	}
+
 	public final Map<String, String> getLangTypeMappings() {
 		return langTypesMapping;
 	}
@@ -147,6 +147,68 @@ public interface JSweetOptions {
 	 */
 	boolean isSupportSaticLazyInitialization();
 
+	/**
+	 * If true (and in bundle mode), JSweet will initialize the static fields
+	 * when the bundle is loaded, so that they can be accessed directly. The
+	 * classes are initialized after the classes which static fields are
+	 * accessed by the methods that their static initializers invoke. The
+	 * classes that take part in a cycle of such dependencies keep their lazy
+	 * initialization accessors, which are also used within static
+	 * initializers. Default is false.
+	 */
+	boolean isEagerStaticInitialization();
+
+	/**
+	 * Tells if the types and methods that are not reachable from the main
+	 * methods are removed from the bundle (only applies in bundle mode). A
+	 * report is written next to the bundle. Note that the elements only
+	 * accessed from external JavaScript code will be removed. Default is false.
+	 */
+	boolean isTreeShaking();
+
+	/**
+	 * Tells if the bundle is split into chunks (only applies in bundle mode).
+	 * The types annotated with <code>@Chunk</code>, directly or through their
+	 * packages, are generated in separate chunk files, which are loaded on the
+	 * first access to one of their types. A chunk manifest is written next to
+	 * the bundle. Default is false.
+	 */
+	boolean isBundleChunking();
+
+	/**
+	 * Gets the optimization level of the generated JavaScript files. When not
+	 * {@link JsOptimizationLevel#NONE}, the files generated by tsc are
+	 * optimized in place with the Closure Compiler, and their source maps are
+	 * updated accordingly. Default is NONE.
+	 */
+	JsOptimizationLevel getJsOptimizationLevel();
+
+	/**
+	 * Tells if the indexed loops generated for the foreach loops over random
+	 * access lists check that the iterated list is not structurally modified
+	 * during the iteration (only applies when using a Java runtime). When true,
+	 * a modification of the list size throws a
+	 * <code>ConcurrentModificationException</code>, as the list iterators do.
+	 * Setting it to false removes the check from the loops. Default is true.
+	 */
+	boolean isForeachComodificationCheck();
+
+	/**
+	 * Tells if the <code>long</code> values are exact 64-bit integers (only
+	 * applies when using a Java runtime). When true, the long arithmetic,
+	 * comparisons and conversions go through
+	 * <code>javaemul.internal.LongHelper</code>, and the long values that are
+	 * not safe integers are represented as <code>BigInt</code> values. When
+	 * false, longs are plain numbers and lose precision above 2^53. Default is
+	 * false.
+	 */
+	boolean isExactLongs();
+
+	/**
+	 * Gets the target ECMA script version for the generated JavaScript.
+	 */
+	EcmaScriptComplianceLevel getEcmaTargetVersion();
+
 	/**
 	 * Generated definitions from def.* packages in d.ts files.
 	 */
@@ -39,6 +39,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
@@ -76,6 +77,7 @@ import com.google.debugging.sourcemap.SourceMapGeneratorV3;
 import com.google.debugging.sourcemap.SourceMapping;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.PackageSymbol;
@@ -83,6 +85,7 @@ import com.sun.tools.javac.file.JavacFileManager;
 import com.sun.tools.javac.main.JavaCompiler;
 import com.sun.tools.javac.main.Option;
 import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
 import com.sun.tools.javac.tree.TreeScanner;
@@ -140,6 +143,18 @@ public class JSweetTranspiler implements JSweetOptions {
 	 */
 	public final static String TSCROOTFILE = ".tsc-rootfile.ts";
 
+	/**
+	 * The name of the report file generated next to the bundle when tree
+	 * shaking is enabled.
+	 */
+	public final static String TREE_SHAKING_REPORT_FILE_NAME = "bundle-tree-shaking.txt";
+
+	/**
+	 * The name of the manifest file generated next to the bundle when it is
+	 * split into chunks.
+	 */
+	public final static String CHUNK_MANIFEST_FILE_NAME = "bundle-chunks.json";
+
 	private JSweetFactory factory;
 	private PrinterAdapter adapter;
 	private long transpilationStartTimestamp;
@@ -171,6 +186,15 @@ public class JSweetTranspiler implements JSweetOptions {
 	private boolean interfaceTracking = true;
 	private boolean supportGetClass = true;
 	private boolean supportSaticLazyInitialization = true;
+	private boolean eagerStaticInitialization = false;
+	private boolean treeShaking = false;
+	private boolean bundleChunking = false;
+	private BundleChunks bundleChunks;
+	private Set<File> bundleChunkFiles = new HashSet<>();
+	private JsOptimizationLevel jsOptimizationLevel = JsOptimizationLevel.NONE;
+	private JsOptimizer jsOptimizer;
+	private boolean foreachComodificationCheck = true;
+	private boolean exactLongs = false;
 	private boolean generateDefinitions = false;
 	private ArrayList<File> jsLibFiles = new ArrayList<>();
 	private File sourceRoot = null;
@@ -203,7 +227,11 @@ public class JSweetTranspiler implements JSweetOptions {
 				+ "\nignoreJavaFileNameError=" + ignoreJavaFileNameError + "\ngenerateDeclarations="
 				+ generateDeclarations + "\ndeclarationsOutputDir=" + declarationsOutputDir + "\ninterfaceTracking="
 				+ interfaceTracking + "\nsupportGetClass=" + supportGetClass + "\nsupportSaticLazyInitialization="
-				+ supportSaticLazyInitialization + "\ngenerateDefinitions=" + generateDefinitions + "\njsLibFiles="
+				+ supportSaticLazyInitialization + "\neagerStaticInitialization=" + eagerStaticInitialization
+				+ "\ntreeShaking=" + treeShaking + "\nbundleChunking=" + bundleChunking + "\njsOptimizationLevel="
+				+ jsOptimizationLevel + "\nforeachComodificationCheck=" + foreachComodificationCheck
+				+ "\nexactLongs=" + exactLongs
+				+ "\ngenerateDefinitions=" + generateDefinitions + "\njsLibFiles="
 				+ jsLibFiles;
 	}
 
@@ -619,7 +647,12 @@ public class JSweetTranspiler implements JSweetOptions {
 						FileUtils.write(tmpFile, script + "\n", true);
 					}
 				}
+				Set<File> evaluatedFiles = new HashSet<>();
 				for (SourceFile sourceFile : sourceFiles) {
+					if (isBundleChunkFile(sourceFile.getTsFile()) || !evaluatedFiles.add(sourceFile.getJsFile())) {
+						// chunks are loaded on demand by the main bundle
+						continue;
+					}
 					String script = FileUtils.readFileToString(sourceFile.getJsFile());
 					FileUtils.write(tmpFile, script + "\n", true);
 				}
@@ -810,10 +843,22 @@ public class JSweetTranspiler implements JSweetOptions {
 				generateTsFiles(transpilationHandler, files, compilationUnits);
 			}
 		}
+		jsOptimizer = null;
+		if (jsOptimizationLevel != null && jsOptimizationLevel != JsOptimizationLevel.NONE) {
+			if (jsOptimizationLevel == JsOptimizationLevel.ADVANCED && !isAdvancedJsOptimizationApplicable()) {
+				logger.warn("advanced optimizations only apply to bundles without chunks: using simple optimizations");
+			}
+			jsOptimizer = new JsOptimizer(jsOptimizationLevel, ecmaTargetVersion, tsDefDirs);
+			jsOptimizer.preserveNames(context, compilationUnits);
+		}
 		log.flush();
 		getOrCreateTscRootFile();
 	}
 
+	private boolean isAdvancedJsOptimizationApplicable() {
+		return bundle && !context.useModules && bundleChunks == null;
+	}
+
 	private void generateModuleDefs(JCCompilationUnit moduleDefs) throws IOException {
 		StringBuilder out = new StringBuilder();
 		for (String line : FileUtils.readLines(new File(moduleDefs.getSourceFile().getName()))) {
@@ -938,8 +983,33 @@ public class JSweetTranspiler implements JSweetOptions {
 			return;
 		}
 
+		context.eagerlyInitializedClasses.clear();
+		if (eagerStaticInitialization) {
+			EagerStaticInitializationAnalyzer eagerStaticInitializationAnalyzer = new EagerStaticInitializationAnalyzer(
+					context);
+			eagerStaticInitializationAnalyzer.process(orderedCompilationUnits);
+			context.eagerlyInitializedClasses.addAll(eagerStaticInitializationAnalyzer.eagerlyInitializedClasses);
+		}
+
+		if (treeShaking) {
+			ReachabilityAnalyzer reachabilityAnalyzer = new ReachabilityAnalyzer(context);
+			reachabilityAnalyzer.process(orderedCompilationUnits);
+			context.eliminatedElements.addAll(reachabilityAnalyzer.unreachableElements);
+			writeTreeShakingReport(reachabilityAnalyzer);
+		}
+
 		new OverloadScanner(transpilationHandler, context).process(orderedCompilationUnits);
 
+		bundleChunks = null;
+		bundleChunkFiles.clear();
+		if (bundleChunking) {
+			bundleChunks = new BundleChunks(context);
+			bundleChunks.process(orderedCompilationUnits);
+			if (bundleChunks.isEmpty()) {
+				bundleChunks = null;
+			}
+		}
+
 		logger.debug("ordered compilation units: " + orderedCompilationUnits.stream().map(cu -> {
 			return cu.sourcefile.getName();
 		}).collect(Collectors.toList()));
@@ -958,6 +1028,35 @@ public class JSweetTranspiler implements JSweetOptions {
 		}
 	}
 
+	private void writeTreeShakingReport(ReachabilityAnalyzer reachabilityAnalyzer) throws IOException {
+		StringBuilder report = new StringBuilder();
+		report.append("# tree shaking report\n");
+		if (reachabilityAnalyzer.entryPoints.isEmpty()) {
+			report.append("# no entry point found: nothing was removed\n");
+		}
+		for (MethodSymbol entryPoint : reachabilityAnalyzer.entryPoints) {
+			report.append("entry point: " + entryPoint.owner.getQualifiedName() + "." + entryPoint.name + "\n");
+		}
+		for (Symbol element : reachabilityAnalyzer.unreachableElements) {
+			report.append("removed " + toReportString(element) + "\n");
+		}
+		for (java.util.Map.Entry<Symbol, String> kept : reachabilityAnalyzer.keptReasons.entrySet()) {
+			report.append("kept " + toReportString(kept.getKey()) + ": " + kept.getValue() + "\n");
+		}
+		File reportFile = new File(tsOutputDir, TREE_SHAKING_REPORT_FILE_NAME);
+		FileUtils.write(reportFile, report, false);
+		logger.info("tree shaking removed " + reachabilityAnalyzer.unreachableElements.size()
+				+ " elements (see report in " + reportFile + ")");
+	}
+
+	private String toReportString(Symbol element) {
+		if (element instanceof MethodSymbol) {
+			return "method " + element.owner.getQualifiedName() + "." + element;
+		} else {
+			return "type " + element.getQualifiedName();
+		}
+	}
+
 	private void initSourceFileJavaPaths(SourceFile file, JCCompilationUnit cu) {
 		String[] s = cu.getSourceFile().getName().split(File.separator.equals("\\") ? "\\\\" : File.separator);
 		String cuName = s[s.length - 1];
@@ -973,40 +1072,22 @@ public class JSweetTranspiler implements JSweetOptions {
 
 	private void createBundle(ErrorCountTranspilationHandler transpilationHandler, SourceFile[] files,
 			int[] permutation, java.util.List<JCCompilationUnit> orderedCompilationUnits, boolean definitionBundle)
-			throws FileNotFoundException {
+			throws IOException {
 		context.bundleMode = true;
+		BundleChunks chunks = definitionBundle ? null : bundleChunks;
 		StringBuilder sb = new StringBuilder();
 		int lineCount = 0;
 		for (String line : getHeaderLines()) {
 			sb.append(line).append("\n");
 			lineCount++;
 		}
-		for (int i = 0; i < orderedCompilationUnits.size(); i++) {
-			JCCompilationUnit cu = orderedCompilationUnits.get(i);
-			if (isModuleDefsFile(cu)) {
-				continue;
-			}
-			if (cu.packge.fullname.toString().startsWith("def.")) {
-				if (!definitionBundle) {
-					continue;
-				}
-			} else {
-				if (definitionBundle) {
-					continue;
-				}
-			}
-			logger.info("scanning " + cu.sourcefile.getName() + "...");
-			AbstractTreePrinter printer = factory.createTranslator(adapter, transpilationHandler, context, cu,
-					generateSourceMap);
-			printer.print(cu);
-			printer.sourceMap.shiftOutputPositions(lineCount);
-			files[permutation[i]].setSourceMap(printer.sourceMap);
-
-			sb.append(printer.getOutput());
-			lineCount += (printer.getCurrentLine() - 1);
-
-			initSourceFileJavaPaths(files[permutation[i]], cu);
+		if (chunks != null) {
+			String loaderCode = chunks.getLoaderCode();
+			sb.append(loaderCode);
+			lineCount += StringUtils.countMatches(loaderCode, "\n");
 		}
+		printBundleCompilationUnits(transpilationHandler, files, permutation, orderedCompilationUnits,
+				definitionBundle, null, sb, lineCount);
 
 		context.bundleMode = false;
 
@@ -1052,6 +1133,14 @@ public class JSweetTranspiler implements JSweetOptions {
 		} finally {
 			out.close();
 		}
+		Map<String, File> chunkFiles = new HashMap<>();
+		if (chunks != null) {
+			for (String chunkName : chunks.getChunkNames()) {
+				chunkFiles.put(chunkName, createBundleChunk(transpilationHandler, files, permutation,
+						orderedCompilationUnits, chunks, chunkName));
+				bundleChunkFiles.add(chunkFiles.get(chunkName));
+			}
+		}
 		for (int i = 0; i < orderedCompilationUnits.size(); i++) {
 			JCCompilationUnit cu = orderedCompilationUnits.get(i);
 			if (cu.packge.fullname.toString().startsWith("def.")) {
@@ -1063,11 +1152,137 @@ public class JSweetTranspiler implements JSweetOptions {
 					continue;
 				}
 			}
-			files[permutation[i]].tsFile = outputFile;
+			String chunkName = chunks == null ? null : chunks.getChunkName(cu);
+			files[permutation[i]].tsFile = chunkName == null ? outputFile : chunkFiles.get(chunkName);
 			files[permutation[i]].javaFileLastTranspiled = files[permutation[i]].getJavaFile().lastModified();
 		}
 		logger.info("created " + outputFilePath);
+		if (chunks != null) {
+			writeChunkManifest();
+		}
+	}
 
+	private File createBundleChunk(ErrorCountTranspilationHandler transpilationHandler, SourceFile[] files,
+			int[] permutation, java.util.List<JCCompilationUnit> orderedCompilationUnits, BundleChunks chunks,
+			String chunkName) throws IOException {
+		context.bundleMode = true;
+		StringBuilder sb = new StringBuilder();
+		int lineCount = 0;
+		for (String line : getHeaderLines()) {
+			sb.append(line).append("\n");
+			lineCount++;
+		}
+		printBundleCompilationUnits(transpilationHandler, files, permutation, orderedCompilationUnits, false,
+				chunkName, sb, lineCount);
+		context.bundleMode = false;
+
+		File outputFile = new File(tsOutputDir, chunks.getChunkFileName(chunkName) + ".ts");
+		logger.info("creating bundle chunk file: " + outputFile);
+		outputFile.getParentFile().mkdirs();
+		PrintWriter out = new PrintWriter(outputFile.getPath());
+		try {
+			out.println(sb.toString());
+			out.print(context.getGlobalsMappingString());
+			out.print(context.poolFooterStatements());
+		} finally {
+			out.close();
+		}
+		return outputFile;
+	}
+
+	private void printBundleCompilationUnits(ErrorCountTranspilationHandler transpilationHandler,
+			SourceFile[] files, int[] permutation, java.util.List<JCCompilationUnit> orderedCompilationUnits,
+			boolean definitionBundle, String chunkName, StringBuilder sb, int lineCount) {
+		for (int i = 0; i < orderedCompilationUnits.size(); i++) {
+			JCCompilationUnit cu = orderedCompilationUnits.get(i);
+			if (isModuleDefsFile(cu)) {
+				continue;
+			}
+			if (cu.packge.fullname.toString().startsWith("def.")) {
+				if (!definitionBundle) {
+					continue;
+				}
+			} else {
+				if (definitionBundle) {
+					continue;
+				}
+			}
+			if (isEliminated(cu)) {
+				logger.info("skipping unreachable " + cu.sourcefile.getName());
+				continue;
+			}
+			if (!definitionBundle && bundleChunks != null
+					&& !StringUtils.equals(chunkName, bundleChunks.getChunkName(cu))) {
+				continue;
+			}
+			logger.info("scanning " + cu.sourcefile.getName() + "...");
+			AbstractTreePrinter printer = factory.createTranslator(adapter, transpilationHandler, context, cu,
+					generateSourceMap);
+			printer.print(cu);
+			printer.sourceMap.shiftOutputPositions(lineCount);
+			files[permutation[i]].setSourceMap(printer.sourceMap);
+
+			sb.append(printer.getOutput());
+			lineCount += (printer.getCurrentLine() - 1);
+
+			initSourceFileJavaPaths(files[permutation[i]], cu);
+		}
+	}
+
+	/**
+	 * Writes the chunk manifest, which gives the files, the sizes and the types
+	 * of the main bundle and of its chunks. The JavaScript sizes are only
+	 * available once the TypeScript bundle has been compiled.
+	 */
+	private void writeChunkManifest() throws IOException {
+		File jsDirectory = jsOutputDir == null ? tsOutputDir : jsOutputDir;
+		Map<String, Object> manifest = new LinkedHashMap<>();
+		manifest.put("main", createChunkManifestEntry(null, "bundle"));
+		java.util.List<Object> chunkEntries = new ArrayList<>();
+		for (String chunkName : bundleChunks.getChunkNames()) {
+			chunkEntries.add(createChunkManifestEntry(chunkName, bundleChunks.getChunkFileName(chunkName)));
+		}
+		manifest.put("chunks", chunkEntries);
+		File manifestFile = new File(jsDirectory, CHUNK_MANIFEST_FILE_NAME);
+		FileUtils.write(manifestFile, new GsonBuilder().setPrettyPrinting().create().toJson(manifest), false);
+		logger.info("wrote chunk manifest: " + manifestFile);
+	}
+
+	private Map<String, Object> createChunkManifestEntry(String chunkName, String fileName) {
+		Map<String, Object> entry = new LinkedHashMap<>();
+		if (chunkName != null) {
+			entry.put("name", chunkName);
+		}
+		entry.put("file", fileName + ".js");
+		entry.put("tsSize", new File(tsOutputDir, fileName + ".ts").length());
+		File jsFile = new File(jsOutputDir == null ? tsOutputDir : jsOutputDir, fileName + ".js");
+		if (jsFile.exists()) {
+			entry.put("jsSize", jsFile.length());
+		}
+		if (chunkName != null) {
+			entry.put("types", bundleChunks.getTypeNames(chunkName));
+		}
+		return entry;
+	}
+
+	/**
+	 * Tells if the given file is a bundle chunk, which is not loaded with the
+	 * main bundle.
+	 */
+	private boolean isBundleChunkFile(File tsFile) {
+		return bundleChunkFiles.contains(tsFile);
+	}
+
+	private boolean isEliminated(JCCompilationUnit cu) {
+		if (context.eliminatedElements.isEmpty()) {
+			return false;
+		}
+		for (JCTree def : cu.defs) {
+			if (def instanceof JCClassDecl && !context.isEliminated(((JCClassDecl) def).sym)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private File getOrCreateTscRootFile() throws IOException {
@@ -1185,6 +1400,9 @@ public class JSweetTranspiler implements JSweetOptions {
 		if (ecmaTargetVersion.ordinal() >= EcmaScriptComplianceLevel.ES5.ordinal()) {
 			args.add("--experimentalDecorators");
 		}
+		// reachability is already checked by javac, but folded constant
+		// conditions may look like unreachable code to tsc
+		args.add("--allowUnreachableCode");
 
 		if (isTscWatchMode()) {
 			args.add("--watch");
@@ -1388,8 +1606,18 @@ public class JSweetTranspiler implements JSweetOptions {
 								ex.printStackTrace();
 							}
 						}
+						if (jsOptimizer != null) {
+							jsOptimizer.optimize(outputFile, mapFile.exists() && generateSourceMap ? mapFile : null,
+									jsOptimizer.getLevel() == JsOptimizationLevel.ADVANCED
+											&& isAdvancedJsOptimizationApplicable(),
+									handler);
+						}
 					}
 				}
+				if (bundleChunks != null) {
+					// update the manifest with the JavaScript sizes
+					writeChunkManifest();
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -1531,6 +1759,11 @@ public class JSweetTranspiler implements JSweetOptions {
 		return candiesProcessor;
 	}
 
+	@Override
+	public EcmaScriptComplianceLevel getEcmaTargetVersion() {
+		return ecmaTargetVersion;
+	}
+
 	/**
 	 * Sets target ECMA script version for generated JavaScript
 	 * 
@@ -1742,6 +1975,60 @@ public class JSweetTranspiler implements JSweetOptions {
 		this.supportSaticLazyInitialization = supportSaticLazyInitialization;
 	}
 
+	@Override
+	public boolean isEagerStaticInitialization() {
+		return eagerStaticInitialization;
+	}
+
+	public void setEagerStaticInitialization(boolean eagerStaticInitialization) {
+		this.eagerStaticInitialization = eagerStaticInitialization;
+	}
+
+	@Override
+	public boolean isTreeShaking() {
+		return treeShaking;
+	}
+
+	public void setTreeShaking(boolean treeShaking) {
+		this.treeShaking = treeShaking;
+	}
+
+	@Override
+	public boolean isBundleChunking() {
+		return bundleChunking;
+	}
+
+	public void setBundleChunking(boolean bundleChunking) {
+		this.bundleChunking = bundleChunking;
+	}
+
+	@Override
+	public JsOptimizationLevel getJsOptimizationLevel() {
+		return jsOptimizationLevel;
+	}
+
+	public void setJsOptimizationLevel(JsOptimizationLevel jsOptimizationLevel) {
+		this.jsOptimizationLevel = jsOptimizationLevel;
+	}
+
+	@Override
+	public boolean isForeachComodificationCheck() {
+		return foreachComodificationCheck;
+	}
+
+	public void setForeachComodificationCheck(boolean foreachComodificationCheck) {
+		this.foreachComodificationCheck = foreachComodificationCheck;
+	}
+
+	@Override
+	public boolean isExactLongs() {
+		return exactLongs;
+	}
+
+	public void setExactLongs(boolean exactLongs) {
+		this.exactLongs = exactLongs;
+	}
+
 	@Override
 	public boolean isGenerateDefinitions() {
 		return generateDefinitions;
@@ -44,6 +44,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Stack;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.lang.model.element.Modifier;
@@ -130,6 +131,8 @@ import com.sun.tools.javac.tree.JCTree.JCUnary;
 import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
 import com.sun.tools.javac.tree.JCTree.JCWhileLoop;
 import com.sun.tools.javac.tree.JCTree.JCWildcard;
+import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.tree.TreeScanner;
 import com.sun.tools.javac.util.Name;
 
@@ -143,6 +146,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	public static final String PARENT_CLASS_FIELD_NAME = "__parent";
 	public static final String INTERFACES_FIELD_NAME = "__interfaces";
+	public static final String INTERFACE_TAG_PREFIX = "__interface$";
+	public static final String INTERFACE_TAGS_MARKER = "__interface_tags";
+	public static final String INTERFACES_PROTOTYPE_PREFIX = "__interfaces_prototype$";
 	public static final String STATIC_INITIALIZATION_SUFFIX = "_$LI$";
 	public static final String CLASS_NAME_IN_CONSTRUCTOR = "__class";
 	public static final String ANONYMOUS_PREFIX = "$";
@@ -151,6 +157,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	public static final String ENUM_WRAPPER_CLASS_NAME = "_$name";
 	public static final String ENUM_WRAPPER_CLASS_ORDINAL = "_$ordinal";
 	public static final String VAR_DECL_KEYWORD = "let";
+	public static final String EXACT_LONG_HELPER = "javaemul.internal.LongHelper";
 	public static final String BODY_MARKER = "#BODY#";
 	public static final String BASE_INDENT_MARKER = "#BASEINDENT#";
 	public static final String INDENT_MARKER = "#INDENT#";
@@ -202,6 +209,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 		private List<JCClassDecl> localClasses = new ArrayList<>();
 
+		private int interfacesPrototypeCount = 0;
+
 		// to be accessed in the parent scope
 		private boolean isAnonymousClass = false;
 		// to be accessed in the parent scope
@@ -287,6 +296,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	private JCMethodDecl mainMethod;
 
+	private Map<JCMethodDecl, Map<JCLambda, Collection<VarSymbol>>> lambdaCapturedVariables = new HashMap<>();
+
 	private PackageSymbol topLevelPackage;
 
 	private void useModule(boolean require, PackageSymbol targetPackage, JCTree sourceTree, String targetName,
@@ -1245,7 +1256,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							}
 						}
 					}
-					if (s == null || printDefaultImplementation) {
+					if ((s == null || printDefaultImplementation) && !context.isEliminated(meth)) {
 						String signature = getContext().types.erasure(meth.type).toString();
 						if (!(signatures.containsKey(meth.name) && signatures.get(meth.name).equals(signature))) {
 							printDefaultImplementation(meth);
@@ -1280,7 +1291,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			}
 			print("} }").println().println();
 			String qualifiedClassName = getQualifiedTypeName(classdecl.sym, globals);
-			context.addTopFooterStatement(
+			addStaticInitializationFooterStatement(classdecl.sym,
 					(isBlank(qualifiedClassName) ? "" : qualifiedClassName + ".__static_initialize();"));
 		}
 
@@ -1408,15 +1419,19 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		if (!globals) {
 			endIndent().printIndent().print("}");
 			if (getContext().options.isSupportGetClass() && !getScope().interfaceScope && !getScope().declareClassScope
-					&& !getScope().enumScope && !classdecl.sym.isAnonymous()) {
-				println().printIndent().print(classdecl.sym.getSimpleName().toString())
-						.print("[\"" + CLASS_NAME_IN_CONSTRUCTOR + "\"] = ")
-						.print("\"" + context.getRootRelativeName(null, classdecl.sym) + "\";");
+					&& !getScope().enumScope
+					&& !(classdecl.sym.isAnonymous() && getScope().enumWrapperClassScope)) {
+				// the metadata is defined once on the constructor, which is
+				// shared by all the instances through their prototype
+				String constructorName = classdecl.sym.isAnonymous() ? name
+						: classdecl.sym.getSimpleName().toString();
+				println().printIndent().print(constructorName).print("[\"" + CLASS_NAME_IN_CONSTRUCTOR + "\"] = ")
+						.print("\"" + getClassMetadataName(classdecl.sym) + "\";");
 
 				Set<String> interfaces = new HashSet<>();
 				context.grabSupportedInterfaceNames(interfaces, classdecl.sym);
 				if (!interfaces.isEmpty()) {
-					println().printIndent().print(classdecl.sym.getSimpleName().toString())
+					println().printIndent().print(constructorName)
 							.print("[\"" + INTERFACES_FIELD_NAME + "\"] = ");
 					print("[");
 					for (String itf : interfaces) {
@@ -1429,6 +1444,16 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					println();
 				}
 			}
+			if (getContext().options.isInterfaceTracking() && !getScope().interfaceScope
+					&& !getScope().declareClassScope && !getScope().enumScope && !getScope().enumWrapperClassScope) {
+				Set<String> interfaces = new HashSet<>();
+				context.grabSupportedInterfaceNames(interfaces, classdecl.sym);
+				// the marker is defined even without interfaces, so that
+				// instanceof knows that the instances are tagged
+				println().printIndent().print("Object.defineProperties(").print(name).print(".prototype, ");
+				printInterfaceTagDescriptors(interfaces);
+				print(");").println();
+			}
 		}
 
 		// enum class for complex enum
@@ -1630,6 +1655,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			// erased elements are ignored
 			return;
 		}
+		if (context.isEliminated(methodDecl.sym)) {
+			// unreachable methods are removed from bundles
+			return;
+		}
 		JCClassDecl parent = (JCClassDecl) getParent();
 
 		if (parent != null && methodDecl.pos == parent.pos && !getScope().enumWrapperClassScope) {
@@ -2388,6 +2417,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				return;
 			}
 
+			if (parent instanceof JCClassDecl && !getScope().interfaceScope
+					&& varDecl.mods.getFlags().contains(Modifier.PRIVATE) && isInlinedConstant(varDecl.sym)) {
+				// private constants are inlined in all their accesses
+				return;
+			}
+
 			String name = getAdapter().getIdentifier(varDecl.sym);
 			if (context.getFieldNameMapping(varDecl.sym) != null) {
 				name = context.getFieldNameMapping(varDecl.sym);
@@ -2491,7 +2526,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					if (isDefinitionScope) {
 						print("var ");
 					} else {
-						print(VAR_DECL_KEYWORD + " ");
+						if (isEs6Target() && !globals && !(parent instanceof JCForLoop) && varDecl.init != null
+								&& varDecl.mods.getFlags().contains(Modifier.FINAL)) {
+							print("const ");
+						} else {
+							print(VAR_DECL_KEYWORD + " ");
+						}
 					}
 				}
 			} else {
@@ -2580,8 +2620,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				print("return ").print(prefix).print(name).print("; }");
 				if (!globals) {
 					String qualifiedClassName = getQualifiedTypeName(clazz.sym, globals);
-					context.addTopFooterStatement((isBlank(qualifiedClassName) ? "" : qualifiedClassName + ".") + name
-							+ STATIC_INITIALIZATION_SUFFIX + "();");
+					addStaticInitializationFooterStatement(clazz.sym,
+							(isBlank(qualifiedClassName) ? "" : qualifiedClassName + ".") + name
+									+ STATIC_INITIALIZATION_SUFFIX + "();");
 				}
 			} else {
 				if (varDecl.init != null && !isDefinitionScope) {
@@ -2689,6 +2730,18 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 	@Override
 	public void visitSelect(JCFieldAccess fieldAccess) {
 		if (!getAdapter().substitute(ExtendedElementFactory.INSTANCE.create(fieldAccess))) {
+			if (isInlinedConstant(fieldAccess.sym) && Util.getConstantValue(fieldAccess) != null) {
+				if (Util.getSymbol(fieldAccess.selected) instanceof TypeSymbol
+						|| fieldAccess.selected instanceof JCIdent) {
+					printConstantValue(fieldAccess);
+				} else {
+					// keep the side effects of the target expression
+					print("(").print(fieldAccess.selected).print(", ");
+					printConstantValue(fieldAccess);
+					print(")");
+				}
+				return;
+			}
 			if (fieldAccess.selected.type.tsym instanceof PackageSymbol) {
 				if (context.isRootPackage(fieldAccess.selected.type.tsym)) {
 					if (fieldAccess.type != null && fieldAccess.type.tsym != null) {
@@ -2759,7 +2812,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					print(fieldName);
 				}
 				if (fieldAccess.sym instanceof VarSymbol && !fieldAccess.sym.owner.isEnum()
-						&& context.lazyInitializedStatics.contains(fieldAccess.sym)) {
+						&& context.lazyInitializedStatics.contains(fieldAccess.sym)
+						&& !isDirectStaticAccess(fieldAccess.sym)) {
 					if (!staticInitializedAssignment) {
 						print(STATIC_INITIALIZATION_SUFFIX + "()");
 					}
@@ -2954,6 +3008,13 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 									.erasure(((ArrayType) methSym.getParameters().last().type).elemtype)))) {
 				applyVarargs = false;
 			}
+			// explicit arrays are spread in the rest parameter, except for
+			// invalid overloads, which do not always declare the rest parameter
+			boolean spreadVarargs = applyVarargs && !anonymous && !context.isInvalidOverload(methSym)
+					&& isSpreadableVarargsArray(inv.args.last());
+			if (spreadVarargs) {
+				applyVarargs = false;
+			}
 
 			String targetVarName = null;
 			if (anonymous) {
@@ -3103,7 +3164,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 			for (int i = 0; i < argsLength; i++) {
 				JCExpression arg = inv.args.get(i);
-				if (inv.meth.type != null) {
+				if (spreadVarargs && i == argsLength - 1) {
+					printSpreadVarargsArray(arg);
+				} else if (inv.meth.type != null) {
 					List<Type> argTypes = ((MethodType) inv.meth.type).argtypes;
 					Type paramType = i < argTypes.size() ? argTypes.get(i) : argTypes.get(argTypes.size() - 1);
 					if (!getAdapter().substituteAssignedExpression(paramType, arg)) {
@@ -3149,6 +3212,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 
 		if (!getAdapter().substitute(ExtendedElementFactory.INSTANCE.create(ident))) {
+			if (isInlinedConstant(ident.sym) && printConstantValue(ident)) {
+				return;
+			}
 			boolean lazyInitializedStatic = false;
 			// add this of class name if ident is a field
 			if (ident.sym instanceof VarSymbol && !ident.sym.name.equals(context.names._this)
@@ -3180,7 +3246,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 								}
 							}
 						} else {
-							if (context.lazyInitializedStatics.contains(varSym)) {
+							if (context.lazyInitializedStatics.contains(varSym) && !isDirectStaticAccess(varSym)) {
 								lazyInitializedStatic = true;
 							}
 							if (!varSym.owner.getQualifiedName().toString().endsWith("." + GLOBALS_CLASS_NAME)) {
@@ -3331,18 +3397,31 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 			if (isInterface
 					|| context.hasAnnotationType(newClass.clazz.type.tsym, JSweetConfig.ANNOTATION_OBJECT_TYPE)) {
-				if (isInterface) {
-					print("<any>");
-				}
-
 				Set<String> interfaces = new HashSet<>();
+				String interfacesPrototypeHolder = null;
 				if (getContext().options.isInterfaceTracking()) {
 					context.grabSupportedInterfaceNames(interfaces, clazz);
 					if (!interfaces.isEmpty()) {
-						print("Object.defineProperty(");
+						interfacesPrototypeHolder = getInterfacesPrototypeHolder();
 					}
 				}
+				if (isInterface || interfacesPrototypeHolder != null) {
+					print("<any>");
+				}
+				if (!interfaces.isEmpty() && interfacesPrototypeHolder == null) {
+					print("Object.defineProperties(");
+				}
 				print("{").println().startIndent();
+				if (interfacesPrototypeHolder != null) {
+					// the interface metadata is created once and shared through
+					// the prototype chain by all the objects of this literal
+					String prototypeField = "(<any>" + interfacesPrototypeHolder + ")[\"" + INTERFACES_PROTOTYPE_PREFIX
+							+ (scope.get(0).interfacesPrototypeCount++) + "\"]";
+					printIndent().print("__proto__: " + prototypeField + " || (" + prototypeField
+							+ " = Object.freeze(Object.defineProperties({}, ");
+					printInterfacesDescriptors(interfaces, false);
+					print("))),").println();
+				}
 				boolean statementPrinted = false;
 				boolean initializationBlockFound = false;
 				if (newClass.def != null) {
@@ -3420,18 +3499,15 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					}
 				}
 
+				if (interfacesPrototypeHolder != null && !statementPrinted) {
+					// remove the trailing comma of the prototype entry
+					removeLastChars(2);
+				}
 				println().endIndent().printIndent().print("}");
-				if (getContext().options.isInterfaceTracking()) {
-					if (!interfaces.isEmpty()) {
-						print(", '" + INTERFACES_FIELD_NAME + "', { configurable: true, value: ");
-						print("[");
-						for (String i : interfaces) {
-							print("\"").print(i).print("\",");
-						}
-						removeLastChar();
-						print("]");
-						print(" })");
-					}
+				if (!interfaces.isEmpty() && interfacesPrototypeHolder == null) {
+					print(", ");
+					printInterfacesDescriptors(interfaces, true);
+					print(")");
 				}
 			} else {
 
@@ -3507,7 +3583,20 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 												.erasure(((ArrayType) methSym.getParameters().last().type).elemtype))) {
 							applyVarargs = false;
 						}
-						if (applyVarargs) {
+						// TypeScript only allows spreading in new expressions
+						// from ES5
+						boolean spreadVarargs = applyVarargs && !context.isInvalidOverload(methSym)
+								&& context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES3)
+								&& isSpreadableVarargsArray(newClass.args.last());
+						if (spreadVarargs) {
+							print("new ").print(newClass.clazz instanceof JCTypeApply
+									? ((JCTypeApply) newClass.clazz).clazz : newClass.clazz).print("(");
+							for (int i = 0; i < newClass.args.length() - 1; i++) {
+								print(newClass.args.get(i)).print(", ");
+							}
+							printSpreadVarargsArray(newClass.args.last());
+							print(")");
+						} else if (applyVarargs) {
 							// this is necessary in case the user defines a
 							// Function class that hides the global Function
 							// class
@@ -3594,6 +3683,81 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		return this;
 	}
 
+	/**
+	 * Tells if the given explicit varargs array can be spread in the rest
+	 * parameter, which is not the case of a null array.
+	 */
+	private boolean isSpreadableVarargsArray(JCExpression array) {
+		return !Util.isNullLiteral(skipCastsAndParens(array));
+	}
+
+	/**
+	 * Prints the given explicit varargs array spread in the rest parameter.
+	 * Since spreading a null array throws a TypeError in ES6, only the array
+	 * creations are spread as is, and the other arrays default to an empty
+	 * array.
+	 */
+	private void printSpreadVarargsArray(JCExpression array) {
+		// we cast array to any[] to avoid typing errors on different types
+		print("...<any[]>");
+		if (skipCastsAndParens(array) instanceof JCNewArray) {
+			print(array);
+		} else {
+			print("(").print(array).print(" || [])");
+		}
+	}
+
+	private static JCTree skipCastsAndParens(JCTree tree) {
+		while (tree instanceof JCTypeCast || tree instanceof JCParens) {
+			tree = tree instanceof JCTypeCast ? ((JCTypeCast) tree).expr : ((JCParens) tree).expr;
+		}
+		return tree;
+	}
+
+	/**
+	 * Tells if the generated code targets ES6 (or higher), so that modern
+	 * constructs can be used instead of their ES3/ES5 equivalents.
+	 */
+	protected boolean isEs6Target() {
+		return context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5);
+	}
+
+	/**
+	 * Tells if the given symbol is a static final field that holds a
+	 * compile-time constant, so that its accesses are replaced with the
+	 * constant value.
+	 */
+	protected boolean isInlinedConstant(Symbol symbol) {
+		return symbol instanceof VarSymbol && symbol.isStatic() && symbol.owner instanceof ClassSymbol
+				&& ((VarSymbol) symbol).getConstValue() != null
+				&& !symbol.packge().getQualifiedName().toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".")
+				&& !context.hasAnnotationType(symbol, JSweetConfig.ANNOTATION_AMBIENT);
+	}
+
+	/**
+	 * Prints the given expression as a literal if javac has computed a
+	 * compile-time constant value for it. This is used to inline the constant
+	 * fields and to fold the constant expressions.
+	 * 
+	 * @return true if the expression was printed as a literal
+	 */
+	protected boolean printConstantValue(JCExpression expression) {
+		Object value = Util.getConstantValue(expression);
+		if (value == null) {
+			return false;
+		}
+		TypeTag tag = expression.type.getTag();
+		if (tag == TypeTag.CLASS) {
+			if (!(value instanceof String)) {
+				return false;
+			}
+		} else if (!expression.type.isPrimitive()) {
+			return false;
+		}
+		print(TreeMaker.instance(context).at(expression.pos).Literal(tag, value));
+		return true;
+	}
+
 	@Override
 	public void visitLiteral(JCLiteral literal) {
 		String s = literal.toString();
@@ -3607,6 +3771,11 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 			if (s.endsWith("L")) {
 				s = s.substring(0, s.length() - 1);
 			}
+			long value = ((Number) literal.value).longValue();
+			if (context.isExactLong(literal.type) && (value > MAX_SAFE_INTEGER || value < -MAX_SAFE_INTEGER)) {
+				print(EXACT_LONG_HELPER + ".parseExact(\"" + s + "\")");
+				return;
+			}
 			break;
 		default:
 		}
@@ -3636,6 +3805,19 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		});
 		if (!getAdapter().substituteForEachLoop(new ForeachLoopElementSupport(foreachLoop), hasLength[0],
 				indexVarName)) {
+			if (isEs6Target() && (foreachLoop.expr.type.getKind() == TypeKind.ARRAY
+					|| (JSweetConfig.LIBS_PACKAGE + ".js.Array")
+							.equals(context.types.erasure(foreachLoop.expr.type).toString()))) {
+				// arrays are native iterables
+				print("for(" + (foreachLoop.var.mods.getFlags().contains(Modifier.FINAL) ? "const" : VAR_DECL_KEYWORD)
+						+ " " + foreachLoop.var.name.toString() + " of ").print(foreachLoop.expr).print(") ");
+				print(foreachLoop.body);
+				if (!(foreachLoop.body instanceof JCBlock)
+						&& !statementsWithNoSemis.contains(foreachLoop.body.getClass())) {
+					print(";");
+				}
+				return;
+			}
 			boolean noVariable = foreachLoop.expr instanceof JCIdent || foreachLoop.expr instanceof JCFieldAccess;
 			if (noVariable) {
 				print("for(" + VAR_DECL_KEYWORD + " " + indexVarName + "=0; " + indexVarName + " < ")
@@ -3677,11 +3859,211 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 	}
 
+	/**
+	 * The greatest integer that numbers represent exactly, 2^53 - 1.
+	 */
+	private static final long MAX_SAFE_INTEGER = 9007199254740991L;
+
+	private static String getExactLongOperation(String op) {
+		switch (op) {
+		case "+":
+			return "add";
+		case "-":
+			return "subtract";
+		case "*":
+			return "multiply";
+		case "/":
+			return "divide";
+		case "%":
+			return "remainder";
+		case "&":
+			return "and";
+		case "|":
+			return "or";
+		case "^":
+			return "xor";
+		case "<<":
+			return "shiftLeft";
+		case ">>":
+			return "shiftRight";
+		case ">>>":
+			return "shiftRightUnsigned";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Prints a binary operation on exact longs, as a call to the helper.
+	 */
+	private void printExactLongOperation(String op, JCExpression lhs, JCExpression rhs) {
+		printExactLongOperation(op, () -> printExactLongOperand(lhs), rhs);
+	}
+
+	/**
+	 * Prints a binary operation on exact longs, the left operand being printed
+	 * by the given printer.
+	 */
+	private void printExactLongOperation(String op, Runnable lhsPrinter, JCExpression rhs) {
+		String operation = getExactLongOperation(op);
+		if (operation == null) {
+			// comparison
+			print("(" + EXACT_LONG_HELPER + ".compare(");
+			lhsPrinter.run();
+			print(", ");
+			printExactLongOperand(rhs).print(") ");
+			print("==".equals(op) ? "===" : "!=".equals(op) ? "!==" : op).print(" 0)");
+			return;
+		}
+		print(EXACT_LONG_HELPER + "." + operation + "(");
+		lhsPrinter.run();
+		print(", ");
+		boolean shift = op.startsWith("<") || op.startsWith(">");
+		if (!shift || !printLongConversion(rhs, context.symtab.intType)) {
+			printExactLongOperand(rhs);
+		}
+		print(")");
+	}
+
+	/**
+	 * Prints an integral operand of an exact long operation. Chars are
+	 * converted to their codes.
+	 */
+	private AbstractTreePrinter printExactLongOperand(JCExpression operand) {
+		if (operand.type.getTag() == TypeTag.CHAR
+				&& (operand instanceof JCLiteral || Util.getConstantValue(operand) != null)) {
+			return print(operand).print(".charCodeAt(0)");
+		}
+		printExactLongOperand(operand.type, () -> print(operand));
+		return this;
+	}
+
+	/**
+	 * Prints an integral operand of the given type, printed by the given
+	 * printer, of an exact long operation.
+	 */
+	private void printExactLongOperand(Type type, Runnable printer) {
+		if (type.getTag() != TypeTag.CHAR) {
+			printer.run();
+			return;
+		}
+		print("(c => c.charCodeAt==null?<any>c:c.charCodeAt(0))(");
+		printer.run();
+		print(")");
+	}
+
+	/**
+	 * Prints an update of the given target, from or to an exact long, by the
+	 * given printer, which prints the target through the runnable it is passed
+	 * and may read it back. The target subexpressions that may have side
+	 * effects (as in <code>a[i++] += 1L</code>) are passed to an arrow function
+	 * so that they are evaluated once.
+	 */
+	private void printExactLongUpdate(JCExpression target, Consumer<Runnable> updatePrinter) {
+		if (target instanceof JCArrayAccess && !isSimpleUpdateTarget(target)) {
+			JCArrayAccess arrayAccess = (JCArrayAccess) target;
+			print("((__a, __i) => ");
+			updatePrinter.accept(() -> print("__a[__i]"));
+			print(")(").print(arrayAccess.indexed).print(", ").print(arrayAccess.index).print(")");
+			return;
+		}
+		if (target instanceof JCFieldAccess && !((JCFieldAccess) target).sym.isStatic()
+				&& !isSimpleUpdateTarget(target)) {
+			JCFieldAccess fieldAccess = (JCFieldAccess) target;
+			String fieldName = context.getFieldNameMapping(fieldAccess.sym) != null
+					? context.getFieldNameMapping(fieldAccess.sym) : getAdapter().getIdentifier(fieldAccess.sym);
+			print("(__o => ");
+			updatePrinter.accept(() -> print(
+					doesMemberNameRequireQuotes(fieldName) ? "__o['" + fieldName + "']" : "__o." + fieldName));
+			print(")(").print(fieldAccess.selected).print(")");
+			return;
+		}
+		updatePrinter.accept(() -> print(target));
+	}
+
+	/**
+	 * Tells if the given expression has no side effects and can be printed
+	 * several times.
+	 */
+	private boolean isSimpleUpdateTarget(JCExpression expression) {
+		if (expression instanceof JCIdent || expression instanceof JCLiteral) {
+			return true;
+		} else if (expression instanceof JCParens) {
+			return isSimpleUpdateTarget(((JCParens) expression).expr);
+		} else if (expression instanceof JCFieldAccess) {
+			return isSimpleUpdateTarget(((JCFieldAccess) expression).selected);
+		} else if (expression instanceof JCArrayAccess) {
+			return isSimpleUpdateTarget(((JCArrayAccess) expression).indexed)
+					&& isSimpleUpdateTarget(((JCArrayAccess) expression).index);
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Prints an expression that is converted from or to an exact long, if
+	 * needed.
+	 *
+	 * @return true if a conversion was printed
+	 */
+	public boolean printLongConversion(JCExpression expression, Type targetType) {
+		if (expression.type == null || targetType == null) {
+			return false;
+		}
+		boolean exactExpression = context.isExactLong(expression.type);
+		if (exactExpression == context.isExactLong(targetType) || !targetType.isPrimitive()) {
+			return false;
+		}
+		if (exactExpression) {
+			switch (targetType.getTag()) {
+			case DOUBLE:
+			case FLOAT:
+				print(EXACT_LONG_HELPER + ".toDouble(").print(expression).print(")");
+				return true;
+			case INT:
+			case SHORT:
+			case BYTE:
+				print(EXACT_LONG_HELPER + ".toInt(").print(expression).print(")");
+				return true;
+			default:
+				return false;
+			}
+		}
+		switch (expression.type.getTag()) {
+		case DOUBLE:
+		case FLOAT:
+			print(EXACT_LONG_HELPER + ".fromDouble(").print(expression).print(")");
+			return true;
+		default:
+			// the other numbers are already valid longs
+			return false;
+		}
+	}
+
 	@Override
 	public void visitBinary(JCBinary binary) {
+		if (printConstantValue(binary)) {
+			return;
+		}
+		Type lhsOperandType = binary.operator.type.getParameterTypes().head;
+		Type rhsOperandType = binary.operator.type.getParameterTypes().last();
+		if (context.isExactLong(lhsOperandType)
+				&& (context.isExactLong(binary.type) || Util.isComparisonOperator(binary.getKind()))) {
+			printExactLongOperation(binary.operator.name.toString(), binary.lhs, binary.rhs);
+			return;
+		}
+		switch (binary.getKind()) {
+		case LEFT_SHIFT:
+		case RIGHT_SHIFT:
+		case UNSIGNED_RIGHT_SHIFT:
+			// a long distance is used as an int
+			rhsOperandType = context.symtab.intType;
+			break;
+		default:
+		}
 		if (Util.isIntegral(binary.type) && binary.getKind() == Kind.DIVIDE) {
 			if (binary.type.getKind() == TypeKind.LONG) {
-				print("Math.floor(");
+				print(isEs6Target() ? "Math.trunc(" : "Math.floor(");
 			} else {
 				print("(");
 			}
@@ -3692,12 +4074,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		if (charWrapping && binary.lhs.type.isPrimitive() && context.symtab.charType.tsym == binary.lhs.type.tsym
 				&& !(binary.rhs.type.tsym == context.symtab.stringType.tsym)) {
 			actualCharWrapping = true;
-			if (binary.lhs instanceof JCLiteral) {
+			if (binary.lhs instanceof JCLiteral || Util.getConstantValue(binary.lhs) != null) {
 				print(binary.lhs).print(".charCodeAt(0)");
 			} else {
 				print("(c => c.charCodeAt==null?<any>c:c.charCodeAt(0))(").print(binary.lhs).print(")");
 			}
-		} else {
+		} else if (!printLongConversion(binary.lhs, lhsOperandType)) {
 			print(binary.lhs);
 		}
 		String op = binary.operator.name.toString();
@@ -3725,12 +4107,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		space().print(op).space();
 		if (charWrapping && binary.rhs.type.isPrimitive() && context.symtab.charType.tsym == binary.rhs.type.tsym
 				&& !(binary.lhs.type.tsym == context.symtab.stringType.tsym)) {
-			if (binary.rhs instanceof JCLiteral) {
+			if (binary.rhs instanceof JCLiteral || Util.getConstantValue(binary.rhs) != null) {
 				print(binary.rhs).print(".charCodeAt(0)");
 			} else {
 				print("(c => c.charCodeAt==null?<any>c:c.charCodeAt(0))(").print(binary.rhs).print(")");
 			}
-		} else {
+		} else if (!printLongConversion(binary.rhs, rhsOperandType)) {
 			print(binary.rhs);
 		}
 		if (Util.isIntegral(binary.type) && binary.getKind() == Kind.DIVIDE) {
@@ -3744,6 +4126,20 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	@Override
 	public void visitIf(JCIf ifStatement) {
+		Object condition = Util.getConstantValue(TreeInfo.skipParens(ifStatement.cond));
+		if (condition != null) {
+			// dead branch elimination
+			JCStatement branch = ((Number) condition).intValue() != 0 ? ifStatement.thenpart : ifStatement.elsepart;
+			if (branch == null) {
+				print("{}");
+			} else {
+				print(branch);
+				if (!(branch instanceof JCBlock) && !statementsWithNoSemis.contains(branch.getClass())) {
+					print(";");
+				}
+			}
+			return;
+		}
 		print("if").print(ifStatement.cond).print(" ");
 		print(ifStatement.thenpart);
 		if (!(ifStatement.thenpart instanceof JCBlock)) {
@@ -3793,22 +4189,63 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	private VarSymbol getStaticInitializedField(JCTree expr) {
 		if (expr instanceof JCIdent) {
-			return context.lazyInitializedStatics.contains(((JCIdent) expr).sym) ? (VarSymbol) ((JCIdent) expr).sym
-					: null;
+			return context.lazyInitializedStatics.contains(((JCIdent) expr).sym)
+					&& !isDirectStaticAccess(((JCIdent) expr).sym) ? (VarSymbol) ((JCIdent) expr).sym : null;
 		} else if (expr instanceof JCFieldAccess) {
 			return context.lazyInitializedStatics.contains(((JCFieldAccess) expr).sym)
-					? (VarSymbol) ((JCFieldAccess) expr).sym : null;
+					&& !isDirectStaticAccess(((JCFieldAccess) expr).sym) ? (VarSymbol) ((JCFieldAccess) expr).sym
+							: null;
 		} else {
 			return null;
 		}
 	}
 
+	/**
+	 * Tells if the given lazy initialized static field can be accessed
+	 * directly, i.e. if it is eagerly initialized and if the access is not
+	 * part of a static initializer (where the initialization order may not be
+	 * guaranteed).
+	 */
+	private boolean isDirectStaticAccess(Symbol field) {
+		if (!context.isEagerlyInitializedStatic(field)) {
+			return false;
+		}
+		for (int i = stack.size() - 2; i >= 0; i--) {
+			JCTree tree = stack.get(i);
+			if (tree instanceof JCBlock && ((JCBlock) tree).isStatic()) {
+				return false;
+			}
+			if (tree instanceof JCVariableDecl && ((JCVariableDecl) tree).sym != null
+					&& ((JCVariableDecl) tree).sym.isStatic() && ((JCVariableDecl) tree).sym.owner instanceof ClassSymbol) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a footer statement that initializes the statics of the given class.
+	 * In eager static initialization mode, the statements are executed in the
+	 * initialization order of the classes, before any other footer statement.
+	 */
+	private void addStaticInitializationFooterStatement(ClassSymbol clazz, String statement) {
+		if (context.isEagerStaticInitialization()) {
+			context.addStaticInitializationFooterStatement(clazz, statement);
+		} else {
+			context.addTopFooterStatement(statement);
+		}
+	}
+
 	@Override
 	public void visitAssignop(JCAssignOp assignOp) {
+		String op = assignOp.operator.name.toString();
+		if (context.isExactLong(assignOp.lhs.type) || context.isExactLong(assignOp.rhs.type)) {
+			printExactLongUpdate(assignOp.lhs, target -> printExactLongAssignop(assignOp, op, target));
+			return;
+		}
 		boolean expand = staticInitializedAssignment = (getStaticInitializedField(assignOp.lhs) != null);
 		print(assignOp.lhs);
 		staticInitializedAssignment = false;
-		String op = assignOp.operator.name.toString();
 		if (assignOp.lhs.type.getKind() == TypeKind.BOOLEAN) {
 			if ("|".equals(op)) {
 				print(" = ").print(assignOp.lhs).print(" || ").print(assignOp.rhs);
@@ -3826,8 +4263,50 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		print(assignOp.rhs);
 	}
 
+	/**
+	 * Prints a compound assignment from or to an exact long, the assigned
+	 * target being printed by the given printer.
+	 */
+	private void printExactLongAssignop(JCAssignOp assignOp, String op, Runnable target) {
+		Type operandType = assignOp.operator.type.getParameterTypes().head;
+		staticInitializedAssignment = (getStaticInitializedField(assignOp.lhs) != null);
+		target.run();
+		staticInitializedAssignment = false;
+		print(" = ");
+		if (context.isExactLong(operandType)) {
+			boolean narrowing = !context.isExactLong(assignOp.lhs.type);
+			if (narrowing) {
+				print(EXACT_LONG_HELPER + ".toInt(");
+			}
+			printExactLongOperation(op, () -> printExactLongOperand(assignOp.lhs.type, target), assignOp.rhs);
+			if (narrowing) {
+				print(")");
+			}
+		} else if (context.isExactLong(assignOp.lhs.type)) {
+			// floating point operation, converted back to a long
+			print(EXACT_LONG_HELPER + ".fromDouble(" + EXACT_LONG_HELPER + ".toDouble(");
+			target.run();
+			print(") " + op + " ").print(assignOp.rhs).print(")");
+		} else {
+			target.run();
+			print(" " + op + " ");
+			if (!printLongConversion(assignOp.rhs,
+					op.startsWith("<") || op.startsWith(">") ? context.symtab.intType : operandType)) {
+				print(assignOp.rhs);
+			}
+		}
+	}
+
 	@Override
 	public void visitConditional(JCConditional conditional) {
+		if (printConstantValue(conditional)) {
+			return;
+		}
+		Object condition = Util.getConstantValue(conditional.cond);
+		if (condition != null) {
+			print(((Number) condition).intValue() != 0 ? conditional.truepart : conditional.falsepart);
+			return;
+		}
 		print(conditional.cond);
 		print("?");
 		print(conditional.truepart);
@@ -3889,6 +4368,8 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 							removeLastChars(2);
 						}
 						print("]");
+					} else if (isEs6Target()) {
+						print("new Array(").print(newArray.dims.head).print(").fill(0)");
 					} else {
 						print("(s => { let a=[]; while(s-->0) a.push(0); return a; })(").print(newArray.dims.head)
 								.print(")");
@@ -3919,6 +4400,9 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	@Override
 	public void visitUnary(JCUnary unary) {
+		if (printConstantValue(unary)) {
+			return;
+		}
 		if (getContext().options.isSupportSaticLazyInitialization()) {
 			if (!inRollback) {
 				JCStatement statement = null;
@@ -3949,6 +4433,10 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				inRollback = false;
 			}
 		}
+		if (context.isExactLong(unary.arg.type)) {
+			printExactLongUnary(unary);
+			return;
+		}
 		switch (unary.getTag()) {
 		case POS:
 			print("+").print(unary.arg);
@@ -3968,6 +4456,41 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 	}
 
+	private void printExactLongUnary(JCUnary unary) {
+		switch (unary.getTag()) {
+		case POS:
+			print(unary.arg);
+			break;
+		case NEG:
+			print(EXACT_LONG_HELPER + ".negate(").print(unary.arg).print(")");
+			break;
+		case COMPL:
+			print(EXACT_LONG_HELPER + ".not(").print(unary.arg).print(")");
+			break;
+		default:
+			String operation = unary.getKind() == Kind.PREFIX_INCREMENT || unary.getKind() == Kind.POSTFIX_INCREMENT
+					? "add" : "subtract";
+			boolean postfix = unary.getKind() == Kind.POSTFIX_INCREMENT || unary.getKind() == Kind.POSTFIX_DECREMENT;
+			boolean valueUsed = !(getParent() instanceof JCExpressionStatement);
+			printExactLongUpdate(unary.arg, target -> {
+				if (postfix && valueUsed) {
+					// the value before the increment is computed back
+					print(EXACT_LONG_HELPER + "." + ("add".equals(operation) ? "subtract" : "add") + "(");
+					target.run();
+					print(" = " + EXACT_LONG_HELPER + "." + operation + "(");
+					target.run();
+					print(", 1), 1)");
+				} else {
+					print("(");
+					target.run();
+					print(" = " + EXACT_LONG_HELPER + "." + operation + "(");
+					target.run();
+					print(", 1))");
+				}
+			});
+		}
+	}
+
 	@Override
 	public void visitSwitch(JCSwitch switchStatement) {
 		print("switch(");
@@ -3992,6 +4515,12 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 				if (caseStatement.pat.type.isPrimitive()
 						|| String.class.getName().equals(caseStatement.pat.type.toString())) {
 					print(caseStatement.pat);
+				} else if (context.isOrdinalEnum(caseStatement.pat.type.tsym)
+						&& TreeInfo.symbol(caseStatement.pat) instanceof VarSymbol) {
+					// enum switches are compiled to dense integer switches
+					print("" + context.getEnumConstants(caseStatement.pat.type.tsym)
+							.indexOf(TreeInfo.symbol(caseStatement.pat)));
+					print(" /* " + caseStatement.pat + " */");
 				} else {
 					if (context.useModules) {
 						print(caseStatement.pat.type.tsym.getSimpleName() + "." + caseStatement.pat);
@@ -4021,9 +4550,14 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		if (getAdapter().substituteAssignedExpression(cast.type, cast.expr)) {
 			return;
 		}
+		if (context.isExactLong(cast.type)) {
+			// integral values are already exact longs
+			print(cast.expr);
+			return;
+		}
 		if (Util.isIntegral(cast.type)) {
 			if (cast.type.getKind() == TypeKind.LONG) {
-				print("Math.floor(");
+				print(isEs6Target() ? "Math.trunc(" : "Math.floor(");
 			} else {
 				print("(");
 			}
@@ -4121,25 +4655,27 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 
 	@Override
 	public void visitLambda(JCLambda lamba) {
-		Map<String, VarSymbol> varAccesses = new HashMap<>();
-		Util.fillAllVariableAccesses(varAccesses, lamba);
-		Collection<VarSymbol> finalVars = new ArrayList<>(varAccesses.values());
-		if (!varAccesses.isEmpty()) {
-			Map<String, VarSymbol> varDefs = new HashMap<>();
-			int parentIndex = getStack().size() - 2;
-			int i = parentIndex;
-			JCStatement statement = null;
+		Collection<VarSymbol> finalVars = Collections.emptySet();
+		// captured variables are block-scoped (let/const) with ES6, so that
+		// they do not need to be frozen by a wrapping function
+		if (!isEs6Target()) {
+			int i = getStack().size() - 2;
 			while (i > 0 && getStack().get(i).getKind() != Kind.LAMBDA_EXPRESSION
 					&& getStack().get(i).getKind() != Kind.METHOD) {
-				if (statement == null && getStack().get(i) instanceof JCStatement) {
-					statement = (JCStatement) getStack().get(i);
-				}
 				i--;
 			}
-			if (i >= 0 && getStack().get(i).getKind() != Kind.LAMBDA_EXPRESSION && statement != null) {
-				Util.fillAllVariablesInScope(varDefs, getStack(), lamba, getStack().get(i));
+			if (i > 0 && getStack().get(i).getKind() == Kind.METHOD) {
+				JCMethodDecl method = (JCMethodDecl) getStack().get(i);
+				Map<JCLambda, Collection<VarSymbol>> capturedVars = lambdaCapturedVariables.get(method);
+				if (capturedVars == null) {
+					capturedVars = new HashMap<>();
+					Util.fillAllCapturedVariables(capturedVars, method);
+					lambdaCapturedVariables.put(method, capturedVars);
+				}
+				if (capturedVars.containsKey(lamba)) {
+					finalVars = capturedVars.get(lamba);
+				}
 			}
-			finalVars.retainAll(varDefs.values());
 		}
 		if (!finalVars.isEmpty()) {
 			print("((");
@@ -4251,10 +4787,87 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 		}
 	}
 
+	/**
+	 * Gets the name of the property that tags the objects implementing the
+	 * given interface at runtime (see {@link #INTERFACE_TAG_PREFIX}).
+	 */
+	public static String getInterfaceTag(String interfaceQualifiedName) {
+		return INTERFACE_TAG_PREFIX + interfaceQualifiedName;
+	}
+
+	/**
+	 * Gets the Java class name stored in the class metadata of the given class.
+	 * Anonymous classes are named after their outermost class, as Java binary
+	 * names (for instance <code>a.b.C$1</code>).
+	 */
+	private String getClassMetadataName(ClassSymbol clazz) {
+		if (!clazz.isAnonymous()) {
+			return context.getRootRelativeName(null, clazz);
+		}
+		ClassSymbol outermostClass = clazz.outermostClass();
+		return context.getRootRelativeName(null, outermostClass)
+				+ clazz.flatname.toString().substring(outermostClass.flatname.length());
+	}
+
+	/**
+	 * Gets the expression of the class constructor that holds the shared
+	 * interface metadata prototypes of the object literals created in the
+	 * current compilation unit, or null if there is no such holder (the
+	 * metadata is then defined on each object).
+	 */
+	private String getInterfacesPrototypeHolder() {
+		if (scope.isEmpty() || isDefinitionScope) {
+			return null;
+		}
+		ClassScope topScope = scope.get(0);
+		if (topScope.interfaceScope || topScope.declareClassScope
+				|| JSweetConfig.GLOBALS_CLASS_NAME.equals(topScope.name)) {
+			return null;
+		}
+		return topScope.name;
+	}
+
+	private void printInterfacesDescriptors(Set<String> interfaces, boolean configurable) {
+		String attributes = configurable ? "configurable: true, " : "";
+		print("{ '" + INTERFACES_FIELD_NAME + "': { " + attributes + "value: ");
+		print("[");
+		for (String i : interfaces) {
+			print("\"").print(i).print("\",");
+		}
+		removeLastChar();
+		print("]");
+		print(" }, ");
+		print("'" + INTERFACE_TAGS_MARKER + "': { " + attributes + "value: true }, ");
+		for (String i : interfaces) {
+			print("'" + getInterfaceTag(i) + "': { " + attributes + "value: true }, ");
+		}
+		removeLastChars(2);
+		print(" }");
+	}
+
+	private void printInterfaceTagDescriptors(Set<String> interfaces) {
+		print("{ ");
+		print("'" + INTERFACE_TAGS_MARKER + "': { value: true }, ");
+		for (String itf : interfaces) {
+			print("'" + getInterfaceTag(itf) + "': { value: true }, ");
+		}
+		removeLastChars(2);
+		print(" }");
+	}
+
 	private void printInstanceOf(String exprStr, JCTree expr, Type type) {
 		printInstanceOf(exprStr, expr, type, false);
 	}
 
+	/**
+	 * Prints a runtime check that tells if the value held by the given
+	 * variable is an instance of the given type.
+	 */
+	public Java2TypeScriptTranslator printInstanceOf(String varName, Type type) {
+		printInstanceOf(varName, null, type, false);
+		return this;
+	}
+
 	private void printInstanceOf(String exprStr, JCTree expr, Type type, boolean checkFirstArrayElement) {
 		if (!(getParent() instanceof JCParens)) {
 			print("(");
@@ -4298,6 +4911,18 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					print(" != null && ");
 					print("(");
 					print(exprStr, expr);
+					if (checkFirstArrayElement)
+						print("[0]");
+					String interfaceTag = getInterfaceTag(type.tsym.getQualifiedName().toString());
+					print("[\"" + interfaceTag + "\"] === true");
+					// objects compiled without interface tags only carry the
+					// interface names
+					print(" || ");
+					print(exprStr, expr);
+					if (checkFirstArrayElement)
+						print("[0]");
+					print("[\"" + INTERFACE_TAGS_MARKER + "\"] !== true && (");
+					print(exprStr, expr);
 					if (checkFirstArrayElement)
 						print("[0]");
 					print("[\"" + INTERFACES_FIELD_NAME + "\"]").print(" != null && ");
@@ -4319,7 +4944,7 @@ public class Java2TypeScriptTranslator extends AbstractTreePrinter {
 					if (checkFirstArrayElement)
 						print("[0]");
 					print(".constructor[\"" + INTERFACES_FIELD_NAME + "\"].indexOf(\"")
-							.print(type.tsym.getQualifiedName().toString()).print("\") >= 0");
+							.print(type.tsym.getQualifiedName().toString()).print("\") >= 0)");
 					if (CharSequence.class.getName().equals(type.tsym.getQualifiedName().toString())) {
 						print(" || typeof ");
 						print(exprStr, expr);
@@ -0,0 +1,43 @@
+/* 
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+/**
+ * An enumeration for the optimization levels of the generated JavaScript
+ * (applied with the Closure Compiler once the TypeScript is compiled).
+ */
+public enum JsOptimizationLevel {
+
+	/**
+	 * No optimization (default).
+	 */
+	NONE,
+	/**
+	 * Local optimizations only: white spaces and comments removal, local
+	 * variables renaming, constant folding and dead code removal.
+	 */
+	SIMPLE,
+	/**
+	 * Whole-program optimizations: global names and properties renaming,
+	 * inlining and unused code removal. Only applies to bundles (SIMPLE is
+	 * used otherwise).
+	 */
+	ADVANCED;
+
+}
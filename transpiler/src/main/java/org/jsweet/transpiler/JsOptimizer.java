@@ -0,0 +1,301 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.jsweet.JSweetConfig;
+import org.jsweet.transpiler.util.Util;
+
+import com.google.debugging.sourcemap.FilePosition;
+import com.google.debugging.sourcemap.SourceMapConsumerV3;
+import com.google.debugging.sourcemap.SourceMapFormat;
+import com.google.debugging.sourcemap.SourceMapGeneratorFactory;
+import com.google.debugging.sourcemap.SourceMapGeneratorV3;
+import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
+import com.google.javascript.jscomp.CommandLineRunner;
+import com.google.javascript.jscomp.CompilationLevel;
+import com.google.javascript.jscomp.Compiler;
+import com.google.javascript.jscomp.CompilerOptions;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.jscomp.JSError;
+import com.google.javascript.jscomp.PropertyRenamingPolicy;
+import com.google.javascript.jscomp.Result;
+import com.google.javascript.jscomp.SourceMap;
+import com.google.javascript.jscomp.VariableRenamingPolicy;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * Optimizes the generated JavaScript files with the Closure Compiler, once
+ * the TypeScript compilation is done.
+ *
+ * <p>
+ * With the {@link JsOptimizationLevel#ADVANCED} level, the Closure Compiler
+ * renames the properties that are not declared in the externs. The externs
+ * are derived from the TypeScript definitions (candies and definition
+ * directories) and from the names that must be preserved: the namespaces and
+ * the public types of the program, the elements defined in <code>def.*</code>
+ * packages, and the elements annotated with <code>@Name</code> or
+ * <code>@Module</code>. Global names are not renamed, so that the program
+ * remains accessible from its namespaces.
+ *
+ * <p>
+ * When a source map already maps a JavaScript file to the Java source files,
+ * it is composed with the Closure Compiler source map, so that the optimized
+ * file still maps to the Java lines.
+ */
+public class JsOptimizer {
+
+	private static final Logger logger = Logger.getLogger(JsOptimizer.class);
+
+	private static final Pattern DECLARATION_PATTERN = Pattern.compile(
+			"^\\s*(?:export\\s+)?(?:declare\\s+)?(?:var|let|const|function|class|interface|namespace|module|enum)\\s+([A-Za-z_$][\\w$]*)");
+
+	private static final Pattern MEMBER_PATTERN = Pattern.compile(
+			"^\\s*(?:(?:public|private|protected|static|readonly|abstract)\\s+)*([A-Za-z_$][\\w$]*)\\??\\s*[:(<]");
+
+	private JsOptimizationLevel level;
+
+	private EcmaScriptComplianceLevel ecmaTargetVersion;
+
+	private Set<String> preservedNames = new TreeSet<>();
+
+	private File[] tsDefDirs;
+
+	private String externs;
+
+	/**
+	 * Creates an optimizer.
+	 *
+	 * @param level
+	 *            the optimization level (cannot be NONE)
+	 * @param ecmaTargetVersion
+	 *            the version of the JavaScript to be optimized
+	 * @param tsDefDirs
+	 *            the directories holding the TypeScript definitions to derive
+	 *            the externs from
+	 */
+	public JsOptimizer(JsOptimizationLevel level, EcmaScriptComplianceLevel ecmaTargetVersion, File... tsDefDirs) {
+		this.level = level;
+		this.ecmaTargetVersion = ecmaTargetVersion;
+		this.tsDefDirs = tsDefDirs;
+	}
+
+	/**
+	 * Gets the optimization level.
+	 */
+	public JsOptimizationLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * Collects the names of the given compilation units that must not be
+	 * renamed by the optimizer.
+	 */
+	public void preserveNames(JSweetContext context, Collection<JCCompilationUnit> compilationUnits) {
+		externs = null;
+		for (JCCompilationUnit compilationUnit : compilationUnits) {
+			boolean definition = compilationUnit.packge.getQualifiedName().toString()
+					.startsWith(JSweetConfig.LIBS_PACKAGE + ".");
+			new TreeScanner() {
+				@Override
+				public void visitClassDef(JCClassDecl classdecl) {
+					if (classdecl.sym == null) {
+						return;
+					}
+					if (definition || classdecl.sym.isPublic()) {
+						preservedNames.add(context.getActualName(classdecl.sym));
+						preservedNames.addAll(
+								Arrays.asList(context.getRootRelativeName(null, classdecl.sym.packge()).split("\\.")));
+					}
+					for (JCTree member : classdecl.defs) {
+						Symbol symbol = null;
+						if (member instanceof JCMethodDecl) {
+							symbol = ((JCMethodDecl) member).sym;
+						} else if (member instanceof JCVariableDecl) {
+							symbol = ((JCVariableDecl) member).sym;
+						}
+						if (symbol != null && (definition || context.hasAnnotationType(symbol,
+								JSweetConfig.ANNOTATION_NAME, JSweetConfig.ANNOTATION_MODULE))) {
+							preservedNames.add(context.getActualName(symbol));
+						}
+					}
+					super.visitClassDef(classdecl);
+				}
+			}.scan(compilationUnit);
+		}
+		preservedNames.remove("");
+	}
+
+	private String getExterns() throws IOException {
+		if (externs == null) {
+			Set<String> names = new TreeSet<>(preservedNames);
+			for (File tsDefDir : tsDefDirs) {
+				LinkedList<File> tsDefFiles = new LinkedList<>();
+				Util.addFiles(".d.ts", tsDefDir, tsDefFiles);
+				for (File tsDefFile : tsDefFiles) {
+					for (String line : FileUtils.readLines(tsDefFile)) {
+						Matcher matcher = DECLARATION_PATTERN.matcher(line);
+						if (matcher.find()) {
+							names.add(matcher.group(1));
+						} else {
+							matcher = MEMBER_PATTERN.matcher(line);
+							if (matcher.find()) {
+								names.add(matcher.group(1));
+							}
+						}
+					}
+				}
+			}
+			StringBuilder sb = new StringBuilder();
+			sb.append("var __jsweet_externs = {};\n");
+			for (String name : names) {
+				sb.append("__jsweet_externs." + name + ";\n");
+			}
+			externs = sb.toString();
+			logger.debug("derived " + names.size() + " extern names");
+		}
+		return externs;
+	}
+
+	/**
+	 * Optimizes the given JavaScript file in place.
+	 *
+	 * @param jsFile
+	 *            the file to be optimized
+	 * @param mapFile
+	 *            the source map of the file to be optimized (null if none),
+	 *            which is replaced by the composed source map
+	 * @param advanced
+	 *            true to apply the advanced optimizations (whole-program
+	 *            files only), false to apply the simple ones
+	 * @param transpilationHandler
+	 *            the handler to report optimization errors
+	 */
+	public void optimize(File jsFile, File mapFile, boolean advanced, TranspilationHandler transpilationHandler)
+			throws IOException {
+		long startTime = System.currentTimeMillis();
+		String code = FileUtils.readFileToString(jsFile);
+
+		CompilerOptions options = new CompilerOptions();
+		if (advanced) {
+			CompilationLevel.ADVANCED_OPTIMIZATIONS.setOptionsForCompilationLevel(options);
+			options.setRenamingPolicy(VariableRenamingPolicy.LOCAL, PropertyRenamingPolicy.ALL_UNQUOTED);
+			options.setCollapseProperties(false);
+		} else {
+			CompilationLevel.SIMPLE_OPTIMIZATIONS.setOptionsForCompilationLevel(options);
+		}
+		LanguageMode languageMode = ecmaTargetVersion.higherThan(EcmaScriptComplianceLevel.ES5)
+				? LanguageMode.ECMASCRIPT6 : LanguageMode.ECMASCRIPT5;
+		options.setLanguageIn(languageMode);
+		options.setLanguageOut(languageMode);
+		if (mapFile != null) {
+			options.setSourceMapOutputPath(mapFile.getPath());
+			options.setSourceMapFormat(SourceMap.Format.V3);
+		}
+
+		List<com.google.javascript.jscomp.SourceFile> externFiles = new ArrayList<>(
+				CommandLineRunner.getDefaultExterns());
+		if (advanced) {
+			externFiles.add(com.google.javascript.jscomp.SourceFile.fromCode("jsweet-externs.js", getExterns()));
+		}
+		List<com.google.javascript.jscomp.SourceFile> inputs = new ArrayList<>();
+		inputs.add(com.google.javascript.jscomp.SourceFile.fromCode(jsFile.getName(), code));
+
+		Compiler compiler = new Compiler();
+		compiler.disableThreads();
+		Result result = compiler.compile(externFiles, inputs, options);
+		if (!result.success) {
+			List<String> messages = new ArrayList<>();
+			for (JSError error : result.errors) {
+				messages.add(error.toString());
+			}
+			transpilationHandler.report(JSweetProblem.JS_OPTIMIZATION_ERROR, null,
+					JSweetProblem.JS_OPTIMIZATION_ERROR.getMessage(jsFile.getName(), StringUtils.join(messages, ", ")));
+			return;
+		}
+		String optimizedCode = compiler.toSource();
+		if (mapFile != null) {
+			StringBuilder closureMap = new StringBuilder();
+			compiler.getSourceMap().appendTo(closureMap, jsFile.getName());
+			composeSourceMaps(jsFile, mapFile, closureMap.toString());
+			optimizedCode += "\n//# sourceMappingURL=" + mapFile.getName();
+		}
+		FileUtils.write(jsFile, optimizedCode, false);
+
+		logger.info("optimized " + jsFile + " (" + level + (advanced ? "" : ", simple") + "): " + code.length()
+				+ " -> " + optimizedCode.length() + " chars ("
+				+ (code.length() == 0 ? 100 : optimizedCode.length() * 100 / code.length()) + "%) in "
+				+ (System.currentTimeMillis() - startTime) + " ms");
+	}
+
+	/**
+	 * Replaces the source map of the given file (which maps to the Java files)
+	 * by the composition with the source map generated by the Closure Compiler
+	 * (which maps the optimized file to the original JavaScript file).
+	 */
+	private void composeSourceMaps(File jsFile, File mapFile, String closureMap) throws IOException {
+		try {
+			SourceMapConsumerV3 javaMapping = new SourceMapConsumerV3();
+			javaMapping.parse(FileUtils.readFileToString(mapFile));
+			SourceMapConsumerV3 closureMapping = new SourceMapConsumerV3();
+			closureMapping.parse(closureMap);
+
+			SourceMapGeneratorV3 generator = (SourceMapGeneratorV3) SourceMapGeneratorFactory
+					.getInstance(SourceMapFormat.V3);
+			if (javaMapping.getSourceRoot() != null) {
+				generator.setSourceRoot(javaMapping.getSourceRoot());
+			}
+			closureMapping.visitMappings((sourceName, symbolName, sourceStartPosition, startPosition, endPosition) -> {
+				OriginalMapping originalMapping = javaMapping.getMappingForLine(sourceStartPosition.getLine() + 1,
+						sourceStartPosition.getColumn() + 1);
+				if (originalMapping != null) {
+					generator.addMapping(originalMapping.getOriginalFile(), null,
+							new FilePosition(originalMapping.getLineNumber() - 1, 0), startPosition, endPosition);
+				}
+			});
+			try (FileWriter writer = new FileWriter(mapFile, false)) {
+				generator.appendTo(writer, jsFile.getName());
+			}
+		} catch (Exception e) {
+			logger.error("cannot compose source maps for " + jsFile, e);
+		}
+	}
+
+}
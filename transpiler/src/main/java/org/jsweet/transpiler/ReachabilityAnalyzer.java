@@ -0,0 +1,332 @@
+/*
+ * JSweet transpiler - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jsweet.transpiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.ElementKind;
+
+import org.apache.log4j.Logger;
+import org.jsweet.JSweetConfig;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCBlock;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
+import com.sun.tools.javac.tree.JCTree.JCMemberReference;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCNewClass;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * This analyzer computes the types and methods that are reachable from the
+ * entry points (the <code>main</code> methods) of a program, so that the
+ * unreachable ones can be removed from the generated bundle (tree shaking).
+ *
+ * <p>
+ * A type is reachable when it is referenced by a reachable code (including
+ * in type positions), when it is a super type or the enclosing type of a
+ * reachable type. The fields, the initializers and the constructors of a
+ * reachable type are always kept. Since JavaScript dispatches methods by
+ * name and since JSweet merges overloads, methods are kept by name: a method
+ * of a reachable type is kept if a method with the same name is invoked or
+ * referenced by a reachable code, or if it overrides a method of a non-source
+ * type (for instance <code>toString</code>), which may be invoked by the
+ * runtime.
+ */
+public class ReachabilityAnalyzer extends TreeScanner {
+
+	private static final Logger logger = Logger.getLogger(ReachabilityAnalyzer.class);
+
+	private JSweetContext context;
+
+	private Map<ClassSymbol, JCClassDecl> classDeclarations = new LinkedHashMap<>();
+
+	private Map<String, List<JCMethodDecl>> methodsByName = new HashMap<>();
+
+	private Set<ClassSymbol> reachableTypes = new HashSet<>();
+
+	private Map<String, String> reachableMethodNames = new HashMap<>();
+
+	private Set<JCMethodDecl> keptMethods = new HashSet<>();
+
+	private LinkedList<JCTree> toBeScanned = new LinkedList<>();
+
+	private Map<JCTree, String> scanningContexts = new HashMap<>();
+
+	private String currentContext;
+
+	/**
+	 * Tells why the reachable types and methods are kept.
+	 */
+	public Map<Symbol, String> keptReasons = new LinkedHashMap<>();
+
+	/**
+	 * The types and methods that are found unreachable (a method of an
+	 * unreachable type is not listed).
+	 */
+	public Set<Symbol> unreachableElements = new LinkedHashSet<>();
+
+	/**
+	 * The entry points (main methods) found in the analyzed compilation units.
+	 */
+	public List<MethodSymbol> entryPoints = new ArrayList<>();
+
+	/**
+	 * Creates the analyzer.
+	 */
+	public ReachabilityAnalyzer(JSweetContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Analyzes the given compilation units. When no entry point is found, all
+	 * the elements are considered as reachable.
+	 */
+	public void process(Collection<JCCompilationUnit> compilationUnits) {
+		for (JCCompilationUnit compilationUnit : compilationUnits) {
+			if (compilationUnit.packge.getQualifiedName().toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".")) {
+				continue;
+			}
+			new TreeScanner() {
+				@Override
+				public void visitClassDef(JCClassDecl classdecl) {
+					classDeclarations.put(classdecl.sym, classdecl);
+					super.visitClassDef(classdecl);
+				}
+
+				@Override
+				public void visitMethodDef(JCMethodDecl methodDecl) {
+					List<JCMethodDecl> methods = methodsByName.get(methodDecl.name.toString());
+					if (methods == null) {
+						methods = new ArrayList<>();
+						methodsByName.put(methodDecl.name.toString(), methods);
+					}
+					methods.add(methodDecl);
+					super.visitMethodDef(methodDecl);
+				}
+			}.scan(compilationUnit);
+		}
+
+		for (JCClassDecl classdecl : classDeclarations.values()) {
+			for (JCTree member : classdecl.defs) {
+				if (member instanceof JCMethodDecl && isEntryPoint((JCMethodDecl) member)) {
+					entryPoints.add(((JCMethodDecl) member).sym);
+				}
+			}
+		}
+		if (entryPoints.isEmpty()) {
+			logger.info("no entry point found: all types are kept");
+			return;
+		}
+		for (MethodSymbol entryPoint : entryPoints) {
+			markType(entryPoint.owner, "declares an entry point");
+			markMethodName(entryPoint.name.toString(), "entry point");
+		}
+		while (!toBeScanned.isEmpty()) {
+			JCTree tree = toBeScanned.removeFirst();
+			currentContext = scanningContexts.remove(tree);
+			scan(tree);
+		}
+
+		for (JCClassDecl classdecl : classDeclarations.values()) {
+			if (!isApplicationType(classdecl.sym)) {
+				continue;
+			}
+			if (reachableTypes.contains(classdecl.sym)) {
+				for (JCTree member : classdecl.defs) {
+					if (member instanceof JCMethodDecl && !keptMethods.contains(member)) {
+						unreachableElements.add(((JCMethodDecl) member).sym);
+					}
+				}
+			} else if (classdecl.sym.owner instanceof ClassSymbol
+					|| classdecl.sym.owner.getKind() == ElementKind.PACKAGE) {
+				// local and anonymous classes are only generated with their
+				// enclosing method
+				unreachableElements.add(classdecl.sym);
+			}
+		}
+		logger.info("reachability analysis: " + reachableTypes.size() + " reachable types, "
+				+ unreachableElements.size() + " unreachable elements");
+	}
+
+	private boolean isEntryPoint(JCMethodDecl methodDecl) {
+		return JSweetConfig.MAIN_FUNCTION_NAME.equals(methodDecl.name.toString()) && methodDecl.sym.isStatic()
+				&& methodDecl.getParameters().size() < 2 && methodDecl.sym.owner.owner.getKind() == ElementKind.PACKAGE
+				&& !context.hasAnnotationType(methodDecl.sym, JSweetConfig.ANNOTATION_DISABLED);
+	}
+
+	private boolean isApplicationType(Symbol type) {
+		return type instanceof ClassSymbol && classDeclarations.containsKey(type)
+				&& !type.packge().getQualifiedName().toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".");
+	}
+
+	private void schedule(JCTree tree, String context) {
+		if (tree != null) {
+			scanningContexts.put(tree, context);
+			toBeScanned.add(tree);
+		}
+	}
+
+	private void markType(Symbol symbol, String reason) {
+		if (!isApplicationType(symbol) || !reachableTypes.add((ClassSymbol) symbol)) {
+			return;
+		}
+		ClassSymbol type = (ClassSymbol) symbol;
+		keptReasons.put(type, reason);
+		JCClassDecl classdecl = classDeclarations.get(type);
+		String context = "type " + type.getQualifiedName();
+		markType(type.owner, "encloses " + type.getQualifiedName());
+		if (type.getSuperclass() != null) {
+			markType(type.getSuperclass().tsym, "super type of " + type.getQualifiedName());
+		}
+		for (Type itf : type.getInterfaces()) {
+			markType(itf.tsym, "super type of " + type.getQualifiedName());
+		}
+		schedule(classdecl.mods, context);
+		for (JCTree typeParameter : classdecl.typarams) {
+			schedule(typeParameter, context);
+		}
+		schedule(classdecl.extending, context);
+		for (JCTree itf : classdecl.implementing) {
+			schedule(itf, context);
+		}
+		boolean enumType = type.getKind() == ElementKind.ENUM;
+		for (JCTree member : classdecl.defs) {
+			if (member instanceof JCVariableDecl || member instanceof JCBlock) {
+				schedule(member, context);
+			} else if (member instanceof JCMethodDecl) {
+				JCMethodDecl method = (JCMethodDecl) member;
+				if (method.sym.isConstructor()) {
+					keepMethod(method, "constructor of reachable type");
+				} else if (enumType) {
+					keepMethod(method, "member of reachable enum");
+				} else if (reachableMethodNames.containsKey(method.name.toString())) {
+					keepMethod(method, reachableMethodNames.get(method.name.toString()));
+				} else if (overridesNonSourceMethod(type, method.sym)) {
+					keepMethod(method, "overrides a non-source method");
+				}
+			}
+		}
+	}
+
+	private void markMethodName(String name, String reason) {
+		if (reachableMethodNames.containsKey(name)) {
+			return;
+		}
+		reachableMethodNames.put(name, reason);
+		List<JCMethodDecl> methods = methodsByName.get(name);
+		if (methods != null) {
+			for (JCMethodDecl method : methods) {
+				if (reachableTypes.contains(method.sym.owner)) {
+					keepMethod(method, reason);
+				}
+			}
+		}
+	}
+
+	private void keepMethod(JCMethodDecl method, String reason) {
+		if (keptMethods.add(method)) {
+			keptReasons.put(method.sym, reason);
+			schedule(method, "method " + method.sym.owner.getQualifiedName() + "." + method.name);
+		}
+	}
+
+	private boolean overridesNonSourceMethod(ClassSymbol type, MethodSymbol method) {
+		if (method.isStatic()) {
+			return false;
+		}
+		for (Type superType : context.types.closure(type.type)) {
+			if (superType.tsym == type || isApplicationType(superType.tsym)) {
+				continue;
+			}
+			for (Symbol member : superType.tsym.getEnclosedElements()) {
+				if (member instanceof MethodSymbol && member.name.equals(method.name)
+						&& method.overrides(member, type, context.types, false)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void onReference(Symbol symbol) {
+		if (symbol == null) {
+			return;
+		}
+		if (symbol instanceof ClassSymbol) {
+			markType(symbol, "referenced from " + currentContext);
+		} else if (symbol instanceof MethodSymbol) {
+			markType(symbol.owner, "referenced from " + currentContext);
+			if (!((MethodSymbol) symbol).isConstructor()) {
+				markMethodName(symbol.name.toString(), "invoked from " + currentContext);
+			}
+		} else if (symbol instanceof VarSymbol) {
+			markType(symbol.owner, "referenced from " + currentContext);
+		}
+	}
+
+	@Override
+	public void visitClassDef(JCClassDecl classdecl) {
+		// local and anonymous classes
+		markType(classdecl.sym, "declared in " + currentContext);
+	}
+
+	@Override
+	public void visitIdent(JCIdent ident) {
+		onReference(ident.sym);
+		super.visitIdent(ident);
+	}
+
+	@Override
+	public void visitSelect(JCFieldAccess fieldAccess) {
+		onReference(fieldAccess.sym);
+		super.visitSelect(fieldAccess);
+	}
+
+	@Override
+	public void visitNewClass(JCNewClass newClass) {
+		onReference(newClass.constructor);
+		super.visitNewClass(newClass);
+	}
+
+	@Override
+	public void visitReference(JCMemberReference memberReference) {
+		onReference(memberReference.sym);
+		super.visitReference(memberReference);
+	}
+
+}
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
@@ -110,6 +111,7 @@ import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.Type.TypeVar;
 import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.model.JavacElements;
 import com.sun.tools.javac.parser.Tokens.Comment;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCClassDecl;
@@ -398,8 +400,13 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				print(relTarget).print("[").print(invocationElement.getTargetExpression()).print("]");
 				return true;
 			case "ordinal":
-				print(relTarget).print("[").print(relTarget).print("[").print(invocationElement.getTargetExpression())
-						.print("]").print("]");
+				if (context.isOrdinalEnum((TypeSymbol) targetType)) {
+					// the enum value is the ordinal
+					print("(<number>").print(invocationElement.getTargetExpression()).print(")");
+				} else {
+					print(relTarget).print("[").print(relTarget).print("[")
+							.print(invocationElement.getTargetExpression()).print("]").print("]");
+				}
 				return true;
 			case "valueOf":
 				if (invocationElement.getArgumentCount() == 1) {
@@ -409,6 +416,18 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				}
 				break;
 			case "values":
+				if (context.isOrdinalEnum((TypeSymbol) targetType)) {
+					// the constants are known statically and are indexed by
+					// ordinal
+					print("[");
+					List<VarSymbol> constants = context.getEnumConstants((TypeSymbol) targetType);
+					for (int i = 0; i < constants.size(); i++) {
+						print(i > 0 ? ", " : "").print(relTarget).print(".")
+								.print(constants.get(i).getSimpleName().toString());
+					}
+					print("]");
+					return true;
+				}
 				print("function() { " + VAR_DECL_KEYWORD + " result: number[] = []; for(" + VAR_DECL_KEYWORD
 						+ " val in ").print(relTarget).print(
 								") { if(!isNaN(<any>val)) { result.push(parseInt(val,10)); } } return result; }()");
@@ -866,6 +885,10 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 			case "java.lang.Byte":
 			case "java.lang.Long":
 			case "java.lang.Short":
+				if ("java.lang.Long".equals(targetClassName) && context.isExactLong(context.symtab.longType)
+						&& substituteExactLongMethod(invocationElement, targetMethodName)) {
+					return true;
+				}
 				switch (targetMethodName) {
 				case "isNaN":
 					printMacroName(targetMethodName);
@@ -1016,11 +1039,22 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				case "getName":
 					if (context.options.isSupportGetClass()) {
 						printMacroName(targetMethodName);
-						getPrinter()
-								.print("(c => c[\"" + Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]?c[\""
-										+ Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]:c[\"name\"])(");
-						printTarget(invocationElement.getTargetExpression());
-						print(")");
+						String className = getClassLiteralMetadataName(invocationElement.getTargetExpression());
+						if (className != null) {
+							print("\"").print(className).print("\"");
+						} else if (isSimpleClassTarget(invocationElement.getTargetExpression())) {
+							// no closure is needed when the target can be
+							// evaluated several times
+							print("(");
+							printClassMetadataName(invocationElement.getTargetExpression()).print(" || ");
+							printClassTarget(invocationElement.getTargetExpression()).print(".name)");
+						} else {
+							getPrinter().print(
+									"(c => c[\"" + Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]?c[\""
+											+ Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]:c[\"name\"])(");
+							printTarget(invocationElement.getTargetExpression());
+							print(")");
+						}
 						return true;
 					} else {
 						if (invocationElement.getTargetExpression() != null
@@ -1037,12 +1071,24 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 				case "getSimpleName":
 					if (context.options.isSupportGetClass()) {
 						printMacroName(targetMethodName);
-						print("(c => c[\"" + Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]?c[\""
-								+ Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"].substring(c[\""
-								+ Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR
-								+ "\"].lastIndexOf('.')+1):c[\"name\"].substring(c[\"name\"].lastIndexOf('.')+1))(");
-						printTarget(invocationElement.getTargetExpression());
-						print(")");
+						String className = getClassLiteralMetadataName(invocationElement.getTargetExpression());
+						if (className != null) {
+							print("\"").print(className.substring(className.lastIndexOf('.') + 1)).print("\"");
+						} else if (isSimpleClassTarget(invocationElement.getTargetExpression())) {
+							ExtendedElement target = invocationElement.getTargetExpression();
+							print("(");
+							printClassMetadataName(target).print(" ? ");
+							printClassMetadataName(target).print(".substring(");
+							printClassMetadataName(target).print(".lastIndexOf('.')+1) : ");
+							printClassTarget(target).print(".name)");
+						} else {
+							print("(c => c[\"" + Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]?c[\""
+									+ Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"].substring(c[\""
+									+ Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR
+									+ "\"].lastIndexOf('.')+1):c[\"name\"].substring(c[\"name\"].lastIndexOf('.')+1))(");
+							printTarget(invocationElement.getTargetExpression());
+							print(")");
+						}
 						return true;
 					} else {
 						if (invocationElement.getTargetExpression() != null
@@ -1137,6 +1183,105 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 		}
 	}
 
+	/**
+	 * Gets the Java class name that is statically known for the given class
+	 * literal, or null if the name has to be read from the class metadata at
+	 * runtime.
+	 */
+	private String getClassLiteralMetadataName(ExtendedElement target) {
+		if (!(target instanceof VariableAccessElement)
+				|| !"class".equals(((VariableAccessElement) target).getVariableName())) {
+			return null;
+		}
+		Element element = types().asElement(((DeclaredType) target.getType()).getTypeArguments().get(0));
+		if (!(element instanceof ClassSymbol)) {
+			return null;
+		}
+		ClassSymbol clazz = (ClassSymbol) element;
+		if (clazz.getKind() != ElementKind.CLASS || clazz.isAnonymous() || !Util.isSourceElement(clazz)
+				|| clazz.getQualifiedName().toString().startsWith(JSweetConfig.LIBS_PACKAGE + ".")
+				|| context.hasAnnotationType(clazz, JSweetConfig.ANNOTATION_AMBIENT)) {
+			return null;
+		}
+		return context.getRootRelativeName(null, clazz);
+	}
+
+	/**
+	 * Tells if the given class expression has no side effects and can be
+	 * printed several times.
+	 */
+	private boolean isSimpleClassTarget(ExtendedElement target) {
+		if (target == null || target instanceof IdentifierElement) {
+			return true;
+		} else if (target instanceof VariableAccessElement) {
+			return isSimpleClassTarget(((VariableAccessElement) target).getTargetExpression());
+		} else if (target instanceof MethodInvocationElement) {
+			MethodInvocationElement invocation = (MethodInvocationElement) target;
+			return "getClass".equals(invocation.getMethodName()) && invocation.getArgumentCount() == 0
+					&& isSimpleClassTarget(invocation.getTargetExpression());
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Substitutes the methods of <code>java.lang.Long</code> that do not work
+	 * on exact longs as they do on numbers.
+	 */
+	private boolean substituteExactLongMethod(MethodInvocationElement invocationElement, String targetMethodName) {
+		String helper = Java2TypeScriptTranslator.EXACT_LONG_HELPER;
+		switch (targetMethodName) {
+		case "intValue":
+		case "shortValue":
+		case "byteValue":
+			printMacroName(targetMethodName);
+			print(helper + ".toInt(").print(invocationElement.getTargetExpression()).print(")");
+			return true;
+		case "floatValue":
+		case "doubleValue":
+			printMacroName(targetMethodName);
+			print(helper + ".toDouble(").print(invocationElement.getTargetExpression()).print(")");
+			return true;
+		case "compare":
+			printMacroName(targetMethodName);
+			print(helper + ".compare(").printArgList(invocationElement.getArguments()).print(")");
+			return true;
+		case "parseLong":
+			printMacroName(targetMethodName);
+			print(helper + ".parseExact(").printArgList(invocationElement.getArguments()).print(")");
+			return true;
+		case "valueOf":
+			if (invocationElement.getArgumentCount() > 0 && types()
+					.isSameType(util().getType(String.class), invocationElement.getArgument(0).getType())) {
+				printMacroName(targetMethodName);
+				print(helper + ".parseExact(").printArgList(invocationElement.getArguments()).print(")");
+				return true;
+			}
+			break;
+		case "max":
+		case "min":
+			printMacroName(targetMethodName);
+			print(helper + "." + targetMethodName + "(").printArgList(invocationElement.getArguments()).print(")");
+			return true;
+		case "sum":
+			printMacroName(targetMethodName);
+			print(helper + ".add(").printArgList(invocationElement.getArguments()).print(")");
+			return true;
+		}
+		return false;
+	}
+
+	private PrinterAdapter printClassTarget(ExtendedElement target) {
+		print("(<any>");
+		printTarget(target);
+		return print(")");
+	}
+
+	private PrinterAdapter printClassMetadataName(ExtendedElement target) {
+		printClassTarget(target);
+		return print("[\"" + Java2TypeScriptTranslator.CLASS_NAME_IN_CONSTRUCTOR + "\"]");
+	}
+
 	protected final void delegateToEmulLayer(String targetClassName, String targetMethodName,
 			InvocationElement invocation) {
 		print("javaemul.internal." + targetClassName.substring(10) + "Helper.").print(targetMethodName).print("(")
@@ -1326,6 +1471,9 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 		if (assignedType == null) {
 			return false;
 		}
+		if (getPrinter().printLongConversion(expression, assignedType)) {
+			return true;
+		}
 		if (assignedType.getTag() == TypeTag.CHAR && expression.type.getTag() != TypeTag.CHAR) {
 			getPrinter().print("String.fromCharCode(").print(expression).print(")");
 			return true;
@@ -1411,6 +1559,51 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 	public boolean substituteForEachLoop(ForeachLoopElement foreachLoop, boolean targetHasLength, String indexVarName) {
 		if (!targetHasLength) {
 			JCEnhancedForLoop loop = ((ForeachLoopElementSupport) foreachLoop).getTree();
+			if (isRandomAccessList(loop.expr.type)) {
+				// indexed loop, with no iterator allocation
+				String listVarName = "list" + Util.getId();
+				String sizeVarName = "size" + Util.getId();
+				getPrinter().print("for(" + VAR_DECL_KEYWORD + " " + indexVarName + "=0, " + listVarName + "=")
+						.print(loop.expr).print(", " + sizeVarName + "=" + listVarName + ".size(); " + indexVarName
+								+ " < " + sizeVarName + "; " + indexVarName + "++) {")
+						.println().startIndent().printIndent();
+				if (context.options.isForeachComodificationCheck()) {
+					getPrinter().print("if(" + listVarName + ".size() !== " + sizeVarName
+							+ ") throw new java.util.ConcurrentModificationException();").println().printIndent();
+				}
+				getPrinter().print(VAR_DECL_KEYWORD + " " + loop.var.name.toString() + " = ")
+						.print(listVarName + ".get(" + indexVarName + ");").println();
+				getPrinter().printIndent().print(loop.body);
+				endIndent().println().printIndent().print("}");
+				return true;
+			}
+			if (isList(loop.expr.type)) {
+				// the list may support random access at runtime: the iterator
+				// is only allocated when it does not
+				String listVarName = "list" + Util.getId();
+				String iteratorVarName = "iterator" + Util.getId();
+				String sizeVarName = "size" + Util.getId();
+				getPrinter().print("for(" + VAR_DECL_KEYWORD + " " + indexVarName + "=0, " + listVarName + "=")
+						.print(loop.expr).print(", " + iteratorVarName + "=");
+				getPrinter().printInstanceOf(listVarName,
+						JavacElements.instance(context).getTypeElement(RandomAccess.class.getName()).type);
+				getPrinter()
+						.print(" ? null : " + listVarName + ".iterator(), " + sizeVarName + "=" + iteratorVarName
+								+ " ? 0 : " + listVarName + ".size(); " + iteratorVarName + " ? " + iteratorVarName
+								+ ".hasNext() : " + indexVarName + " < " + sizeVarName + "; " + indexVarName + "++) {")
+						.println().startIndent().printIndent();
+				if (context.options.isForeachComodificationCheck()) {
+					getPrinter().print("if(!" + iteratorVarName + " && " + listVarName + ".size() !== " + sizeVarName
+							+ ") throw new java.util.ConcurrentModificationException();").println().printIndent();
+				}
+				getPrinter().print(VAR_DECL_KEYWORD + " " + loop.var.name.toString() + " = ")
+						.print(iteratorVarName + " ? " + iteratorVarName + ".next() : " + listVarName + ".get("
+								+ indexVarName + ");")
+						.println();
+				getPrinter().printIndent().print(loop.body);
+				endIndent().println().printIndent().print("}");
+				return true;
+			}
 			getPrinter().print("for(" + VAR_DECL_KEYWORD + " " + indexVarName + "=").print(loop.expr)
 					.print(".iterator();" + indexVarName + ".hasNext();) {").println().startIndent().printIndent();
 			getPrinter().print(VAR_DECL_KEYWORD + " " + loop.var.name.toString() + " = ")
@@ -1422,6 +1615,26 @@ public class Java2TypeScriptAdapter extends PrinterAdapter {
 		return super.substituteForEachLoop(foreachLoop, targetHasLength, indexVarName);
 	}
 
+	/**
+	 * Tells if the given type is a list that supports fast random access
+	 * (such as <code>ArrayList</code> or <code>Vector</code>), so that it can
+	 * be iterated with an index.
+	 */
+	protected boolean isRandomAccessList(Type type) {
+		return isList(type) && Util.hasParent((ClassSymbol) context.types.erasure(type).tsym,
+				RandomAccess.class.getName());
+	}
+
+	/**
+	 * Tells if the given type is a list, which may support fast random access
+	 * at runtime.
+	 */
+	protected boolean isList(Type type) {
+		Type erasure = context.types.erasure(type);
+		return erasure.tsym instanceof ClassSymbol
+				&& Util.hasParent((ClassSymbol) erasure.tsym, List.class.getName());
+	}
+
 	protected final Pattern paramPattern = Pattern.compile("(\\s*@param\\s+)(\\w+)(.*)");
 	protected final Pattern returnPattern = Pattern.compile("(\\s*@return\\s+)(.*)");
 	protected final Pattern linkPattern = Pattern.compile("(\\{@link\\s+)([\\w\\.#,]+)\\s+[^}]*(\\})");
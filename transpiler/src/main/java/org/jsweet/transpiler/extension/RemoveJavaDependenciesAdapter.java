@@ -42,10 +42,13 @@ import java.util.TreeSet;
 import java.util.Vector;
 import java.util.WeakHashMap;
 
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeMirror;
 
+import org.jsweet.transpiler.EcmaScriptComplianceLevel;
 import org.jsweet.transpiler.JSweetContext;
 import org.jsweet.transpiler.Java2TypeScriptTranslator;
 import org.jsweet.transpiler.model.ExtendedElement;
@@ -59,9 +62,23 @@ import org.jsweet.transpiler.model.NewClassElement;
 import org.jsweet.transpiler.model.VariableAccessElement;
 import org.jsweet.transpiler.util.Util;
 
+import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCAssignOp;
+import com.sun.tools.javac.tree.JCTree.JCBinary;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCExpressionStatement;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
+import com.sun.tools.javac.tree.JCTree.JCLambda;
 import com.sun.tools.javac.tree.JCTree.JCLiteral;
+import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
+import com.sun.tools.javac.tree.JCTree.JCNewClass;
 import com.sun.tools.javac.tree.JCTree.JCTypeApply;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.JCTree.Tag;
+import com.sun.tools.javac.tree.TreeScanner;
 
 /**
  * An adapter that removes many uses of Java APIs and replace them with
@@ -71,8 +88,19 @@ import com.sun.tools.javac.tree.JCTree.JCTypeApply;
  */
 public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 
+	/**
+	 * The type of the objects that implement the string builders that are not
+	 * compiled to local strings. When not null, the <code>chars</code> array
+	 * holds the actual content of the builder (positional edits are performed
+	 * on it in constant time), and it is joined back to <code>str</code> when
+	 * the builder is read as a string.
+	 */
+	protected static final String STRING_BUILDER_TYPE = "{ str: string, chars: string[] }";
+
 	protected Map<String, String> extTypesMapping = new HashMap<>();
 
+	private Map<Symbol, Boolean> localStringBuilders = new HashMap<>();
+
 	public RemoveJavaDependenciesAdapter(JSweetContext context) {
 		super(context);
 		init();
@@ -104,13 +132,26 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		extTypesMapping.put(RuntimeException.class.getName(), "Error");
 		extTypesMapping.put(Throwable.class.getName(), "Error");
 		extTypesMapping.put(Error.class.getName(), "Error");
-		extTypesMapping.put(StringBuffer.class.getName(), "{ str: string }");
-		extTypesMapping.put(StringBuilder.class.getName(), "{ str: string }");
 		extTypesMapping.put(Collator.class.getName(), "any");
 		extTypesMapping.put(Calendar.class.getName(), "Date");
 		extTypesMapping.put(GregorianCalendar.class.getName(), "Date");
 		extTypesMapping.put(TimeZone.class.getName(), "string");
+		if (isUsingNativeMapsAndSets()) {
+			extTypesMapping.put(Collection.class.getName(), "any");
+			extTypesMapping.put(Set.class.getName(), "Set");
+			extTypesMapping.put(HashSet.class.getName(), "Set");
+			extTypesMapping.put(TreeSet.class.getName(), "Set");
+			extTypesMapping.put(Map.class.getName(), "Map");
+			extTypesMapping.put(HashMap.class.getName(), "Map");
+			extTypesMapping.put(WeakHashMap.class.getName(), "Map");
+			extTypesMapping.put(LinkedHashMap.class.getName(), "Map");
+			extTypesMapping.put(Hashtable.class.getName(), "Map");
+			extTypesMapping.put(Map.Entry.class.getCanonicalName(), "any");
+		}
 		addTypeMappings(extTypesMapping);
+		addTypeMapping((typeTree,
+				name) -> StringBuilder.class.getName().equals(name) || StringBuffer.class.getName().equals(name)
+						? (isLocalStringBuilderDeclaration(typeTree) ? "string" : STRING_BUILDER_TYPE) : null);
 		addTypeMapping(
 				(typeTree,
 						name) -> name.startsWith("java.")
@@ -129,6 +170,16 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 								? ((JCTypeApply) ExtendedElementFactory.toTree(typeTree)).arguments.head : null);
 	}
 
+	/**
+	 * Tells if the Java sets and maps are mapped to the native JavaScript
+	 * <code>Set</code> and <code>Map</code> objects, which is the case when
+	 * targeting ES6 or higher. Otherwise, sets are mapped to arrays and maps to
+	 * plain objects.
+	 */
+	protected boolean isUsingNativeMapsAndSets() {
+		return context.options.getEcmaTargetVersion().higherThan(EcmaScriptComplianceLevel.ES5);
+	}
+
 	@Override
 	public String needsImport(ImportElement importElement, String qualifiedName) {
 		if (isJDKPath(qualifiedName)) {
@@ -148,6 +199,10 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		}
 
 		if (targetClassName != null && targetExpression != null) {
+			if (isUsingNativeMapsAndSets()
+					&& substituteNativeCollectionInvocation(invocation, targetClassName, targetMethodName)) {
+				return true;
+			}
 			switch (targetClassName) {
 
 			case "java.lang.Float":
@@ -494,27 +549,99 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 				break;
 			case "java.lang.StringBuffer":
 			case "java.lang.StringBuilder":
+				ExtendedElement localStringBuilder = getLocalStringBuilder(invocation.getTargetExpression());
+				if (localStringBuilder != null) {
+					switch (targetMethodName) {
+					case "append":
+						printMacroName(targetMethodName);
+						if (invocation.getTargetExpression() != localStringBuilder) {
+							print(invocation.getTargetExpression()).print(", ");
+						}
+						print(localStringBuilder).print(" += ").print(invocation.getArgument(0));
+						return true;
+					case "setLength":
+						printMacroName(targetMethodName);
+						print(localStringBuilder).print(" = ").print(localStringBuilder).print(".substring(0, ")
+								.print(invocation.getArgument(0)).print(")");
+						return true;
+					case "length":
+						printMacroName(targetMethodName);
+						print(localStringBuilder).print(".length");
+						return true;
+					case "charAt":
+						printMacroName(targetMethodName);
+						print(localStringBuilder).print(".charAt(").print(invocation.getArgument(0)).print(")");
+						return true;
+					case "toString":
+						printMacroName(targetMethodName);
+						print(localStringBuilder);
+						return true;
+					}
+					break;
+				}
 				switch (targetMethodName) {
 				case "append":
 					printMacroName(targetMethodName);
 					if (invocation.getArgumentCount() == 1) {
-						print("(sb => sb.str = sb.str.concat(<any>").printArgList(invocation.getArguments())
-								.print("))(").print(invocation.getTargetExpression()).print(")");
+						print("((sb, s) => { if(sb.chars) { s = String(s); for(let i = 0; i < s.length; i++) sb.chars.push(s.charAt(i)); } else sb.str = sb.str.concat(s); return sb; })(")
+								.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+								.print(")");
 					} else {
-						print("(sb => sb.str = sb.str.concat((<any>").print(invocation.getArgument(0))
-								.print(").substr(").printArgList(invocation.getArgumentTail()).print(")))(")
-								.print(invocation.getTargetExpression()).print(")");
+						print("((sb, s) => { sb.str = sb.toString().concat(s); return sb; })(")
+								.print(invocation.getTargetExpression()).print(", (<any>")
+								.print(invocation.getArgument(0)).print(").substr(")
+								.printArgList(invocation.getArgumentTail()).print("))");
 					}
 					return true;
+				case "insert":
+					printMacroName(targetMethodName);
+					print("((sb, index, s) => { let str = sb.toString(); sb.str = str.substring(0, index) + s + str.substring(index); return sb; })(")
+							.print(invocation.getTargetExpression()).print(", ").printArgList(invocation.getArguments())
+							.print(")");
+					return true;
+				case "setCharAt":
+					printMacroName(targetMethodName);
+					print("((sb, index, c) => { (sb.chars || (sb.chars = sb.str.split('')))[index] = c; })(")
+							.print(invocation.getTargetExpression()).print(", ").printArgList(invocation.getArguments())
+							.print(")");
+					return true;
+				case "deleteCharAt":
+					printMacroName(targetMethodName);
+					print("((sb, index) => { (sb.chars || (sb.chars = sb.str.split(''))).splice(index, 1); return sb; })(")
+							.print(invocation.getTargetExpression()).print(", ").printArgList(invocation.getArguments())
+							.print(")");
+					return true;
+				case "delete":
+					printMacroName(targetMethodName);
+					print("((sb, start, end) => { (sb.chars || (sb.chars = sb.str.split(''))).splice(start, end - start); return sb; })(")
+							.print(invocation.getTargetExpression()).print(", ").printArgList(invocation.getArguments())
+							.print(")");
+					return true;
+				case "reverse":
+					printMacroName(targetMethodName);
+					print("(sb => { (sb.chars || (sb.chars = sb.str.split(''))).reverse(); return sb; })(")
+							.print(invocation.getTargetExpression()).print(")");
+					return true;
+				case "charAt":
+					printMacroName(targetMethodName);
+					print("((sb, index) => sb.chars ? sb.chars[index] : sb.str.charAt(index))(")
+							.print(invocation.getTargetExpression()).print(", ").printArgList(invocation.getArguments())
+							.print(")");
+					return true;
+				case "length":
+					printMacroName(targetMethodName);
+					print("(sb => sb.chars ? sb.chars.length : sb.str.length)(").print(invocation.getTargetExpression())
+							.print(")");
+					return true;
 				case "setLength":
 					printMacroName(targetMethodName);
-					print("((sb, length) => sb.str = sb.str.substring(0, length))(")
+					print("((sb, length) => { if(sb.chars) sb.chars.length = length; else sb.str = sb.str.substring(0, length); })(")
 							.print(invocation.getTargetExpression()).print(", ").printArgList(invocation.getArguments())
 							.print(")");
 					return true;
 				case "toString":
 					printMacroName(targetMethodName);
-					print(invocation.getTargetExpression()).print(".str");
+					print(invocation.getTargetExpression()).print(".toString()");
 					return true;
 				}
 				break;
@@ -689,6 +816,429 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 		return super.substituteMethodInvocation(invocation);
 	}
 
+	/**
+	 * Substitutes the invocations on Java sets and maps when they are mapped to
+	 * the native JavaScript <code>Set</code> and <code>Map</code> objects.
+	 * 
+	 * @return true if substituted
+	 * @see #isUsingNativeMapsAndSets()
+	 */
+	protected boolean substituteNativeCollectionInvocation(MethodInvocationElement invocation, String targetClassName,
+			String targetMethodName) {
+		switch (targetClassName) {
+		case "java.util.HashSet":
+		case "java.util.TreeSet":
+			switch (targetMethodName) {
+			case "add":
+				printMacroName(targetMethodName);
+				if (getParent() instanceof JCExpressionStatement) {
+					print(invocation.getTargetExpression()).print(".add(").print(invocation.getArgument(0)).print(")");
+				} else {
+					print("((s, e) => { if(s.has(e)) return false; s.add(e); return true; })(")
+							.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+							.print(")");
+				}
+				return true;
+			case "addAll":
+				printMacroName(targetMethodName);
+				print("((s, l) => { let r = false; for(let e of l) if(!s.has(e)) { s.add(e); r = true; } return r; })(")
+						.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+						.print(")");
+				return true;
+			case "remove":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".delete(").print(invocation.getArgument(0)).print(")");
+				return true;
+			case "contains":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".has(").print(invocation.getArgument(0)).print(")");
+				return true;
+			case "size":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".size");
+				return true;
+			case "clear":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".clear()");
+				return true;
+			case "isEmpty":
+				printMacroName(targetMethodName);
+				print("(").print(invocation.getTargetExpression()).print(".size == 0)");
+				return true;
+			case "toArray":
+				printMacroName(targetMethodName);
+				print("Array.from(").print(invocation.getTargetExpression()).print(")");
+				return true;
+			case "iterator":
+				printMacroName(targetMethodName);
+				printNativeIterator(invocation.getTargetExpression(), ".values()");
+				return true;
+			}
+			break;
+		case "java.util.Set":
+			// a set may be the array returned by keySet() or entrySet()
+		case "java.util.Collection":
+			switch (targetMethodName) {
+			case "add":
+				printMacroName(targetMethodName);
+				print("((c, e) => { if(c instanceof Array) { c.push(e); return true; } if(c.has(e)) return false; c.add(e); return true; })(")
+						.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+						.print(")");
+				return true;
+			case "addAll":
+				printMacroName(targetMethodName);
+				print("((c, l) => { let r = false; for(let e of l) { if(c instanceof Array) { c.push(e); r = true; } else if(!c.has(e)) { c.add(e); r = true; } } return r; })(")
+						.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+						.print(")");
+				return true;
+			case "remove":
+				printMacroName(targetMethodName);
+				print("((c, e) => { if(c instanceof Array) { let i = c.indexOf(e); if(i < 0) return false; c.splice(i, 1); return true; } return c.delete(e); })(")
+						.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+						.print(")");
+				return true;
+			case "contains":
+				printMacroName(targetMethodName);
+				print("((c, e) => c instanceof Array ? c.indexOf(e) >= 0 : c.has(e))(")
+						.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+						.print(")");
+				return true;
+			case "size":
+				printMacroName(targetMethodName);
+				print("(c => c instanceof Array ? c.length : c.size)(").print(invocation.getTargetExpression())
+						.print(")");
+				return true;
+			case "clear":
+				printMacroName(targetMethodName);
+				print("(c => { if(c instanceof Array) c.length = 0; else c.clear(); })(")
+						.print(invocation.getTargetExpression()).print(")");
+				return true;
+			case "isEmpty":
+				printMacroName(targetMethodName);
+				print("(c => (c instanceof Array ? c.length : c.size) == 0)(").print(invocation.getTargetExpression())
+						.print(")");
+				return true;
+			case "toArray":
+				printMacroName(targetMethodName);
+				print("Array.from(").print(invocation.getTargetExpression()).print(")");
+				return true;
+			case "iterator":
+				printMacroName(targetMethodName);
+				printNativeIterator(invocation.getTargetExpression(), "[Symbol.iterator]()");
+				return true;
+			}
+			break;
+		case "java.util.List":
+		case "java.util.ArrayList":
+		case "java.util.Stack":
+		case "java.util.Vector":
+			switch (targetMethodName) {
+			case "addAll":
+				if (invocation.getArgumentCount() == 1 && !isMappedToArray(invocation.getArgument(0).getType())) {
+					printMacroName(targetMethodName);
+					print("((l1, l2) => { for(let e of l2) l1.push(e); return true; })(")
+							.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+							.print(")");
+					return true;
+				}
+				break;
+			}
+			break;
+		case "java.util.Map":
+		case "java.util.HashMap":
+		case "java.util.Hashtable":
+		case "java.util.WeakHashMap":
+		case "java.util.LinkedHashMap":
+			switch (targetMethodName) {
+			case "put":
+				printMacroName(targetMethodName);
+				if (getParent() instanceof JCExpressionStatement) {
+					print(invocation.getTargetExpression()).print(".set(").printArgList(invocation.getArguments())
+							.print(")");
+				} else {
+					print("((m, k, v) => { let p = m.get(k); m.set(k, v); return p === undefined ? null : p; })(")
+							.print(invocation.getTargetExpression()).print(", ")
+							.printArgList(invocation.getArguments()).print(")");
+				}
+				return true;
+			case "get":
+				printMacroName(targetMethodName);
+				print("(v => v === undefined ? null : v)(").print(invocation.getTargetExpression()).print(".get(")
+						.print(invocation.getArgument(0)).print("))");
+				return true;
+			case "containsKey":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".has(").print(invocation.getArgument(0)).print(")");
+				return true;
+			case "keySet":
+				printMacroName(targetMethodName);
+				print("Array.from(").print(invocation.getTargetExpression()).print(".keys())");
+				return true;
+			case "values":
+				printMacroName(targetMethodName);
+				print("Array.from(").print(invocation.getTargetExpression()).print(".values())");
+				return true;
+			case "entrySet":
+				printMacroName(targetMethodName);
+				print("Array.from(").print(invocation.getTargetExpression()).print(".entries())");
+				return true;
+			case "size":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".size");
+				return true;
+			case "isEmpty":
+				printMacroName(targetMethodName);
+				print("(").print(invocation.getTargetExpression()).print(".size == 0)");
+				return true;
+			case "remove":
+				printMacroName(targetMethodName);
+				if (getParent() instanceof JCExpressionStatement) {
+					print(invocation.getTargetExpression()).print(".delete(").print(invocation.getArgument(0))
+							.print(")");
+				} else {
+					print("((m, k) => { let p = m.get(k); m.delete(k); return p === undefined ? null : p; })(")
+							.print(invocation.getTargetExpression()).print(", ").print(invocation.getArgument(0))
+							.print(")");
+				}
+				return true;
+			case "clear":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print(".clear()");
+				return true;
+			}
+			break;
+		case "java.util.Map.Entry":
+			switch (targetMethodName) {
+			case "getKey":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print("[0]");
+				return true;
+			case "getValue":
+				printMacroName(targetMethodName);
+				print(invocation.getTargetExpression()).print("[1]");
+				return true;
+			}
+			break;
+		case "java.util.Collections":
+			switch (targetMethodName) {
+			case "emptySet":
+				printMacroName(targetMethodName);
+				print("new Set()");
+				return true;
+			case "emptyMap":
+				printMacroName(targetMethodName);
+				print("new Map()");
+				return true;
+			case "unmodifiableSet":
+			case "unmodifiableSortedSet":
+				printMacroName(targetMethodName);
+				print("new Set(").print(invocation.getArgument(0)).print(")");
+				return true;
+			case "unmodifiableCollection":
+				printMacroName(targetMethodName);
+				print("Array.from(").print(invocation.getArgument(0)).print(")");
+				return true;
+			case "singleton":
+				printMacroName(targetMethodName);
+				print("new Set([").print(invocation.getArgument(0)).print("])");
+				return true;
+			case "singletonMap":
+				printMacroName(targetMethodName);
+				print("new Map([[").print(invocation.getArgument(0)).print(", ").print(invocation.getArgument(1))
+						.print("]])");
+				return true;
+			}
+			break;
+		}
+		return false;
+	}
+
+	/**
+	 * Prints a Java-like iterator (<code>hasNext</code>/<code>next</code>) that
+	 * wraps the native iterator of the given collection.
+	 */
+	private void printNativeIterator(ExtendedElement collection, String iteratorAccess) {
+		print("(it => { let n = it.next(); return { next: function() { let v = n.value; n = it.next(); return v; }, hasNext: function() { return !n.done; }}})(")
+				.print(collection).print(iteratorAccess).print(")");
+	}
+
+	/**
+	 * Tells if the given type is a Java array or a collection that is mapped to
+	 * a JavaScript array.
+	 */
+	protected boolean isMappedToArray(TypeMirror type) {
+		return type instanceof ArrayType || "Array".equals(extTypesMapping.get(types().erasure(type).toString()));
+	}
+
+	/**
+	 * Tells if the given type is a collection that is mapped to a native
+	 * JavaScript <code>Set</code> or <code>Map</code>, or that may hold one at
+	 * runtime.
+	 */
+	protected boolean isMappedToNativeCollection(TypeMirror type) {
+		String typeName = types().erasure(type).toString();
+		String mappedType = extTypesMapping.get(typeName);
+		return "Set".equals(mappedType) || "Map".equals(mappedType) || Collection.class.getName().equals(typeName);
+	}
+
+	/**
+	 * Tells if the given type tree is the declared type of a string builder
+	 * local variable that is compiled to a local string.
+	 * 
+	 * @see #checkLocalStringBuilder(JCVariableDecl)
+	 */
+	private boolean isLocalStringBuilderDeclaration(ExtendedElement typeTree) {
+		if (getPrinter() == null || getPrinter().getStack().isEmpty()) {
+			return false;
+		}
+		JCTree current = getPrinter().getStack().peek();
+		return current instanceof JCVariableDecl
+				&& ((JCVariableDecl) current).vartype == ExtendedElementFactory.toTree(typeTree)
+				&& checkLocalStringBuilder((JCVariableDecl) current);
+	}
+
+	/**
+	 * Checks if the given string builder variable can be compiled to a local
+	 * string. It is the case for a local variable initialized with a new
+	 * builder, and that is only used for appending (in statements), for
+	 * setting its length (in statements), for reading its length or its
+	 * characters, and for being converted to a string. The result is computed
+	 * when the declaration is printed, and then remains the same for all the
+	 * uses of the variable.
+	 */
+	protected boolean checkLocalStringBuilder(JCVariableDecl variableDecl) {
+		Boolean local = localStringBuilders.get(variableDecl.sym);
+		if (local == null) {
+			local = variableDecl.sym.getKind() == ElementKind.LOCAL_VARIABLE && variableDecl.init instanceof JCNewClass;
+			if (local) {
+				JCClassDecl scope = getParent(JCClassDecl.class);
+				local = scope != null && new LocalStringBuilderChecker(variableDecl.sym).isLocalString(scope);
+			}
+			localStringBuilders.put(variableDecl.sym, local);
+		}
+		return local;
+	}
+
+	/**
+	 * Returns the variable holding the local string that implements the given
+	 * string builder expression (a local string builder variable, or a chain
+	 * of appends on such a variable), or null if the builder is not compiled
+	 * to a local string.
+	 */
+	protected ExtendedElement getLocalStringBuilder(ExtendedElement builder) {
+		if (builder instanceof MethodInvocationElement
+				&& "append".equals(((MethodInvocationElement) builder).getMethodName())) {
+			return getLocalStringBuilder(((MethodInvocationElement) builder).getTargetExpression());
+		}
+		JCTree tree = ExtendedElementFactory.toTree(builder);
+		if (tree instanceof JCIdent && Boolean.TRUE.equals(localStringBuilders.get(((JCIdent) tree).sym))) {
+			return builder;
+		}
+		return null;
+	}
+
+	/**
+	 * Scans a class to find out if all the uses of a string builder variable
+	 * allow for compiling it to a local string.
+	 */
+	private static class LocalStringBuilderChecker extends TreeScanner {
+
+		private Symbol variable;
+
+		private Stack<JCTree> stack = new Stack<>();
+
+		private boolean localString = true;
+
+		private int declarationDepth = -1;
+
+		public LocalStringBuilderChecker(Symbol variable) {
+			this.variable = variable;
+		}
+
+		public boolean isLocalString(JCTree scope) {
+			scan(scope);
+			return localString;
+		}
+
+		@Override
+		public void scan(JCTree tree) {
+			if (tree == null || !localString) {
+				return;
+			}
+			stack.push(tree);
+			try {
+				super.scan(tree);
+			} finally {
+				stack.pop();
+			}
+		}
+
+		@Override
+		public void visitVarDef(JCVariableDecl variableDecl) {
+			if (variableDecl.sym == variable) {
+				declarationDepth = stack.size() - 1;
+			}
+			super.visitVarDef(variableDecl);
+		}
+
+		@Override
+		public void visitIdent(JCIdent ident) {
+			if (ident.sym == variable && (isCaptured() || !isAllowedUse(stack.size() - 1))) {
+				localString = false;
+			}
+		}
+
+		/**
+		 * Tells if the current use is in a class or a lambda declared within
+		 * the scope of the variable, which would capture a copy of the string.
+		 */
+		private boolean isCaptured() {
+			for (int i = Math.max(declarationDepth, 0); i < stack.size(); i++) {
+				if (stack.get(i) instanceof JCClassDecl || stack.get(i) instanceof JCLambda) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isAllowedUse(int index) {
+			JCTree parent = stack.get(index - 1);
+			if (parent instanceof JCBinary && parent.getTag() == Tag.PLUS) {
+				return true;
+			}
+			if (parent instanceof JCAssignOp && parent.getTag() == Tag.PLUS_ASG
+					&& ((JCAssignOp) parent).rhs == stack.get(index)) {
+				return true;
+			}
+			if (!(parent instanceof JCFieldAccess) || !(stack.get(index - 2) instanceof JCMethodInvocation)
+					|| ((JCMethodInvocation) stack.get(index - 2)).meth != parent) {
+				return false;
+			}
+			JCMethodInvocation invocation = (JCMethodInvocation) stack.get(index - 2);
+			switch (((JCFieldAccess) parent).name.toString()) {
+			case "toString":
+			case "length":
+			case "charAt":
+				return true;
+			case "setLength":
+				return stack.get(index - 3) instanceof JCExpressionStatement;
+			case "append":
+				// appends can be chained, but the result must be discarded
+				int i = index - 2;
+				while (invocation.args.size() == 1 && stack.get(i - 1) instanceof JCFieldAccess
+						&& "append".equals(((JCFieldAccess) stack.get(i - 1)).name.toString())
+						&& stack.get(i - 2) instanceof JCMethodInvocation) {
+					i -= 2;
+					invocation = (JCMethodInvocation) stack.get(i);
+				}
+				return invocation.args.size() == 1 && stack.get(i - 1) instanceof JCExpressionStatement;
+			default:
+				return false;
+			}
+		}
+
+	}
+
 	@Override
 	public boolean substituteVariableAccess(VariableAccessElement variableAccess) {
 		String targetClassName = variableAccess.getTargetElement().toString();
@@ -734,25 +1284,60 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 				if (Util.isNumber(newClass.getArgument(0).getType())
 						|| (newClass.getArgument(0) instanceof LiteralElement)) {
 					print("[]");
+				} else if (isUsingNativeMapsAndSets() && !isMappedToArray(newClass.getArgument(0).getType())) {
+					print("Array.from(").print(newClass.getArgument(0)).print(")");
 				} else {
 					print(newClass.getArgument(0)).print(".slice(0)");
 				}
 			}
 			return true;
+		case "java.util.HashSet":
+		case "java.util.TreeSet":
+			if (!isUsingNativeMapsAndSets()) {
+				break;
+			}
+			if (newClass.getArgumentCount() == 1 && (isMappedToArray(newClass.getArgument(0).getType())
+					|| isMappedToNativeCollection(newClass.getArgument(0).getType()))) {
+				print("new Set(").print(newClass.getArgument(0)).print(")");
+			} else {
+				print("new Set()");
+			}
+			return true;
 		case "java.util.HashMap":
 		case "java.util.Hashtable":
 		case "java.util.WeakHashMap":
 		case "java.util.LinkedHashMap":
+			if (isUsingNativeMapsAndSets()) {
+				if (newClass.getArgumentCount() == 1 && isMappedToNativeCollection(newClass.getArgument(0).getType())) {
+					print("new Map(").print(newClass.getArgument(0)).print(")");
+				} else {
+					print("new Map()");
+				}
+				return true;
+			}
 			print("{}");
 			return true;
 		case "java.lang.StringBuffer":
 		case "java.lang.StringBuilder":
-			if (newClass.getArgumentCount() == 0 || Util.isNumber(newClass.getArgument(0).getType())) {
-				print("{ str: \"\", toString: function() { return this.str; } }");
+			boolean initialContent = newClass.getArgumentCount() > 0
+					&& !Util.isNumber(newClass.getArgument(0).getType());
+			if (getParent() instanceof JCVariableDecl
+					&& ((JCVariableDecl) getParent()).init == ExtendedElementFactory.toTree(newClass)
+					&& checkLocalStringBuilder((JCVariableDecl) getParent())) {
+				if (initialContent) {
+					print("String(").print(newClass.getArgument(0)).print(")");
+				} else {
+					print("\"\"");
+				}
+				return true;
+			}
+			print("{ str: ");
+			if (initialContent) {
+				print("String(").print(newClass.getArgument(0)).print(")");
 			} else {
-				print("{ str: ").print(newClass.getArgument(0))
-						.print(", toString: function() { return this.str; } } }");
+				print("\"\"");
 			}
+			print(", chars: null, toString: function() { if(this.chars) { this.str = this.chars.join(''); this.chars = null; } return this.str; } }");
 			return true;
 		case "java.lang.ref.WeakReference":
 			print(newClass.getArgument(0));
@@ -798,7 +1383,42 @@ public class RemoveJavaDependenciesAdapter extends Java2TypeScriptAdapter {
 
 	@Override
 	public boolean substituteForEachLoop(ForeachLoopElement foreachLoop, boolean targetHasLength, String indexVarName) {
-		return false;
+		if (!isUsingNativeMapsAndSets() || targetHasLength) {
+			return false;
+		}
+		ExtendedElement iterable = foreachLoop.getIterableExpression();
+		String mapIteratorAccess = null;
+		if (iterable instanceof MethodInvocationElement) {
+			MethodInvocationElement invocation = (MethodInvocationElement) iterable;
+			if (invocation.getArgumentCount() == 0 && invocation.getTargetExpression() != null && "Map".equals(
+					extTypesMapping.get(types().erasure(invocation.getTargetExpression().getType()).toString()))) {
+				switch (invocation.getMethodName()) {
+				case "keySet":
+					mapIteratorAccess = ".keys()";
+					break;
+				case "values":
+					mapIteratorAccess = ".values()";
+					break;
+				case "entrySet":
+					mapIteratorAccess = ".entries()";
+					break;
+				}
+			}
+		}
+		if (mapIteratorAccess == null && !isMappedToNativeCollection(iterable.getType())) {
+			return false;
+		}
+		getPrinter().print("for(" + Java2TypeScriptTranslator.VAR_DECL_KEYWORD + " "
+				+ foreachLoop.getIterationVariable().getSimpleName() + " of ");
+		if (mapIteratorAccess != null) {
+			print(((MethodInvocationElement) iterable).getTargetExpression()).print(mapIteratorAccess);
+		} else {
+			print(iterable);
+		}
+		getPrinter().print(") {").println().startIndent().printIndent();
+		print(foreachLoop.getBody());
+		endIndent().println().printIndent().print("}");
+		return true;
 	}
 
 	@Override
@@ -24,7 +24,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -263,6 +265,62 @@ public class Util {
 		}.scan(tree);
 	}
 
+	/**
+	 * Fills the given map with the local variables of the given method that
+	 * are captured by the lambdas of the method. The variables captured by a
+	 * lambda nested in another lambda are attributed to the top-level lambda,
+	 * which holds them for the nested lambdas. The method body is scanned once,
+	 * so that this table can be built once per method rather than once per
+	 * lambda.
+	 * 
+	 * <p>
+	 * The lambdas found in the initializers of the local and anonymous classes
+	 * of the method are part of the table, but not the ones found in the
+	 * methods of these classes (which have their own table).
+	 */
+	public static void fillAllCapturedVariables(final Map<JCLambda, Collection<VarSymbol>> capturedVars,
+			final JCMethodDecl method) {
+		new TreeScanner() {
+			Set<VarSymbol> methodVars = new HashSet<>();
+			JCLambda topLevelLambda;
+			int lambdaDepth = 0;
+
+			@Override
+			public void visitMethodDef(JCMethodDecl methodDecl) {
+				if (methodDecl == method || lambdaDepth > 0) {
+					super.visitMethodDef(methodDecl);
+				}
+			}
+
+			@Override
+			public void visitVarDef(JCVariableDecl varDecl) {
+				if (lambdaDepth == 0) {
+					methodVars.add(varDecl.sym);
+				}
+				super.visitVarDef(varDecl);
+			}
+
+			@Override
+			public void visitLambda(JCLambda lambda) {
+				if (lambdaDepth == 0) {
+					topLevelLambda = lambda;
+					capturedVars.put(lambda, new LinkedHashSet<>());
+				}
+				lambdaDepth++;
+				super.visitLambda(lambda);
+				lambdaDepth--;
+			}
+
+			@Override
+			public void visitIdent(JCIdent ident) {
+				if (lambdaDepth > 0 && ident.sym.getKind() == ElementKind.LOCAL_VARIABLE
+						&& methodVars.contains(ident.sym)) {
+					capturedVars.get(topLevelLambda).add((VarSymbol) ident.sym);
+				}
+			}
+		}.scan(method);
+	}
+
 	/**
 	 * Finds the method declaration within the given type, for the given
 	 * invocation.
@@ -1008,6 +1066,18 @@ public class Util {
 		return null;
 	}
 
+	/**
+	 * Gets the compile-time constant value of the given expression, as computed
+	 * by javac (null if not a constant expression). Note that the values of
+	 * boolean and char constants are integers.
+	 */
+	public static Object getConstantValue(JCExpression expr) {
+		if (expr == null || expr.type == null) {
+			return null;
+		}
+		return expr.type.constValue();
+	}
+
 	/**
 	 * Tells if the given expression is a constant.
 	 */
@@ -92,10 +92,20 @@ public class AbstractTest {
 	protected static JSweetTranspiler transpiler;
 	protected static final String TMPOUT_DIR = "tempOut";
 
+	/**
+	 * The ECMAScript target used by default in the tests. It can be set with
+	 * the <code>jsweet.test.ecmaTargetVersion</code> system property, in order
+	 * to run the test suite against another target (default is ES5). The Maven
+	 * build runs the tests of the target-dependent features a second time with
+	 * ES6 (see the <code>es6-test</code> surefire execution).
+	 */
+	protected static final EcmaScriptComplianceLevel DEFAULT_ECMA_TARGET_VERSION = EcmaScriptComplianceLevel
+			.valueOf(System.getProperty("jsweet.test.ecmaTargetVersion", EcmaScriptComplianceLevel.ES5.name()));
+
 	protected static void createTranspiler(JSweetFactory factory) {
 		transpiler = new JSweetTranspiler(factory, new File(TMPOUT_DIR), null,
 				new File(JSweetTranspiler.TMP_WORKING_DIR_NAME + "/candies/js"), System.getProperty("java.class.path"));
-		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES5);
+		transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
 		transpiler.setEncoding("UTF-8");
 		// transpiler.setPreserveSourceLineNumbers(true);
 	}
@@ -22,6 +22,7 @@ import java.io.File;
 
 import org.jsweet.transpiler.ModuleKind;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -29,9 +30,11 @@ import source.api.AccessStaticMethod;
 import source.api.ArrayBuffers;
 import source.api.CastMethods;
 import source.api.ErasingJava;
+import source.api.ExactLongs;
 import source.api.ExpressionBuilderTest;
 import source.api.ExpressionBuilderTest2;
 import source.api.ForeachIteration;
+import source.api.ForeachOverLists;
 import source.api.J4TSInvocations;
 import source.api.JdkInvocations;
 import source.api.Numbers;
@@ -42,6 +45,13 @@ import source.api.WrongJdkInvocations;
 
 public class ApiTests extends AbstractTest {
 
+	/**
+	 * The j4ts bundle built from this repository (see the transpiler README),
+	 * which holds the exact long helpers that the released j4ts lacks.
+	 */
+	private static final File LOCAL_J4TS_BUNDLE = new File(
+			"../j4ts/src/main/resources/META-INF/resources/webjars/j4ts/0.4.0/bundle.js");
+
 	// J4TS messes up with forbidden invocations...
 	@Ignore
 	@Test
@@ -158,6 +168,62 @@ public class ApiTests extends AbstractTest {
 		} , getSourceFile(ArrayBuffers.class));
 	}
 
+	@Test
+	public void testExactLongs() {
+		Assume.assumeTrue("the j4ts bundle of this repository is not built", LOCAL_J4TS_BUNDLE.exists());
+		transpiler.addJsLibFiles(LOCAL_J4TS_BUNDLE);
+		transpiler.setExactLongs(true);
+		try {
+			eval(ModuleKind.none, (logHandler, r) -> {
+				logHandler.assertNoProblems();
+				Assert.assertEquals("9223372036854775807", r.get("max"));
+				Assert.assertEquals("-9223372036854775808", r.get("overflow"));
+				Assert.assertEquals("9007199254740993", r.get("increment"));
+				Assert.assertEquals("9223372030926249001", r.get("product"));
+				Assert.assertEquals("3002399751580331", r.get("division"));
+				Assert.assertEquals("994", r.get("remainder"));
+				Assert.assertTrue(r.get("compare"));
+				Assert.assertEquals(-2, (int) r.get("narrowing"));
+				Assert.assertEquals("58", r.get("small"));
+				Assert.assertEquals("s9223372036854775807", r.get("concatenation"));
+				Assert.assertEquals("9007199254740993,1", r.get("indexUpdate"));
+				Assert.assertEquals("0,1,1", r.get("indexIncrement"));
+				Assert.assertEquals("3,9223372036854775806", r.get("fieldUpdates"));
+			} , getSourceFile(ExactLongs.class));
+		} finally {
+			transpiler.setExactLongs(false);
+			transpiler.clearJsLibFiles();
+		}
+	}
+
+	@Test
+	public void testForeachOverLists() {
+		transpiler.addJsLibFiles(new File(transpiler.getWorkingDirectory() + "/candies/js/j4ts-0.4.0/bundle.js"));
+		try {
+			eval(ModuleKind.none, (logHandler, r) -> {
+				logHandler.assertNoProblems();
+				Assert.assertEquals("abc", r.get("arrayList"));
+				Assert.assertEquals(3, (int) r.get("vector"));
+				Assert.assertEquals("abc", r.get("linkedList"));
+				Assert.assertEquals("abc", r.get("list"));
+				Assert.assertEquals(1, (int) r.get("iterations"));
+				Assert.assertTrue(r.get("concurrentModification"));
+				Assert.assertEquals(4, (int) r.get("size"));
+			} , getSourceFile(ForeachOverLists.class));
+			transpiler.setForeachComodificationCheck(false);
+			eval(ModuleKind.none, (logHandler, r) -> {
+				logHandler.assertNoProblems();
+				Assert.assertEquals("abc", r.get("arrayList"));
+				Assert.assertEquals(3, (int) r.get("iterations"));
+				Assert.assertFalse(r.get("concurrentModification"));
+				Assert.assertEquals(4, (int) r.get("size"));
+			} , getSourceFile(ForeachOverLists.class));
+		} finally {
+			transpiler.setForeachComodificationCheck(true);
+			transpiler.clearJsLibFiles();
+		}
+	}
+
 	@Test
 	public void testExpressionBuilder() {
 		transpiler.addJsLibFiles(new File(transpiler.getWorkingDirectory() + "/candies/js/j4ts-0.4.0/bundle.js"));
@@ -28,6 +28,7 @@ import org.junit.Test;
 import source.enums.ComplexEnumWithAbstractMethods;
 import source.enums.ComplexEnums;
 import source.enums.EnumInSamePackage;
+import source.enums.EnumOrdinals;
 import source.enums.Enums;
 import source.enums.ErasedEnum;
 import source.enums.other.EnumInOtherPackage;
@@ -104,6 +105,15 @@ public class EnumTests extends AbstractTest {
 		createTranspiler(new JSweetFactory());
 	}
 
+	@Test
+	public void testEnumOrdinals() {
+		eval((logHandler, r) -> {
+			assertEquals("There should be no errors", 0, logHandler.reportedProblems.size());
+			Assert.assertEquals("4,MERCURY:0:first,VENUS:1:inner,EARTH:2:inner,MARS:3:outer,MERCURY,2,3",
+					r.get("trace"));
+		}, getSourceFile(EnumOrdinals.class));
+	}
+
 	@Test
 	public void testErasedEnum() {
 		createTranspiler(new EraseEnumFactory());
@@ -2,6 +2,7 @@ package org.jsweet.test.transpiler;
 
 import static org.junit.Assert.assertEquals;
 
+import org.jsweet.transpiler.EcmaScriptComplianceLevel;
 import org.jsweet.transpiler.JSweetFactory;
 import org.jsweet.transpiler.extension.RemoveJavaDependenciesFactory;
 import org.junit.AfterClass;
@@ -14,7 +15,9 @@ import source.nativestructures.Dates;
 import source.nativestructures.Exceptions;
 import source.nativestructures.Maps;
 import source.nativestructures.NativeArrays;
+import source.nativestructures.NativeMapsAndSets;
 import source.nativestructures.NativeStringBuilder;
+import source.nativestructures.NativeStringBuilderEdits;
 import source.nativestructures.NativeSystem;
 import source.nativestructures.OverloadWithNative;
 import source.nativestructures.WeakReferences;
@@ -49,6 +52,14 @@ public class NativeStructuresTests extends AbstractTest {
 		}, getSourceFile(NativeStringBuilder.class));
 	}
 
+	@Test
+	public void testStringBuilderEdits() {
+		eval((logHandler, result) -> {
+			Assert.assertEquals("There should be no errors", 0, logHandler.reportedProblems.size());
+			assertEquals("abcde1,AbCde1,7,AxybCde1f,xybCde1f,f1edCbyx,1,--------,0-1-2,1,01x", result.get("trace"));
+		}, getSourceFile(NativeStringBuilderEdits.class));
+	}
+
 	@Test
 	public void testWeakReferences() {
 		eval((logHandler, result) -> {
@@ -77,8 +88,33 @@ public class NativeStructuresTests extends AbstractTest {
 	public void testMaps() {
 		eval((logHandler, result) -> {
 			Assert.assertEquals("There should be no errors", 0, logHandler.reportedProblems.size());
-			assertEquals("1,a,2,b,2,a,true,[1,2],[a,b],1,true,1,2,[],-null-", result.get("trace"));
+			assertEquals("1,a,2,b,2,a,true,[1,2],true,[a,b],1,true,1,2,[],-null-", result.get("trace"));
 		}, getSourceFile(Maps.class));
+		// native maps must stringify their keys and values as arrays
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES6);
+		try {
+			eval((logHandler, result) -> {
+				Assert.assertEquals("There should be no errors", 0, logHandler.reportedProblems.size());
+				assertEquals("1,a,2,b,2,a,true,[1,2],true,[a,b],1,true,1,2,[],-null-", result.get("trace"));
+			}, getSourceFile(Maps.class));
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
+	}
+
+	@Test
+	public void testNativeMapsAndSets() {
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES6);
+		try {
+			eval((logHandler, result) -> {
+				Assert.assertEquals("There should be no errors", 0, logHandler.reportedProblems.size());
+				assertEquals(
+						"false,2,true,false,ac,4,k1,one,string one,k2,true,k2bis,null,K11,k1;one;string one;,3,2,true",
+						result.get("trace"));
+			}, getSourceFile(NativeMapsAndSets.class));
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
 	}
 
 	@Test
@@ -16,10 +16,21 @@
  */
 package org.jsweet.test.transpiler;
 
+import static org.jsweet.transpiler.Java2TypeScriptTranslator.STATIC_INITIALIZATION_SUFFIX;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.io.FileUtils;
+import org.jsweet.transpiler.ModuleKind;
+import org.jsweet.transpiler.SourceFile;
 import org.junit.Test;
 
 import source.statics.AnonymousClasses;
 import source.statics.Classes;
+import source.statics.ConstantFolding;
+import source.statics.EagerStaticInitialization;
+import source.statics.EagerStaticInitializationCycles;
 import source.statics.InnerClasses;
 import source.statics.StaticsInInterfaces;
 import source.statics.StaticInitializer;
@@ -70,7 +81,134 @@ public class StaticsTests extends AbstractTest {
 			Assert.assertTrue(r.get("ok"));
 		} , getSourceFile(StaticInitializerWithNoFields.class));
 	}
+
+	@Test
+	public void testEagerStaticInitialization() {
+		eval((h, r) -> {
+			h.assertNoProblems();
+			Assert.assertEquals(6, (int) r.get("sum"));
+			Assert.assertEquals(13, (int) r.get("counter"));
+			Assert.assertEquals("eager_name", r.get("name"));
+			Assert.assertEquals(3, (int) r.get("count"));
+		} , getSourceFile(EagerStaticInitialization.class));
+		transpiler.setBundle(true);
+		transpiler.setEagerStaticInitialization(true);
+		try {
+			eval(ModuleKind.none, (h, r) -> {
+				h.assertNoProblems();
+				Assert.assertEquals(6, (int) r.get("sum"));
+				Assert.assertEquals(13, (int) r.get("counter"));
+				Assert.assertEquals("eager_name", r.get("name"));
+				Assert.assertEquals(3, (int) r.get("count"));
+			} , getSourceFile(EagerStaticInitialization.class));
+			SourceFile f = getSourceFile(EagerStaticInitialization.class);
+			transpile(ModuleKind.none, h -> {
+				h.assertNoProblems();
+				try {
+					String main = getMethodBody(FileUtils.readFileToString(f.getTsFile()), "static main(");
+					assertTrue(main.contains("counter"));
+					assertFalse(main.contains(STATIC_INITIALIZATION_SUFFIX));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			} , f);
+			transpiler.setEagerStaticInitialization(false);
+			transpile(ModuleKind.none, h -> {
+				h.assertNoProblems();
+				try {
+					String main = getMethodBody(FileUtils.readFileToString(f.getTsFile()), "static main(");
+					assertTrue(main.contains(STATIC_INITIALIZATION_SUFFIX));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			} , f);
+		} finally {
+			transpiler.setBundle(false);
+			transpiler.setEagerStaticInitialization(false);
+		}
+	}
+
+	@Test
+	public void testEagerStaticInitializationCycles() {
+		transpiler.setBundle(true);
+		transpiler.setEagerStaticInitialization(true);
+		try {
+			eval(ModuleKind.none, (h, r) -> {
+				h.assertNoProblems();
+				Assert.assertEquals(3, (int) r.get("size"));
+				Assert.assertEquals("SECOND", r.get("label1"));
+				Assert.assertEquals("FIRST", r.get("label2"));
+			} , getSourceFile(EagerStaticInitializationCycles.class));
+			SourceFile f = getSourceFile(EagerStaticInitializationCycles.class);
+			transpile(ModuleKind.none, h -> {
+				h.assertNoProblems();
+				try {
+					String code = FileUtils.readFileToString(f.getTsFile());
+					// acyclic dependencies are initialized first and accessed directly
+					assertFalse(getMethodBody(code, "static size(").contains(STATIC_INITIALIZATION_SUFFIX));
+					// classes in a cycle keep their accessors
+					assertTrue(getMethodBody(code, "static first(").contains(STATIC_INITIALIZATION_SUFFIX));
+					assertTrue(getMethodBody(code, "static second(").contains(STATIC_INITIALIZATION_SUFFIX));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			} , f);
+		} finally {
+			transpiler.setBundle(false);
+			transpiler.setEagerStaticInitialization(false);
+		}
+	}
+
+	private static String getMethodBody(String code, String signature) {
+		int start = code.indexOf('{', code.indexOf(signature));
+		int depth = 0;
+		for (int i = start; i < code.length(); i++) {
+			if (code.charAt(i) == '{') {
+				depth++;
+			} else if (code.charAt(i) == '}' && --depth == 0) {
+				return code.substring(start, i + 1);
+			}
+		}
+		return code.substring(start);
+	}
 	
+	@Test
+	public void testConstantFolding() {
+		eval((h, r) -> {
+			h.assertNoProblems();
+			Assert.assertEquals(16, (int) r.get("area"));
+			Assert.assertEquals("item-16", r.get("label"));
+			Assert.assertEquals(1, (int) r.get("third"));
+			Assert.assertEquals(0.25, ((Number) r.get("ratio")).doubleValue(), 0);
+			Assert.assertEquals(1L << 40, ((Number) r.get("big")).longValue());
+			Assert.assertEquals("::", r.get("separators"));
+			Assert.assertEquals(59, (int) r.get("code"));
+			Assert.assertTrue(r.get("isSeparator"));
+			Assert.assertEquals("release", r.get("mode"));
+			Assert.assertEquals(-16, (int) r.get("negative"));
+			Assert.assertEquals(4, (int) r.get("selected"));
+			Assert.assertEquals(1, (int) r.get("trace"));
+		} , getSourceFile(ConstantFolding.class));
+		SourceFile f = getSourceFile(ConstantFolding.class);
+		transpile(h -> {
+			h.assertNoProblems();
+			try {
+				String generatedCode = FileUtils.readFileToString(f.getTsFile());
+				assertFalse(generatedCode.contains("DEBUG"));
+				assertFalse(generatedCode.contains("SIZE"));
+				assertFalse(generatedCode.contains("-100"));
+				assertTrue(generatedCode.contains("static AREA : number = 16"));
+				assertTrue(generatedCode.contains("static PREFIX : string = \"item\""));
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail(e.getMessage());
+			}
+		}, f);
+	}
+
 	@Test
 	public void testStaticsInInterfaces() {
 		eval((h, r) -> {
@@ -47,6 +47,7 @@ import source.structural.InnerClassNotStatic;
 import source.structural.InnerClassUse;
 import source.structural.InstanceOf;
 import source.structural.InstanceofForInterfaces;
+import source.structural.InstanceofForInterfacesOnAnonymousClasses;
 import source.structural.InterfaceInheritance;
 import source.structural.JSNI;
 import source.structural.LocalClasses;
@@ -55,6 +56,7 @@ import source.structural.NameClashesWithMethodInvocations;
 import source.structural.NoNameClashesWithFields;
 import source.structural.NoWildcardsInImports;
 import source.structural.ObjectTypes;
+import source.structural.ObjectTypesWithSharedInterfaces;
 import source.structural.StaticMembersInInterfaces;
 import source.structural.TwoClassesInSameFile;
 import source.structural.ReplaceAnnotation;
@@ -202,6 +204,14 @@ public class StructuralTests extends AbstractTest {
 		}, getSourceFile(InstanceofForInterfaces.class));
 	}
 
+	@Test
+	public void testInstanceofForInterfacesOnAnonymousClasses() {
+		eval((logHandler, r) -> {
+			logHandler.assertNoProblems();
+			Assert.assertEquals("1,1,2,1,2,2", r.get("trace"));
+		}, getSourceFile(InstanceofForInterfacesOnAnonymousClasses.class));
+	}
+
 	@Test
 	public void testNoConstructorInGlobalsClass() {
 		transpile(logHandler -> {
@@ -287,6 +297,16 @@ public class StructuralTests extends AbstractTest {
 		}, getSourceFile(ObjectTypes.class));
 	}
 
+	@Test
+	public void testObjectTypesWithSharedInterfaces() {
+		eval((logHandler, r) -> {
+			logHandler.assertNoProblems();
+			assertEquals(true, r.get("shared"));
+			assertEquals(true, r.get("instanceof"));
+			assertEquals("x,y", r.get("keys"));
+		}, getSourceFile(ObjectTypesWithSharedInterfaces.class));
+	}
+
 	@Test
 	public void testWrongThisAccessOnStatic() {
 		transpile(ModuleKind.none, logHandler -> {
@@ -398,6 +418,9 @@ public class StructuralTests extends AbstractTest {
 			assertEquals("Functions", r.get("simplename5"));
 			assertEquals("String", r.get("string"));
 			assertEquals("Number", r.get("number"));
+			assertEquals("source.structural.GetClass$1", r.get("anonymous"));
+			assertEquals("class AClass1/source.structural.AClass1", r.get("concat"));
+			assertEquals(true, r.get("literal"));
 		}, getSourceFile(GetClass.class));
 	}
 
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.apache.commons.io.FileUtils;
+import org.jsweet.transpiler.EcmaScriptComplianceLevel;
 import org.jsweet.transpiler.JSweetProblem;
 import org.jsweet.transpiler.SourceFile;
 import org.jsweet.transpiler.util.EvaluationResult;
@@ -33,6 +34,7 @@ import org.junit.Test;
 import source.syntax.AnnotationQualifiedNames;
 import source.syntax.Casts;
 import source.syntax.DocComments;
+import source.syntax.Es6Constructs;
 import source.syntax.FinalVariables;
 import source.syntax.FinalVariablesRuntime;
 import source.syntax.GlobalsCastMethod;
@@ -40,6 +42,7 @@ import source.syntax.GlobalsInvocation;
 import source.syntax.IndexedAccessInStaticScope;
 import source.syntax.Keywords;
 import source.syntax.Labels;
+import source.syntax.LambdaCaptures;
 import source.syntax.LambdasWithInterfaces;
 import source.syntax.Literals;
 import source.syntax.Looping;
@@ -141,6 +144,52 @@ public class SyntaxTests extends AbstractTest {
 
 	}
 
+	@Test
+	public void testLambdaCaptures() {
+		eval((logHandler, r) -> {
+			logHandler.assertNoProblems();
+			assertEquals("a-,b-,#0,#1,o!", r.get("results"));
+		}, getSourceFile(LambdaCaptures.class));
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES5);
+		try {
+			SourceFile f = getSourceFile(LambdaCaptures.class);
+			transpile(logHandler -> {
+				logHandler.assertNoProblems();
+				try {
+					String generatedCode = FileUtils.readFileToString(f.getTsFile());
+					// index is only captured by a nested lambda
+					assertTrue(generatedCode.contains("((index) =>"));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			}, f);
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES6);
+		try {
+			eval((logHandler, r) -> {
+				logHandler.assertNoProblems();
+				assertEquals("a-,b-,#0,#1,o!", r.get("results"));
+			}, getSourceFile(LambdaCaptures.class));
+			SourceFile f = getSourceFile(LambdaCaptures.class);
+			transpile(logHandler -> {
+				logHandler.assertNoProblems();
+				try {
+					String generatedCode = FileUtils.readFileToString(f.getTsFile());
+					assertFalse(generatedCode.contains("((label) =>"));
+					assertFalse(generatedCode.contains("((index) =>"));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			}, f);
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
+	}
+
 	@Ignore
 	@Test
 	public void testIndexedAccessInStaticScope() {
@@ -208,6 +257,49 @@ public class SyntaxTests extends AbstractTest {
 		}, getSourceFile(Looping.class));
 	}
 
+	@Test
+	public void testEs6Constructs() {
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES6);
+		try {
+			eval((logHandler, r) -> {
+				logHandler.assertNoProblems();
+				assertEquals(6, (int) r.get("sum"));
+				assertEquals("ab", r.get("joined"));
+				assertEquals("4:0", r.get("zeros"));
+				assertEquals(-3, (int) r.get("quotient"));
+				assertEquals(-2, (int) r.get("truncated"));
+			}, getSourceFile(Es6Constructs.class));
+			SourceFile f = getSourceFile(Es6Constructs.class);
+			transpile(logHandler -> {
+				logHandler.assertNoProblems();
+				try {
+					String generatedCode = FileUtils.readFileToString(f.getTsFile());
+					assertTrue(generatedCode.contains("for(let value of values)"));
+					assertTrue(generatedCode.contains("for(const letter of letters)"));
+					assertTrue(generatedCode.contains("const size : number"));
+					assertTrue(generatedCode.contains(".fill(0)"));
+					assertTrue(generatedCode.contains("Math.trunc("));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			}, f);
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES5);
+		try {
+			eval((logHandler, r) -> {
+				logHandler.assertNoProblems();
+				assertEquals(6, (int) r.get("sum"));
+				assertEquals("ab", r.get("joined"));
+				assertEquals("4:0", r.get("zeros"));
+			}, getSourceFile(Es6Constructs.class));
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
+	}
+
 	@Test
 	public void testLambdasWithInterfaces() {
 		eval((logHandler, r) -> {
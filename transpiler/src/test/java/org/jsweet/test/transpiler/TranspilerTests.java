@@ -31,6 +31,7 @@ import org.jsweet.JSweetCommandLineLauncher;
 import org.jsweet.transpiler.JSweetContext;
 import org.jsweet.transpiler.JSweetFactory;
 import org.jsweet.transpiler.JSweetTranspiler;
+import org.jsweet.transpiler.JsOptimizationLevel;
 import org.jsweet.transpiler.ModuleKind;
 import org.jsweet.transpiler.SourceFile;
 import org.jsweet.transpiler.SourcePosition;
@@ -42,6 +43,8 @@ import org.jsweet.transpiler.util.Util;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.google.gson.Gson;
+
 import source.blocksgame.Ball;
 import source.blocksgame.BlockElement;
 import source.blocksgame.Factory;
@@ -61,8 +64,14 @@ import source.calculus.MathApi;
 import source.overload.Overload;
 import source.structural.AbstractClass;
 import source.transpiler.CanvasDrawing;
+import source.transpiler.ChunkedBundle;
 import source.transpiler.Extended;
+import source.transpiler.JsOptimization;
 import source.transpiler.PrefixExtension;
+import source.transpiler.Screen;
+import source.transpiler.TreeShaking;
+import source.transpiler.TreeShakingUnused;
+import source.transpiler.chunks.AdminScreen;
 import source.transpiler.p.A;
 import source.transpiler.p.B;
 
@@ -420,4 +429,98 @@ public class TranspilerTests extends AbstractTest {
 		transpiler.setHeaderFile(null);
 	}
 
+	@Test
+	public void testTreeShaking() {
+		transpiler.setBundle(true);
+		transpiler.setTreeShaking(true);
+		try {
+			eval(ModuleKind.none, (logHandler, result) -> {
+				logHandler.assertNoProblems();
+				assertEquals(9, (int) result.get("area"));
+				assertEquals("square", result.get("description"));
+				assertEquals("undefined", result.get("unusedMethod"));
+				assertEquals("undefined", result.get("unusedType"));
+				try {
+					String report = FileUtils.readFileToString(
+							new File(transpiler.getTsOutputDir(), JSweetTranspiler.TREE_SHAKING_REPORT_FILE_NAME));
+					assertTrue(report.contains("entry point: source.transpiler.TreeShaking.main"));
+					assertTrue(report.contains("removed type source.transpiler.UnusedShape"));
+					assertTrue(report.contains("removed type source.transpiler.TreeShakingUnused"));
+					assertTrue(report.contains("removed method source.transpiler.UsedSquare.unused()"));
+					assertTrue(report.contains("kept method source.transpiler.UsedSquare.toString()"));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			}, getSourceFile(TreeShaking.class), getSourceFile(TreeShakingUnused.class));
+		} finally {
+			transpiler.setBundle(false);
+			transpiler.setTreeShaking(false);
+		}
+	}
+
+	@Test
+	public void testBundleChunks() throws Exception {
+		createTranspiler(new JSweetFactory() {
+			@Override
+			public Java2TypeScriptAdapter createAdapter(JSweetContext context) {
+				return new Java2TypeScriptAdapter(super.createAdapter(context)) {
+					{
+						context.addAnnotation("@Chunk('admin')", "source.transpiler.chunks.*");
+					}
+				};
+			}
+		});
+		File outputDir = new File(TMPOUT_DIR, getCurrentTestName() + "/" + ModuleKind.none + "_bundle");
+		File chunkBaseFile = new File(TMPOUT_DIR, getCurrentTestName() + "/chunkBase.js");
+		FileUtils.write(chunkBaseFile,
+				"global.jsweetChunkBase = " + new Gson().toJson(outputDir.getAbsolutePath() + "/") + ";\n", false);
+		transpiler.addJsLibFiles(chunkBaseFile);
+		transpiler.setBundle(true);
+		transpiler.setBundleChunking(true);
+		try {
+			eval(ModuleKind.none, (logHandler, result) -> {
+				logHandler.assertNoProblems();
+				assertFalse(result.get("loadedBefore"));
+				assertTrue(result.get("loadedAfter"));
+				assertEquals("[admin:users]", result.get("title"));
+				assertEquals(1, (int) result.get("instances"));
+				assertTrue(new File(outputDir, "bundle-admin.ts").exists());
+				try {
+					String manifest = FileUtils.readFileToString(
+							new File(outputDir, JSweetTranspiler.CHUNK_MANIFEST_FILE_NAME));
+					assertTrue(manifest.contains("\"bundle-admin.js\""));
+					assertTrue(manifest.contains("\"source.transpiler.chunks.AdminScreen\""));
+					assertTrue(manifest.contains("\"jsSize\""));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			}, getSourceFile(Screen.class), getSourceFile(AdminScreen.class), getSourceFile(ChunkedBundle.class));
+		} finally {
+			createTranspiler(new JSweetFactory());
+		}
+	}
+
+	@Test
+	public void testJsOptimization() {
+		transpiler.setBundle(true);
+		try {
+			for (JsOptimizationLevel level : new JsOptimizationLevel[] { JsOptimizationLevel.SIMPLE,
+					JsOptimizationLevel.ADVANCED }) {
+				transpiler.setJsOptimizationLevel(level);
+				eval(ModuleKind.none, (logHandler, result) -> {
+					logHandler.assertNoProblems();
+					assertEquals(10, (int) result.get("total"));
+					assertTrue(result.get("square"));
+					assertEquals("rectangle 2x3", result.get("description"));
+					assertEquals(2, (int) result.get("calls"));
+				}, getSourceFile(JsOptimization.class));
+			}
+		} finally {
+			transpiler.setBundle(false);
+			transpiler.setJsOptimizationLevel(JsOptimizationLevel.NONE);
+		}
+	}
+
 }
@@ -13,12 +13,19 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
- */
+ */
 package org.jsweet.test.transpiler;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import org.apache.commons.io.FileUtils;
+
+import org.jsweet.transpiler.EcmaScriptComplianceLevel;
 import org.jsweet.transpiler.ModuleKind;
+import org.jsweet.transpiler.SourceFile;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -29,6 +36,7 @@ import source.varargs.VarargsOnField;
 import source.varargs.VarargsOnGetter;
 import source.varargs.VarargsOnNew;
 import source.varargs.VarargsOnStaticMethod;
+import source.varargs.VarargsSpread;
 import source.varargs.VarargsTransmission;
 
 public class VarargsTests extends AbstractTest {
@@ -99,4 +107,57 @@ public class VarargsTests extends AbstractTest {
 			assertEquals("transmitted", res.get("firstArg"));
 		} , getSourceFile(VarargsTransmission.class));
 	}
+
+	@Test
+	public void testVarargsSpread() {
+		eval((logHandler, res) -> {
+			logHandler.assertNoProblems();
+			assertEquals("t0abc", res.get("joined"));
+			assertEquals(1, res.<Number> get("calls"));
+			assertEquals("p3", res.get("prefix"));
+			assertEquals("t0", res.get("empty"));
+			assertTrue(res.get("afterNull"));
+			assertEquals(0, res.<Number> get("countNone"));
+			assertEquals(2, res.<Number> get("countCreated"));
+		} , getSourceFile(VarargsSpread.class));
+		SourceFile f = getSourceFile(VarargsSpread.class);
+		transpile(logHandler -> {
+			logHandler.assertNoProblems();
+			try {
+				String generatedCode = FileUtils.readFileToString(f.getTsFile());
+				// spreading a null array would throw a TypeError
+				assertTrue(generatedCode.contains("join(...<any[]>(parts || []))"));
+				assertTrue(generatedCode.contains("new VarargsSpread(\"p\", ...<any[]>(parts || []))"));
+				assertTrue(generatedCode.contains("count(...<any[]>[\"x\""));
+				assertFalse(generatedCode.contains(".apply("));
+				assertFalse(generatedCode.contains("__jswref_"));
+				assertFalse(generatedCode.contains("...<any[]>null"));
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail(e.getMessage());
+			}
+		}, f);
+		transpiler.setEcmaTargetVersion(EcmaScriptComplianceLevel.ES3);
+		try {
+			eval((logHandler, res) -> {
+				logHandler.assertNoProblems();
+				assertEquals("t0abc", res.get("joined"));
+				assertEquals("p3", res.get("prefix"));
+			} , f);
+			transpile(logHandler -> {
+				logHandler.assertNoProblems();
+				try {
+					String generatedCode = FileUtils.readFileToString(f.getTsFile());
+					// spread in new expressions requires ES5
+					assertTrue(generatedCode.contains("join(...<any[]>(parts || []))"));
+					assertFalse(generatedCode.contains("new VarargsSpread(\"p\", ...<any[]>"));
+				} catch (Exception e) {
+					e.printStackTrace();
+					fail(e.getMessage());
+				}
+			}, f);
+		} finally {
+			transpiler.setEcmaTargetVersion(DEFAULT_ECMA_TARGET_VERSION);
+		}
+	}
 }
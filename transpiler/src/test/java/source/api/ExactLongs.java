@@ -0,0 +1,66 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package source.api;
+
+import static jsweet.util.Globals.$export;
+
+public class ExactLongs {
+
+	public static void main(String[] args) {
+		long max = Long.MAX_VALUE;
+		$export("max", "" + max);
+		$export("overflow", "" + (max + 1));
+		long big = 1L << 53;
+		$export("increment", "" + (big + 1));
+		$export("product", "" + (3037000499L * 3037000499L));
+		long l = 9007199254740993L;
+		l++;
+		$export("division", "" + (l / 3));
+		$export("remainder", "" + (l % 1000));
+		$export("compare", big + 1 > big);
+		$export("narrowing", (int) (max - 1));
+		$export("small", "" + (12L * 5 - 2));
+		String s = "s";
+		s += max;
+		$export("concatenation", s);
+		long[] longs = { big, 0 };
+		int i = 0;
+		longs[i++] += 1L;
+		$export("indexUpdate", "" + longs[0] + "," + i);
+		$export("indexIncrement", "" + longs[index()]++ + "," + calls + "," + longs[1]);
+		instance().total += max;
+		instance().total--;
+		$export("fieldUpdates", "" + calls + "," + instance.total);
+	}
+
+	static int calls;
+
+	static ExactLongs instance = new ExactLongs();
+
+	long total;
+
+	static int index() {
+		calls++;
+		return 1;
+	}
+
+	static ExactLongs instance() {
+		calls++;
+		return instance;
+	}
+
+}
@@ -0,0 +1,85 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package source.api;
+
+import static jsweet.util.Globals.$export;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Vector;
+
+public class ForeachOverLists {
+
+	static ArrayList<String> letters() {
+		ArrayList<String> list = new ArrayList<>();
+		list.add("a");
+		list.add("b");
+		list.add("c");
+		return list;
+	}
+
+	public static void main(String[] args) {
+		String joined = "";
+		for (String s : letters()) {
+			joined += s;
+		}
+		$export("arrayList", joined);
+
+		Vector<Integer> vector = new Vector<>();
+		vector.add(1);
+		vector.add(2);
+		int sum = 0;
+		for (int i : vector) {
+			sum += i;
+		}
+		$export("vector", sum);
+
+		List<String> linkedList = new LinkedList<>(letters());
+		joined = "";
+		for (String s : linkedList) {
+			joined += s;
+		}
+		$export("linkedList", joined);
+
+		List<String> list = letters();
+		joined = "";
+		for (String s : list) {
+			joined += s;
+		}
+		$export("list", joined);
+
+		ArrayList<String> modified = letters();
+		int iterations = 0;
+		boolean concurrentModification = false;
+		try {
+			for (String s : modified) {
+				iterations++;
+				if ("a".equals(s)) {
+					modified.add("d");
+				}
+			}
+		} catch (ConcurrentModificationException e) {
+			concurrentModification = true;
+		}
+		$export("iterations", iterations);
+		$export("concurrentModification", concurrentModification);
+		$export("size", modified.size());
+	}
+
+}
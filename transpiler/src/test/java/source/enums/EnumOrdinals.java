@@ -0,0 +1,50 @@
+package source.enums;
+
+import static jsweet.util.Globals.$export;
+
+import def.js.Array;
+
+public class EnumOrdinals {
+
+	static Array<String> trace = new Array<String>();
+
+	static String describe(Planet planet) {
+		switch (planet) {
+		case MERCURY:
+			return "first";
+		case VENUS:
+		case EARTH:
+			return "inner";
+		default:
+			return "outer";
+		}
+	}
+
+	public static void main(String[] args) {
+		Planet[] planets = Planet.values();
+		trace.push("" + planets.length);
+		for (Planet planet : planets) {
+			trace.push(planet.name() + ":" + planet.ordinal() + ":" + describe(planet));
+		}
+		planets[0] = Planet.MARS;
+		trace.push(Planet.values()[0].name());
+		trace.push("" + Planet.valueOf("EARTH").ordinal());
+		trace.push("" + Planet.values()[2].getMass());
+		$export("trace", trace.join(","));
+	}
+
+}
+
+enum Planet {
+	MERCURY(1), VENUS(2), EARTH(3), MARS(4);
+
+	private final int mass;
+
+	private Planet(int mass) {
+		this.mass = mass;
+	}
+
+	public int getMass() {
+		return mass;
+	}
+}
@@ -41,6 +41,7 @@ public class Maps {
 		trace.push("" + m.containsKey("2"));
 
 		trace.push("[" + m.keySet() + "]");
+		trace.push("" + m.keySet().contains("2"));
 
 		trace.push("[" + m.values() + "]");
 
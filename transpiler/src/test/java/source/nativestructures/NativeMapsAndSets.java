@@ -0,0 +1,86 @@
+package source.nativestructures;
+
+import static jsweet.util.Globals.$export;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import def.js.Array;
+
+/**
+ * This test is executed without any Java runtime, with native maps and sets
+ * (ES6 target).
+ */
+public class NativeMapsAndSets {
+
+	static Array<String> trace = new Array<>();
+
+	static class Key {
+		int id;
+
+		Key(int id) {
+			this.id = id;
+		}
+	}
+
+	public static void main(String[] args) {
+		Set<String> s = new HashSet<>();
+		s.add("a");
+		s.add("b");
+		trace.push("" + s.add("a"));
+		trace.push("" + s.size());
+		trace.push("" + s.contains("b"));
+		s.remove("b");
+		trace.push("" + s.contains("b"));
+		List<String> l = new ArrayList<>();
+		l.add("c");
+		l.add("a");
+		s.addAll(l);
+		String values = "";
+		for (String e : s) {
+			values += e;
+		}
+		trace.push(values);
+
+		Map<Object, String> m = new HashMap<>();
+		Key k1 = new Key(1);
+		Key k2 = new Key(2);
+		m.put(k1, "k1");
+		m.put(k2, "k2");
+		m.put(1, "one");
+		m.put("1", "string one");
+		trace.push("" + m.size());
+		trace.push(m.get(k1));
+		trace.push(m.get(1));
+		trace.push(m.get("1"));
+		trace.push("" + m.put(k2, "k2bis"));
+		trace.push("" + m.containsKey(k2));
+		trace.push("" + m.remove(k2));
+		trace.push("" + m.get(k2));
+		String keys = "";
+		for (Object k : m.keySet()) {
+			keys += k instanceof Key ? "K" : k;
+		}
+		trace.push(keys);
+		String entries = "";
+		for (Entry<Object, String> e : m.entrySet()) {
+			entries += e.getValue() + ";";
+		}
+		trace.push(entries);
+		Collection<String> c = m.values();
+		trace.push("" + c.size());
+		List<String> copy = new ArrayList<>(s);
+		trace.push("" + copy.size());
+		m.clear();
+		trace.push("" + m.isEmpty());
+
+		$export("trace", trace.join(","));
+	}
+
+}
@@ -0,0 +1,67 @@
+package source.nativestructures;
+
+import static jsweet.util.Globals.$export;
+
+import def.js.Array;
+
+/**
+ * This test is executed without any Java runtime.
+ */
+public class NativeStringBuilderEdits {
+
+	static Array<String> trace = new Array<>();
+
+	static void fill(StringBuilder sb, char c) {
+		for (int i = 0; i < sb.length(); i++) {
+			sb.setCharAt(i, c);
+		}
+	}
+
+	public static void main(String[] args) {
+		StringBuilder sb = new StringBuilder("abc");
+		sb.append("de").append(1);
+		trace.push(sb.toString());
+		sb.setCharAt(0, 'A');
+		sb.setCharAt(2, 'C');
+		trace.push(sb.toString());
+		sb.append("f");
+		trace.push("" + sb.length());
+		sb.insert(1, "xy");
+		trace.push(sb.toString());
+		sb.deleteCharAt(0);
+		trace.push("" + sb);
+		sb.reverse();
+		trace.push(sb.toString());
+		trace.push("" + sb.charAt(1));
+		fill(sb, '-');
+		trace.push(sb.toString());
+
+		StringBuilder local = new StringBuilder();
+		for (int i = 0; i < 3; i++) {
+			local.append(i).append("-");
+		}
+		local.setLength(local.length() - 1);
+		trace.push(local.toString());
+		trace.push("" + local.charAt(2));
+
+		// appends in nested functions must update the same builder
+		StringBuilder captured = new StringBuilder();
+		for (int i = 0; i < 2; i++) {
+			int n = i;
+			Runnable r = () -> {
+				captured.append(n);
+			};
+			r.run();
+		}
+		new Runnable() {
+			@Override
+			public void run() {
+				captured.append("x");
+			}
+		}.run();
+		trace.push(captured.toString());
+
+		$export("trace", trace.join(","));
+	}
+
+}
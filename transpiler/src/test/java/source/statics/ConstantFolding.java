@@ -0,0 +1,52 @@
+package source.statics;
+
+import static jsweet.util.Globals.$export;
+
+public class ConstantFolding {
+
+	private static final boolean DEBUG = false;
+
+	private static final int SIZE = 4;
+
+	static final int AREA = SIZE * SIZE;
+
+	public static final String PREFIX = "item";
+
+	static final String LABEL = PREFIX + "-" + AREA;
+
+	static final char SEPARATOR = ':';
+
+	static final long BIG = 1L << 40;
+
+	static final double RATIO = 1.0 / SIZE;
+
+	static int trace = 0;
+
+	static ConstantFolding instance() {
+		trace++;
+		return new ConstantFolding();
+	}
+
+	@SuppressWarnings("static-access")
+	public static void main(String[] args) {
+		if (DEBUG) {
+			trace = -100;
+		} else {
+			trace = 0;
+		}
+		$export("area", AREA);
+		$export("label", LABEL);
+		$export("third", SIZE / 3);
+		$export("ratio", RATIO);
+		$export("big", BIG);
+		$export("separators", "" + SEPARATOR + SEPARATOR);
+		$export("code", SEPARATOR + 1);
+		char c = ':';
+		$export("isSeparator", c == SEPARATOR);
+		$export("mode", DEBUG ? "debug" : "release");
+		$export("negative", -AREA);
+		$export("selected", instance().SIZE);
+		$export("trace", trace);
+	}
+
+}
@@ -0,0 +1,47 @@
+package source.statics;
+
+import static jsweet.util.Globals.$export;
+
+public class EagerStaticInitialization {
+
+	static int counter = 0;
+
+	static int[] values = { compute(1), compute(2) };
+
+	static String name = EagerStaticInitializationHolder.PREFIX + "name";
+
+	static {
+		counter += 10;
+	}
+
+	static int compute(int i) {
+		counter++;
+		return i * 2;
+	}
+
+	public static void main(String[] args) {
+		int sum = 0;
+		for (int i = 0; i < values.length; i++) {
+			sum += values[i];
+		}
+		counter++;
+		EagerStaticInitializationHolder.count++;
+		$export("sum", sum);
+		$export("counter", counter);
+		$export("name", name);
+		$export("count", EagerStaticInitializationHolder.count);
+	}
+
+}
+
+class EagerStaticInitializationHolder {
+
+	static String PREFIX = prefix();
+
+	static int count = EagerStaticInitialization.values.length;
+
+	static String prefix() {
+		return "eager_";
+	}
+
+}
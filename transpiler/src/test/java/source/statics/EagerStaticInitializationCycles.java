@@ -0,0 +1,54 @@
+package source.statics;
+
+import static jsweet.util.Globals.$export;
+
+public class EagerStaticInitializationCycles {
+
+	public static void main(String[] args) {
+		$export("size", EagerStaticInitializationReader.sizes[0]);
+		$export("label1", EagerStaticInitializationCycle1.LABEL);
+		$export("label2", EagerStaticInitializationCycle2.LABEL);
+	}
+
+}
+
+class EagerStaticInitializationReader {
+
+	// the size method reads a field of a class declared later
+	static int[] sizes = { EagerStaticInitializationSize.size() };
+
+}
+
+class EagerStaticInitializationSize {
+
+	static Integer SIZE = Integer.valueOf(3);
+
+	static int size() {
+		return SIZE;
+	}
+
+}
+
+class EagerStaticInitializationCycle1 {
+
+	static String FIRST = "first".toUpperCase();
+
+	static String LABEL = EagerStaticInitializationCycle2.second();
+
+	static String first() {
+		return FIRST;
+	}
+
+}
+
+class EagerStaticInitializationCycle2 {
+
+	static String SECOND = "second".toUpperCase();
+
+	static String LABEL = EagerStaticInitializationCycle1.first();
+
+	static String second() {
+		return SECOND;
+	}
+
+}
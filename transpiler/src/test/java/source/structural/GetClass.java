@@ -17,6 +17,11 @@ public class GetClass {
 		new Functions().m3();
 		$export("string", s.getClass().getSimpleName());
 		$export("number", l.getClass().getSimpleName());
+		AClass1 anonymous = new AClass1() {
+		};
+		$export("anonymous", anonymous.getClass().getName());
+		$export("concat", "class " + AClass1.class.getSimpleName() + "/" + o.getClass().getName());
+		$export("literal", AClass1.class == o.getClass());
 	}
 
 }
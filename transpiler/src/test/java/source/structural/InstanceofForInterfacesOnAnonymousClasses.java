@@ -0,0 +1,71 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package source.structural;
+
+import static jsweet.util.Globals.$export;
+import static jsweet.util.Globals.$map;
+import static jsweet.util.Globals.array;
+
+import def.js.Array;
+
+public class InstanceofForInterfacesOnAnonymousClasses {
+
+	static Array<String> trace = new Array<>();
+
+	static void m(Object o) {
+		if (o instanceof AI1) {
+			trace.push("1");
+		}
+		if (o instanceof AI2) {
+			trace.push("2");
+		}
+	}
+
+	public static void main(String[] args) {
+		m(new AI1() {
+			@Override
+			public void m() {
+			}
+		});
+		m(new AC1() {
+		});
+		m(new AC2());
+		m(new Object());
+		// an object compiled without interface tags
+		m($map("__interfaces", array(new String[] { "source.structural.AI2" })));
+		// a tagged object is not checked against its interface names
+		m($map("__interface_tags", true, "__interfaces", array(new String[] { "source.structural.AI2" })));
+		$export("trace", trace.join());
+	}
+
+}
+
+interface AI1 {
+	void m();
+}
+
+interface AI2 extends AI1 {
+}
+
+class AC1 implements AI2 {
+	@Override
+	public void m() {
+	}
+}
+
+class AC2 extends AC1 {
+}
@@ -0,0 +1,49 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package source.structural;
+
+import static jsweet.util.Globals.$export;
+import static jsweet.util.Globals.array;
+
+import def.js.Array;
+import jsweet.lang.Interface;
+
+public class ObjectTypesWithSharedInterfaces {
+
+	public static void main(String[] args) {
+		Array<SharedPoint> points = new Array<>();
+		for (int i = 0; i < 3; i++) {
+			points.push(new SharedPoint() {
+				{
+					x = 1;
+					y = 2;
+				}
+			});
+		}
+		$export("shared", def.js.Object.getPrototypeOf(points.$get(0)) == def.js.Object
+				.getPrototypeOf(points.$get(2)));
+		$export("instanceof", points.$get(1) instanceof SharedPoint);
+		$export("keys", array(def.js.Object.keys(points.$get(0))).join());
+	}
+
+}
+
+@Interface
+abstract class SharedPoint {
+	int x;
+	int y;
+}
@@ -0,0 +1,40 @@
+package source.syntax;
+
+import static jsweet.util.Globals.$export;
+
+import def.js.Array;
+
+public class Es6Constructs {
+
+	static long divide(long a, long b) {
+		return a / b;
+	}
+
+	static long toLong(double d) {
+		return (long) d;
+	}
+
+	public static void main(String[] args) {
+		int[] values = { 1, 2, 3 };
+		int sum = 0;
+		for (int value : values)
+			sum += value;
+		$export("sum", sum);
+
+		Array<String> letters = new Array<>();
+		letters.push("a", "b");
+		String joined = "";
+		for (final String letter : letters) {
+			joined += letter;
+		}
+		$export("joined", joined);
+
+		final int size = values.length + 1;
+		int[] zeros = new int[size];
+		$export("zeros", zeros.length + ":" + zeros[size - 1]);
+
+		$export("quotient", divide(-7, 2));
+		$export("truncated", toLong(-2.5));
+	}
+
+}
@@ -0,0 +1,50 @@
+package source.syntax;
+
+import static jsweet.util.Globals.$export;
+
+import java.util.function.Supplier;
+
+import def.js.Array;
+
+public class LambdaCaptures {
+
+	static Array<Supplier<String>> suppliers = new Array<>();
+
+	static void collect(String[] names, String suffix) {
+		for (String name : names) {
+			String label = name + suffix;
+			suppliers.push(() -> label);
+		}
+		for (int i = 0; i < names.length; i++) {
+			int index = i;
+			suppliers.push(() -> {
+				String prefix = "#";
+				Supplier<String> nested = () -> prefix + index;
+				return nested.get();
+			});
+		}
+		String outer = "o";
+		suppliers.push(() -> new Labeler() {
+			@Override
+			public String label() {
+				String local = outer + "!";
+				Supplier<String> inner = () -> local;
+				return inner.get();
+			}
+		}.label());
+	}
+
+	public static void main(String[] args) {
+		collect(new String[] { "a", "b" }, "-");
+		Array<String> results = new Array<>();
+		for (Supplier<String> supplier : suppliers) {
+			results.push(supplier.get());
+		}
+		$export("results", results.join(","));
+	}
+
+}
+
+abstract class Labeler {
+	public abstract String label();
+}
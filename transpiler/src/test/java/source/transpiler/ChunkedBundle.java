@@ -0,0 +1,18 @@
+package source.transpiler;
+
+import static def.js.Globals.eval;
+import static jsweet.util.Globals.$export;
+
+import source.transpiler.chunks.AdminScreen;
+
+public class ChunkedBundle {
+
+	public static void main(String[] args) {
+		$export("loadedBefore", eval("__jsweet_chunks.chunks.admin.loaded"));
+		Screen screen = new AdminScreen("users");
+		$export("loadedAfter", eval("__jsweet_chunks.chunks.admin.loaded"));
+		$export("title", screen.getTitle());
+		$export("instances", AdminScreen.instances);
+	}
+
+}
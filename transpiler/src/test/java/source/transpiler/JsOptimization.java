@@ -0,0 +1,56 @@
+package source.transpiler;
+
+import static jsweet.util.Globals.$export;
+
+public class JsOptimization {
+
+	static int calls = 0;
+
+	public static void main(String[] args) {
+		Shape[] shapes = { new Square(2), new Rectangle(2, 3) };
+		int total = 0;
+		for (Shape shape : shapes) {
+			total += shape.area();
+		}
+		$export("total", total);
+		$export("square", shapes[0] instanceof Square);
+		$export("description", shapes[1].toString());
+		$export("calls", calls);
+	}
+
+}
+
+interface Shape {
+	int area();
+}
+
+class Rectangle implements Shape {
+
+	protected int width;
+	protected int height;
+
+	public Rectangle(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int area() {
+		JsOptimization.calls++;
+		return width * height;
+	}
+
+	@Override
+	public String toString() {
+		return "rectangle " + width + "x" + height;
+	}
+
+}
+
+class Square extends Rectangle {
+
+	public Square(int size) {
+		super(size, size);
+	}
+
+}
@@ -0,0 +1,11 @@
+package source.transpiler;
+
+public abstract class Screen {
+
+	protected abstract String getName();
+
+	public String getTitle() {
+		return "[" + getName() + "]";
+	}
+
+}
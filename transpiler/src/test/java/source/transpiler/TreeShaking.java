@@ -0,0 +1,58 @@
+package source.transpiler;
+
+import static def.js.Globals.eval;
+import static jsweet.util.Globals.$export;
+
+public class TreeShaking {
+
+	public static void main(String[] args) {
+		UsedShape shape = new UsedSquare(3);
+		$export("area", shape.area());
+		$export("description", shape.toString());
+		$export("unusedMethod", eval("typeof source.transpiler.UsedSquare.prototype.unused"));
+		$export("unusedType", eval("typeof source.transpiler.UnusedShape"));
+	}
+
+}
+
+abstract class UsedShape {
+
+	abstract int area();
+
+	void unused() {
+	}
+
+}
+
+class UsedSquare extends UsedShape {
+
+	int size;
+
+	UsedSquare(int size) {
+		this.size = size;
+	}
+
+	@Override
+	int area() {
+		return size * size;
+	}
+
+	@Override
+	void unused() {
+	}
+
+	@Override
+	public String toString() {
+		return "square";
+	}
+
+}
+
+class UnusedShape extends UsedShape {
+
+	@Override
+	int area() {
+		return 0;
+	}
+
+}
@@ -0,0 +1,9 @@
+package source.transpiler;
+
+public class TreeShakingUnused {
+
+	public int unused() {
+		return new UnusedShape().area();
+	}
+
+}
@@ -0,0 +1,23 @@
+package source.transpiler.chunks;
+
+import source.transpiler.Screen;
+
+public class AdminScreen extends Screen {
+
+	static String prefix = "admin:";
+
+	public static int instances = 0;
+
+	private String name;
+
+	public AdminScreen(String name) {
+		this.name = name;
+		instances++;
+	}
+
+	@Override
+	protected String getName() {
+		return prefix + name;
+	}
+
+}
@@ -0,0 +1,64 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package source.varargs;
+
+import static jsweet.util.Globals.$export;
+
+public class VarargsSpread {
+
+	static int calls = 0;
+
+	String prefix;
+
+	public VarargsSpread(String prefix, String... parts) {
+		this.prefix = prefix + parts.length;
+	}
+
+	static VarargsSpread target() {
+		calls++;
+		return new VarargsSpread("t");
+	}
+
+	String join(String... parts) {
+		String s = prefix;
+		for (String part : parts) {
+			s += part;
+		}
+		return s;
+	}
+
+	static String log(String... parts) {
+		return target().join(parts);
+	}
+
+	static int count(String... parts) {
+		return parts == null ? 0 : parts.length;
+	}
+
+	public static void main(String[] args) {
+		String[] parts = { "a", "b", "c" };
+		$export("joined", log(parts));
+		$export("calls", calls);
+		$export("prefix", new VarargsSpread("p", parts).prefix);
+		$export("empty", log());
+		count((String[]) null);
+		$export("afterNull", true);
+		String[] none = null;
+		$export("countNone", count(none));
+		$export("countCreated", count(new String[] { "x", "y" }));
+	}
+}